@@ -0,0 +1,70 @@
+package com.techmarket.benchmarks;
+
+import com.techmarket.dto.TransferRequest;
+import com.techmarket.service.TransferService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Carga concentrada com e sem os locks da JVM por conta (AccountLockManager) antes dos locks de linha:
+// 80% das transferências saem de uma de 2 contas quentes, entre 100 contas e 32 threads
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+@Threads(32)
+public class AccountLockingBenchmark {
+    
+    private static final int CONTAS = 100;
+    private static final double FRACAO_QUENTE = 0.8;
+    
+    @Param({"false", "true"})
+    public String striping;
+    
+    private ConfigurableApplicationContext context;
+    private TransferService transferService;
+    private long[] accountIds;
+    
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = BenchmarkApplication.start("account-locking",
+            "techmarket.transfer.lock.striping-enabled=" + striping,
+            "spring.datasource.hikari.maximum-pool-size=32");
+        transferService = context.getBean(TransferService.class);
+        accountIds = BenchmarkApplication.createAccounts(context, CONTAS);
+    }
+    
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+    
+    @Benchmark
+    public void processTransfer(Sorteio sorteio, FailedTransfers failedTransfers) {
+        SplittableRandom random = sorteio.random;
+        int origem = random.nextDouble() < FRACAO_QUENTE ? random.nextInt(2) : random.nextInt(CONTAS);
+        int destino = (origem + 1 + random.nextInt(CONTAS - 1)) % CONTAS;
+        try {
+            transferService.processTransfer(new TransferRequest(accountIds[origem], accountIds[destino], BenchmarkApplication.VALOR));
+        } catch (RuntimeException e) {
+            failedTransfers.falhas++;
+        }
+    }
+}
@@ -0,0 +1,117 @@
+package com.techmarket.benchmarks;
+
+import com.techmarket.util.Money;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// Aritmética de saldo do TransferService: validação e débito/crédito em BigDecimal com escala 2,
+// em Money (centavos em long, usado pelo TransferService) e em long puro como referência.
+// Com -prof gc, gc.alloc.rate.norm mostra os bytes alocados por operação
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class BalanceArithmeticBenchmark {
+    
+    private static final int VALORES = 1024;
+    
+    private BigDecimal[] saldos;
+    private BigDecimal[] valores;
+    private Money[] saldosMoney;
+    private Money[] valoresMoney;
+    private char[][] textos;
+    private long[] saldosCentavos;
+    private long[] valoresCentavos;
+    private int indice;
+    
+    @Setup
+    public void setUp() {
+        SplittableRandom random = new SplittableRandom(42);
+        saldos = new BigDecimal[VALORES];
+        valores = new BigDecimal[VALORES];
+        saldosMoney = new Money[VALORES];
+        valoresMoney = new Money[VALORES];
+        textos = new char[VALORES][];
+        saldosCentavos = new long[VALORES];
+        valoresCentavos = new long[VALORES];
+        for (int i = 0; i < VALORES; i++) {
+            saldosCentavos[i] = random.nextLong(1_000_000_00L);
+            valoresCentavos[i] = 1 + random.nextLong(5_000_00L);
+            saldos[i] = BigDecimal.valueOf(saldosCentavos[i], 2);
+            valores[i] = BigDecimal.valueOf(valoresCentavos[i], 2);
+            saldosMoney[i] = Money.ofCents(saldosCentavos[i]);
+            valoresMoney[i] = Money.ofCents(valoresCentavos[i]);
+            textos[i] = valores[i].toPlainString().toCharArray();
+        }
+    }
+    
+    private int next() {
+        indice = (indice + 1) & (VALORES - 1);
+        return indice;
+    }
+    
+    @Benchmark
+    public void bigDecimalTransfer(Blackhole blackhole) {
+        int i = next();
+        BigDecimal origem = saldos[i];
+        BigDecimal destino = saldos[(i + 1) & (VALORES - 1)];
+        BigDecimal valor = valores[i];
+        if (origem.compareTo(valor) >= 0) {
+            blackhole.consume(origem.subtract(valor));
+            blackhole.consume(destino.add(valor));
+        }
+    }
+    
+    // Como o valor chega na API: texto com escala arbitrária, normalizado para 2 casas
+    @Benchmark
+    public BigDecimal bigDecimalParseAndScale() {
+        char[] texto = textos[next()];
+        return new BigDecimal(texto, 0, texto.length).setScale(2, RoundingMode.UNNECESSARY);
+    }
+    
+    @Benchmark
+    public void moneyTransfer(Blackhole blackhole) {
+        int i = next();
+        Money origem = saldosMoney[i];
+        Money destino = saldosMoney[(i + 1) & (VALORES - 1)];
+        Money valor = valoresMoney[i];
+        if (!origem.isLessThan(valor)) {
+            blackhole.consume(origem.minus(valor));
+            blackhole.consume(destino.plus(valor));
+        }
+    }
+    
+    @Benchmark
+    public Money moneyParse() {
+        char[] texto = textos[next()];
+        return Money.parse(texto, 0, texto.length);
+    }
+    
+    @Benchmark
+    public void longCentsTransfer(Blackhole blackhole) {
+        int i = next();
+        long origem = saldosCentavos[i];
+        long destino = saldosCentavos[(i + 1) & (VALORES - 1)];
+        long valor = valoresCentavos[i];
+        if (origem >= valor) {
+            blackhole.consume(Math.subtractExact(origem, valor));
+            blackhole.consume(Math.addExact(destino, valor));
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.techmarket.benchmarks;
+
+import com.techmarket.dto.StatementSummaryResponse;
+import com.techmarket.repository.AccountDailyBalanceRepository;
+import com.techmarket.service.BalanceSnapshotBackfillJob;
+import com.techmarket.service.StatementService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Saldo e resumo de 2024 de uma conta com três anos de histórico: varredura de transfers no formato de
+// get_saldo_e_transacoes (soma de todas as linhas do período, com cast na data) contra os snapshots
+// diários de account_daily_balances. H2 em arquivo; volume ajustável com -p rows=10000000
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+public class BalanceSnapshotBenchmark {
+    
+    private static final int CONTAS = 10;
+    private static final int LOTE = 1_000_000;
+    private static final LocalDate INICIO = LocalDate.of(2024, 1, 1);
+    private static final LocalDate FIM = LocalDate.of(2024, 12, 31);
+    
+    private static final String LEGACY_SALDO_SQL =
+        "SELECT COALESCE(SUM(CASE WHEN t.destino_account_id = ? THEN t.valor ELSE -t.valor END), 0) FROM transfers t " +
+        "WHERE (t.origem_account_id = ? OR t.destino_account_id = ?) AND CAST(t.timestamp AS DATE) BETWEEN ? AND ?";
+    
+    private static final String LEGACY_ULTIMAS_SQL =
+        "SELECT t.id FROM transfers t WHERE (t.origem_account_id = ? OR t.destino_account_id = ?) " +
+        "AND CAST(t.timestamp AS DATE) BETWEEN ? AND ? ORDER BY t.timestamp DESC LIMIT 10";
+    
+    private static final String GENERATE_SQL =
+        "INSERT INTO transfers (id, origem_account_id, destino_account_id, valor, codigo_uuid, timestamp, idempotency_key) " +
+        "SELECT NEXT VALUE FOR transfers_id_seq, ? + MOD(X, 10), ? + MOD(X + 1 + MOD(X / 10, 9), 10), 1.00, RANDOM_UUID(), " +
+        "DATEADD(SECOND, X * ?, TIMESTAMP '2023-01-01 00:00:00'), NULL FROM SYSTEM_RANGE(?, ?)";
+    
+    @Param({"1000000"})
+    public int rows;
+    
+    private ConfigurableApplicationContext context;
+    private StatementService statementService;
+    private AccountDailyBalanceRepository accountDailyBalanceRepository;
+    private JdbcTemplate jdbcTemplate;
+    private Long primeiraConta;
+    private int amostra;
+    
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = BenchmarkApplication.start("snapshots",
+            "spring.datasource.url=jdbc:h2:file:./target/benchmark-db/snapshots;CACHE_SIZE=262144");
+        statementService = context.getBean(StatementService.class);
+        accountDailyBalanceRepository = context.getBean(AccountDailyBalanceRepository.class);
+        jdbcTemplate = context.getBean(JdbcTemplate.class);
+        
+        long[] ids = BenchmarkApplication.createAccounts(context, CONTAS);
+        primeiraConta = ids[0];
+        if (ids[CONTAS - 1] != primeiraConta + CONTAS - 1) {
+            throw new IllegalStateException("Ids de conta não consecutivos");
+        }
+        // Três anos de histórico, independentemente do volume
+        long passo = Math.max(1, 3L * 365 * 24 * 3600 / rows);
+        for (long de = 1; de <= rows; de += LOTE) {
+            jdbcTemplate.update(GENERATE_SQL, primeiraConta, primeiraConta, passo, de, Math.min(de + LOTE - 1, rows));
+        }
+        context.getBean(BalanceSnapshotBackfillJob.class).backfill();
+        
+        // Os dois caminhos precisam chegar ao mesmo saldo
+        StatementSummaryResponse resumo = statementService.getSummary(primeiraConta, INICIO, FIM, 10);
+        BigDecimal variacao = resumo.getSaldoFinal().subtract(resumo.getSaldoInicial());
+        BigDecimal saldoLegado = legacySaldo(FIM);
+        if (variacao.compareTo(saldoLegado) != 0) {
+            throw new IllegalStateException("Saldos divergentes: " + variacao + " x " + saldoLegado);
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+    
+    @Benchmark
+    public BigDecimal fullScanBalance() {
+        return legacySaldo(nextEnd());
+    }
+    
+    @Benchmark
+    public List<Long> fullScanSummary(Blackhole blackhole) {
+        LocalDate fim = nextEnd();
+        blackhole.consume(legacySaldo(fim));
+        return jdbcTemplate.queryForList(LEGACY_ULTIMAS_SQL, Long.class,
+            primeiraConta, primeiraConta, Date.valueOf(INICIO), Date.valueOf(fim));
+    }
+    
+    @Benchmark
+    public void snapshotBalance(Blackhole blackhole) {
+        LocalDate fim = nextEnd();
+        blackhole.consume(accountDailyBalanceRepository.findFirstByAccountIdAndDiaLessThanEqualOrderByDiaDesc(primeiraConta, INICIO.minusDays(1)));
+        blackhole.consume(accountDailyBalanceRepository.findFirstByAccountIdAndDiaLessThanEqualOrderByDiaDesc(primeiraConta, fim));
+        blackhole.consume(accountDailyBalanceRepository.sumPeriod(primeiraConta, INICIO, fim));
+    }
+    
+    @Benchmark
+    public StatementSummaryResponse snapshotSummary() {
+        return statementService.getSummary(primeiraConta, INICIO, nextEnd(), 10);
+    }
+    
+    // O fim do período varia a cada chamada: o H2 reaproveita o resultado de consultas repetidas
+    private LocalDate nextEnd() {
+        amostra = (amostra + 1) % 300;
+        return FIM.minusDays(amostra);
+    }
+    
+    private BigDecimal legacySaldo(LocalDate fim) {
+        return jdbcTemplate.queryForObject(LEGACY_SALDO_SQL, BigDecimal.class,
+            primeiraConta, primeiraConta, primeiraConta, Date.valueOf(INICIO), Date.valueOf(fim));
+    }
+}
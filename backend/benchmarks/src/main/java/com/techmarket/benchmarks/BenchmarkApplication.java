@@ -0,0 +1,67 @@
+package com.techmarket.benchmarks;
+
+import com.techmarket.TechMarketApplication;
+import com.techmarket.dto.TransferRequest;
+import com.techmarket.entity.Account;
+import com.techmarket.repository.AccountRepository;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.SplittableRandom;
+
+// Fixture comum dos benchmarks com o contexto Spring completo: a aplicação sobe sem servidor web contra um
+// H2 em memória próprio, com outbox desligada e logs em WARN. As propriedades de cada benchmark (engine,
+// shards, contas quentes...) vêm no formato nome=valor e substituem os padrões
+final class BenchmarkApplication {
+    
+    static final BigDecimal SALDO_INICIAL = new BigDecimal("1000000000.00");
+    static final BigDecimal VALOR = new BigDecimal("1.00");
+    
+    private BenchmarkApplication() {
+    }
+    
+    static ConfigurableApplicationContext start(String banco, String... propriedades) {
+        Map<String, String> args = new LinkedHashMap<>();
+        args.put("spring.datasource.url", "jdbc:h2:mem:" + banco + ";DB_CLOSE_DELAY=-1");
+        args.put("spring.datasource.driver-class-name", "org.h2.Driver");
+        args.put("spring.datasource.username", "sa");
+        args.put("spring.datasource.password", "");
+        args.put("spring.jpa.hibernate.ddl-auto", "create-drop");
+        args.put("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        args.put("spring.jpa.show-sql", "false");
+        args.put("techmarket.outbox.enabled", "false");
+        args.put("logging.level.root", "WARN");
+        args.put("logging.level.com.techmarket", "WARN");
+        for (String propriedade : propriedades) {
+            args.put(propriedade.substring(0, propriedade.indexOf('=')), propriedade.substring(propriedade.indexOf('=') + 1));
+        }
+        
+        // Como argumentos: propriedades do builder valem menos que o application.properties
+        List<String> linha = new ArrayList<>();
+        args.forEach((nome, valor) -> linha.add("--" + nome + "=" + valor));
+        return new SpringApplicationBuilder(TechMarketApplication.class)
+            .web(WebApplicationType.NONE)
+            .run(linha.toArray(String[]::new));
+    }
+    
+    static long[] createAccounts(ConfigurableApplicationContext context, int quantidade) {
+        List<Account> accounts = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            accounts.add(new Account("Conta " + i, SALDO_INICIAL));
+        }
+        return context.getBean(AccountRepository.class).saveAll(accounts).stream().mapToLong(Account::getId).toArray();
+    }
+    
+    // Origem e destino distintos, sorteados uniformemente
+    static TransferRequest randomTransfer(SplittableRandom random, long[] accountIds) {
+        int origem = random.nextInt(accountIds.length);
+        int destino = (origem + 1 + random.nextInt(accountIds.length - 1)) % accountIds.length;
+        return new TransferRequest(accountIds[origem], accountIds[destino], VALOR);
+    }
+}
@@ -0,0 +1,77 @@
+package com.techmarket.benchmarks;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Compara dois resultados JSON do JMH (-rf json) e falha se algum benchmark piorou além do limite.
+// Uso: BenchmarkComparison <baseline.json> <atual.json> [limite percentual, padrão 10]
+public class BenchmarkComparison {
+    
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2 || args[0].isBlank() || args[1].isBlank()) {
+            System.err.println("Uso: BenchmarkComparison <baseline.json> <atual.json> [limite %]");
+            System.err.println("  via Maven: mvn -f benchmarks/pom.xml exec:java -Dbaseline=<antigo.json> [-Dcurrent=<novo.json>] [-Dthreshold=10]");
+            System.exit(2);
+        }
+        double limite = args.length > 2 && !args[2].isBlank() ? Double.parseDouble(args[2]) : 10.0;
+        
+        Map<String, Resultado> baseline = read(new File(args[0]));
+        Map<String, Resultado> atual = read(new File(args[1]));
+        
+        int regressoes = 0;
+        System.out.printf("%-90s %14s %14s %9s%n", "Benchmark", "Baseline", "Atual", "Delta");
+        for (Map.Entry<String, Resultado> entry : atual.entrySet()) {
+            Resultado novo = entry.getValue();
+            Resultado antigo = baseline.get(entry.getKey());
+            if (antigo == null) {
+                System.out.printf("%-90s %14s %14.3f %9s  (novo)%n", entry.getKey(), "-", novo.score, "-");
+                continue;
+            }
+            
+            double delta = (novo.score - antigo.score) / antigo.score * 100.0;
+            // Throughput: maior é melhor; tempos (avgt, sample, ss): menor é melhor
+            double piora = "thrpt".equals(novo.mode) ? -delta : delta;
+            boolean regressao = piora > limite;
+            if (regressao) {
+                regressoes++;
+            }
+            System.out.printf("%-90s %14.3f %14.3f %+8.1f%%  %s%s%n", entry.getKey(), antigo.score, novo.score, delta,
+                novo.unit, regressao ? "  REGRESSÃO" : "");
+        }
+        for (String removido : baseline.keySet()) {
+            if (!atual.containsKey(removido)) {
+                System.out.printf("%-90s  (ausente na execução atual)%n", removido);
+            }
+        }
+        
+        if (regressoes > 0) {
+            System.out.printf("%d benchmark(s) pioraram mais de %.1f%%%n", regressoes, limite);
+            System.exit(1);
+        }
+        System.out.printf("Nenhuma regressão acima de %.1f%%%n", limite);
+    }
+    
+    // Chave: benchmark + modo + parâmetros, para que HOT e UNIFORM sejam comparados separadamente
+    private static Map<String, Resultado> read(File arquivo) throws IOException {
+        JsonNode raiz = new ObjectMapper().readTree(arquivo);
+        Map<String, Resultado> resultados = new LinkedHashMap<>();
+        for (JsonNode benchmark : raiz) {
+            StringBuilder chave = new StringBuilder(benchmark.path("benchmark").asText())
+                .append(" [").append(benchmark.path("mode").asText()).append(']');
+            benchmark.path("params").fields().forEachRemaining(param ->
+                chave.append(' ').append(param.getKey()).append('=').append(param.getValue().asText()));
+            
+            JsonNode metrica = benchmark.path("primaryMetric");
+            resultados.put(chave.toString(), new Resultado(benchmark.path("mode").asText(),
+                metrica.path("score").asDouble(), metrica.path("scoreUnit").asText()));
+        }
+        return resultados;
+    }
+    
+    private record Resultado(String mode, double score, String unit) {}
+}
@@ -0,0 +1,21 @@
+package com.techmarket.benchmarks;
+
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// Contador auxiliar do JMH: transferências recusadas ou com erro (timeout de lock, fila cheia) por
+// iteração, reportadas ao lado da vazão
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.EVENTS)
+public class FailedTransfers {
+    
+    public long falhas;
+    
+    @Setup(Level.Iteration)
+    public void reset() {
+        falhas = 0;
+    }
+}
@@ -0,0 +1,66 @@
+package com.techmarket.benchmarks;
+
+import com.techmarket.service.GroupCommitTransferExecutor;
+import com.techmarket.service.TransferService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+// GroupCommitTransferExecutor com 4 filas e 64 clientes esperando cada resposta, por tamanho máximo de lote
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@Threads(64)
+public class GroupCommitBenchmark {
+    
+    private static final int CONTAS = 1000;
+    private static final int SHARDS = 4;
+    
+    @Param({"1", "10", "50", "200"})
+    public int batchSize;
+    
+    private ConfigurableApplicationContext context;
+    private GroupCommitTransferExecutor executor;
+    private long[] accountIds;
+    
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = BenchmarkApplication.start("group-commit");
+        accountIds = BenchmarkApplication.createAccounts(context, CONTAS);
+        executor = new GroupCommitTransferExecutor(SHARDS, batchSize, Duration.ofMillis(2), 10_000, Duration.ofSeconds(1),
+            context.getBean(TransferService.class)::processBatch);
+    }
+    
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        executor.shutdown(Duration.ofSeconds(10));
+        context.close();
+    }
+    
+    @Benchmark
+    public void submit(Sorteio sorteio, FailedTransfers failedTransfers) {
+        try {
+            executor.submit(BenchmarkApplication.randomTransfer(sorteio.random, accountIds)).get();
+        } catch (Exception e) {
+            failedTransfers.falhas++;
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package com.techmarket.benchmarks;
+
+import com.techmarket.dto.TransferRequest;
+import com.techmarket.dto.TransferResponse;
+import com.techmarket.service.HotAccountBalances;
+import com.techmarket.service.TransferService;
+import org.h2.api.Trigger;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.util.concurrent.TimeUnit;
+
+// Créditos concorrentes de muitas contas para um único lojista: sem conta quente (slots = 0, linha do
+// lojista bloqueada até o commit) e como conta quente com 1, 2, 4 e 8 slots. Um trigger no INSERT de
+// transfers espera 1 ms, como a ida e volta ao banco e o commit de uma instância real; sem essa espera
+// o H2 em memória mede só a CPU, não o tempo de lock
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@Threads(16)
+public class HotAccountBenchmark {
+    
+    private static final long LOJISTA = 1L;
+    private static final int PAGADORES = 200;
+    
+    @Param({"0", "1", "2", "4", "8"})
+    public int slots;
+    
+    private ConfigurableApplicationContext context;
+    private TransferService transferService;
+    
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = BenchmarkApplication.start("hot-account",
+            "spring.datasource.hikari.maximum-pool-size=16",
+            "techmarket.transfer.engine=JDBC",
+            "techmarket.hot-accounts.ids=" + (slots == 0 ? "" : String.valueOf(LOJISTA)),
+            "techmarket.hot-accounts.slots=" + Math.max(slots, 1),
+            "techmarket.hot-accounts.consolidation-interval=PT1S",
+            "techmarket.ledger.enabled=false",
+            "techmarket.metrics.transfer.enabled=false");
+        transferService = context.getBean(TransferService.class);
+        
+        JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("INSERT INTO accounts (id, owner, balance, version) VALUES (?, 'Lojista', 0, 0)", LOJISTA);
+        for (long id = LOJISTA + 1; id <= LOJISTA + PAGADORES; id++) {
+            jdbcTemplate.update("INSERT INTO accounts (id, owner, balance, version) VALUES (?, ?, ?, 0)",
+                id, "Conta " + id, BenchmarkApplication.SALDO_INICIAL);
+        }
+        // O job preparou os slots na subida, antes das contas existirem: prepara de novo
+        context.getBean(HotAccountBalances.class).prepareSlots();
+        jdbcTemplate.execute("CREATE TRIGGER latencia_transfers AFTER INSERT ON transfers FOR EACH ROW CALL \""
+            + Latencia.class.getName() + "\"");
+    }
+    
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+    
+    @Benchmark
+    public TransferResponse credit(Sorteio sorteio) {
+        long origem = LOJISTA + 1 + sorteio.random.nextInt(PAGADORES);
+        return transferService.processTransfer(new TransferRequest(origem, LOJISTA, BenchmarkApplication.VALOR));
+    }
+    
+    // Espera de 1 ms dentro da transação, com os locks já obtidos
+    public static class Latencia implements Trigger {
+        
+        @Override
+        public void fire(Connection connection, Object[] oldRow, Object[] newRow) {
+            try {
+                Thread.sleep(1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
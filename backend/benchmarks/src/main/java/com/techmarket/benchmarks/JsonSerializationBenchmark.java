@@ -0,0 +1,80 @@
+package com.techmarket.benchmarks;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.techmarket.dto.TransferRequest;
+import com.techmarket.dto.TransferResponse;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// (De)serialização JSON dos DTOs de transferência com o ObjectMapper configurado como no Spring Boot
+// (módulo JavaTime, datas ISO-8601), incluindo o LocalDateTime da resposta
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JsonSerializationBenchmark {
+    
+    private ObjectWriter requestWriter;
+    private ObjectReader requestReader;
+    private ObjectWriter responseWriter;
+    private ObjectReader responseReader;
+    
+    private TransferRequest request;
+    private TransferResponse response;
+    private byte[] requestJson;
+    private byte[] responseJson;
+    
+    @Setup
+    public void setUp() throws IOException {
+        ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+        requestWriter = objectMapper.writerFor(TransferRequest.class);
+        requestReader = objectMapper.readerFor(TransferRequest.class);
+        responseWriter = objectMapper.writerFor(TransferResponse.class);
+        responseReader = objectMapper.readerFor(TransferResponse.class);
+        
+        request = new TransferRequest(1L, 2L, new BigDecimal("1234.56"), "pedido-7f3a9c2e");
+        response = new TransferResponse(UUID.randomUUID().toString(), "success", 1L, 2L,
+            new BigDecimal("1234.56"), LocalDateTime.of(2025, 10, 14, 13, 45, 12, 123_456_789));
+        requestJson = requestWriter.writeValueAsBytes(request);
+        responseJson = responseWriter.writeValueAsBytes(response);
+    }
+    
+    @Benchmark
+    public TransferRequest deserializeRequest() throws IOException {
+        return requestReader.readValue(requestJson);
+    }
+    
+    @Benchmark
+    public byte[] serializeRequest() throws IOException {
+        return requestWriter.writeValueAsBytes(request);
+    }
+    
+    @Benchmark
+    public byte[] serializeResponse() throws IOException {
+        return responseWriter.writeValueAsBytes(response);
+    }
+    
+    @Benchmark
+    public TransferResponse deserializeResponse() throws IOException {
+        return responseReader.readValue(responseJson);
+    }
+}
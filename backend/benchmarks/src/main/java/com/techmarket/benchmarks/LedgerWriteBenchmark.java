@@ -0,0 +1,184 @@
+package com.techmarket.benchmarks;
+
+import org.h2.api.Trigger;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.concurrent.TimeUnit;
+
+// Transação de transferência em JDBC puro (UPDATE das duas contas + INSERT em transfers + lançamentos)
+// com os lançamentos de transacoes gravados por um trigger por linha, como trigger_insert_transacoes
+// (aqui um trigger Java do H2 com os mesmos dois INSERTs), ou pelo backend em batch JDBC, com 1 ou 100
+// transferências por transação (como o group commit). O score é em transações; o contador
+// "transferencias" dá a vazão por transferência. H2 em arquivo
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class LedgerWriteBenchmark {
+    
+    private static final int CONTAS = 1_000;
+    private static final String DIRETORIO = "./target/benchmark-db";
+    
+    private static final String INSERT_LEDGER_SQL =
+        "INSERT INTO transacoes (account_id, tipo, valor, data, descricao, transfer_id) VALUES (?, ?, ?, ?, ?, ?)";
+    
+    @Param({"TRIGGER", "BACKEND"})
+    public String ledger;
+    
+    @Param({"1", "100"})
+    public int batchSize;
+    
+    private Connection connection;
+    private PreparedStatement debit;
+    private PreparedStatement credit;
+    private PreparedStatement transfer;
+    private PreparedStatement ledgerInsert;
+    private long id;
+    
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class Transferencias {
+        
+        public long transferencias;
+        
+        @Setup(Level.Iteration)
+        public void reset() {
+            transferencias = 0;
+        }
+    }
+    
+    @Setup(Level.Trial)
+    public void createDatabase() throws SQLException {
+        String nome = "ledger-" + ledger.toLowerCase() + "-" + batchSize;
+        new File(DIRETORIO, nome + ".mv.db").delete();
+        connection = DriverManager.getConnection("jdbc:h2:file:" + DIRETORIO + "/" + nome, "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE TABLE accounts (id BIGINT PRIMARY KEY, balance DECIMAL(19,2) NOT NULL, version BIGINT NOT NULL)");
+            statement.execute("INSERT INTO accounts SELECT x, 1000000000, 0 FROM SYSTEM_RANGE(1, " + CONTAS + ")");
+            statement.execute("CREATE TABLE transfers (id BIGINT PRIMARY KEY, origem_account_id BIGINT NOT NULL, " +
+                "destino_account_id BIGINT NOT NULL, valor DECIMAL(19,2) NOT NULL, timestamp TIMESTAMP NOT NULL)");
+            statement.execute("CREATE TABLE transacoes (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                "account_id BIGINT NOT NULL, tipo VARCHAR(10) NOT NULL, valor DECIMAL(19,2) NOT NULL, data TIMESTAMP, " +
+                "descricao VARCHAR(500), transfer_id BIGINT)");
+            statement.execute("CREATE INDEX idx_transacoes_account_data ON transacoes(account_id, data)");
+            if ("TRIGGER".equals(ledger)) {
+                statement.execute("CREATE TRIGGER trigger_insert_transacoes AFTER INSERT ON transfers FOR EACH ROW CALL \"" +
+                    TransacoesTrigger.class.getName() + "\"");
+            }
+        }
+        connection.setAutoCommit(false);
+        debit = connection.prepareStatement("UPDATE accounts SET balance = balance - ?, version = version + 1 WHERE id = ?");
+        credit = connection.prepareStatement("UPDATE accounts SET balance = balance + ?, version = version + 1 WHERE id = ?");
+        transfer = connection.prepareStatement(
+            "INSERT INTO transfers (id, origem_account_id, destino_account_id, valor, timestamp) VALUES (?, ?, ?, ?, ?)");
+        ledgerInsert = connection.prepareStatement(INSERT_LEDGER_SQL);
+    }
+    
+    @TearDown(Level.Trial)
+    public void closeDatabase() throws SQLException {
+        connection.close();
+    }
+    
+    @Benchmark
+    public void transaction(Transferencias transferencias) throws SQLException {
+        boolean backend = "BACKEND".equals(ledger);
+        for (int i = 0; i < batchSize; i++) {
+            id++;
+            long origem = 1 + id % CONTAS;
+            long destino = 1 + (id * 7 + 1) % CONTAS;
+            if (origem == destino) {
+                destino = 1 + destino % CONTAS;
+            }
+            Timestamp agora = new Timestamp(System.currentTimeMillis());
+            bindUpdate(debit, origem);
+            bindUpdate(credit, destino);
+            transfer.setLong(1, id);
+            transfer.setLong(2, origem);
+            transfer.setLong(3, destino);
+            transfer.setBigDecimal(4, BigDecimal.ONE);
+            transfer.setTimestamp(5, agora);
+            if (batchSize == 1) {
+                debit.executeUpdate();
+                credit.executeUpdate();
+                transfer.executeUpdate();
+            } else {
+                debit.addBatch();
+                credit.addBatch();
+                transfer.addBatch();
+            }
+            if (backend) {
+                bindLedger(ledgerInsert, origem, "DEBIT", BigDecimal.ONE, agora, "Transferência para conta " + destino, id);
+                ledgerInsert.addBatch();
+                bindLedger(ledgerInsert, destino, "CREDIT", BigDecimal.ONE, agora, "Transferência da conta " + origem, id);
+                ledgerInsert.addBatch();
+            }
+        }
+        if (batchSize > 1) {
+            debit.executeBatch();
+            credit.executeBatch();
+            transfer.executeBatch();
+        }
+        if (backend) {
+            ledgerInsert.executeBatch();
+        }
+        connection.commit();
+        transferencias.transferencias += batchSize;
+    }
+    
+    private static void bindUpdate(PreparedStatement update, long accountId) throws SQLException {
+        update.setBigDecimal(1, BigDecimal.ONE);
+        update.setLong(2, accountId);
+    }
+    
+    private static void bindLedger(PreparedStatement ledger, long accountId, String tipo, BigDecimal valor, Timestamp data,
+                                   String descricao, long transferId) throws SQLException {
+        ledger.setLong(1, accountId);
+        ledger.setString(2, tipo);
+        ledger.setBigDecimal(3, valor);
+        ledger.setTimestamp(4, data);
+        ledger.setString(5, descricao);
+        ledger.setLong(6, transferId);
+    }
+    
+    // Mesmo efeito de insert_transacao_from_transfer(): dois INSERTs de uma linha por transferência
+    public static class TransacoesTrigger implements Trigger {
+        
+        @Override
+        public void fire(Connection connection, Object[] oldRow, Object[] newRow) throws SQLException {
+            long id = (Long) newRow[0];
+            long origem = (Long) newRow[1];
+            long destino = (Long) newRow[2];
+            Timestamp data = newRow[4] instanceof Timestamp timestamp ? timestamp : Timestamp.valueOf((LocalDateTime) newRow[4]);
+            try (PreparedStatement ledger = connection.prepareStatement(INSERT_LEDGER_SQL)) {
+                bindLedger(ledger, origem, "DEBIT", (BigDecimal) newRow[3], data, "Transferência para conta " + destino, id);
+                ledger.executeUpdate();
+                bindLedger(ledger, destino, "CREDIT", (BigDecimal) newRow[3], data, "Transferência da conta " + origem, id);
+                ledger.executeUpdate();
+            }
+        }
+    }
+}
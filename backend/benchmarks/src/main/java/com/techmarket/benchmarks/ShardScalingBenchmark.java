@@ -0,0 +1,89 @@
+package com.techmarket.benchmarks;
+
+import com.techmarket.config.AccountShards;
+import com.techmarket.dto.TransferResponse;
+import com.techmarket.entity.Account;
+import com.techmarket.repository.ShardedAccountRepository;
+import com.techmarket.service.TransferService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+
+// Mesma carga concorrente com as contas em 1, 2 e 4 shards (H2 em memória, um pool por shard). Com
+// contas aleatórias, a fração entre shards (saga, três transações) é 1 - 1/shards
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 5)
+@Fork(1)
+@Threads(16)
+public class ShardScalingBenchmark {
+    
+    private static final int CONTAS = 400;
+    
+    @Param({"1", "2", "4"})
+    public int shards;
+    
+    private ConfigurableApplicationContext context;
+    private TransferService transferService;
+    private long[] accountIds;
+    
+    @Setup(Level.Trial)
+    public void startContext() {
+        List<String> urls = new ArrayList<>();
+        for (int i = 1; i < shards; i++) {
+            urls.add("jdbc:h2:mem:shard-" + i + ";DB_CLOSE_DELAY=-1");
+        }
+        context = BenchmarkApplication.start("shard-0",
+            "spring.datasource.hikari.maximum-pool-size=16",
+            "techmarket.sharding.urls=" + String.join(",", urls),
+            "techmarket.transfer.engine=SHARDED",
+            "techmarket.ledger.enabled=false",
+            "techmarket.metrics.transfer.enabled=false");
+        transferService = context.getBean(TransferService.class);
+        
+        // Schema criado pelo Hibernate no primário, copiado para os demais shards
+        AccountShards accountShards = context.getBean(AccountShards.class);
+        List<String> schema = accountShards.getShards().get(0).getJdbcTemplate().queryForList("SCRIPT NODATA", String.class);
+        for (AccountShards.Shard shard : accountShards.getShards().subList(1, accountShards.size())) {
+            JdbcTemplate jdbcTemplate = shard.getJdbcTemplate();
+            schema.forEach(jdbcTemplate::execute);
+        }
+        ShardedAccountRepository shardedAccountRepository = context.getBean(ShardedAccountRepository.class);
+        accountIds = LongStream.rangeClosed(1, CONTAS).toArray();
+        for (long id : accountIds) {
+            Account account = new Account("Conta " + id, BenchmarkApplication.SALDO_INICIAL);
+            account.setId(id);
+            shardedAccountRepository.insert(account);
+        }
+    }
+    
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+    
+    @Benchmark
+    public TransferResponse processTransfer(Sorteio sorteio) {
+        return transferService.processTransfer(BenchmarkApplication.randomTransfer(sorteio.random, accountIds));
+    }
+}
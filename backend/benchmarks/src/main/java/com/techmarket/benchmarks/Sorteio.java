@@ -0,0 +1,13 @@
+package com.techmarket.benchmarks;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.SplittableRandom;
+
+// Gerador de números aleatórios de cada thread do benchmark
+@State(Scope.Thread)
+public class Sorteio {
+    
+    final SplittableRandom random = new SplittableRandom();
+}
@@ -0,0 +1,99 @@
+package com.techmarket.benchmarks;
+
+import com.techmarket.dto.StatementPageResponse;
+import com.techmarket.entity.Account;
+import com.techmarket.entity.Transfer;
+import com.techmarket.repository.AccountRepository;
+import com.techmarket.repository.TransferJdbcRepository;
+import com.techmarket.service.StatementService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Extrato paginado por cursor de uma conta com 100 mil transferências: a primeira página, a do meio e a
+// última devem custar o mesmo
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class StatementPaginationBenchmark {
+    
+    private static final int TRANSFERENCIAS = 100_000;
+    private static final int TAMANHO_PAGINA = 50;
+    
+    @Param({"FIRST", "MIDDLE", "LAST"})
+    public String page;
+    
+    private ConfigurableApplicationContext context;
+    private StatementService statementService;
+    private Long contaId;
+    private String cursor;
+    
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = BenchmarkApplication.start("statement");
+        statementService = context.getBean(StatementService.class);
+        
+        AccountRepository accountRepository = context.getBean(AccountRepository.class);
+        TransferJdbcRepository transferJdbcRepository = context.getBean(TransferJdbcRepository.class);
+        contaId = accountRepository.save(new Account("Lojista", new BigDecimal("0.00"))).getId();
+        Long outraId = accountRepository.save(new Account("Cliente", new BigDecimal("0.00"))).getId();
+        
+        LocalDateTime base = LocalDateTime.of(2020, 1, 1, 0, 0);
+        List<Transfer> lote = new ArrayList<>();
+        for (int i = 0; i < TRANSFERENCIAS; i++) {
+            Transfer transfer = i % 3 == 0
+                ? new Transfer(contaId, outraId, BigDecimal.ONE)
+                : new Transfer(outraId, contaId, BigDecimal.ONE);
+            transfer.setTimestamp(base.plusSeconds(i));
+            lote.add(transfer);
+            if (lote.size() == 5000) {
+                transferJdbcRepository.batchInsert(lote);
+                lote.clear();
+            }
+        }
+        transferJdbcRepository.batchInsert(lote);
+        
+        // Percorre todo o histórico uma vez para achar o cursor de cada profundidade
+        List<String> cursores = new ArrayList<>();
+        String proximo = null;
+        do {
+            cursores.add(proximo);
+            proximo = statementService.getStatement(contaId, proximo, TAMANHO_PAGINA).getNextCursor();
+        } while (proximo != null);
+        cursor = switch (page) {
+            case "FIRST" -> cursores.get(0);
+            case "MIDDLE" -> cursores.get(cursores.size() / 2);
+            default -> cursores.get(cursores.size() - 1);
+        };
+    }
+    
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+    
+    @Benchmark
+    public StatementPageResponse getStatement() {
+        return statementService.getStatement(contaId, cursor, TAMANHO_PAGINA);
+    }
+}
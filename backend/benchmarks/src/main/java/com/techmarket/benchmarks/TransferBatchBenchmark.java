@@ -0,0 +1,68 @@
+package com.techmarket.benchmarks;
+
+import com.techmarket.dto.BatchTransferResponse;
+import com.techmarket.dto.TransferRequest;
+import com.techmarket.dto.TransferResponse;
+import com.techmarket.service.TransferService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+// Transferências por segundo uma a uma (processTransfer) e em lotes de 500 em uma transação (processBatch)
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TransferBatchBenchmark {
+    
+    private static final int CONTAS = 200;
+    private static final int TAMANHO_LOTE = 500;
+    
+    private ConfigurableApplicationContext context;
+    private TransferService transferService;
+    private long[] accountIds;
+    
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = BenchmarkApplication.start("transfer-batch");
+        transferService = context.getBean(TransferService.class);
+        accountIds = BenchmarkApplication.createAccounts(context, CONTAS);
+    }
+    
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+    
+    @Benchmark
+    public TransferResponse single(Sorteio sorteio) {
+        return transferService.processTransfer(BenchmarkApplication.randomTransfer(sorteio.random, accountIds));
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(TAMANHO_LOTE)
+    public BatchTransferResponse batch(Sorteio sorteio) {
+        List<TransferRequest> requests = new ArrayList<>(TAMANHO_LOTE);
+        for (int i = 0; i < TAMANHO_LOTE; i++) {
+            requests.add(BenchmarkApplication.randomTransfer(sorteio.random, accountIds));
+        }
+        return transferService.processBatch(requests);
+    }
+}
@@ -0,0 +1,145 @@
+package com.techmarket.benchmarks;
+
+import com.techmarket.util.UuidV7;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Linhas de transfers inseridas por segundo, em blocos de 50 por commit, com o esquema antigo (IDENTITY +
+// código UUID v4 em VARCHAR, um INSERT por linha como o Hibernate faz com IDENTITY) e com o novo (sequência
+// em blocos de 50 + UUID v7 em coluna uuid, insert em batch JDBC), cada um em um arquivo H2 próprio. Ao fim,
+// o tamanho do banco e do índice único do código por linha vai para a saída da execução
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TransferIdBenchmark {
+    
+    private static final int LOTE = 50;
+    private static final String DIRETORIO = "./target/benchmark-db";
+    
+    @Param({"LEGACY", "POOLED"})
+    public String schema;
+    
+    private String nome;
+    private String url;
+    private Connection connection;
+    private PreparedStatement insert;
+    private PreparedStatement sequence;
+    private long linhas;
+    
+    @Setup(Level.Trial)
+    public void createDatabase() throws SQLException {
+        nome = "ids-" + schema.toLowerCase();
+        url = "jdbc:h2:file:" + DIRETORIO + "/" + nome + ";CACHE_SIZE=262144";
+        new File(DIRETORIO, nome + ".mv.db").delete();
+        connection = DriverManager.getConnection(url, "sa", "");
+        try (Statement statement = connection.createStatement()) {
+            if ("LEGACY".equals(schema)) {
+                statement.execute("CREATE TABLE transfers (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, " +
+                    "origem_account_id BIGINT NOT NULL, destino_account_id BIGINT NOT NULL, valor DECIMAL(19,2) NOT NULL, " +
+                    "codigo_uuid VARCHAR(255) NOT NULL, timestamp TIMESTAMP NOT NULL, " +
+                    "CONSTRAINT uk_transfers_codigo UNIQUE (codigo_uuid))");
+                insert = connection.prepareStatement(
+                    "INSERT INTO transfers (origem_account_id, destino_account_id, valor, codigo_uuid, timestamp) VALUES (?, ?, ?, ?, ?)",
+                    Statement.RETURN_GENERATED_KEYS);
+            } else {
+                statement.execute("CREATE TABLE transfers (id BIGINT PRIMARY KEY, " +
+                    "origem_account_id BIGINT NOT NULL, destino_account_id BIGINT NOT NULL, valor DECIMAL(19,2) NOT NULL, " +
+                    "codigo_uuid UUID NOT NULL, timestamp TIMESTAMP NOT NULL, " +
+                    "CONSTRAINT uk_transfers_codigo UNIQUE (codigo_uuid))");
+                statement.execute("CREATE SEQUENCE transfers_id_seq INCREMENT BY " + LOTE);
+                insert = connection.prepareStatement(
+                    "INSERT INTO transfers (id, origem_account_id, destino_account_id, valor, codigo_uuid, timestamp) VALUES (?, ?, ?, ?, ?, ?)");
+                sequence = connection.prepareStatement("VALUES NEXT VALUE FOR transfers_id_seq");
+            }
+        }
+        connection.setAutoCommit(false);
+    }
+    
+    // Tamanho do índice único: diferença do arquivo compactado com e sem a constraint
+    @TearDown(Level.Trial)
+    public void reportSize() throws SQLException {
+        connection.createStatement().execute("SHUTDOWN COMPACT");
+        long banco = new File(DIRETORIO, nome + ".mv.db").length();
+        try (Connection reaberta = DriverManager.getConnection(url, "sa", "")) {
+            reaberta.createStatement().execute("ALTER TABLE transfers DROP CONSTRAINT uk_transfers_codigo");
+            reaberta.createStatement().execute("SHUTDOWN COMPACT");
+        }
+        long semIndice = new File(DIRETORIO, nome + ".mv.db").length();
+        System.out.printf("%n%s: %d linhas | banco %d bytes/linha | índice do código %d bytes/linha%n",
+            schema, linhas, banco / linhas, (banco - semIndice) / linhas);
+    }
+    
+    @Benchmark
+    @OperationsPerInvocation(LOTE)
+    public void insertBlock() throws SQLException {
+        if ("LEGACY".equals(schema)) {
+            insertLegacy();
+        } else {
+            insertPooled();
+        }
+        connection.commit();
+        linhas += LOTE;
+    }
+    
+    // Como o Hibernate com IDENTITY: cada INSERT executa sozinho para devolver o id gerado
+    private void insertLegacy() throws SQLException {
+        for (int i = 0; i < LOTE; i++) {
+            bind(1, linhas + i);
+            insert.setString(4, UUID.randomUUID().toString());
+            insert.executeUpdate();
+            try (ResultSet keys = insert.getGeneratedKeys()) {
+                keys.next();
+            }
+        }
+    }
+    
+    // Um nextval reserva o bloco de ids e o lote inteiro vai em um batch JDBC
+    private void insertPooled() throws SQLException {
+        long next;
+        try (ResultSet rs = sequence.executeQuery()) {
+            rs.next();
+            next = rs.getLong(1);
+        }
+        for (int i = 0; i < LOTE; i++) {
+            insert.setLong(1, next + i);
+            bind(2, linhas + i);
+            insert.setObject(5, UuidV7.randomUUID());
+            insert.addBatch();
+        }
+        insert.executeBatch();
+    }
+    
+    private void bind(int primeiro, long i) throws SQLException {
+        insert.setLong(primeiro, 1 + i % 1000);
+        insert.setLong(primeiro + 1, 1 + (i + 1) % 1000);
+        insert.setBigDecimal(primeiro + 2, new BigDecimal("1.00"));
+        insert.setTimestamp(primeiro + 4, new Timestamp(System.currentTimeMillis()));
+    }
+}
@@ -0,0 +1,69 @@
+package com.techmarket.benchmarks;
+
+import com.techmarket.dto.TransferResponse;
+import com.techmarket.service.TransferMetrics;
+import com.techmarket.service.TransferService;
+import com.techmarket.service.TransferStage;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.concurrent.TimeUnit;
+
+// Custo das métricas por etapa (techmarket.metrics.transfer.enabled): a latência de uma transferência
+// com elas ligadas e desligadas, e o custo isolado de uma medição (relógio + histograma; 9 etapas por
+// transferência)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class TransferMetricsBenchmark {
+    
+    private static final int CONTAS = 100;
+    
+    @Param({"true", "false"})
+    public String metrics;
+    
+    private ConfigurableApplicationContext context;
+    private TransferService transferService;
+    private TransferMetrics transferMetrics;
+    private long[] accountIds;
+    
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = BenchmarkApplication.start("transfer-metrics", "techmarket.metrics.transfer.enabled=" + metrics);
+        transferService = context.getBean(TransferService.class);
+        transferMetrics = context.getBean(TransferMetrics.class);
+        accountIds = BenchmarkApplication.createAccounts(context, CONTAS);
+    }
+    
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+    
+    @Benchmark
+    @BenchmarkMode(Mode.SampleTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public TransferResponse processTransfer(Sorteio sorteio) {
+        return transferService.processTransfer(BenchmarkApplication.randomTransfer(sorteio.random, accountIds));
+    }
+    
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void recordStage() {
+        transferMetrics.record(TransferMetrics.MODE_SINGLE, TransferStage.BALANCE_UPDATE, transferMetrics.start());
+    }
+}
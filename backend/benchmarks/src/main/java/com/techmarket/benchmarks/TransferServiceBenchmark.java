@@ -0,0 +1,77 @@
+package com.techmarket.benchmarks;
+
+import com.techmarket.dto.TransferRequest;
+import com.techmarket.dto.TransferResponse;
+import com.techmarket.service.TransferService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+// TransferService.processTransfer contra um H2 em memória, com o contexto Spring completo
+// (locks, bulkhead, snapshots diários). Duas distribuições de contas:
+// - UNIFORM: pares sorteados entre 10 mil contas, praticamente sem disputa de lock
+// - HOT: 90% das transferências envolvem a mesma conta, como um recebedor popular
+// e todas as engines (SHARDED aqui com um único shard; ver ShardScalingBenchmark)
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(4)
+public class TransferServiceBenchmark {
+    
+    private static final int CONTAS = 10_000;
+    
+    @Param({"UNIFORM", "HOT"})
+    public String distribution;
+    
+    @Param({"JPA", "JDBC", "OPTIMISTIC", "GROUP_COMMIT", "SHARDED"})
+    public String engine;
+    
+    private ConfigurableApplicationContext context;
+    private TransferService transferService;
+    private long[] accountIds;
+    
+    @Setup(Level.Trial)
+    public void startContext() {
+        context = BenchmarkApplication.start("benchmark", "techmarket.transfer.engine=" + engine);
+        transferService = context.getBean(TransferService.class);
+        accountIds = BenchmarkApplication.createAccounts(context, CONTAS);
+    }
+    
+    @TearDown(Level.Trial)
+    public void stopContext() {
+        context.close();
+    }
+    
+    @Benchmark
+    public TransferResponse processTransfer(Sorteio sorteio) {
+        SplittableRandom random = sorteio.random;
+        if (!"HOT".equals(distribution) || random.nextInt(10) >= 9) {
+            return transferService.processTransfer(BenchmarkApplication.randomTransfer(random, accountIds));
+        }
+        // Metade envia para a conta quente, metade recebe dela
+        int outra = 1 + random.nextInt(CONTAS - 1);
+        boolean recebe = random.nextBoolean();
+        int origem = recebe ? outra : 0;
+        int destino = recebe ? 0 : outra;
+        return transferService.processTransfer(
+            new TransferRequest(accountIds[origem], accountIds[destino], BenchmarkApplication.VALOR));
+    }
+}
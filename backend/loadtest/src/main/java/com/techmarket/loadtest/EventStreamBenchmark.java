@@ -0,0 +1,172 @@
+package com.techmarket.loadtest;
+
+import com.techmarket.TechMarketApplication;
+import com.techmarket.dto.TransferRequest;
+import com.techmarket.service.TransferEventBus;
+import com.techmarket.service.TransferService;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.UncheckedIOException;
+import java.lang.management.ManagementFactory;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Streams SSE de eventos de transferência (GET /api/contas/{id}/eventos): abre connections streams ociosos
+// (um por conta) em um Tomcat de tomcat-threads threads e mede as threads de plataforma do processo antes e
+// depois, já que uma conexão ociosa não deve ocupar thread. Com as conexões abertas, mede a latência do início
+// da transferência até o evento chegar ao cliente e o custo de uma única rodada do polling que o stream
+// substitui (um GET do extrato por cliente). API na mesma JVM, H2 em memória
+public class EventStreamBenchmark {
+    
+    private static final long OBSERVADA = 1L;
+    
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        int conexoes = Integer.parseInt(options.getOrDefault("connections", "2000"));
+        int transferencias = Integer.parseInt(options.getOrDefault("transfers", "500"));
+        int tomcatThreads = Integer.parseInt(options.getOrDefault("tomcat-threads", "20"));
+        
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TechMarketApplication.class)
+                .run(
+                    "--server.port=0",
+                    "--server.tomcat.threads.max=" + tomcatThreads,
+                    "--spring.datasource.url=jdbc:h2:mem:events;DB_CLOSE_DELAY=-1",
+                    "--spring.datasource.driver-class-name=org.h2.Driver",
+                    "--spring.datasource.username=sa",
+                    "--spring.datasource.password=",
+                    "--spring.jpa.hibernate.ddl-auto=create-drop",
+                    "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                    "--spring.jpa.show-sql=false",
+                    "--techmarket.outbox.enabled=false",
+                    "--techmarket.events.heartbeat-interval=PT1H",
+                    "--techmarket.limiter.enabled=false",
+                    "--techmarket.metrics.transfer.enabled=false",
+                    "--logging.level.root=WARN",
+                    "--logging.level.com.techmarket=WARN",
+                    "--logging.level.org.springframework.web=WARN")) {
+            
+            JdbcTemplate jdbcTemplate = context.getBean(JdbcTemplate.class);
+            for (long id = OBSERVADA; id <= OBSERVADA + conexoes; id++) {
+                jdbcTemplate.update("INSERT INTO accounts (id, owner, balance, version) VALUES (?, ?, 1000000, 0)", id, "Conta " + id);
+            }
+            String base = "http://localhost:" + ((WebServerApplicationContext) context).getWebServer().getPort() + "/api/contas/";
+            TransferEventBus bus = context.getBean(TransferEventBus.class);
+            HttpClient client = HttpClient.newBuilder().executor(Executors.newVirtualThreadPerTaskExecutor()).build();
+            
+            int threadsAntes = ManagementFactory.getThreadMXBean().getThreadCount();
+            List<CompletableFuture<HttpResponse<Stream<String>>>> ociosas = new ArrayList<>(conexoes);
+            long inicio = System.nanoTime();
+            for (long id = OBSERVADA + 1; id <= OBSERVADA + conexoes; id++) {
+                ociosas.add(client.sendAsync(stream(base, id), HttpResponse.BodyHandlers.ofLines()));
+            }
+            for (CompletableFuture<HttpResponse<Stream<String>>> conexao : ociosas) {
+                int status = conexao.get(60, TimeUnit.SECONDS).statusCode();
+                if (status != 200) {
+                    throw new IllegalStateException("Stream recusado com HTTP " + status);
+                }
+            }
+            double abertura = (System.nanoTime() - inicio) / 1e9;
+            // Threads que sobraram da abertura (pools do Tomcat e do cliente) têm tempo de encerrar
+            Thread.sleep(2000);
+            int threadsDepois = ManagementFactory.getThreadMXBean().getThreadCount();
+            System.out.printf("%d streams ociosos abertos em %.1f s | assinantes %d | Tomcat com %d threads | threads de plataforma: %d antes, %d depois%n",
+                conexoes, abertura, bus.getSubscribers(), tomcatThreads, threadsAntes, threadsDepois);
+            
+            // Latência de entrega para um assinante da conta de origem, com os demais streams abertos. As
+            // transferências são sequenciais, então o k-ésimo evento recebido é o da k-ésima transferência
+            long[] inicios = new long[transferencias];
+            long[] latencias = new long[transferencias];
+            long[] duracoes = new long[transferencias];
+            CountDownLatch recebidas = new CountDownLatch(transferencias);
+            HttpResponse<Stream<String>> observada = client.send(stream(base, OBSERVADA), HttpResponse.BodyHandlers.ofLines());
+            Thread.ofVirtual().start(() -> {
+                try {
+                    observada.body().forEach(line -> {
+                        if (line.startsWith("data:")) {
+                            int k = transferencias - (int) recebidas.getCount();
+                            latencias[k] = System.nanoTime() - inicios[k];
+                            recebidas.countDown();
+                        }
+                    });
+                } catch (UncheckedIOException e) {
+                    // Stream fechado ao final da medição
+                }
+            });
+            TransferService transferService = context.getBean(TransferService.class);
+            for (int i = 0; i < transferencias; i++) {
+                inicios[i] = System.nanoTime();
+                transferService.processTransfer(new TransferRequest(OBSERVADA, OBSERVADA + 1 + i % conexoes, new BigDecimal("1.00")));
+                duracoes[i] = System.nanoTime() - inicios[i];
+                Thread.sleep(2);
+            }
+            if (!recebidas.await(30, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Eventos não recebidos: " + recebidas.getCount());
+            }
+            Arrays.sort(latencias);
+            Arrays.sort(duracoes);
+            System.out.printf("Entrega: %d eventos | p50 %.2f ms | p99 %.2f ms do início da transferência ao cliente "
+                    + "(a transferência sozinha: p50 %.2f ms | p99 %.2f ms)%n",
+                transferencias, percentil(latencias, 0.5), percentil(latencias, 0.99), percentil(duracoes, 0.5), percentil(duracoes, 0.99));
+            
+            // Uma rodada do polling equivalente: cada cliente busca a primeira página do extrato
+            inicio = System.nanoTime();
+            try (ExecutorService clientes = Executors.newVirtualThreadPerTaskExecutor()) {
+                for (long id = OBSERVADA + 1; id <= OBSERVADA + conexoes; id++) {
+                    URI uri = URI.create(base + id + "/extrato?size=50");
+                    clientes.submit(() -> client.send(HttpRequest.newBuilder(uri).GET().build(), HttpResponse.BodyHandlers.discarding()));
+                }
+            }
+            System.out.printf("Polling: uma rodada de %d GET /extrato em %.1f s, a cada intervalo de polling%n",
+                conexoes, (System.nanoTime() - inicio) / 1e9);
+            
+            observada.body().close();
+            for (CompletableFuture<HttpResponse<Stream<String>>> conexao : ociosas) {
+                conexao.get().body().close();
+            }
+        }
+    }
+    
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            String opcao = arg.startsWith("--") ? arg.substring(2) : arg;
+            if (!opcao.contains("=")) {
+                throw new IllegalArgumentException("Argumento inválido (use nome=valor): " + arg);
+            }
+            String nome = opcao.substring(0, opcao.indexOf('='));
+            if (!List.of("connections", "transfers", "tomcat-threads").contains(nome)) {
+                throw new IllegalArgumentException("Opção desconhecida: " + nome);
+            }
+            options.put(nome, opcao.substring(opcao.indexOf('=') + 1));
+        }
+        return options;
+    }
+    
+    private static double percentil(long[] ordenados, double p) {
+        return ordenados[(int) (ordenados.length * p)] / 1e6;
+    }
+    
+    private static HttpRequest stream(String base, long accountId) {
+        return HttpRequest.newBuilder(URI.create(base + accountId + "/eventos"))
+            .header("Accept", "text/event-stream")
+            .GET()
+            .build();
+    }
+}
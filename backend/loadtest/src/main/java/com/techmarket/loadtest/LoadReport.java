@@ -0,0 +1,97 @@
+package com.techmarket.loadtest;
+
+import org.HdrHistogram.ConcurrentHistogram;
+import org.HdrHistogram.Histogram;
+
+import java.io.PrintStream;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+// Resultados de uma fase de carga. Duas latências por requisição:
+// - a partir do instante planejado da chegada (inclui a fila do gerador; corrige a omissão coordenada)
+// - a partir do envio efetivo (tempo de serviço visto pelo cliente)
+public class LoadReport {
+    
+    private static final long MAX_LATENCIA_MICROS = TimeUnit.MINUTES.toMicros(2);
+    private static final double[] PERCENTIS = {50, 90, 99, 99.9, 99.99};
+    
+    private final Histogram latency = new ConcurrentHistogram(MAX_LATENCIA_MICROS, 3);
+    private final Histogram serviceTime = new ConcurrentHistogram(MAX_LATENCIA_MICROS, 3);
+    private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+    // Código da primeira resposta de sucesso de cada chave; repetições devem devolver o mesmo código
+    private final Map<String, String> codigosPorChave = new ConcurrentHashMap<>();
+    private final LongAdder divergentReplays = new LongAdder();
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder succeeded = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private volatile long elapsedNanos;
+    
+    public void recordResponse(String idempotencyKey, String codigo, String outcome, boolean success,
+                               long intendedStart, long sentAt, long completedAt) {
+        sent.increment();
+        latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(completedAt - intendedStart), MAX_LATENCIA_MICROS));
+        serviceTime.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(completedAt - sentAt), MAX_LATENCIA_MICROS));
+        outcomes.computeIfAbsent(outcome, k -> new LongAdder()).increment();
+        if (success) {
+            succeeded.increment();
+            String anterior = codigosPorChave.putIfAbsent(idempotencyKey, String.valueOf(codigo));
+            if (anterior != null && !anterior.equals(String.valueOf(codigo))) {
+                divergentReplays.increment();
+            }
+        }
+    }
+    
+    // Chegada descartada porque o gerador já tinha max-in-flight requisições pendentes
+    public void recordDropped() {
+        dropped.increment();
+    }
+    
+    public void setElapsedNanos(long elapsedNanos) {
+        this.elapsedNanos = elapsedNanos;
+    }
+    
+    public long getSucceeded() {
+        return succeeded.sum();
+    }
+    
+    public int getSucceededKeys() {
+        return codigosPorChave.size();
+    }
+    
+    public long getDivergentReplays() {
+        return divergentReplays.sum();
+    }
+    
+    public void print(PrintStream out) {
+        double segundos = elapsedNanos / 1e9;
+        out.printf("Duração: %.1f s | enviadas: %d | sucesso: %d | descartadas pelo gerador: %d%n",
+            segundos, sent.sum(), succeeded.sum(), dropped.sum());
+        out.printf("Throughput: %.1f req/s enviadas, %.1f req/s com sucesso%n", sent.sum() / segundos, succeeded.sum() / segundos);
+        
+        out.println("Resultados por tipo:");
+        new TreeMap<>(outcomes).forEach((outcome, count) ->
+            out.printf("  %-45s %10d  (%.2f%%)%n", outcome, count.sum(), 100.0 * count.sum() / Math.max(1, sent.sum())));
+        
+        printHistogram(out, "Latência desde a chegada planejada (ms)", latency);
+        printHistogram(out, "Tempo de serviço (ms)", serviceTime);
+    }
+    
+    private void printHistogram(PrintStream out, String titulo, Histogram histogram) {
+        if (histogram.getTotalCount() == 0) {
+            return;
+        }
+        StringBuilder linha = new StringBuilder(String.format("%s: média %.2f", titulo, histogram.getMean() / 1000));
+        for (double percentil : PERCENTIS) {
+            linha.append(String.format(" | p%s %.2f", formatPercentile(percentil), histogram.getValueAtPercentile(percentil) / 1000.0));
+        }
+        linha.append(String.format(" | máx %.2f", histogram.getMaxValue() / 1000.0));
+        out.println(linha);
+    }
+    
+    private String formatPercentile(double percentil) {
+        return percentil == Math.rint(percentil) ? String.valueOf((int) percentil) : String.valueOf(percentil);
+    }
+}
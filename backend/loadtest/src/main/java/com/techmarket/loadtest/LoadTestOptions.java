@@ -0,0 +1,113 @@
+package com.techmarket.loadtest;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Opções da linha de comando no formato nome=valor (o prefixo -- é opcional). As propriedades da API (--spring.*, --server.*,
+// --techmarket.*, --logging.*, --management.*) são separadas para serem repassadas ao contexto Spring
+public class LoadTestOptions {
+    
+    private static final String[] PREFIXOS_API = {"spring.", "server.", "techmarket.", "logging.", "management."};
+    
+    private Scenario scenario = Scenario.UNIFORM;
+    private double rate = 200;
+    private Duration duration = Duration.ofSeconds(30);
+    private Duration warmup = Duration.ofSeconds(10);
+    private int accounts = 1000;
+    private double zipfExponent = 1.1;
+    private int pairs = 4;
+    private int retries = 5;
+    private Duration timeout = Duration.ofSeconds(10);
+    private int maxInFlight = 2000;
+    private long seed = 42;
+    private final Map<String, String> applicationProperties = new LinkedHashMap<>();
+    
+    public static LoadTestOptions parse(String[] args) {
+        LoadTestOptions options = new LoadTestOptions();
+        for (String arg : args) {
+            String opcao = arg.startsWith("--") ? arg.substring(2) : arg;
+            if (!opcao.contains("=")) {
+                throw new IllegalArgumentException("Argumento inválido (use nome=valor): " + arg);
+            }
+            String nome = opcao.substring(0, opcao.indexOf('='));
+            String valor = opcao.substring(opcao.indexOf('=') + 1);
+            options.set(nome, valor);
+        }
+        return options;
+    }
+    
+    private void set(String nome, String valor) {
+        switch (nome) {
+            case "scenario" -> scenario = Scenario.valueOf(valor.toUpperCase());
+            case "rate" -> rate = Double.parseDouble(valor);
+            case "duration" -> duration = Duration.parse(valor);
+            case "warmup" -> warmup = Duration.parse(valor);
+            case "accounts" -> accounts = Integer.parseInt(valor);
+            case "zipf-exponent" -> zipfExponent = Double.parseDouble(valor);
+            case "pairs" -> pairs = Integer.parseInt(valor);
+            case "retries" -> retries = Integer.parseInt(valor);
+            case "timeout" -> timeout = Duration.parse(valor);
+            case "max-in-flight" -> maxInFlight = Integer.parseInt(valor);
+            case "seed" -> seed = Long.parseLong(valor);
+            default -> {
+                for (String prefixo : PREFIXOS_API) {
+                    if (nome.startsWith(prefixo)) {
+                        applicationProperties.put(nome, valor);
+                        return;
+                    }
+                }
+                throw new IllegalArgumentException("Opção desconhecida: " + nome);
+            }
+        }
+    }
+    
+    // Getters
+    public Scenario getScenario() {
+        return scenario;
+    }
+    
+    public double getRate() {
+        return rate;
+    }
+    
+    public Duration getDuration() {
+        return duration;
+    }
+    
+    public Duration getWarmup() {
+        return warmup;
+    }
+    
+    public int getAccounts() {
+        return accounts;
+    }
+    
+    public double getZipfExponent() {
+        return zipfExponent;
+    }
+    
+    public int getPairs() {
+        return pairs;
+    }
+    
+    public int getRetries() {
+        return retries;
+    }
+    
+    public Duration getTimeout() {
+        return timeout;
+    }
+    
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+    
+    public long getSeed() {
+        return seed;
+    }
+    
+    public Map<String, String> getApplicationProperties() {
+        return applicationProperties;
+    }
+}
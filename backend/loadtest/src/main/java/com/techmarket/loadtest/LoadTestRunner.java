@@ -0,0 +1,107 @@
+package com.techmarket.loadtest;
+
+import com.techmarket.TechMarketApplication;
+import com.techmarket.entity.Account;
+import com.techmarket.repository.AccountRepository;
+import com.techmarket.repository.TransferRepository;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Sobe a API na mesma JVM, cria as contas, roda o aquecimento e a fase medida do cenário escolhido
+// e imprime o relatório. Ao final confere se o saldo total das contas foi preservado e se as respostas
+// de sucesso de uma mesma chave de idempotência trouxeram sempre a mesma transferência
+public class LoadTestRunner {
+    
+    private static final BigDecimal SALDO_INICIAL = new BigDecimal("1000000000.00");
+    
+    public static void main(String[] args) throws Exception {
+        LoadTestOptions options = LoadTestOptions.parse(args);
+        
+        try (ConfigurableApplicationContext context = new SpringApplicationBuilder(TechMarketApplication.class)
+                .run(applicationArgs(options))) {
+            int porta = ((WebServerApplicationContext) context).getWebServer().getPort();
+            URI uri = URI.create("http://localhost:" + porta + "/api/transferencias");
+            
+            AccountRepository accountRepository = context.getBean(AccountRepository.class);
+            TransferRepository transferRepository = context.getBean(TransferRepository.class);
+            long[] accountIds = createAccounts(accountRepository, options.getAccounts());
+            BigDecimal saldoInicial = totalBalance(accountRepository, accountIds);
+            
+            String execucao = "lt-" + System.currentTimeMillis();
+            Workload aquecimento = new Workload(options, accountIds, execucao + "-w");
+            Workload medida = new Workload(options, accountIds, execucao + "-m");
+            
+            System.out.printf("Cenário %s: %s | %.0f chegadas/s | aquecimento %s | medição %s | %s%n",
+                options.getScenario(), medida.describe(), options.getRate(), options.getWarmup(), options.getDuration(), uri);
+            
+            try (OpenModelLoadGenerator generator = new OpenModelLoadGenerator(uri, options.getTimeout(), options.getMaxInFlight())) {
+                if (!options.getWarmup().isZero()) {
+                    generator.run(aquecimento, options.getRate(), options.getWarmup());
+                }
+                long transferenciasAntes = transferRepository.count();
+                LoadReport report = generator.run(medida, options.getRate(), options.getDuration());
+                long transferenciasGravadas = transferRepository.count() - transferenciasAntes;
+                
+                report.print(System.out);
+                System.out.printf("Transferências gravadas: %d | chaves com sucesso: %d | respostas divergentes para a mesma chave: %d%n",
+                    transferenciasGravadas, report.getSucceededKeys(), report.getDivergentReplays());
+            }
+            
+            BigDecimal saldoFinal = totalBalance(accountRepository, accountIds);
+            System.out.printf("Saldo total: %s -> %s %s%n", saldoInicial, saldoFinal,
+                saldoInicial.compareTo(saldoFinal) == 0 ? "(preservado)" : "(DIVERGENTE)");
+        }
+    }
+    
+    // Padrão: H2 em arquivo recriado a cada execução, porta aleatória e logs em WARN. Se o datasource
+    // for informado (ex.: PostgreSQL local), só porta e logs são ajustados
+    private static String[] applicationArgs(LoadTestOptions options) {
+        Map<String, String> propriedades = new LinkedHashMap<>();
+        propriedades.put("server.port", "0");
+        if (!options.getApplicationProperties().containsKey("spring.datasource.url")) {
+            String diretorio = System.getProperty("loadtest.db.dir", "target/loadtest-db");
+            propriedades.put("spring.datasource.url", "jdbc:h2:file:" + diretorio + "/techmarket");
+            propriedades.put("spring.datasource.driver-class-name", "org.h2.Driver");
+            propriedades.put("spring.datasource.username", "sa");
+            propriedades.put("spring.datasource.password", "");
+            propriedades.put("spring.jpa.hibernate.ddl-auto", "create-drop");
+            propriedades.put("spring.jpa.properties.hibernate.dialect", "org.hibernate.dialect.H2Dialect");
+        }
+        propriedades.put("spring.jpa.show-sql", "false");
+        propriedades.put("techmarket.outbox.enabled", "false");
+        propriedades.put("logging.level.root", "WARN");
+        propriedades.put("logging.level.com.techmarket", "WARN");
+        propriedades.put("logging.level.org.springframework.web", "WARN");
+        propriedades.putAll(options.getApplicationProperties());
+        
+        List<String> args = new ArrayList<>();
+        propriedades.forEach((nome, valor) -> args.add("--" + nome + "=" + valor));
+        return args.toArray(String[]::new);
+    }
+    
+    private static long[] createAccounts(AccountRepository accountRepository, int quantidade) {
+        List<Account> accounts = new ArrayList<>(quantidade);
+        for (int i = 0; i < quantidade; i++) {
+            accounts.add(new Account("Carga " + i, SALDO_INICIAL));
+        }
+        return accountRepository.saveAll(accounts).stream().mapToLong(Account::getId).toArray();
+    }
+    
+    private static BigDecimal totalBalance(AccountRepository accountRepository, long[] accountIds) {
+        List<Long> ids = new ArrayList<>(accountIds.length);
+        for (long id : accountIds) {
+            ids.add(id);
+        }
+        return accountRepository.findAllById(ids).stream()
+            .map(account -> account.getBalance().toBigDecimal())
+            .reduce(BigDecimal.ZERO, BigDecimal::add);
+    }
+}
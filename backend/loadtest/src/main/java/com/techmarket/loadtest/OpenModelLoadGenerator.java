@@ -0,0 +1,123 @@
+package com.techmarket.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.net.http.HttpTimeoutException;
+import java.time.Duration;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+// Modelo aberto: as chegadas seguem uma taxa constante, independente de quantas requisições ainda estão
+// pendentes. Cada requisição roda numa thread virtual; a latência é medida a partir do instante planejado,
+// então um servidor lento aparece como latência alta em vez de reduzir a carga enviada
+public class OpenModelLoadGenerator implements AutoCloseable {
+    
+    private final HttpClient client;
+    private final ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor();
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final URI uri;
+    private final Duration timeout;
+    private final Semaphore inFlight;
+    private final int maxInFlight;
+    
+    public OpenModelLoadGenerator(URI uri, Duration timeout, int maxInFlight) {
+        this.uri = uri;
+        this.timeout = timeout;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+        this.client = HttpClient.newBuilder()
+            .version(HttpClient.Version.HTTP_1_1)
+            .connectTimeout(timeout)
+            .executor(executor)
+            .build();
+    }
+    
+    public LoadReport run(Workload workload, double ratePerSecond, Duration duration) throws InterruptedException {
+        LoadReport report = new LoadReport();
+        long intervalo = (long) (TimeUnit.SECONDS.toNanos(1) / ratePerSecond);
+        long duracao = duration.toNanos();
+        long inicio = System.nanoTime();
+        
+        for (long i = 0; i * intervalo < duracao; i++) {
+            long planejado = inicio + i * intervalo;
+            long espera = planejado - System.nanoTime();
+            if (espera > 0) {
+                LockSupport.parkNanos(espera);
+            }
+            for (Workload.TransferCall call : workload.next()) {
+                if (!inFlight.tryAcquire()) {
+                    report.recordDropped();
+                    continue;
+                }
+                executor.execute(() -> {
+                    try {
+                        send(call, planejado, report);
+                    } finally {
+                        inFlight.release();
+                    }
+                });
+            }
+        }
+        
+        // Espera as pendentes para que a fase seguinte não herde carga desta
+        if (inFlight.tryAcquire(maxInFlight, timeout.toMillis() * 2, TimeUnit.MILLISECONDS)) {
+            inFlight.release(maxInFlight);
+        }
+        report.setElapsedNanos(System.nanoTime() - inicio);
+        return report;
+    }
+    
+    private void send(Workload.TransferCall call, long planejado, LoadReport report) {
+        HttpRequest request = HttpRequest.newBuilder(uri)
+            .timeout(timeout)
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(call.body()))
+            .build();
+        long envio = System.nanoTime();
+        String outcome;
+        String codigo = null;
+        boolean sucesso = false;
+        try {
+            HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+            sucesso = response.statusCode() / 100 == 2;
+            outcome = "HTTP " + response.statusCode();
+            JsonNode body = parse(response.body());
+            if (sucesso) {
+                codigo = body.path("codigo").asText(null);
+            } else if (body.path("error").isTextual()) {
+                // Campo "error" do GlobalExceptionHandler, ex.: "HTTP 503 Account busy"
+                outcome += " " + body.path("error").asText();
+            }
+        } catch (HttpTimeoutException e) {
+            outcome = "timeout do cliente";
+        } catch (IOException e) {
+            outcome = "erro de I/O: " + e.getClass().getSimpleName();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            outcome = "interrompida";
+        }
+        report.recordResponse(call.idempotencyKey(), codigo, outcome, sucesso, planejado, envio, System.nanoTime());
+    }
+    
+    private JsonNode parse(String body) {
+        try {
+            return objectMapper.readTree(body);
+        } catch (IOException e) {
+            return objectMapper.missingNode();
+        }
+    }
+    
+    @Override
+    public void close() {
+        executor.shutdownNow();
+    }
+}
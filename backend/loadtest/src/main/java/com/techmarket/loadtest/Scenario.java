@@ -0,0 +1,14 @@
+package com.techmarket.loadtest;
+
+// Cenários de carga; cada chegada do modelo aberto vira uma ou mais requisições
+public enum Scenario {
+    // Origem e destino sorteados uniformemente entre todas as contas: quase sem disputa de lock
+    UNIFORM,
+    // Origem e destino sorteados por Zipf: poucas contas concentram a maior parte do tráfego
+    ZIPF,
+    // Poucos pares de contas transferindo nos dois sentidos ao mesmo tempo (A→B e B→A)
+    OPPOSING,
+    // Cada transferência é enviada várias vezes em paralelo com a mesma chave de idempotência,
+    // como clientes repetindo após timeout
+    RETRY_STORM
+}
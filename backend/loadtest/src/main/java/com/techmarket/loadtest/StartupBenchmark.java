@@ -0,0 +1,200 @@
+package com.techmarket.loadtest;
+
+import java.io.IOException;
+import java.net.ConnectException;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+// Tempo de subida de um processo novo da API até a primeira transferência bem-sucedida, e o RSS do processo
+// nesse instante, para o jar executável de hoje (java -jar ...-exec.jar) e para o modo fast-startup (AOT do
+// Spring + AppCDS, ver o profile fast-startup em backend/pom.xml). Cada execução usa um H2 em arquivo novo com
+// duas contas gravadas antes da subida (o resto do schema fica com o ddl-auto=update do Hibernate; o spring.sql.init
+// não serve aqui porque o AOT fixa no build a ordem entre ele e o Hibernate). As variantes se alternam a cada
+// rodada para dividir o ruído da máquina
+public class StartupBenchmark {
+    
+    private static final String TRANSFERENCIA = "{\"origem\":1,\"destino\":2,\"valor\":1.00}";
+    private static final String[] SCHEMA_CONTAS = {
+        "CREATE TABLE accounts (id BIGINT GENERATED BY DEFAULT AS IDENTITY PRIMARY KEY, owner VARCHAR(255) NOT NULL, "
+            + "balance NUMERIC(19,2) NOT NULL, version BIGINT)",
+        "INSERT INTO accounts (owner, balance, version) VALUES ('Origem', 1000000.00, 0), ('Destino', 0.00, 0)"
+    };
+    
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        int runs = Integer.parseInt(options.getOrDefault("runs", "5"));
+        Duration timeout = Duration.parse(options.getOrDefault("timeout", "PT120S"));
+        Path target = Path.of(options.getOrDefault("target", System.getProperty("startup.target.dir", "../target")))
+            .toAbsolutePath().normalize();
+        List<String> jvmArgs = options.getOrDefault("jvm-args", "").isBlank()
+            ? List.of() : List.of(options.get("jvm-args").trim().split("\\s+"));
+        
+        Path execJar = target.resolve("techmarket-api-1.0.0-exec.jar");
+        Path aotJar = target.resolve("techmarket-api-1.0.0.jar");
+        Path cdsArchive = target.resolve("app-cds.jsa");
+        for (Path arquivo : List.of(execJar, aotJar, cdsArchive)) {
+            if (!Files.exists(arquivo)) {
+                throw new IllegalStateException(arquivo + " não encontrado; gere com: mvn package -Pfast-startup -DskipTests");
+            }
+        }
+        // O caminho do jar precisa ser o mesmo do treino do CDS (absoluto, em target/)
+        Map<String, List<String>> variantes = new LinkedHashMap<>();
+        variantes.put("jar executável", List.of("-jar", execJar.toString()));
+        variantes.put("AOT + AppCDS", List.of("-XX:SharedArchiveFile=" + cdsArchive, "-Dspring.aot.enabled=true", "-jar", aotJar.toString()));
+        
+        Map<String, List<Sample>> resultados = new LinkedHashMap<>();
+        for (int rodada = 1; rodada <= runs; rodada++) {
+            for (Map.Entry<String, List<String>> variante : variantes.entrySet()) {
+                Sample sample = run(variante.getValue(), jvmArgs, timeout);
+                resultados.computeIfAbsent(variante.getKey(), k -> new ArrayList<>()).add(sample);
+                System.out.printf("Rodada %d, %s: primeira transferência em %d ms | RSS %s%n",
+                    rodada, variante.getKey(), sample.millis, formatRss(sample.rssKb));
+            }
+        }
+        
+        System.out.printf("%nMedianas de %d rodadas:%n", runs);
+        long base = -1;
+        for (Map.Entry<String, List<Sample>> resultado : resultados.entrySet()) {
+            long millis = median(resultado.getValue().stream().mapToLong(sample -> sample.millis).toArray());
+            long rss = median(resultado.getValue().stream().mapToLong(sample -> sample.rssKb).toArray());
+            if (base < 0) {
+                base = millis;
+            }
+            System.out.printf("  %-15s primeira transferência %6d ms (%+.0f%%) | RSS %s%n",
+                resultado.getKey(), millis, 100.0 * (millis - base) / base, formatRss(rss));
+        }
+    }
+    
+    private static Sample run(List<String> variante, List<String> jvmArgs, Duration timeout) throws Exception {
+        Path diretorio = Files.createTempDirectory("startup-db");
+        String url = "jdbc:h2:file:" + diretorio.resolve("techmarket");
+        try (Connection connection = DriverManager.getConnection(url, "sa", "");
+             Statement statement = connection.createStatement()) {
+            for (String sql : SCHEMA_CONTAS) {
+                statement.execute(sql);
+            }
+        }
+        try {
+            return run(variante, jvmArgs, url, timeout);
+        } finally {
+            try (Stream<Path> arquivos = Files.walk(diretorio)) {
+                arquivos.sorted(Comparator.reverseOrder()).forEach(arquivo -> arquivo.toFile().delete());
+            }
+        }
+    }
+    
+    private static Sample run(List<String> variante, List<String> jvmArgs, String url, Duration timeout) throws Exception {
+        int porta;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            porta = socket.getLocalPort();
+        }
+        List<String> comando = new ArrayList<>();
+        comando.add(Path.of(System.getProperty("java.home"), "bin", "java").toString());
+        comando.addAll(jvmArgs);
+        comando.addAll(variante);
+        comando.addAll(List.of(
+            "--server.port=" + porta,
+            "--spring.datasource.url=" + url,
+            "--spring.datasource.driver-class-name=org.h2.Driver",
+            "--spring.datasource.username=sa",
+            "--spring.datasource.password=",
+            "--spring.jpa.hibernate.ddl-auto=update",
+            "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+            "--spring.jpa.show-sql=false",
+            "--logging.level.root=WARN",
+            "--logging.level.com.techmarket=WARN",
+            "--logging.level.org.springframework.web=WARN"));
+        
+        HttpClient client = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(1)).build();
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + porta + "/api/transferencias"))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(TRANSFERENCIA))
+            .build();
+        
+        long inicio = System.nanoTime();
+        Process process = new ProcessBuilder(comando).redirectErrorStream(true).redirectOutput(ProcessBuilder.Redirect.DISCARD).start();
+        try {
+            long limite = inicio + timeout.toNanos();
+            while (System.nanoTime() < limite) {
+                if (!process.isAlive()) {
+                    throw new IllegalStateException("Processo terminou com código " + process.exitValue() + ": " + comando);
+                }
+                try {
+                    if (client.send(request, HttpResponse.BodyHandlers.discarding()).statusCode() == 200) {
+                        long millis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - inicio);
+                        return new Sample(millis, rss(process.pid()));
+                    }
+                } catch (ConnectException e) {
+                    // Tomcat ainda não está ouvindo
+                }
+                Thread.sleep(20);
+            }
+            throw new IllegalStateException("Nenhuma transferência bem-sucedida em " + timeout + ": " + comando);
+        } finally {
+            process.destroy();
+            if (!process.waitFor(10, TimeUnit.SECONDS)) {
+                process.destroyForcibly();
+            }
+        }
+    }
+    
+    // VmRSS do /proc (Linux); -1 em outros sistemas
+    private static long rss(long pid) {
+        try {
+            for (String linha : Files.readAllLines(Path.of("/proc", String.valueOf(pid), "status"))) {
+                if (linha.startsWith("VmRSS:")) {
+                    return Long.parseLong(linha.replaceAll("\\D", ""));
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            // Sem /proc
+        }
+        return -1;
+    }
+    
+    private static String formatRss(long rssKb) {
+        return rssKb < 0 ? "-" : String.format("%d MB", rssKb / 1024);
+    }
+    
+    private static long median(long[] valores) {
+        long[] ordenados = valores.clone();
+        Arrays.sort(ordenados);
+        return ordenados[ordenados.length / 2];
+    }
+    
+    // nome=valor, com -- opcional, como no LoadTestOptions
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            String opcao = arg.startsWith("--") ? arg.substring(2) : arg;
+            if (!opcao.contains("=")) {
+                throw new IllegalArgumentException("Argumento inválido (use nome=valor): " + arg);
+            }
+            String nome = opcao.substring(0, opcao.indexOf('='));
+            if (!List.of("runs", "timeout", "target", "jvm-args").contains(nome)) {
+                throw new IllegalArgumentException("Opção desconhecida: " + nome);
+            }
+            options.put(nome, opcao.substring(opcao.indexOf('=') + 1));
+        }
+        return options;
+    }
+    
+    private record Sample(long millis, long rssKb) {}
+}
@@ -0,0 +1,83 @@
+package com.techmarket.loadtest;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.SplittableRandom;
+
+// Gera as requisições de cada chegada conforme o cenário. Chamado só pela thread que agenda as chegadas
+public class Workload {
+    
+    public record TransferCall(String idempotencyKey, String body) {}
+    
+    private static final String VALOR = "1.00";
+    
+    private final Scenario scenario;
+    private final long[] accountIds;
+    private final ZipfSampler zipf;
+    private final int pairs;
+    private final int retries;
+    private final SplittableRandom random;
+    private final String prefixoChave;
+    private long sequencia;
+    
+    public Workload(LoadTestOptions options, long[] accountIds, String prefixoChave) {
+        if (accountIds.length < 2) {
+            throw new IllegalArgumentException("São necessárias ao menos duas contas");
+        }
+        this.scenario = options.getScenario();
+        this.accountIds = accountIds;
+        this.zipf = scenario == Scenario.ZIPF ? new ZipfSampler(accountIds.length, options.getZipfExponent()) : null;
+        this.pairs = Math.max(1, Math.min(options.getPairs(), accountIds.length / 2));
+        this.retries = Math.max(1, options.getRetries());
+        this.random = new SplittableRandom(options.getSeed());
+        this.prefixoChave = prefixoChave;
+    }
+    
+    public List<TransferCall> next() {
+        String chave = prefixoChave + "-" + (sequencia++);
+        return switch (scenario) {
+            case UNIFORM -> List.of(uniformCall(chave));
+            case ZIPF -> List.of(zipfCall(chave));
+            case OPPOSING -> List.of(opposingCall(chave));
+            case RETRY_STORM -> Collections.nCopies(retries, uniformCall(chave));
+        };
+    }
+    
+    // Resumo do cenário para o relatório
+    public String describe() {
+        return switch (scenario) {
+            case UNIFORM -> accountIds.length + " contas, sorteio uniforme";
+            case ZIPF -> String.format("%d contas, Zipf (10 contas mais quentes = %.0f%% das escolhas)",
+                accountIds.length, zipf.topShare(10) * 100);
+            case OPPOSING -> pairs + " pares de contas, sentidos alternados";
+            case RETRY_STORM -> accountIds.length + " contas, " + retries + " envios simultâneos por chave";
+        };
+    }
+    
+    private TransferCall uniformCall(String chave) {
+        int origem = random.nextInt(accountIds.length);
+        int destino = (origem + 1 + random.nextInt(accountIds.length - 1)) % accountIds.length;
+        return call(chave, origem, destino);
+    }
+    
+    private TransferCall zipfCall(String chave) {
+        int origem = zipf.next(random);
+        int destino = zipf.next(random);
+        while (destino == origem) {
+            destino = zipf.next(random);
+        }
+        return call(chave, origem, destino);
+    }
+    
+    private TransferCall opposingCall(String chave) {
+        int par = random.nextInt(pairs);
+        boolean ida = random.nextBoolean();
+        return call(chave, ida ? 2 * par : 2 * par + 1, ida ? 2 * par + 1 : 2 * par);
+    }
+    
+    private TransferCall call(String chave, int origem, int destino) {
+        String body = "{\"origem\":" + accountIds[origem] + ",\"destino\":" + accountIds[destino]
+            + ",\"valor\":" + VALOR + ",\"idempotencyKey\":\"" + chave + "\"}";
+        return new TransferCall(chave, body);
+    }
+}
@@ -0,0 +1,37 @@
+package com.techmarket.loadtest;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+// Sorteia índices em [0, n) com distribuição de Zipf: o índice k tem peso 1 / (k + 1)^expoente.
+// A CDF é calculada uma vez; cada sorteio é uma busca binária
+public class ZipfSampler {
+    
+    private final double[] cdf;
+    
+    public ZipfSampler(int n, double exponent) {
+        if (n <= 0) {
+            throw new IllegalArgumentException("n deve ser positivo");
+        }
+        cdf = new double[n];
+        double soma = 0;
+        for (int k = 0; k < n; k++) {
+            soma += 1.0 / Math.pow(k + 1, exponent);
+            cdf[k] = soma;
+        }
+        for (int k = 0; k < n; k++) {
+            cdf[k] /= soma;
+        }
+    }
+    
+    public int next(SplittableRandom random) {
+        int i = Arrays.binarySearch(cdf, random.nextDouble());
+        int indice = i >= 0 ? i : -i - 1;
+        return Math.min(indice, cdf.length - 1);
+    }
+    
+    // Fração esperada dos sorteios que cai nos k primeiros índices
+    public double topShare(int k) {
+        return cdf[Math.min(k, cdf.length) - 1];
+    }
+}
@@ -0,0 +1,104 @@
+package com.techmarket.config;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.List;
+
+// Bancos que guardam as contas: o shard 0 é o primário e os demais vêm de techmarket.sharding.urls.
+// Cada conta vive em um único shard, escolhido pelo id; cada shard tem transações próprias (JDBC,
+// fora do JpaTransactionManager), e as transferências entre shards são coordenadas por saga
+public class AccountShards implements Closeable {
+    
+    private final List<Shard> shards;
+    private final ShardingStrategy strategy;
+    private final long rangeSize;
+    
+    public AccountShards(List<Shard> shards, ShardingStrategy strategy, long rangeSize) {
+        if (shards.isEmpty()) {
+            throw new IllegalArgumentException("É preciso ao menos um shard de contas");
+        }
+        if (strategy == ShardingStrategy.RANGE && rangeSize <= 0) {
+            throw new IllegalArgumentException("Tamanho da faixa de ids por shard deve ser positivo");
+        }
+        this.shards = List.copyOf(shards);
+        this.strategy = strategy;
+        this.rangeSize = rangeSize;
+    }
+    
+    // Mais de um banco: as contas estão distribuídas e só o engine SHARDED sabe onde cada uma está
+    public boolean isEnabled() {
+        return shards.size() > 1;
+    }
+    
+    public int size() {
+        return shards.size();
+    }
+    
+    public List<Shard> getShards() {
+        return shards;
+    }
+    
+    public Shard shardFor(Long accountId) {
+        return shards.get(indexOf(accountId));
+    }
+    
+    public int indexOf(Long accountId) {
+        if (strategy == ShardingStrategy.RANGE) {
+            return (int) Math.min(Math.max(accountId, 0) / rangeSize, shards.size() - 1);
+        }
+        return Math.floorMod(Long.hashCode(accountId), shards.size());
+    }
+    
+    @Override
+    public void close() throws IOException {
+        // O shard 0 é o pool do primário, fechado pelo próprio bean
+        for (Shard shard : shards.subList(1, shards.size())) {
+            if (shard.getDataSource() instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+    
+    public static class Shard {
+        
+        private final int index;
+        private final String name;
+        private final DataSource dataSource;
+        private final JdbcTemplate jdbcTemplate;
+        private final TransactionTemplate transactionTemplate;
+        
+        public Shard(int index, String name, DataSource dataSource) {
+            this.index = index;
+            this.name = name;
+            this.dataSource = dataSource;
+            this.jdbcTemplate = new JdbcTemplate(dataSource);
+            this.transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        }
+        
+        public int getIndex() {
+            return index;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public DataSource getDataSource() {
+            return dataSource;
+        }
+        
+        public JdbcTemplate getJdbcTemplate() {
+            return jdbcTemplate;
+        }
+        
+        // Transação local do shard; os repositórios sharded usam o JdbcTemplate do mesmo shard
+        public TransactionTemplate getTransactionTemplate() {
+            return transactionTemplate;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.techmarket.config;
+
+import com.techmarket.service.ReadYourWritesTracker;
+import com.techmarket.service.TransferEngine;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.metrics.micrometer.MicrometerMetricsTrackerFactory;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+
+import javax.sql.DataSource;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+// Pool do primário (spring.datasource.*), das réplicas de leitura (techmarket.datasource.replicas.*)
+// e dos shards de contas (techmarket.sharding.*). O DataSource da aplicação (JPA, JdbcTemplate) é o
+// roteamento por transação readOnly; sem réplicas configuradas toda conexão vem do primário.
+@Configuration
+public class DataSourceConfig {
+    
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+    
+    @Bean
+    public ReadWriteRoutingDataSource readWriteRoutingDataSource(
+            HikariDataSource primaryDataSource,
+            ReadYourWritesTracker readYourWritesTracker,
+            MeterRegistry registry,
+            @Value("${techmarket.datasource.replicas.urls:}") List<String> urls,
+            @Value("${techmarket.datasource.replicas.username:${spring.datasource.username:}}") String username,
+            @Value("${techmarket.datasource.replicas.password:${spring.datasource.password:}}") String password,
+            @Value("${techmarket.datasource.replicas.maximum-pool-size:${spring.datasource.hikari.maximum-pool-size:10}}") int maximumPoolSize,
+            @Value("${techmarket.datasource.replicas.connection-timeout:PT1S}") Duration connectionTimeout) {
+        List<ReadWriteRoutingDataSource.Replica> replicas = new ArrayList<>();
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            String name = "replica-" + (replicas.size() + 1);
+            HikariDataSource dataSource = pool(name, url, username, password, maximumPoolSize, registry);
+            dataSource.setReadOnly(true);
+            // Timeout curto: uma réplica fora do ar logo cede a leitura para a próxima ou o primário
+            dataSource.setConnectionTimeout(connectionTimeout.toMillis());
+            replicas.add(new ReadWriteRoutingDataSource.Replica(name, dataSource));
+        }
+        return new ReadWriteRoutingDataSource(primaryDataSource, replicas, readYourWritesTracker, registry);
+    }
+    
+    // Shard 0 é o pool do primário (escritas, fora do roteamento para réplicas); os demais são pools
+    // próprios, um por url de techmarket.sharding.urls
+    @Bean
+    public AccountShards accountShards(
+            HikariDataSource primaryDataSource,
+            MeterRegistry registry,
+            @Value("${techmarket.sharding.urls:}") List<String> urls,
+            @Value("${techmarket.sharding.username:${spring.datasource.username:}}") String username,
+            @Value("${techmarket.sharding.password:${spring.datasource.password:}}") String password,
+            @Value("${techmarket.sharding.maximum-pool-size:${spring.datasource.hikari.maximum-pool-size:10}}") int maximumPoolSize,
+            @Value("${techmarket.sharding.strategy:HASH}") ShardingStrategy strategy,
+            @Value("${techmarket.sharding.range-size:1000000}") long rangeSize,
+            @Value("${techmarket.transfer.engine:JPA}") TransferEngine engine) {
+        List<AccountShards.Shard> shards = new ArrayList<>();
+        shards.add(new AccountShards.Shard(0, "shard-0", primaryDataSource));
+        for (String url : urls) {
+            if (url.isBlank()) {
+                continue;
+            }
+            String name = "shard-" + shards.size();
+            shards.add(new AccountShards.Shard(shards.size(), name, pool(name, url, username, password, maximumPoolSize, registry)));
+        }
+        // Os outros engines só enxergam as contas do primário
+        if (shards.size() > 1 && engine != TransferEngine.SHARDED) {
+            throw new IllegalStateException("techmarket.sharding.urls exige techmarket.transfer.engine=SHARDED");
+        }
+        return new AccountShards(shards, strategy, rangeSize);
+    }
+    
+    @Bean
+    @Primary
+    public DataSource dataSource(ReadWriteRoutingDataSource readWriteRoutingDataSource) {
+        return new LazyConnectionDataSourceProxy(readWriteRoutingDataSource);
+    }
+    
+    private static HikariDataSource pool(String name, String url, String username, String password,
+                                         int maximumPoolSize, MeterRegistry registry) {
+        HikariDataSource dataSource = new HikariDataSource();
+        dataSource.setPoolName(name);
+        dataSource.setJdbcUrl(url.trim());
+        dataSource.setUsername(username);
+        dataSource.setPassword(password);
+        dataSource.setMaximumPoolSize(maximumPoolSize);
+        // Banco fora do ar na subida não impede a aplicação de subir
+        dataSource.setInitializationFailTimeout(-1);
+        dataSource.setMetricsTrackerFactory(new MicrometerMetricsTrackerFactory(registry));
+        return dataSource;
+    }
+}
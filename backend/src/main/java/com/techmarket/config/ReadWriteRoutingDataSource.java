@@ -0,0 +1,157 @@
+package com.techmarket.config;
+
+import com.techmarket.service.ReadYourWritesTracker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.datasource.AbstractDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.io.Closeable;
+import java.io.IOException;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Escolhe o banco de cada conexão: transações readOnly vão para uma réplica saudável, em round-robin,
+// que já tenha replicado a última escrita local da conta vinculada à leitura; o resto fica no primário.
+// Fica atrás de um LazyConnectionDataSourceProxy, que só pede a conexão no primeiro comando, quando o
+// flag readOnly da transação já foi definido.
+public class ReadWriteRoutingDataSource extends AbstractDataSource implements Closeable {
+    
+    public static final String READS_COUNTER = "techmarket.datasource.reads";
+    
+    private static final Logger log = LoggerFactory.getLogger(ReadWriteRoutingDataSource.class);
+    
+    private final DataSource primary;
+    private final List<Replica> replicas;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final AtomicInteger next = new AtomicInteger();
+    private final Counter primaryReads;
+    private final Counter[] replicaReads;
+    
+    public ReadWriteRoutingDataSource(DataSource primary, List<Replica> replicas,
+                                      ReadYourWritesTracker readYourWritesTracker, MeterRegistry registry) {
+        this.primary = primary;
+        this.replicas = List.copyOf(replicas);
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.primaryReads = readsCounter(registry, "primary");
+        this.replicaReads = new Counter[this.replicas.size()];
+        for (int i = 0; i < replicaReads.length; i++) {
+            replicaReads[i] = readsCounter(registry, this.replicas.get(i).getName());
+        }
+    }
+    
+    @Override
+    public Connection getConnection() throws SQLException {
+        return route(DataSource::getConnection);
+    }
+    
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        return route(dataSource -> dataSource.getConnection(username, password));
+    }
+    
+    public DataSource getPrimary() {
+        return primary;
+    }
+    
+    public List<Replica> getReplicas() {
+        return replicas;
+    }
+    
+    @Override
+    public void close() throws IOException {
+        for (Replica replica : replicas) {
+            if (replica.getDataSource() instanceof Closeable closeable) {
+                closeable.close();
+            }
+        }
+    }
+    
+    private Connection route(ConnectionSource source) throws SQLException {
+        if (replicas.isEmpty() || !TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return source.get(primary);
+        }
+        long required = readYourWritesTracker.requiredReplicatedUntil();
+        int start = Math.floorMod(next.getAndIncrement(), replicas.size());
+        for (int i = 0; i < replicas.size(); i++) {
+            int index = (start + i) % replicas.size();
+            Replica replica = replicas.get(index);
+            if (!replica.canServe(required)) {
+                continue;
+            }
+            try {
+                Connection connection = source.get(replica.getDataSource());
+                replicaReads[index].increment();
+                return connection;
+            } catch (SQLException | RuntimeException e) {
+                // Sai da rotação até o monitor voltar a ler o heartbeat dela
+                replica.markDown();
+                log.warn("Réplica {} indisponível, leitura segue para outra réplica ou o primário: {}", replica.getName(), e.getMessage());
+            }
+        }
+        // Nenhuma réplica saudável e em dia com as escritas da conta
+        primaryReads.increment();
+        return source.get(primary);
+    }
+    
+    private static Counter readsCounter(MeterRegistry registry, String target) {
+        return Counter.builder(READS_COUNTER)
+            .description("Conexões de transações readOnly por banco de destino")
+            .tag("target", target)
+            .register(registry);
+    }
+    
+    @FunctionalInterface
+    private interface ConnectionSource {
+        Connection get(DataSource dataSource) throws SQLException;
+    }
+    
+    // Estado de uma réplica: saudável e até que heartbeat do primário ela já aplicou
+    public static class Replica {
+        
+        private final String name;
+        private final DataSource dataSource;
+        private volatile boolean healthy;
+        private volatile long replicatedUntil;
+        
+        public Replica(String name, DataSource dataSource) {
+            this.name = name;
+            this.dataSource = dataSource;
+        }
+        
+        public String getName() {
+            return name;
+        }
+        
+        public DataSource getDataSource() {
+            return dataSource;
+        }
+        
+        public boolean isHealthy() {
+            return healthy;
+        }
+        
+        // Epoch millis do último heartbeat lido na réplica; 0 enquanto nenhum chegou
+        public long getReplicatedUntil() {
+            return replicatedUntil;
+        }
+        
+        public void update(long replicatedUntil, boolean healthy) {
+            this.replicatedUntil = replicatedUntil;
+            this.healthy = healthy;
+        }
+        
+        public void markDown() {
+            healthy = false;
+        }
+        
+        boolean canServe(long required) {
+            return healthy && replicatedUntil > required;
+        }
+    }
+}
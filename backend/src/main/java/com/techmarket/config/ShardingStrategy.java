@@ -0,0 +1,9 @@
+package com.techmarket.config;
+
+// Como AccountShards escolhe o shard de uma conta pelo id
+public enum ShardingStrategy {
+    // Hash do id módulo o número de shards: ids sequenciais ficam espalhados por igual
+    HASH,
+    // Faixas contíguas de range-size ids por shard; o último shard fica com o resto
+    RANGE
+}
@@ -0,0 +1,100 @@
+package com.techmarket.controller;
+
+import com.techmarket.dto.AccountBalanceResponse;
+import com.techmarket.dto.StatementPageResponse;
+import com.techmarket.dto.StatementSummaryResponse;
+import com.techmarket.service.AccountBalanceService;
+import com.techmarket.service.StatementExportFormat;
+import com.techmarket.service.StatementExportService;
+import com.techmarket.service.StatementService;
+import com.techmarket.service.TransferEventBus;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.LocalDate;
+import java.util.zip.GZIPOutputStream;
+
+@RestController
+@RequestMapping("/api/contas")
+@CrossOrigin(origins = "*")
+public class AccountController {
+    
+    @Autowired
+    private StatementService statementService;
+    
+    @Autowired
+    private StatementExportService statementExportService;
+    
+    @Autowired
+    private AccountBalanceService accountBalanceService;
+    
+    @Autowired
+    private TransferEventBus transferEventBus;
+    
+    @GetMapping("/{id}/saldo")
+    public ResponseEntity<AccountBalanceResponse> getBalance(@PathVariable Long id) {
+        return ResponseEntity.ok(accountBalanceService.getBalance(id));
+    }
+    
+    // Transferências da conta confirmadas a partir de agora (SSE); Last-Event-ID retoma de onde parou
+    @GetMapping(value = "/{id}/eventos", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamEvents(
+            @PathVariable Long id,
+            @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+        return ResponseEntity.ok()
+            .header("X-Accel-Buffering", "no")
+            .body(transferEventBus.subscribe(id, lastEventId));
+    }
+    
+    @GetMapping("/{id}/extrato")
+    public ResponseEntity<StatementPageResponse> getStatement(
+            @PathVariable Long id,
+            @RequestParam(required = false) String cursor,
+            @RequestParam(required = false) Integer size) {
+        return ResponseEntity.ok(statementService.getStatement(id, cursor, size));
+    }
+    
+    @GetMapping("/{id}/resumo")
+    public ResponseEntity<StatementSummaryResponse> getSummary(
+            @PathVariable Long id,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim,
+            @RequestParam(defaultValue = "10") int limite) {
+        return ResponseEntity.ok(statementService.getSummary(id, inicio, fim, limite));
+    }
+    
+    @GetMapping("/{id}/extrato/export")
+    public ResponseEntity<StreamingResponseBody> exportStatement(
+            @PathVariable Long id,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate inicio,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate fim,
+            @RequestParam(defaultValue = "csv") String formato,
+            @RequestParam(defaultValue = "false") boolean gzip) {
+        StatementExportFormat format = StatementExportFormat.from(formato);
+        statementExportService.validate(id, inicio, fim);
+        
+        StreamingResponseBody body = out -> {
+            if (gzip) {
+                GZIPOutputStream gzipOut = new GZIPOutputStream(out, 64 * 1024);
+                statementExportService.export(id, inicio, fim, format, gzipOut);
+                gzipOut.finish();
+            } else {
+                statementExportService.export(id, inicio, fim, format, out);
+            }
+        };
+        
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+            .contentType(MediaType.parseMediaType(format.getContentType()))
+            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"extrato-" + id + "." + format.getExtension() + "\"");
+        if (gzip) {
+            response.header(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        return response.body(body);
+    }
+}
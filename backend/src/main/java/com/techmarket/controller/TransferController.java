@@ -1,10 +1,18 @@
 package com.techmarket.controller;
 
+import com.techmarket.dto.BatchTransferRequest;
+import com.techmarket.dto.BatchTransferResponse;
 import com.techmarket.dto.TransferRequest;
 import com.techmarket.dto.TransferResponse;
+import com.techmarket.dto.TransferStatusResponse;
+import com.techmarket.service.DatabaseBulkhead;
+import com.techmarket.service.TransferConcurrencyLimiter;
+import com.techmarket.service.TransferIdempotencyService;
+import com.techmarket.service.TransferOutboxService;
 import com.techmarket.service.TransferService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -16,9 +24,40 @@ public class TransferController {
     @Autowired
     private TransferService transferService;
     
+    @Autowired
+    private TransferIdempotencyService transferIdempotencyService;
+    
+    @Autowired
+    private TransferOutboxService transferOutboxService;
+    
+    @Autowired
+    private DatabaseBulkhead databaseBulkhead;
+    
+    @Autowired
+    private TransferConcurrencyLimiter transferConcurrencyLimiter;
+    
     @PostMapping("/transferencias")
     public ResponseEntity<TransferResponse> createTransfer(@Valid @RequestBody TransferRequest request) {
-        TransferResponse response = transferService.processTransfer(request);
+        TransferResponse response = transferConcurrencyLimiter.execute(
+            () -> transferIdempotencyService.processTransfer(request), request.getOrigem(), request.getDestino());
         return ResponseEntity.ok(response);
     }
+    
+    @PostMapping("/transferencias/lote")
+    public ResponseEntity<BatchTransferResponse> createTransferBatch(@Valid @RequestBody BatchTransferRequest request) {
+        BatchTransferResponse response = transferConcurrencyLimiter.execute(
+            () -> databaseBulkhead.execute(() -> transferService.processBatch(request.getTransferencias())));
+        return ResponseEntity.ok(response);
+    }
+    
+    @PostMapping("/transferencias/async")
+    public ResponseEntity<TransferStatusResponse> createTransferAsync(@Valid @RequestBody TransferRequest request) {
+        TransferStatusResponse response = transferOutboxService.enqueue(request);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(response);
+    }
+    
+    @GetMapping("/transferencias/{codigo}")
+    public ResponseEntity<TransferStatusResponse> getTransferStatus(@PathVariable String codigo) {
+        return ResponseEntity.ok(transferOutboxService.getStatus(codigo));
+    }
 }
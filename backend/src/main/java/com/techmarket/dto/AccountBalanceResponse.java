@@ -0,0 +1,44 @@
+package com.techmarket.dto;
+
+import com.techmarket.util.Money;
+
+public class AccountBalanceResponse {
+    
+    private Long accountId;
+    private Money saldo;
+    private Long version;
+    
+    // Construtores
+    public AccountBalanceResponse() {}
+    
+    public AccountBalanceResponse(Long accountId, Money saldo, Long version) {
+        this.accountId = accountId;
+        this.saldo = saldo;
+        this.version = version;
+    }
+    
+    // Getters e Setters
+    public Long getAccountId() {
+        return accountId;
+    }
+    
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+    
+    public Money getSaldo() {
+        return saldo;
+    }
+    
+    public void setSaldo(Money saldo) {
+        this.saldo = saldo;
+    }
+    
+    public Long getVersion() {
+        return version;
+    }
+    
+    public void setVersion(Long version) {
+        this.version = version;
+    }
+}
@@ -0,0 +1,102 @@
+package com.techmarket.dto;
+
+import com.techmarket.util.Money;
+
+import java.time.LocalDateTime;
+
+public class BatchTransferItemResponse {
+    
+    public static final String STATUS_SUCCESS = "success";
+    public static final String STATUS_INSUFFICIENT_BALANCE = "insufficient_balance";
+    public static final String STATUS_ACCOUNT_NOT_FOUND = "account_not_found";
+    public static final String STATUS_DUPLICATE_IDEMPOTENCY_KEY = "duplicate_idempotency_key";
+    public static final String STATUS_INVALID = "invalid";
+    
+    private int indice;
+    private String status;
+    private String codigo;
+    private Long origemAccountId;
+    private Long destinoAccountId;
+    private Money valor;
+    private LocalDateTime timestamp;
+    private String message;
+    
+    // Construtores
+    public BatchTransferItemResponse() {}
+    
+    public BatchTransferItemResponse(int indice, String status, String codigo, Long origemAccountId, Long destinoAccountId, Money valor, LocalDateTime timestamp, String message) {
+        this.indice = indice;
+        this.status = status;
+        this.codigo = codigo;
+        this.origemAccountId = origemAccountId;
+        this.destinoAccountId = destinoAccountId;
+        this.valor = valor;
+        this.timestamp = timestamp;
+        this.message = message;
+    }
+    
+    // Getters e Setters
+    public int getIndice() {
+        return indice;
+    }
+    
+    public void setIndice(int indice) {
+        this.indice = indice;
+    }
+    
+    public String getStatus() {
+        return status;
+    }
+    
+    public void setStatus(String status) {
+        this.status = status;
+    }
+    
+    public String getCodigo() {
+        return codigo;
+    }
+    
+    public void setCodigo(String codigo) {
+        this.codigo = codigo;
+    }
+    
+    public Long getOrigemAccountId() {
+        return origemAccountId;
+    }
+    
+    public void setOrigemAccountId(Long origemAccountId) {
+        this.origemAccountId = origemAccountId;
+    }
+    
+    public Long getDestinoAccountId() {
+        return destinoAccountId;
+    }
+    
+    public void setDestinoAccountId(Long destinoAccountId) {
+        this.destinoAccountId = destinoAccountId;
+    }
+    
+    public Money getValor() {
+        return valor;
+    }
+    
+    public void setValor(Money valor) {
+        this.valor = valor;
+    }
+    
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+    
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+    
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
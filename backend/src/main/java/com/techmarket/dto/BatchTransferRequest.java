@@ -0,0 +1,32 @@
+package com.techmarket.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import java.util.ArrayList;
+import java.util.List;
+
+public class BatchTransferRequest {
+    
+    public static final int MAX_ITENS = 1000;
+    
+    @NotEmpty(message = "Lote de transferências não pode ser vazio")
+    @Size(max = MAX_ITENS, message = "Lote deve ter no máximo " + MAX_ITENS + " transferências")
+    private List<@Valid TransferRequest> transferencias = new ArrayList<>();
+    
+    // Construtores
+    public BatchTransferRequest() {}
+    
+    public BatchTransferRequest(List<TransferRequest> transferencias) {
+        this.transferencias = transferencias;
+    }
+    
+    // Getters e Setters
+    public List<TransferRequest> getTransferencias() {
+        return transferencias;
+    }
+    
+    public void setTransferencias(List<TransferRequest> transferencias) {
+        this.transferencias = transferencias;
+    }
+}
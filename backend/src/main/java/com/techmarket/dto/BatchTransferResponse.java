@@ -0,0 +1,56 @@
+package com.techmarket.dto;
+
+import java.util.List;
+
+public class BatchTransferResponse {
+    
+    private int total;
+    private int sucesso;
+    private int falhas;
+    private List<BatchTransferItemResponse> itens;
+    
+    // Construtores
+    public BatchTransferResponse() {}
+    
+    public BatchTransferResponse(List<BatchTransferItemResponse> itens) {
+        this.itens = itens;
+        this.total = itens.size();
+        this.sucesso = (int) itens.stream()
+            .filter(item -> BatchTransferItemResponse.STATUS_SUCCESS.equals(item.getStatus()))
+            .count();
+        this.falhas = this.total - this.sucesso;
+    }
+    
+    // Getters e Setters
+    public int getTotal() {
+        return total;
+    }
+    
+    public void setTotal(int total) {
+        this.total = total;
+    }
+    
+    public int getSucesso() {
+        return sucesso;
+    }
+    
+    public void setSucesso(int sucesso) {
+        this.sucesso = sucesso;
+    }
+    
+    public int getFalhas() {
+        return falhas;
+    }
+    
+    public void setFalhas(int falhas) {
+        this.falhas = falhas;
+    }
+    
+    public List<BatchTransferItemResponse> getItens() {
+        return itens;
+    }
+    
+    public void setItens(List<BatchTransferItemResponse> itens) {
+        this.itens = itens;
+    }
+}
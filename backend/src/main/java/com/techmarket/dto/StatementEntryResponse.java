@@ -0,0 +1,78 @@
+package com.techmarket.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class StatementEntryResponse {
+    
+    public static final String TIPO_CREDIT = "CREDIT";
+    public static final String TIPO_DEBIT = "DEBIT";
+    
+    private Long id;
+    private String codigo;
+    private String tipo;
+    private BigDecimal valor;
+    private Long contraparteAccountId;
+    private LocalDateTime data;
+    
+    // Construtores
+    public StatementEntryResponse() {}
+    
+    public StatementEntryResponse(Long id, String codigo, String tipo, BigDecimal valor, Long contraparteAccountId, LocalDateTime data) {
+        this.id = id;
+        this.codigo = codigo;
+        this.tipo = tipo;
+        this.valor = valor;
+        this.contraparteAccountId = contraparteAccountId;
+        this.data = data;
+    }
+    
+    // Getters e Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getCodigo() {
+        return codigo;
+    }
+    
+    public void setCodigo(String codigo) {
+        this.codigo = codigo;
+    }
+    
+    public String getTipo() {
+        return tipo;
+    }
+    
+    public void setTipo(String tipo) {
+        this.tipo = tipo;
+    }
+    
+    public BigDecimal getValor() {
+        return valor;
+    }
+    
+    public void setValor(BigDecimal valor) {
+        this.valor = valor;
+    }
+    
+    public Long getContraparteAccountId() {
+        return contraparteAccountId;
+    }
+    
+    public void setContraparteAccountId(Long contraparteAccountId) {
+        this.contraparteAccountId = contraparteAccountId;
+    }
+    
+    public LocalDateTime getData() {
+        return data;
+    }
+    
+    public void setData(LocalDateTime data) {
+        this.data = data;
+    }
+}
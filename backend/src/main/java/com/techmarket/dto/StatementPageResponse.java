@@ -0,0 +1,48 @@
+package com.techmarket.dto;
+
+import java.util.List;
+
+public class StatementPageResponse {
+    
+    private Long accountId;
+    private List<StatementEntryResponse> itens;
+    private String nextCursor;
+    
+    // Construtores
+    public StatementPageResponse() {}
+    
+    public StatementPageResponse(Long accountId, List<StatementEntryResponse> itens, String nextCursor) {
+        this.accountId = accountId;
+        this.itens = itens;
+        this.nextCursor = nextCursor;
+    }
+    
+    // Getters e Setters
+    public Long getAccountId() {
+        return accountId;
+    }
+    
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+    
+    public List<StatementEntryResponse> getItens() {
+        return itens;
+    }
+    
+    public void setItens(List<StatementEntryResponse> itens) {
+        this.itens = itens;
+    }
+    
+    public String getNextCursor() {
+        return nextCursor;
+    }
+    
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+    
+    public boolean isHasMore() {
+        return nextCursor != null;
+    }
+}
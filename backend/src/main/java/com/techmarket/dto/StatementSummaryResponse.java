@@ -0,0 +1,97 @@
+package com.techmarket.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+public class StatementSummaryResponse {
+    
+    private Long accountId;
+    private LocalDate inicio;
+    private LocalDate fim;
+    private BigDecimal saldoInicial;
+    private BigDecimal saldoFinal;
+    private BigDecimal creditos;
+    private BigDecimal debitos;
+    private List<StatementEntryResponse> movimentos;
+    
+    // Construtores
+    public StatementSummaryResponse() {}
+    
+    public StatementSummaryResponse(Long accountId, LocalDate inicio, LocalDate fim, BigDecimal saldoInicial, BigDecimal saldoFinal,
+                                    BigDecimal creditos, BigDecimal debitos, List<StatementEntryResponse> movimentos) {
+        this.accountId = accountId;
+        this.inicio = inicio;
+        this.fim = fim;
+        this.saldoInicial = saldoInicial;
+        this.saldoFinal = saldoFinal;
+        this.creditos = creditos;
+        this.debitos = debitos;
+        this.movimentos = movimentos;
+    }
+    
+    // Getters e Setters
+    public Long getAccountId() {
+        return accountId;
+    }
+    
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+    
+    public LocalDate getInicio() {
+        return inicio;
+    }
+    
+    public void setInicio(LocalDate inicio) {
+        this.inicio = inicio;
+    }
+    
+    public LocalDate getFim() {
+        return fim;
+    }
+    
+    public void setFim(LocalDate fim) {
+        this.fim = fim;
+    }
+    
+    public BigDecimal getSaldoInicial() {
+        return saldoInicial;
+    }
+    
+    public void setSaldoInicial(BigDecimal saldoInicial) {
+        this.saldoInicial = saldoInicial;
+    }
+    
+    public BigDecimal getSaldoFinal() {
+        return saldoFinal;
+    }
+    
+    public void setSaldoFinal(BigDecimal saldoFinal) {
+        this.saldoFinal = saldoFinal;
+    }
+    
+    public BigDecimal getCreditos() {
+        return creditos;
+    }
+    
+    public void setCreditos(BigDecimal creditos) {
+        this.creditos = creditos;
+    }
+    
+    public BigDecimal getDebitos() {
+        return debitos;
+    }
+    
+    public void setDebitos(BigDecimal debitos) {
+        this.debitos = debitos;
+    }
+    
+    public List<StatementEntryResponse> getMovimentos() {
+        return movimentos;
+    }
+    
+    public void setMovimentos(List<StatementEntryResponse> movimentos) {
+        this.movimentos = movimentos;
+    }
+}
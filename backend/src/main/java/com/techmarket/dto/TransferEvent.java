@@ -0,0 +1,67 @@
+package com.techmarket.dto;
+
+import com.techmarket.util.Money;
+
+import java.time.LocalDateTime;
+
+// Transferência confirmada, publicada em GET /api/contas/{id}/eventos para a origem e o destino
+public class TransferEvent {
+    
+    private String codigo;
+    private Long origemAccountId;
+    private Long destinoAccountId;
+    private Money valor;
+    private LocalDateTime timestamp;
+    
+    // Construtores
+    public TransferEvent() {}
+    
+    public TransferEvent(String codigo, Long origemAccountId, Long destinoAccountId, Money valor, LocalDateTime timestamp) {
+        this.codigo = codigo;
+        this.origemAccountId = origemAccountId;
+        this.destinoAccountId = destinoAccountId;
+        this.valor = valor;
+        this.timestamp = timestamp;
+    }
+    
+    // Getters e Setters
+    public String getCodigo() {
+        return codigo;
+    }
+    
+    public void setCodigo(String codigo) {
+        this.codigo = codigo;
+    }
+    
+    public Long getOrigemAccountId() {
+        return origemAccountId;
+    }
+    
+    public void setOrigemAccountId(Long origemAccountId) {
+        this.origemAccountId = origemAccountId;
+    }
+    
+    public Long getDestinoAccountId() {
+        return destinoAccountId;
+    }
+    
+    public void setDestinoAccountId(Long destinoAccountId) {
+        this.destinoAccountId = destinoAccountId;
+    }
+    
+    public Money getValor() {
+        return valor;
+    }
+    
+    public void setValor(Money valor) {
+        this.valor = valor;
+    }
+    
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+    
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+}
@@ -1,5 +1,6 @@
 package com.techmarket.dto;
 
+import com.techmarket.util.Money;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import java.math.BigDecimal;
@@ -14,26 +15,34 @@ public class TransferRequest {
     
     @NotNull(message = "Valor é obrigatório")
     @Positive(message = "Valor deve ser positivo")
-    private BigDecimal valor;
+    private Money valor;
     
     private String idempotencyKey;
     
     // Construtores
     public TransferRequest() {}
     
-    public TransferRequest(Long origem, Long destino, BigDecimal valor) {
+    public TransferRequest(Long origem, Long destino, Money valor) {
         this.origem = origem;
         this.destino = destino;
         this.valor = valor;
     }
     
-    public TransferRequest(Long origem, Long destino, BigDecimal valor, String idempotencyKey) {
+    public TransferRequest(Long origem, Long destino, Money valor, String idempotencyKey) {
         this.origem = origem;
         this.destino = destino;
         this.valor = valor;
         this.idempotencyKey = idempotencyKey;
     }
     
+    public TransferRequest(Long origem, Long destino, BigDecimal valor) {
+        this(origem, destino, Money.of(valor));
+    }
+    
+    public TransferRequest(Long origem, Long destino, BigDecimal valor, String idempotencyKey) {
+        this(origem, destino, Money.of(valor), idempotencyKey);
+    }
+    
     // Getters e Setters
     public Long getOrigem() {
         return origem;
@@ -51,11 +60,11 @@ public class TransferRequest {
         this.destino = destino;
     }
     
-    public BigDecimal getValor() {
+    public Money getValor() {
         return valor;
     }
     
-    public void setValor(BigDecimal valor) {
+    public void setValor(Money valor) {
         this.valor = valor;
     }
     
@@ -1,5 +1,7 @@
 package com.techmarket.dto;
 
+import com.techmarket.util.Money;
+
 import java.math.BigDecimal;
 import java.time.LocalDateTime;
 
@@ -9,13 +11,13 @@ public class TransferResponse {
     private String status;
     private Long origemAccountId;
     private Long destinoAccountId;
-    private BigDecimal valor;
+    private Money valor;
     private LocalDateTime timestamp;
     
     // Construtores
     public TransferResponse() {}
     
-    public TransferResponse(String codigo, String status, Long origemAccountId, Long destinoAccountId, BigDecimal valor, LocalDateTime timestamp) {
+    public TransferResponse(String codigo, String status, Long origemAccountId, Long destinoAccountId, Money valor, LocalDateTime timestamp) {
         this.codigo = codigo;
         this.status = status;
         this.origemAccountId = origemAccountId;
@@ -24,6 +26,10 @@ public class TransferResponse {
         this.timestamp = timestamp;
     }
     
+    public TransferResponse(String codigo, String status, Long origemAccountId, Long destinoAccountId, BigDecimal valor, LocalDateTime timestamp) {
+        this(codigo, status, origemAccountId, destinoAccountId, Money.of(valor), timestamp);
+    }
+    
     // Getters e Setters
     public String getCodigo() {
         return codigo;
@@ -57,11 +63,11 @@ public class TransferResponse {
         this.destinoAccountId = destinoAccountId;
     }
     
-    public BigDecimal getValor() {
+    public Money getValor() {
         return valor;
     }
     
-    public void setValor(BigDecimal valor) {
+    public void setValor(Money valor) {
         this.valor = valor;
     }
     
@@ -0,0 +1,96 @@
+package com.techmarket.dto;
+
+import com.techmarket.entity.TransferStatus;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+public class TransferStatusResponse {
+    
+    private String codigo;
+    private TransferStatus status;
+    private String transferencia;
+    private Long origemAccountId;
+    private Long destinoAccountId;
+    private BigDecimal valor;
+    private LocalDateTime timestamp;
+    private String message;
+    
+    // Construtores
+    public TransferStatusResponse() {}
+    
+    public TransferStatusResponse(String codigo, TransferStatus status, String transferencia, Long origemAccountId, Long destinoAccountId, BigDecimal valor, LocalDateTime timestamp, String message) {
+        this.codigo = codigo;
+        this.status = status;
+        this.transferencia = transferencia;
+        this.origemAccountId = origemAccountId;
+        this.destinoAccountId = destinoAccountId;
+        this.valor = valor;
+        this.timestamp = timestamp;
+        this.message = message;
+    }
+    
+    // Getters e Setters
+    public String getCodigo() {
+        return codigo;
+    }
+    
+    public void setCodigo(String codigo) {
+        this.codigo = codigo;
+    }
+    
+    public TransferStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(TransferStatus status) {
+        this.status = status;
+    }
+    
+    public String getTransferencia() {
+        return transferencia;
+    }
+    
+    public void setTransferencia(String transferencia) {
+        this.transferencia = transferencia;
+    }
+    
+    public Long getOrigemAccountId() {
+        return origemAccountId;
+    }
+    
+    public void setOrigemAccountId(Long origemAccountId) {
+        this.origemAccountId = origemAccountId;
+    }
+    
+    public Long getDestinoAccountId() {
+        return destinoAccountId;
+    }
+    
+    public void setDestinoAccountId(Long destinoAccountId) {
+        this.destinoAccountId = destinoAccountId;
+    }
+    
+    public BigDecimal getValor() {
+        return valor;
+    }
+    
+    public void setValor(BigDecimal valor) {
+        this.valor = valor;
+    }
+    
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+    
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+    
+    public String getMessage() {
+        return message;
+    }
+    
+    public void setMessage(String message) {
+        this.message = message;
+    }
+}
@@ -1,5 +1,6 @@
 package com.techmarket.entity;
 
+import com.techmarket.util.Money;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
@@ -17,9 +18,11 @@ public class Account {
     @Column(name = "owner", nullable = false)
     private String owner;
     
+    // Centavos em long; a coluna continua NUMERIC(19,2)
     @NotNull(message = "Saldo é obrigatório")
+    @Convert(converter = MoneyConverter.class)
     @Column(name = "balance", nullable = false, precision = 19, scale = 2)
-    private BigDecimal balance;
+    private Money balance;
     
     @Version
     private Long version;
@@ -27,11 +30,15 @@ public class Account {
     // Construtores
     public Account() {}
     
-    public Account(String owner, BigDecimal balance) {
+    public Account(String owner, Money balance) {
         this.owner = owner;
         this.balance = balance;
     }
     
+    public Account(String owner, BigDecimal balance) {
+        this(owner, Money.of(balance));
+    }
+    
     // Getters e Setters
     public Long getId() {
         return id;
@@ -49,11 +56,11 @@ public class Account {
         this.owner = owner;
     }
     
-    public BigDecimal getBalance() {
+    public Money getBalance() {
         return balance;
     }
     
-    public void setBalance(BigDecimal balance) {
+    public void setBalance(Money balance) {
         this.balance = balance;
     }
     
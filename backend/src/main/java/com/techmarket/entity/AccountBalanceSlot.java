@@ -0,0 +1,94 @@
+package com.techmarket.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Sub-saldo de uma conta quente (techmarket.hot-accounts.*): créditos ainda não consolidados no
+// saldo da conta, espalhados em slots por dia. O saldo lógico da conta é accounts.balance mais a
+// soma dos slots; a consolidação move os créditos para a conta e zera o slot. Gravado via JDBC
+// (AccountBalanceSlotJdbcRepository); a entidade só descreve a tabela
+@Entity
+@Table(name = "account_balance_slots", uniqueConstraints = @UniqueConstraint(
+    name = "uk_account_balance_slots_account_dia_slot", columnNames = {"account_id", "dia", "slot"}))
+public class AccountBalanceSlot {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+    
+    @Column(name = "dia", nullable = false)
+    private LocalDate dia;
+    
+    @Column(name = "slot", nullable = false)
+    private Integer slot;
+    
+    @Column(name = "creditos", nullable = false, precision = 19, scale = 2)
+    private BigDecimal creditos;
+    
+    @Column(name = "movimentos", nullable = false)
+    private Integer movimentos;
+    
+    // Construtores
+    public AccountBalanceSlot() {}
+    
+    public AccountBalanceSlot(Long accountId, LocalDate dia, Integer slot, BigDecimal creditos, Integer movimentos) {
+        this.accountId = accountId;
+        this.dia = dia;
+        this.slot = slot;
+        this.creditos = creditos;
+        this.movimentos = movimentos;
+    }
+    
+    // Getters e Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getAccountId() {
+        return accountId;
+    }
+    
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+    
+    public LocalDate getDia() {
+        return dia;
+    }
+    
+    public void setDia(LocalDate dia) {
+        this.dia = dia;
+    }
+    
+    public Integer getSlot() {
+        return slot;
+    }
+    
+    public void setSlot(Integer slot) {
+        this.slot = slot;
+    }
+    
+    public BigDecimal getCreditos() {
+        return creditos;
+    }
+    
+    public void setCreditos(BigDecimal creditos) {
+        this.creditos = creditos;
+    }
+    
+    public Integer getMovimentos() {
+        return movimentos;
+    }
+    
+    public void setMovimentos(Integer movimentos) {
+        this.movimentos = movimentos;
+    }
+}
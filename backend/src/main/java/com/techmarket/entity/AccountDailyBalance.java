@@ -0,0 +1,107 @@
+package com.techmarket.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+// Snapshot diário por conta: saldo ao fim do dia e movimentação do dia
+@Entity
+@Table(name = "account_daily_balances", uniqueConstraints = @UniqueConstraint(
+    name = "uk_account_daily_balances_account_dia", columnNames = {"account_id", "dia"}))
+public class AccountDailyBalance {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+    
+    @Column(name = "dia", nullable = false)
+    private LocalDate dia;
+    
+    @Column(name = "saldo_final", nullable = false, precision = 19, scale = 2)
+    private BigDecimal saldoFinal;
+    
+    @Column(name = "creditos", nullable = false, precision = 19, scale = 2)
+    private BigDecimal creditos;
+    
+    @Column(name = "debitos", nullable = false, precision = 19, scale = 2)
+    private BigDecimal debitos;
+    
+    @Column(name = "movimentos", nullable = false)
+    private Integer movimentos;
+    
+    // Construtores
+    public AccountDailyBalance() {}
+    
+    public AccountDailyBalance(Long accountId, LocalDate dia, BigDecimal creditos, BigDecimal debitos, Integer movimentos) {
+        this.accountId = accountId;
+        this.dia = dia;
+        this.creditos = creditos;
+        this.debitos = debitos;
+        this.movimentos = movimentos;
+    }
+    
+    // Saldo no início do dia, antes da movimentação
+    public BigDecimal getSaldoInicial() {
+        return saldoFinal.subtract(creditos).add(debitos);
+    }
+    
+    // Getters e Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getAccountId() {
+        return accountId;
+    }
+    
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+    
+    public LocalDate getDia() {
+        return dia;
+    }
+    
+    public void setDia(LocalDate dia) {
+        this.dia = dia;
+    }
+    
+    public BigDecimal getSaldoFinal() {
+        return saldoFinal;
+    }
+    
+    public void setSaldoFinal(BigDecimal saldoFinal) {
+        this.saldoFinal = saldoFinal;
+    }
+    
+    public BigDecimal getCreditos() {
+        return creditos;
+    }
+    
+    public void setCreditos(BigDecimal creditos) {
+        this.creditos = creditos;
+    }
+    
+    public BigDecimal getDebitos() {
+        return debitos;
+    }
+    
+    public void setDebitos(BigDecimal debitos) {
+        this.debitos = debitos;
+    }
+    
+    public Integer getMovimentos() {
+        return movimentos;
+    }
+    
+    public void setMovimentos(Integer movimentos) {
+        this.movimentos = movimentos;
+    }
+}
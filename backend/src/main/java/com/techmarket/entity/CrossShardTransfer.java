@@ -0,0 +1,142 @@
+package com.techmarket.entity;
+
+import jakarta.persistence.*;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+// Registro durável de uma transferência entre shards. No shard de origem a linha nasce DEBITED, na
+// transação do débito, e termina COMPLETED ou COMPENSATED; no shard de destino é gravada CREDITED na
+// transação do crédito. O id é o da transferência, então cada lado tem no máximo uma linha por
+// transferência. Gravada via JDBC (ShardedTransferRepository); a entidade só descreve a tabela
+@Entity
+@Table(name = "cross_shard_transfers", indexes = {
+    @Index(name = "idx_cross_shard_transfers_state", columnList = "state, updated_at")
+})
+public class CrossShardTransfer {
+    
+    @Id
+    private Long id;
+    
+    @Column(name = "codigo_uuid", nullable = false)
+    private UUID codigo;
+    
+    @Column(name = "origem_account_id", nullable = false)
+    private Long origemAccountId;
+    
+    @Column(name = "destino_account_id", nullable = false)
+    private Long destinoAccountId;
+    
+    @Column(name = "valor", nullable = false, precision = 19, scale = 2)
+    private BigDecimal valor;
+    
+    @Column(name = "idempotency_key")
+    private String idempotencyKey;
+    
+    @Column(name = "timestamp", nullable = false)
+    private LocalDateTime timestamp;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "state", nullable = false, length = 16)
+    private CrossShardTransferState state;
+    
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+    
+    // Construtores
+    public CrossShardTransfer() {}
+    
+    public CrossShardTransfer(Transfer transfer, CrossShardTransferState state) {
+        this.id = transfer.getId();
+        this.codigo = transfer.getCodigo();
+        this.origemAccountId = transfer.getOrigemAccountId();
+        this.destinoAccountId = transfer.getDestinoAccountId();
+        this.valor = transfer.getValor().toBigDecimal();
+        this.idempotencyKey = transfer.getIdempotencyKey();
+        this.timestamp = transfer.getTimestamp();
+        this.state = state;
+        this.updatedAt = LocalDateTime.now();
+    }
+    
+    // A transferência descrita pela linha, com o mesmo id, código e instante
+    public Transfer toTransfer() {
+        Transfer transfer = new Transfer(origemAccountId, destinoAccountId, valor, idempotencyKey);
+        transfer.setId(id);
+        transfer.setCodigo(codigo);
+        transfer.setTimestamp(timestamp);
+        return transfer;
+    }
+    
+    // Getters e Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public UUID getCodigo() {
+        return codigo;
+    }
+    
+    public void setCodigo(UUID codigo) {
+        this.codigo = codigo;
+    }
+    
+    public Long getOrigemAccountId() {
+        return origemAccountId;
+    }
+    
+    public void setOrigemAccountId(Long origemAccountId) {
+        this.origemAccountId = origemAccountId;
+    }
+    
+    public Long getDestinoAccountId() {
+        return destinoAccountId;
+    }
+    
+    public void setDestinoAccountId(Long destinoAccountId) {
+        this.destinoAccountId = destinoAccountId;
+    }
+    
+    public BigDecimal getValor() {
+        return valor;
+    }
+    
+    public void setValor(BigDecimal valor) {
+        this.valor = valor;
+    }
+    
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+    
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+    
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+    
+    public void setTimestamp(LocalDateTime timestamp) {
+        this.timestamp = timestamp;
+    }
+    
+    public CrossShardTransferState getState() {
+        return state;
+    }
+    
+    public void setState(CrossShardTransferState state) {
+        this.state = state;
+    }
+    
+    public LocalDateTime getUpdatedAt() {
+        return updatedAt;
+    }
+    
+    public void setUpdatedAt(LocalDateTime updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
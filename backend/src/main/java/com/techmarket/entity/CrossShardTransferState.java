@@ -0,0 +1,13 @@
+package com.techmarket.entity;
+
+// Estado de uma transferência entre shards em cross_shard_transfers
+public enum CrossShardTransferState {
+    // Shard de origem: débito feito, crédito no destino ainda não confirmado
+    DEBITED,
+    // Shard de destino: crédito aplicado (a linha impede um segundo crédito da mesma transferência)
+    CREDITED,
+    // Shard de origem: crédito confirmado no destino
+    COMPLETED,
+    // Shard de origem: crédito impossível, débito estornado
+    COMPENSATED
+}
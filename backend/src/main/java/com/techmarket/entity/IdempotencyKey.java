@@ -0,0 +1,69 @@
+package com.techmarket.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Reserva global das chaves de idempotência. O índice único de cada partição de transfers só vale
+// dentro dela; esta tabela, sem partições, mantém a chave única entre réplicas e é podada quando
+// o mês da transferência vai para o arquivo (as consultas passam a ler o segmento)
+@Entity
+@Table(name = "idempotency_keys", indexes = {
+    @Index(name = "idx_idempotency_keys_created_at", columnList = "created_at")
+})
+public class IdempotencyKey {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "key_value", nullable = false, unique = true)
+    private String keyValue;
+    
+    @Column(name = "transfer_id")
+    private Long transferId;
+    
+    @Column(name = "created_at")
+    private LocalDateTime createdAt;
+    
+    // Construtores
+    public IdempotencyKey() {}
+    
+    public IdempotencyKey(String keyValue, Long transferId, LocalDateTime createdAt) {
+        this.keyValue = keyValue;
+        this.transferId = transferId;
+        this.createdAt = createdAt;
+    }
+    
+    // Getters e Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getKeyValue() {
+        return keyValue;
+    }
+    
+    public void setKeyValue(String keyValue) {
+        this.keyValue = keyValue;
+    }
+    
+    public Long getTransferId() {
+        return transferId;
+    }
+    
+    public void setTransferId(Long transferId) {
+        this.transferId = transferId;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -0,0 +1,119 @@
+package com.techmarket.entity;
+
+import com.techmarket.util.Money;
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Lançamento de partida dobrada (tabela transacoes): cada transferência gera um DEBIT na origem
+// e um CREDIT no destino, gravados pelo backend na mesma transação da transferência
+@Entity
+@Table(name = "transacoes", indexes = {
+    @Index(name = "idx_transacoes_account_data", columnList = "account_id, data"),
+    @Index(name = "idx_transacoes_transfer_id", columnList = "transfer_id")
+})
+public class LedgerEntry {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "account_id", nullable = false)
+    private Long accountId;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "tipo", nullable = false, length = 10)
+    private LedgerEntryType tipo;
+    
+    @Convert(converter = MoneyConverter.class)
+    @Column(name = "valor", nullable = false, precision = 19, scale = 2)
+    private Money valor;
+    
+    @Column(name = "data")
+    private LocalDateTime data;
+    
+    @Column(name = "descricao", length = 500)
+    private String descricao;
+    
+    @Column(name = "transfer_id")
+    private Long transferId;
+    
+    // Construtores
+    public LedgerEntry() {}
+    
+    public LedgerEntry(Long accountId, LedgerEntryType tipo, Money valor, LocalDateTime data, String descricao, Long transferId) {
+        this.accountId = accountId;
+        this.tipo = tipo;
+        this.valor = valor;
+        this.data = data;
+        this.descricao = descricao;
+        this.transferId = transferId;
+    }
+    
+    // Os dois lançamentos de uma transferência, com as mesmas descrições do antigo trigger_insert_transacoes
+    public static LedgerEntry debit(Transfer transfer) {
+        return new LedgerEntry(transfer.getOrigemAccountId(), LedgerEntryType.DEBIT, transfer.getValor(), transfer.getTimestamp(),
+            "Transferência para conta " + transfer.getDestinoAccountId(), transfer.getId());
+    }
+    
+    public static LedgerEntry credit(Transfer transfer) {
+        return new LedgerEntry(transfer.getDestinoAccountId(), LedgerEntryType.CREDIT, transfer.getValor(), transfer.getTimestamp(),
+            "Transferência da conta " + transfer.getOrigemAccountId(), transfer.getId());
+    }
+    
+    // Getters e Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public Long getAccountId() {
+        return accountId;
+    }
+    
+    public void setAccountId(Long accountId) {
+        this.accountId = accountId;
+    }
+    
+    public LedgerEntryType getTipo() {
+        return tipo;
+    }
+    
+    public void setTipo(LedgerEntryType tipo) {
+        this.tipo = tipo;
+    }
+    
+    public Money getValor() {
+        return valor;
+    }
+    
+    public void setValor(Money valor) {
+        this.valor = valor;
+    }
+    
+    public LocalDateTime getData() {
+        return data;
+    }
+    
+    public void setData(LocalDateTime data) {
+        this.data = data;
+    }
+    
+    public String getDescricao() {
+        return descricao;
+    }
+    
+    public void setDescricao(String descricao) {
+        this.descricao = descricao;
+    }
+    
+    public Long getTransferId() {
+        return transferId;
+    }
+    
+    public void setTransferId(Long transferId) {
+        this.transferId = transferId;
+    }
+}
@@ -0,0 +1,6 @@
+package com.techmarket.entity;
+
+public enum LedgerEntryType {
+    DEBIT,
+    CREDIT
+}
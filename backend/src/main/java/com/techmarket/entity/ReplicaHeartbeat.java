@@ -0,0 +1,42 @@
+package com.techmarket.entity;
+
+import jakarta.persistence.*;
+
+// Heartbeat de replicação: cada instância grava no primário o instante atual (relógio da própria
+// JVM) na sua linha, e o ReplicaLagMonitor lê nas réplicas o último valor que chegou a elas
+@Entity
+@Table(name = "replica_heartbeat")
+public class ReplicaHeartbeat {
+    
+    @Id
+    @Column(name = "instance_id", length = 64)
+    private String instanceId;
+    
+    @Column(name = "heartbeat_millis", nullable = false)
+    private long heartbeatMillis;
+    
+    // Construtores
+    public ReplicaHeartbeat() {}
+    
+    public ReplicaHeartbeat(String instanceId, long heartbeatMillis) {
+        this.instanceId = instanceId;
+        this.heartbeatMillis = heartbeatMillis;
+    }
+    
+    // Getters e Setters
+    public String getInstanceId() {
+        return instanceId;
+    }
+    
+    public void setInstanceId(String instanceId) {
+        this.instanceId = instanceId;
+    }
+    
+    public long getHeartbeatMillis() {
+        return heartbeatMillis;
+    }
+    
+    public void setHeartbeatMillis(long heartbeatMillis) {
+        this.heartbeatMillis = heartbeatMillis;
+    }
+}
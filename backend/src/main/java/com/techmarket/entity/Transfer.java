@@ -1,5 +1,7 @@
 package com.techmarket.entity;
 
+import com.techmarket.util.Money;
+import com.techmarket.util.UuidV7;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -8,11 +10,23 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 @Entity
-@Table(name = "transfers")
+@Table(name = "transfers", indexes = {
+    @Index(name = "idx_transfers_origem", columnList = "origem_account_id, timestamp, id"),
+    @Index(name = "idx_transfers_destino", columnList = "destino_account_id, timestamp, id"),
+    @Index(name = "idx_transfers_timestamp", columnList = "timestamp"),
+    @Index(name = "idx_transfers_idempotency_key", columnList = "idempotency_key")
+}, uniqueConstraints = {
+    // Em transfers particionada por mês, toda constraint única precisa incluir a coluna de partição
+    @UniqueConstraint(name = "uk_transfers_codigo_uuid", columnNames = {"codigo_uuid", "timestamp"})
+})
 public class Transfer {
     
+    // Sequência com blocos de 50 ids (pooled-lo): o Hibernate não precisa de um INSERT por linha
+    // para conhecer o id, então as inserções podem ir em batch JDBC. As inserções JDBC usam a
+    // mesma sequência via TransferIdAllocator
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "transfers_id_seq")
+    @SequenceGenerator(name = "transfers_id_seq", sequenceName = "transfers_id_seq", allocationSize = 50)
     private Long id;
     
     @NotNull(message = "Conta de origem é obrigatória")
@@ -25,36 +39,47 @@ public class Transfer {
     
     @NotNull(message = "Valor é obrigatório")
     @Positive(message = "Valor deve ser positivo")
+    @Convert(converter = MoneyConverter.class)
     @Column(name = "valor", nullable = false, precision = 19, scale = 2)
-    private BigDecimal valor;
+    private Money valor;
     
-    @Column(name = "codigo_uuid", nullable = false, unique = true)
-    private String codigoUUID;
+    // UUID v7 em coluna uuid nativa (16 bytes); na API continua sendo a string canônica
+    @Column(name = "codigo_uuid", nullable = false)
+    private UUID codigoUUID;
     
     @Column(name = "timestamp", nullable = false)
     private LocalDateTime timestamp;
     
-    @Column(name = "idempotency_key", unique = true)
+    // A unicidade entre partições é garantida pela tabela idempotency_keys
+    @Column(name = "idempotency_key")
     private String idempotencyKey;
     
     // Construtores
     public Transfer() {
-        this.codigoUUID = UUID.randomUUID().toString();
+        this.codigoUUID = UuidV7.randomUUID();
         this.timestamp = LocalDateTime.now();
     }
     
-    public Transfer(Long origemAccountId, Long destinoAccountId, BigDecimal valor) {
+    public Transfer(Long origemAccountId, Long destinoAccountId, Money valor) {
         this();
         this.origemAccountId = origemAccountId;
         this.destinoAccountId = destinoAccountId;
         this.valor = valor;
     }
     
-    public Transfer(Long origemAccountId, Long destinoAccountId, BigDecimal valor, String idempotencyKey) {
+    public Transfer(Long origemAccountId, Long destinoAccountId, Money valor, String idempotencyKey) {
         this(origemAccountId, destinoAccountId, valor);
         this.idempotencyKey = idempotencyKey;
     }
     
+    public Transfer(Long origemAccountId, Long destinoAccountId, BigDecimal valor) {
+        this(origemAccountId, destinoAccountId, Money.of(valor));
+    }
+    
+    public Transfer(Long origemAccountId, Long destinoAccountId, BigDecimal valor, String idempotencyKey) {
+        this(origemAccountId, destinoAccountId, Money.of(valor), idempotencyKey);
+    }
+    
     // Getters e Setters
     public Long getId() {
         return id;
@@ -80,20 +105,28 @@ public class Transfer {
         this.destinoAccountId = destinoAccountId;
     }
     
-    public BigDecimal getValor() {
+    public Money getValor() {
         return valor;
     }
     
-    public void setValor(BigDecimal valor) {
+    public void setValor(Money valor) {
         this.valor = valor;
     }
     
     public String getCodigoUUID() {
-        return codigoUUID;
+        return codigoUUID.toString();
     }
     
     public void setCodigoUUID(String codigoUUID) {
-        this.codigoUUID = codigoUUID;
+        this.codigoUUID = UUID.fromString(codigoUUID);
+    }
+    
+    public UUID getCodigo() {
+        return codigoUUID;
+    }
+    
+    public void setCodigo(UUID codigo) {
+        this.codigoUUID = codigo;
     }
     
     public LocalDateTime getTimestamp() {
@@ -0,0 +1,168 @@
+package com.techmarket.entity;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Positive;
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+@Entity
+@Table(name = "transfer_outbox", indexes = @Index(name = "idx_transfer_outbox_status", columnList = "status, id"))
+public class TransferOutbox {
+    
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+    
+    @Column(name = "codigo", nullable = false, unique = true)
+    private String codigo;
+    
+    @NotNull(message = "Conta de origem é obrigatória")
+    @Column(name = "origem_account_id", nullable = false)
+    private Long origemAccountId;
+    
+    @NotNull(message = "Conta de destino é obrigatória")
+    @Column(name = "destino_account_id", nullable = false)
+    private Long destinoAccountId;
+    
+    @NotNull(message = "Valor é obrigatório")
+    @Positive(message = "Valor deve ser positivo")
+    @Column(name = "valor", nullable = false, precision = 19, scale = 2)
+    private BigDecimal valor;
+    
+    @Column(name = "idempotency_key", unique = true)
+    private String idempotencyKey;
+    
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 16)
+    private TransferStatus status;
+    
+    @Column(name = "transfer_codigo")
+    private String transferCodigo;
+    
+    @Column(name = "mensagem", length = 500)
+    private String mensagem;
+    
+    // Falhas de processamento desta linha fora de um lote (ver TransferOutboxService)
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+    
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+    
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+    
+    // Construtores
+    public TransferOutbox() {
+        this.codigo = UUID.randomUUID().toString();
+        this.status = TransferStatus.PENDING;
+        this.createdAt = LocalDateTime.now();
+    }
+    
+    public TransferOutbox(Long origemAccountId, Long destinoAccountId, BigDecimal valor, String idempotencyKey) {
+        this();
+        this.origemAccountId = origemAccountId;
+        this.destinoAccountId = destinoAccountId;
+        this.valor = valor;
+        this.idempotencyKey = idempotencyKey;
+    }
+    
+    // Getters e Setters
+    public Long getId() {
+        return id;
+    }
+    
+    public void setId(Long id) {
+        this.id = id;
+    }
+    
+    public String getCodigo() {
+        return codigo;
+    }
+    
+    public void setCodigo(String codigo) {
+        this.codigo = codigo;
+    }
+    
+    public Long getOrigemAccountId() {
+        return origemAccountId;
+    }
+    
+    public void setOrigemAccountId(Long origemAccountId) {
+        this.origemAccountId = origemAccountId;
+    }
+    
+    public Long getDestinoAccountId() {
+        return destinoAccountId;
+    }
+    
+    public void setDestinoAccountId(Long destinoAccountId) {
+        this.destinoAccountId = destinoAccountId;
+    }
+    
+    public BigDecimal getValor() {
+        return valor;
+    }
+    
+    public void setValor(BigDecimal valor) {
+        this.valor = valor;
+    }
+    
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+    
+    public void setIdempotencyKey(String idempotencyKey) {
+        this.idempotencyKey = idempotencyKey;
+    }
+    
+    public TransferStatus getStatus() {
+        return status;
+    }
+    
+    public void setStatus(TransferStatus status) {
+        this.status = status;
+    }
+    
+    public String getTransferCodigo() {
+        return transferCodigo;
+    }
+    
+    public void setTransferCodigo(String transferCodigo) {
+        this.transferCodigo = transferCodigo;
+    }
+    
+    public String getMensagem() {
+        return mensagem;
+    }
+    
+    public void setMensagem(String mensagem) {
+        this.mensagem = mensagem;
+    }
+    
+    public int getAttempts() {
+        return attempts;
+    }
+    
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+    
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+    
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+    
+    public LocalDateTime getProcessedAt() {
+        return processedAt;
+    }
+    
+    public void setProcessedAt(LocalDateTime processedAt) {
+        this.processedAt = processedAt;
+    }
+}
@@ -0,0 +1,7 @@
+package com.techmarket.entity;
+
+public enum TransferStatus {
+    PENDING,
+    COMPLETED,
+    FAILED
+}
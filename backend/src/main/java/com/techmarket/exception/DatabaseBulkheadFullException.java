@@ -0,0 +1,12 @@
+package com.techmarket.exception;
+
+public class DatabaseBulkheadFullException extends RuntimeException {
+    
+    public DatabaseBulkheadFullException(String message) {
+        super(message);
+    }
+    
+    public DatabaseBulkheadFullException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
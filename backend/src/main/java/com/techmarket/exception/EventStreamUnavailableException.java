@@ -0,0 +1,12 @@
+package com.techmarket.exception;
+
+public class EventStreamUnavailableException extends RuntimeException {
+    
+    public EventStreamUnavailableException(String message) {
+        super(message);
+    }
+    
+    public EventStreamUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
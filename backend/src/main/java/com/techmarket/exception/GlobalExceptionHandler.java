@@ -1,7 +1,11 @@
 package com.techmarket.exception;
 
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.http.converter.HttpMessageNotReadableException;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
@@ -17,6 +21,15 @@ public class GlobalExceptionHandler {
         Map<String, String> error = new HashMap<>();
         error.put("error", "Account not found");
         error.put("message", ex.getMessage());
+        // Tipo fixo: também responde a GET /api/contas/{id}/eventos, pedido com Accept: text/event-stream
+        return ResponseEntity.status(HttpStatus.NOT_FOUND).contentType(MediaType.APPLICATION_JSON).body(error);
+    }
+    
+    @ExceptionHandler(TransferNotFoundException.class)
+    public ResponseEntity<Map<String, String>> handleTransferNotFoundException(TransferNotFoundException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Transfer not found");
+        error.put("message", ex.getMessage());
         return ResponseEntity.status(HttpStatus.NOT_FOUND).body(error);
     }
     
@@ -36,6 +49,50 @@ public class GlobalExceptionHandler {
         return ResponseEntity.status(HttpStatus.CONFLICT).body(error);
     }
     
+    @ExceptionHandler(TransferLockTimeoutException.class)
+    public ResponseEntity<Map<String, String>> handleTransferLockTimeoutException(TransferLockTimeoutException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Account busy");
+        error.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+    }
+    
+    @ExceptionHandler(TransferQueueFullException.class)
+    public ResponseEntity<Map<String, String>> handleTransferQueueFullException(TransferQueueFullException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Transfer queue full");
+        error.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+    }
+    
+    @ExceptionHandler(DatabaseBulkheadFullException.class)
+    public ResponseEntity<Map<String, String>> handleDatabaseBulkheadFullException(DatabaseBulkheadFullException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Database busy");
+        error.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(error);
+    }
+    
+    @ExceptionHandler(EventStreamUnavailableException.class)
+    public ResponseEntity<Map<String, String>> handleEventStreamUnavailableException(EventStreamUnavailableException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Event stream unavailable");
+        error.put("message", ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).contentType(MediaType.APPLICATION_JSON).body(error);
+    }
+    
+    @ExceptionHandler(TransferRateLimitedException.class)
+    public ResponseEntity<Map<String, String>> handleTransferRateLimitedException(TransferRateLimitedException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Too many requests");
+        error.put("message", ex.getMessage());
+        // Retry-After em segundos inteiros, arredondado para cima
+        long segundos = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(segundos))
+            .body(error);
+    }
+    
     @ExceptionHandler(MethodArgumentNotValidException.class)
     public ResponseEntity<Map<String, String>> handleValidationException(MethodArgumentNotValidException ex) {
         Map<String, String> error = new HashMap<>();
@@ -58,4 +115,15 @@ public class GlobalExceptionHandler {
         error.put("message", ex.getMessage());
         return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
     }
+    
+    @ExceptionHandler(HttpMessageNotReadableException.class)
+    public ResponseEntity<Map<String, String>> handleMessageNotReadableException(HttpMessageNotReadableException ex) {
+        Map<String, String> error = new HashMap<>();
+        error.put("error", "Malformed request");
+        // Valores monetários inexatos (mais de 2 casas decimais) chegam como InvalidFormatException
+        error.put("message", ex.getCause() instanceof InvalidFormatException cause
+            ? cause.getOriginalMessage()
+            : "Corpo da requisição inválido");
+        return ResponseEntity.status(HttpStatus.BAD_REQUEST).body(error);
+    }
 }
@@ -0,0 +1,12 @@
+package com.techmarket.exception;
+
+public class TransferLockTimeoutException extends RuntimeException {
+    
+    public TransferLockTimeoutException(String message) {
+        super(message);
+    }
+    
+    public TransferLockTimeoutException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,12 @@
+package com.techmarket.exception;
+
+public class TransferNotFoundException extends RuntimeException {
+    
+    public TransferNotFoundException(String message) {
+        super(message);
+    }
+    
+    public TransferNotFoundException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,12 @@
+package com.techmarket.exception;
+
+public class TransferQueueFullException extends RuntimeException {
+    
+    public TransferQueueFullException(String message) {
+        super(message);
+    }
+    
+    public TransferQueueFullException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
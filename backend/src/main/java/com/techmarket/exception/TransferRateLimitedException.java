@@ -0,0 +1,19 @@
+package com.techmarket.exception;
+
+import java.time.Duration;
+
+// Requisição recusada pelo limite de concorrência antes de tocar no banco; o cliente deve
+// tentar de novo depois de retryAfter
+public class TransferRateLimitedException extends RuntimeException {
+    
+    private final Duration retryAfter;
+    
+    public TransferRateLimitedException(String message, Duration retryAfter) {
+        super(message);
+        this.retryAfter = retryAfter;
+    }
+    
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
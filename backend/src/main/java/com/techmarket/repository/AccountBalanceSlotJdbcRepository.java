@@ -0,0 +1,106 @@
+package com.techmarket.repository;
+
+import com.techmarket.entity.AccountBalanceSlot;
+import com.techmarket.util.Money;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+@Repository
+public class AccountBalanceSlotJdbcRepository {
+    
+    // Só cria slots de contas existentes; a linha já existente (outra instância) fica como está
+    private static final String CREATE_SLOT_SQL =
+        "INSERT INTO account_balance_slots (account_id, dia, slot, creditos, movimentos) " +
+        "SELECT a.id, CAST(? AS DATE), ?, 0, 0 FROM accounts a WHERE a.id = ? " +
+        "AND NOT EXISTS (SELECT 1 FROM account_balance_slots s WHERE s.account_id = a.id AND s.dia = ? AND s.slot = ?)";
+    
+    private static final String COUNT_SLOTS_SQL =
+        "SELECT COUNT(*) FROM account_balance_slots WHERE account_id = ? AND dia = ? AND slot < ?";
+    
+    // Só a linha do slot: as demais linhas do dia e a linha da conta em accounts ficam livres
+    private static final String CREDIT_SQL =
+        "UPDATE account_balance_slots SET creditos = creditos + ?, movimentos = movimentos + 1 " +
+        "WHERE account_id = ? AND dia = ? AND slot = ?";
+    
+    private static final String LOCK_PENDING_SQL =
+        "SELECT id, account_id, dia, slot, creditos, movimentos FROM account_balance_slots " +
+        "WHERE account_id = ? AND movimentos > 0 ORDER BY dia, slot FOR UPDATE";
+    
+    private static final String CLEAR_SQL =
+        "UPDATE account_balance_slots SET creditos = 0, movimentos = 0 WHERE id = ?";
+    
+    private static final String SUM_PENDING_SQL =
+        "SELECT COALESCE(SUM(creditos), 0) FROM account_balance_slots WHERE account_id = ?";
+    
+    private static final String DELETE_EMPTY_BEFORE_SQL =
+        "DELETE FROM account_balance_slots WHERE dia < ? AND movimentos = 0";
+    
+    private static final RowMapper<AccountBalanceSlot> ROW_MAPPER = (rs, rowNum) -> {
+        AccountBalanceSlot slot = new AccountBalanceSlot(
+            rs.getLong("account_id"),
+            rs.getDate("dia").toLocalDate(),
+            rs.getInt("slot"),
+            rs.getBigDecimal("creditos"),
+            rs.getInt("movimentos"));
+        slot.setId(rs.getLong("id"));
+        return slot;
+    };
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    // Garante os slots 0..slots-1 da conta no dia; devolve false se a conta não existe. Fora de
+    // transação: cada INSERT vale sozinho, e a corrida com outra instância cai na constraint única
+    public boolean createSlots(Long accountId, LocalDate dia, int slots) {
+        Date data = Date.valueOf(dia);
+        for (int slot = 0; slot < slots; slot++) {
+            try {
+                jdbcTemplate.update(CREATE_SLOT_SQL, data, slot, accountId, data, slot);
+            } catch (DataIntegrityViolationException e) {
+                // Criado por outra instância entre o NOT EXISTS e o INSERT
+            }
+        }
+        Integer count = jdbcTemplate.queryForObject(COUNT_SLOTS_SQL, Integer.class, accountId, data, slots);
+        return count != null && count == slots;
+    }
+    
+    // Credita o valor no slot; retorna false se o slot não existe
+    public boolean credit(Long accountId, LocalDate dia, int slot, Money valor) {
+        return jdbcTemplate.update(CREDIT_SQL, valor.toBigDecimal(), accountId, Date.valueOf(dia), slot) == 1;
+    }
+    
+    // Bloqueia os slots com créditos pendentes, em ordem de dia e slot
+    public List<AccountBalanceSlot> lockPending(Long accountId) {
+        return jdbcTemplate.query(LOCK_PENDING_SQL, ROW_MAPPER, accountId);
+    }
+    
+    public void clear(List<AccountBalanceSlot> slots) {
+        if (slots.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(slots.size());
+        for (AccountBalanceSlot slot : slots) {
+            args.add(new Object[] { slot.getId() });
+        }
+        jdbcTemplate.batchUpdate(CLEAR_SQL, args);
+    }
+    
+    public Money sumPending(Long accountId) {
+        BigDecimal soma = jdbcTemplate.queryForObject(SUM_PENDING_SQL, BigDecimal.class, accountId);
+        return soma == null ? Money.ZERO : Money.of(soma);
+    }
+    
+    // Remove os slots já consolidados de dias anteriores a antes
+    public int deleteEmptyBefore(LocalDate antes) {
+        return jdbcTemplate.update(DELETE_EMPTY_BEFORE_SQL, Date.valueOf(antes));
+    }
+}
@@ -0,0 +1,175 @@
+package com.techmarket.repository;
+
+import com.techmarket.entity.AccountDailyBalance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+
+@Repository
+public class AccountDailyBalanceJdbcRepository {
+    
+    // Soma a movimentação ao snapshot do dia e grava como saldo final o saldo atual da conta menos a
+    // movimentação gravada na mesma transação para dias seguintes (zero fora de um lote que atravessa
+    // a meia-noite). Deve rodar na mesma transação da transferência, depois do UPDATE da conta: o lock
+    // de linha da conta serializa os escritores do mesmo snapshot e o saldo lido já é o novo.
+    // MERGE exige PostgreSQL 15+ (verificado em infra/sql/02_create_tables.sql)
+    private static final String APPLY_MOVEMENT_SQL =
+        "MERGE INTO account_daily_balances b " +
+        "USING (SELECT a.id AS account_id, CAST(? AS DATE) AS dia, a.balance - CAST(? AS DECIMAL(19,2)) AS saldo_final " +
+        "FROM accounts a WHERE a.id = ?) s " +
+        "ON (b.account_id = s.account_id AND b.dia = s.dia) " +
+        "WHEN MATCHED THEN UPDATE SET saldo_final = s.saldo_final, creditos = b.creditos + ?, debitos = b.debitos + ?, movimentos = b.movimentos + ? " +
+        "WHEN NOT MATCHED THEN INSERT (account_id, dia, saldo_final, creditos, debitos, movimentos) " +
+        "VALUES (s.account_id, s.dia, s.saldo_final, ?, ?, ?)";
+    
+    // Movimentação diária da conta a partir das transferências, do dia mais recente para o mais antigo
+    private static final String DAILY_MOVEMENTS_SQL =
+        "SELECT m.dia, SUM(m.creditos) AS creditos, SUM(m.debitos) AS debitos, COUNT(*) AS movimentos FROM (" +
+        "SELECT CAST(t.timestamp AS DATE) AS dia, CAST(0 AS DECIMAL(19,2)) AS creditos, t.valor AS debitos " +
+        "FROM transfers t WHERE t.origem_account_id = ? " +
+        "UNION ALL " +
+        "SELECT CAST(t.timestamp AS DATE) AS dia, t.valor AS creditos, CAST(0 AS DECIMAL(19,2)) AS debitos " +
+        "FROM transfers t WHERE t.destino_account_id = ?" +
+        ") m GROUP BY m.dia ORDER BY m.dia DESC";
+    
+    private static final String DELETE_ACCOUNT_SQL =
+        "DELETE FROM account_daily_balances WHERE account_id = ?";
+    
+    private static final String DELETE_ACCOUNT_SINCE_SQL =
+        "DELETE FROM account_daily_balances WHERE account_id = ? AND dia >= ?";
+    
+    private static final String INSERT_SQL =
+        "INSERT INTO account_daily_balances (account_id, dia, saldo_final, creditos, debitos, movimentos) VALUES (?, ?, ?, ?, ?, ?)";
+    
+    private static final String SHIFT_AFTER_SQL =
+        "UPDATE account_daily_balances SET saldo_final = saldo_final + ? WHERE account_id = ? AND dia > ?";
+    
+    private static final String ADD_CREDITS_SQL =
+        "UPDATE account_daily_balances SET saldo_final = saldo_final + ?, creditos = creditos + ?, movimentos = movimentos + ? " +
+        "WHERE account_id = ? AND dia = ?";
+    
+    private static final String SALDO_FINAL_BEFORE_SQL =
+        "SELECT saldo_final FROM account_daily_balances WHERE account_id = ? AND dia < ? ORDER BY dia DESC LIMIT 1";
+    
+    private static final String SALDO_INICIAL_AFTER_SQL =
+        "SELECT saldo_final - creditos + debitos FROM account_daily_balances WHERE account_id = ? AND dia > ? ORDER BY dia LIMIT 1";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    public void applyMovement(AccountDailyBalance movement) {
+        jdbcTemplate.update(APPLY_MOVEMENT_SQL, toMovementArgs(movement, BigDecimal.ZERO));
+    }
+    
+    // Aplica a movimentação de várias contas em um único batch JDBC. Um lote que atravessa a meia-noite
+    // traz mais de um dia da mesma conta: o saldo final de cada dia desconta o saldo líquido que o lote
+    // moveu nos dias seguintes, como se cada dia tivesse sido gravado no seu fechamento
+    public void batchApplyMovements(List<AccountDailyBalance> movements) {
+        if (movements.isEmpty()) {
+            return;
+        }
+        Map<Long, NavigableMap<LocalDate, BigDecimal>> liquidoPorDia = new HashMap<>();
+        for (AccountDailyBalance movement : movements) {
+            liquidoPorDia.computeIfAbsent(movement.getAccountId(), id -> new TreeMap<>())
+                .merge(movement.getDia(), movement.getCreditos().subtract(movement.getDebitos()), BigDecimal::add);
+        }
+        List<Object[]> args = new ArrayList<>(movements.size());
+        for (AccountDailyBalance movement : movements) {
+            BigDecimal posteriores = BigDecimal.ZERO;
+            for (BigDecimal liquido : liquidoPorDia.get(movement.getAccountId()).tailMap(movement.getDia(), false).values()) {
+                posteriores = posteriores.add(liquido);
+            }
+            args.add(toMovementArgs(movement, posteriores));
+        }
+        jdbcTemplate.batchUpdate(APPLY_MOVEMENT_SQL, args);
+    }
+    
+    public List<AccountDailyBalance> findDailyMovements(Long accountId) {
+        return jdbcTemplate.query(DAILY_MOVEMENTS_SQL, (rs, rowNum) -> new AccountDailyBalance(
+            accountId,
+            rs.getDate("dia").toLocalDate(),
+            rs.getBigDecimal("creditos"),
+            rs.getBigDecimal("debitos"),
+            rs.getInt("movimentos")
+        ), accountId, accountId);
+    }
+    
+    // Substitui os snapshots da conta a partir de desde (backfill); sem desde, todos. Os dias anteriores
+    // pertencem a meses arquivados, que não estão mais em transfers para serem recalculados
+    public void replaceForAccount(Long accountId, LocalDate desde, List<AccountDailyBalance> snapshots) {
+        if (desde == null) {
+            jdbcTemplate.update(DELETE_ACCOUNT_SQL, accountId);
+        } else {
+            jdbcTemplate.update(DELETE_ACCOUNT_SINCE_SQL, accountId, Date.valueOf(desde));
+        }
+        List<Object[]> args = new ArrayList<>(snapshots.size());
+        for (AccountDailyBalance snapshot : snapshots) {
+            if (desde != null && snapshot.getDia().isBefore(desde)) {
+                continue;
+            }
+            args.add(new Object[] {
+                snapshot.getAccountId(),
+                Date.valueOf(snapshot.getDia()),
+                snapshot.getSaldoFinal(),
+                snapshot.getCreditos(),
+                snapshot.getDebitos(),
+                snapshot.getMovimentos()
+            });
+        }
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_SQL, args);
+        }
+    }
+    
+    // Aplica aos snapshots créditos que chegaram à conta depois do dia em que aconteceram (slots de
+    // contas quentes): cada dia recebe os seus créditos e os dias seguintes, o aumento do saldo final.
+    // pendentes vem em ordem crescente de dia; saldoAtual é o saldo da conta já com todos eles. Roda
+    // com a linha da conta bloqueada, como applyMovement
+    public void applyPendingCredits(Long accountId, List<AccountDailyBalance> pendentes, BigDecimal saldoAtual) {
+        BigDecimal posteriores = BigDecimal.ZERO;
+        for (AccountDailyBalance pendente : pendentes) {
+            posteriores = posteriores.add(pendente.getCreditos());
+        }
+        for (AccountDailyBalance pendente : pendentes) {
+            Date dia = Date.valueOf(pendente.getDia());
+            BigDecimal creditos = pendente.getCreditos();
+            posteriores = posteriores.subtract(creditos);
+            BigDecimal saldoSemPosteriores = saldoAtual.subtract(posteriores);
+            jdbcTemplate.update(SHIFT_AFTER_SQL, creditos, accountId, dia);
+            if (jdbcTemplate.update(ADD_CREDITS_SQL, creditos, creditos, pendente.getMovimentos(), accountId, dia) == 0) {
+                // Sem snapshot no dia: parte do anterior, do início do seguinte ou do saldo atual
+                BigDecimal saldoFinal = first(SALDO_FINAL_BEFORE_SQL, accountId, dia)
+                    .map(anterior -> anterior.add(creditos))
+                    .orElseGet(() -> first(SALDO_INICIAL_AFTER_SQL, accountId, dia)
+                        .orElse(saldoSemPosteriores));
+                jdbcTemplate.update(INSERT_SQL, accountId, dia, saldoFinal, creditos, BigDecimal.ZERO, pendente.getMovimentos());
+            }
+        }
+    }
+    
+    private Optional<BigDecimal> first(String sql, Long accountId, Date dia) {
+        return jdbcTemplate.queryForList(sql, BigDecimal.class, accountId, dia).stream().findFirst();
+    }
+    
+    private Object[] toMovementArgs(AccountDailyBalance movement, BigDecimal posteriores) {
+        Date dia = Date.valueOf(movement.getDia());
+        BigDecimal creditos = movement.getCreditos();
+        BigDecimal debitos = movement.getDebitos();
+        return new Object[] {
+            dia, posteriores, movement.getAccountId(),
+            creditos, debitos, movement.getMovimentos(),
+            creditos, debitos, movement.getMovimentos()
+        };
+    }
+}
@@ -0,0 +1,34 @@
+package com.techmarket.repository;
+
+import com.techmarket.entity.AccountDailyBalance;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface AccountDailyBalanceRepository extends JpaRepository<AccountDailyBalance, Long> {
+    
+    // Snapshot mais próximo no passado (ou no próprio dia)
+    Optional<AccountDailyBalance> findFirstByAccountIdAndDiaLessThanEqualOrderByDiaDesc(Long accountId, LocalDate dia);
+    
+    // Primeiro snapshot depois do dia, para contas sem movimentação anterior
+    Optional<AccountDailyBalance> findFirstByAccountIdAndDiaGreaterThanOrderByDiaAsc(Long accountId, LocalDate dia);
+    
+    // Soma no banco: uma linha por dia do período, sem carregar entidades
+    @Query("SELECT COALESCE(SUM(b.creditos), 0) AS creditos, COALESCE(SUM(b.debitos), 0) AS debitos " +
+           "FROM AccountDailyBalance b WHERE b.accountId = :accountId AND b.dia BETWEEN :inicio AND :fim")
+    PeriodTotals sumPeriod(@Param("accountId") Long accountId, @Param("inicio") LocalDate inicio, @Param("fim") LocalDate fim);
+    
+    List<AccountDailyBalance> findByAccountIdOrderByDiaAsc(Long accountId);
+    
+    interface PeriodTotals {
+        BigDecimal getCreditos();
+        BigDecimal getDebitos();
+    }
+}
@@ -0,0 +1,91 @@
+package com.techmarket.repository;
+
+import com.techmarket.entity.Account;
+import com.techmarket.util.Money;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+@Repository
+public class AccountJdbcRepository {
+    
+    static final String DEBIT_SQL =
+        "UPDATE accounts SET balance = balance - ?, version = version + 1 WHERE id = ? AND balance >= ?";
+    
+    static final String CREDIT_SQL =
+        "UPDATE accounts SET balance = balance + ?, version = version + 1 WHERE id = ?";
+    
+    private static final String UPDATE_BALANCE_SQL =
+        "UPDATE accounts SET balance = ?, version = version + 1 WHERE id = ?";
+    
+    static final String EXISTS_SQL =
+        "SELECT COUNT(*) FROM accounts WHERE id = ?";
+    
+    static final String BALANCE_SQL =
+        "SELECT id, balance, version FROM accounts WHERE id = ?";
+    
+    private static final String LOCK_BALANCE_SQL =
+        BALANCE_SQL + " FOR UPDATE";
+    
+    private static final String IDS_AFTER_SQL =
+        "SELECT id FROM accounts WHERE id > ? ORDER BY id LIMIT ?";
+    
+    // Só id, saldo e versão (sem o owner)
+    static final RowMapper<Account> BALANCE_ROW_MAPPER = (rs, rowNum) -> {
+        Account account = new Account(null, Money.of(rs.getBigDecimal("balance")));
+        account.setId(rs.getLong("id"));
+        account.setVersion(rs.getLong("version"));
+        return account;
+    };
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    // Debita somente se houver saldo; retorna false se a conta não existe ou o saldo é insuficiente
+    public boolean debitIfSufficient(Long accountId, Money valor) {
+        BigDecimal decimal = valor.toBigDecimal();
+        return jdbcTemplate.update(DEBIT_SQL, decimal, accountId, decimal) == 1;
+    }
+    
+    // Credita o valor; retorna false se a conta não existe
+    public boolean credit(Long accountId, Money valor) {
+        return jdbcTemplate.update(CREDIT_SQL, valor.toBigDecimal(), accountId) == 1;
+    }
+    
+    public boolean exists(Long accountId) {
+        Integer count = jdbcTemplate.queryForObject(EXISTS_SQL, Integer.class, accountId);
+        return count != null && count > 0;
+    }
+    
+    // Só id, saldo e versão (sem o owner), para o cache de saldo
+    public Optional<Account> findBalance(Long accountId) {
+        return jdbcTemplate.query(BALANCE_SQL, BALANCE_ROW_MAPPER, accountId).stream().findFirst();
+    }
+    
+    // Como findBalance, com lock de escrita na linha até o fim da transação
+    public Optional<Account> lockBalance(Long accountId) {
+        return jdbcTemplate.query(LOCK_BALANCE_SQL, BALANCE_ROW_MAPPER, accountId).stream().findFirst();
+    }
+    
+    // Percorre os ids de conta em páginas, sem carregar entidades
+    public List<Long> findIdsAfter(long afterId, int limit) {
+        return jdbcTemplate.queryForList(IDS_AFTER_SQL, Long.class, afterId, limit);
+    }
+    
+    // Grava os novos saldos em um único batch JDBC
+    public void batchUpdateBalances(Map<Long, Money> balances) {
+        if (balances.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(balances.size());
+        balances.forEach((accountId, balance) -> args.add(new Object[] { balance.toBigDecimal(), accountId }));
+        jdbcTemplate.batchUpdate(UPDATE_BALANCE_SQL, args);
+    }
+}
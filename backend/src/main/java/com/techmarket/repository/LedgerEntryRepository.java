@@ -0,0 +1,13 @@
+package com.techmarket.repository;
+
+import com.techmarket.entity.LedgerEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
+    
+    List<LedgerEntry> findByTransferIdOrderById(Long transferId);
+}
@@ -0,0 +1,46 @@
+package com.techmarket.repository;
+
+import com.techmarket.entity.LedgerEntry;
+import com.techmarket.entity.Transfer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.List;
+
+@Repository
+public class LedgerJdbcRepository {
+    
+    private static final String INSERT_SQL =
+        "INSERT INTO transacoes (account_id, tipo, valor, data, descricao, transfer_id) VALUES (?, ?, ?, ?, ?, ?)";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    // DEBIT e CREDIT de cada transferência em um único batch JDBC (com reWriteBatchedInserts,
+    // um INSERT de várias linhas no Postgres); as transferências já precisam ter id
+    public void batchInsert(List<Transfer> transfers) {
+        if (transfers.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(transfers.size() * 2);
+        for (Transfer transfer : transfers) {
+            args.add(toArgs(LedgerEntry.debit(transfer)));
+            args.add(toArgs(LedgerEntry.credit(transfer)));
+        }
+        jdbcTemplate.batchUpdate(INSERT_SQL, args);
+    }
+    
+    private Object[] toArgs(LedgerEntry entry) {
+        return new Object[] {
+            entry.getAccountId(),
+            entry.getTipo().name(),
+            entry.getValor().toBigDecimal(),
+            Timestamp.valueOf(entry.getData()),
+            entry.getDescricao(),
+            entry.getTransferId()
+        };
+    }
+}
@@ -0,0 +1,53 @@
+package com.techmarket.repository;
+
+import com.techmarket.config.AccountShards;
+import com.techmarket.entity.Account;
+import com.techmarket.util.Money;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.Optional;
+
+// Mesmas operações de AccountJdbcRepository, no shard da conta. As escritas precisam rodar dentro
+// da transação desse shard (AccountShards.Shard#getTransactionTemplate)
+@Repository
+public class ShardedAccountRepository {
+    
+    private static final String INSERT_SQL =
+        "INSERT INTO accounts (id, owner, balance, version) VALUES (?, ?, ?, 0)";
+    
+    @Autowired
+    private AccountShards accountShards;
+    
+    // O id vem de quem cria a conta e decide o shard; as sequências de cada shard não são globais
+    public Account insert(Account account) {
+        jdbcTemplate(account.getId()).update(INSERT_SQL, account.getId(), account.getOwner(), account.getBalance().toBigDecimal());
+        account.setVersion(0L);
+        return account;
+    }
+    
+    public boolean debitIfSufficient(Long accountId, Money valor) {
+        BigDecimal decimal = valor.toBigDecimal();
+        return jdbcTemplate(accountId).update(AccountJdbcRepository.DEBIT_SQL, decimal, accountId, decimal) == 1;
+    }
+    
+    public boolean credit(Long accountId, Money valor) {
+        return jdbcTemplate(accountId).update(AccountJdbcRepository.CREDIT_SQL, valor.toBigDecimal(), accountId) == 1;
+    }
+    
+    public boolean exists(Long accountId) {
+        Integer count = jdbcTemplate(accountId).queryForObject(AccountJdbcRepository.EXISTS_SQL, Integer.class, accountId);
+        return count != null && count > 0;
+    }
+    
+    public Optional<Account> findBalance(Long accountId) {
+        return jdbcTemplate(accountId).query(AccountJdbcRepository.BALANCE_SQL, AccountJdbcRepository.BALANCE_ROW_MAPPER, accountId)
+            .stream().findFirst();
+    }
+    
+    private JdbcTemplate jdbcTemplate(Long accountId) {
+        return accountShards.shardFor(accountId).getJdbcTemplate();
+    }
+}
@@ -0,0 +1,117 @@
+package com.techmarket.repository;
+
+import com.techmarket.config.AccountShards;
+import com.techmarket.entity.CrossShardTransfer;
+import com.techmarket.entity.CrossShardTransferState;
+import com.techmarket.entity.Transfer;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+// Transferências e sagas em um shard específico. Uma transferência entre shards tem uma linha em
+// transfers em cada lado, com o mesmo id e código, para o extrato de cada conta no seu shard
+@Repository
+public class ShardedTransferRepository {
+    
+    private static final String DELETE_IDEMPOTENCY_KEY_SQL =
+        "DELETE FROM idempotency_keys WHERE key_value = ? AND transfer_id = ?";
+    
+    private static final String FIND_BY_IDEMPOTENCY_KEY_SQL =
+        "SELECT " + TransferJdbcRepository.TRANSFER_COLUMNS + " FROM transfers t WHERE t.idempotency_key = ? AND t.origem_account_id = ?";
+    
+    private static final String INSERT_SAGA_SQL =
+        "INSERT INTO cross_shard_transfers (id, codigo_uuid, origem_account_id, destino_account_id, valor, " +
+        "idempotency_key, timestamp, state, updated_at) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    
+    private static final String UPDATE_STATE_SQL =
+        "UPDATE cross_shard_transfers SET state = ?, updated_at = ? WHERE id = ? AND state = ?";
+    
+    // Paradas no estado desde antes de before, mais antigas primeiro
+    private static final String FIND_BY_STATE_SQL =
+        "SELECT id, codigo_uuid, origem_account_id, destino_account_id, valor, idempotency_key, timestamp, state, updated_at " +
+        "FROM cross_shard_transfers WHERE state = ? AND updated_at < ? ORDER BY updated_at, id LIMIT ?";
+    
+    private static final String FIND_SAGA_BY_IDEMPOTENCY_KEY_SQL =
+        "SELECT id, codigo_uuid, origem_account_id, destino_account_id, valor, idempotency_key, timestamp, state, updated_at " +
+        "FROM cross_shard_transfers WHERE idempotency_key = ? AND origem_account_id = ? AND state = ?";
+    
+    private static final RowMapper<CrossShardTransfer> SAGA_ROW_MAPPER = (rs, rowNum) -> {
+        CrossShardTransfer saga = new CrossShardTransfer();
+        saga.setId(rs.getLong("id"));
+        saga.setCodigo(rs.getObject("codigo_uuid", UUID.class));
+        saga.setOrigemAccountId(rs.getLong("origem_account_id"));
+        saga.setDestinoAccountId(rs.getLong("destino_account_id"));
+        saga.setValor(rs.getBigDecimal("valor"));
+        saga.setIdempotencyKey(rs.getString("idempotency_key"));
+        saga.setTimestamp(rs.getTimestamp("timestamp").toLocalDateTime());
+        saga.setState(CrossShardTransferState.valueOf(rs.getString("state")));
+        saga.setUpdatedAt(rs.getTimestamp("updated_at").toLocalDateTime());
+        return saga;
+    };
+    
+    @Autowired
+    private TransferJdbcRepository transferJdbcRepository;
+    
+    // Atribui o id (da sequência global do primário) se a transferência ainda não tiver
+    public void insert(AccountShards.Shard shard, Transfer transfer) {
+        shard.getJdbcTemplate().update(TransferJdbcRepository.INSERT_TRANSFER_SQL, transferJdbcRepository.toArgs(transfer));
+    }
+    
+    // A chave fica reservada no shard da conta de origem; uma chave repetida viola a constraint única
+    public void reserveIdempotencyKey(AccountShards.Shard shard, Transfer transfer) {
+        if (transfer.getIdempotencyKey() != null) {
+            shard.getJdbcTemplate().update(TransferJdbcRepository.INSERT_IDEMPOTENCY_KEY_SQL,
+                transfer.getIdempotencyKey(), transfer.getId(), Timestamp.valueOf(transfer.getTimestamp()));
+        }
+    }
+    
+    // Chave de uma transferência estornada volta a ficar livre
+    public void releaseIdempotencyKey(AccountShards.Shard shard, Transfer transfer) {
+        if (transfer.getIdempotencyKey() != null) {
+            shard.getJdbcTemplate().update(DELETE_IDEMPOTENCY_KEY_SQL, transfer.getIdempotencyKey(), transfer.getId());
+        }
+    }
+    
+    // Transferência da conta de origem com a chave, no shard da origem (onde a chave é reservada)
+    public Optional<Transfer> findByIdempotencyKey(AccountShards.Shard shard, Long origemAccountId, String key) {
+        return shard.getJdbcTemplate().query(FIND_BY_IDEMPOTENCY_KEY_SQL, TransferJdbcRepository.TRANSFER_ROW_MAPPER, key, origemAccountId)
+            .stream().findFirst();
+    }
+    
+    // Viola a chave primária se o shard já tem uma linha da mesma transferência
+    public void insertSaga(AccountShards.Shard shard, CrossShardTransfer saga) {
+        shard.getJdbcTemplate().update(INSERT_SAGA_SQL,
+            saga.getId(),
+            saga.getCodigo(),
+            saga.getOrigemAccountId(),
+            saga.getDestinoAccountId(),
+            saga.getValor(),
+            saga.getIdempotencyKey(),
+            Timestamp.valueOf(saga.getTimestamp()),
+            saga.getState().name(),
+            Timestamp.valueOf(saga.getUpdatedAt()));
+    }
+    
+    // Transição condicional: só uma das execuções concorrentes (requisição ou recuperação) passa
+    public boolean updateState(AccountShards.Shard shard, Long id, CrossShardTransferState from, CrossShardTransferState to) {
+        return shard.getJdbcTemplate().update(UPDATE_STATE_SQL,
+            to.name(), Timestamp.valueOf(LocalDateTime.now()), id, from.name()) == 1;
+    }
+    
+    public List<CrossShardTransfer> findByStateBefore(AccountShards.Shard shard, CrossShardTransferState state,
+                                                      LocalDateTime before, int limit) {
+        return shard.getJdbcTemplate().query(FIND_BY_STATE_SQL, SAGA_ROW_MAPPER, state.name(), Timestamp.valueOf(before), limit);
+    }
+    
+    public Optional<CrossShardTransfer> findSagaByIdempotencyKey(AccountShards.Shard shard, Long origemAccountId, String key,
+                                                                 CrossShardTransferState state) {
+        return shard.getJdbcTemplate().query(FIND_SAGA_BY_IDEMPOTENCY_KEY_SQL, SAGA_ROW_MAPPER, key, origemAccountId, state.name())
+            .stream().findFirst();
+    }
+}
@@ -0,0 +1,160 @@
+package com.techmarket.repository;
+
+import com.techmarket.entity.Transfer;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Repository;
+
+import java.io.IOException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+// Histórico arquivado de transferências: um TransferSegment por mês (transfers-AAAA-MM.seg) no
+// diretório configurado, carregados na inicialização e publicados pelo TransferArchivalJob.
+// Os meses arquivados são sempre anteriores aos que continuam na tabela: as consultas leem
+// primeiro o banco e continuam aqui a partir da última linha lida.
+@Repository
+public class TransferArchive {
+    
+    private static final Logger log = LoggerFactory.getLogger(TransferArchive.class);
+    
+    private final Path directory;
+    
+    // Em ordem crescente de mês; substituída por inteiro a cada publicação
+    private volatile List<TransferSegment> segments = List.of();
+    
+    public TransferArchive(@Value("${techmarket.archive.directory:./data/archive}") String directory) {
+        this.directory = Path.of(directory);
+    }
+    
+    @PostConstruct
+    void load() throws IOException {
+        Files.createDirectories(directory);
+        List<TransferSegment> loaded = new ArrayList<>();
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, "transfers-*.seg*")) {
+            for (Path file : files) {
+                if (file.toString().endsWith(".tmp")) {
+                    // Arquivamento interrompido antes do rename: as linhas continuam no banco
+                    Files.delete(file);
+                } else {
+                    loaded.add(TransferSegment.open(file));
+                }
+            }
+        }
+        loaded.sort(Comparator.comparing(TransferSegment::getRangeStart));
+        segments = List.copyOf(loaded);
+        if (!loaded.isEmpty()) {
+            log.info("Arquivo de transferências: {} segmentos em {}, até {}", loaded.size(), directory, archivedUntil());
+        }
+    }
+    
+    @PreDestroy
+    synchronized void close() throws IOException {
+        for (TransferSegment segment : segments) {
+            segment.close();
+        }
+        segments = List.of();
+    }
+    
+    public Path segmentPath(YearMonth month) {
+        return directory.resolve("transfers-" + month + ".seg");
+    }
+    
+    public boolean isEmpty() {
+        return segments.isEmpty();
+    }
+    
+    public boolean contains(YearMonth month) {
+        return findSegment(month).isPresent();
+    }
+    
+    public Optional<TransferSegment> findSegment(YearMonth month) {
+        LocalDateTime start = month.atDay(1).atStartOfDay();
+        return segments.stream().filter(segment -> segment.getRangeStart().equals(start)).findFirst();
+    }
+    
+    // Fim (exclusivo) do mês arquivado mais recente; null sem segmentos
+    public LocalDateTime archivedUntil() {
+        List<TransferSegment> current = segments;
+        return current.isEmpty() ? null : current.get(current.size() - 1).getRangeEnd();
+    }
+    
+    // Abre um segmento recém-gravado e o torna visível para as consultas
+    public synchronized TransferSegment publish(Path path) throws IOException {
+        TransferSegment segment = TransferSegment.open(path);
+        List<TransferSegment> updated = new ArrayList<>(segments);
+        updated.add(segment);
+        updated.sort(Comparator.comparing(TransferSegment::getRangeStart));
+        segments = List.copyOf(updated);
+        return segment;
+    }
+    
+    public Optional<Transfer> findByCodigo(UUID codigo) {
+        List<TransferSegment> current = segments;
+        for (int i = current.size() - 1; i >= 0; i--) {
+            Optional<Transfer> transfer = current.get(i).findByCodigo(codigo);
+            if (transfer.isPresent()) {
+                return transfer;
+            }
+        }
+        return Optional.empty();
+    }
+    
+    public Optional<Transfer> findByIdempotencyKey(String key) {
+        List<TransferSegment> current = segments;
+        for (int i = current.size() - 1; i >= 0; i--) {
+            Optional<Transfer> transfer = current.get(i).findByIdempotencyKey(key);
+            if (transfer.isPresent()) {
+                return transfer;
+            }
+        }
+        return Optional.empty();
+    }
+    
+    // Mesma ordem e cursor do extrato: (timestamp, id) decrescente, abaixo de (beforeTimestamp, beforeId).
+    // Sem beforeId o limite vale só para o timestamp; from e beforeTimestamp nulos não limitam
+    public List<Transfer> findLatest(Long accountId, LocalDateTime from, LocalDateTime beforeTimestamp, Long beforeId, int limit) {
+        long fromMicros = from == null ? Long.MIN_VALUE : TransferSegment.toMicros(from);
+        long beforeMicros = beforeTimestamp == null ? Long.MAX_VALUE : TransferSegment.toMicros(beforeTimestamp);
+        long before = beforeTimestamp == null ? Long.MAX_VALUE : beforeId == null ? Long.MIN_VALUE : beforeId;
+        
+        List<Transfer> transfers = new ArrayList<>();
+        List<TransferSegment> current = segments;
+        for (int i = current.size() - 1; i >= 0 && transfers.size() < limit; i--) {
+            TransferSegment segment = current.get(i);
+            if (TransferSegment.toMicros(segment.getRangeEnd()) <= fromMicros) {
+                break;
+            }
+            if (TransferSegment.toMicros(segment.getRangeStart()) <= beforeMicros) {
+                segment.findLatest(accountId, fromMicros, beforeMicros, before, limit, transfers);
+            }
+        }
+        return transfers;
+    }
+    
+    // Transferências da conta com from <= timestamp < to, em ordem cronológica
+    public void stream(Long accountId, LocalDateTime from, LocalDateTime to, Consumer<Transfer> consumer) {
+        long fromMicros = TransferSegment.toMicros(from);
+        long toMicros = TransferSegment.toMicros(to);
+        for (TransferSegment segment : segments) {
+            if (TransferSegment.toMicros(segment.getRangeStart()) >= toMicros) {
+                break;
+            }
+            if (TransferSegment.toMicros(segment.getRangeEnd()) > fromMicros) {
+                segment.scan(accountId, fromMicros, toMicros, consumer);
+            }
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.techmarket.repository;
+
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.jdbc.support.MetaDataAccessException;
+import org.springframework.jdbc.support.incrementer.DataFieldMaxValueIncrementer;
+import org.springframework.jdbc.support.incrementer.H2SequenceMaxValueIncrementer;
+import org.springframework.jdbc.support.incrementer.PostgresSequenceMaxValueIncrementer;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.concurrent.locks.ReentrantLock;
+
+// Ids de transfers para as inserções JDBC, tirados da mesma sequência que o Hibernate usa
+// (transfers_id_seq, INCREMENT BY 50) e com a mesma semântica pooled-lo: cada nextval reserva
+// o bloco [valor, valor + 50), então os dois caminhos nunca entregam o mesmo id
+@Component
+public class TransferIdAllocator {
+    
+    public static final String SEQUENCE_NAME = "transfers_id_seq";
+    public static final int ALLOCATION_SIZE = 50;
+    
+    @Autowired
+    private DataSource dataSource;
+    
+    private final ReentrantLock lock = new ReentrantLock();
+    private DataFieldMaxValueIncrementer incrementer;
+    private long next;
+    private long limit;
+    
+    @PostConstruct
+    void init() throws MetaDataAccessException {
+        String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+        if ("H2".equals(product)) {
+            incrementer = new H2SequenceMaxValueIncrementer(dataSource, SEQUENCE_NAME);
+        } else {
+            incrementer = new PostgresSequenceMaxValueIncrementer(dataSource, SEQUENCE_NAME);
+        }
+    }
+    
+    public long nextId() {
+        lock.lock();
+        try {
+            if (next == limit) {
+                next = incrementer.nextLongValue();
+                limit = next + ALLOCATION_SIZE;
+            }
+            return next++;
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,230 @@
+package com.techmarket.repository;
+
+import com.techmarket.entity.Transfer;
+import com.techmarket.util.Money;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Savepoint;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.function.Consumer;
+
+@Repository
+public class TransferJdbcRepository {
+    
+    static final String INSERT_TRANSFER_SQL =
+        "INSERT INTO transfers (id, origem_account_id, destino_account_id, valor, codigo_uuid, timestamp, idempotency_key) " +
+        "VALUES (?, ?, ?, ?, ?, ?, ?)";
+    
+    static final String INSERT_IDEMPOTENCY_KEY_SQL =
+        "INSERT INTO idempotency_keys (key_value, transfer_id, created_at) VALUES (?, ?, ?)";
+    
+    static final String TRANSFER_COLUMNS =
+        "t.id, t.origem_account_id, t.destino_account_id, t.valor, t.codigo_uuid, t.timestamp, t.idempotency_key";
+    
+    // Cada ramo do UNION é uma varredura de intervalo em idx_transfers_origem / idx_transfers_destino,
+    // limitada a uma página; o OR entre as duas colunas impediria o uso dos índices
+    private static final String STATEMENT_FIRST_PAGE_SQL =
+        "SELECT * FROM (" +
+        "(SELECT " + TRANSFER_COLUMNS + " FROM transfers t WHERE t.origem_account_id = ? " +
+        "ORDER BY t.timestamp DESC, t.id DESC LIMIT ?) " +
+        "UNION ALL " +
+        "(SELECT " + TRANSFER_COLUMNS + " FROM transfers t WHERE t.destino_account_id = ? " +
+        "ORDER BY t.timestamp DESC, t.id DESC LIMIT ?)" +
+        ") page ORDER BY page.timestamp DESC, page.id DESC LIMIT ?";
+    
+    private static final String STATEMENT_NEXT_PAGE_SQL =
+        "SELECT * FROM (" +
+        "(SELECT " + TRANSFER_COLUMNS + " FROM transfers t WHERE t.origem_account_id = ? AND (t.timestamp, t.id) < (?, ?) " +
+        "ORDER BY t.timestamp DESC, t.id DESC LIMIT ?) " +
+        "UNION ALL " +
+        "(SELECT " + TRANSFER_COLUMNS + " FROM transfers t WHERE t.destino_account_id = ? AND (t.timestamp, t.id) < (?, ?) " +
+        "ORDER BY t.timestamp DESC, t.id DESC LIMIT ?)" +
+        ") page ORDER BY page.timestamp DESC, page.id DESC LIMIT ?";
+    
+    // Últimas transferências de um período: mesmas varreduras de índice, limitadas ao intervalo
+    private static final String PERIOD_LATEST_SQL =
+        "SELECT * FROM (" +
+        "(SELECT " + TRANSFER_COLUMNS + " FROM transfers t WHERE t.origem_account_id = ? AND t.timestamp >= ? AND t.timestamp < ? " +
+        "ORDER BY t.timestamp DESC, t.id DESC LIMIT ?) " +
+        "UNION ALL " +
+        "(SELECT " + TRANSFER_COLUMNS + " FROM transfers t WHERE t.destino_account_id = ? AND t.timestamp >= ? AND t.timestamp < ? " +
+        "ORDER BY t.timestamp DESC, t.id DESC LIMIT ?)" +
+        ") page ORDER BY page.timestamp DESC, page.id DESC LIMIT ?";
+    
+    // Histórico completo de um período em ordem cronológica, para exportação
+    private static final String EXPORT_SQL =
+        "SELECT * FROM (" +
+        "SELECT " + TRANSFER_COLUMNS + " FROM transfers t WHERE t.origem_account_id = ? AND t.timestamp >= ? AND t.timestamp < ? " +
+        "UNION ALL " +
+        "SELECT " + TRANSFER_COLUMNS + " FROM transfers t WHERE t.destino_account_id = ? AND t.timestamp >= ? AND t.timestamp < ?" +
+        ") history ORDER BY history.timestamp, history.id";
+    
+    // Um intervalo de tempo inteiro em (timestamp, id) crescente, para gravar o segmento do arquivo
+    private static final String RANGE_SQL =
+        "SELECT " + TRANSFER_COLUMNS + " FROM transfers t WHERE t.timestamp >= ? AND t.timestamp < ? ORDER BY t.timestamp, t.id";
+    
+    static final RowMapper<Transfer> TRANSFER_ROW_MAPPER = (rs, rowNum) -> {
+        Transfer transfer = new Transfer();
+        transfer.setId(rs.getLong("id"));
+        transfer.setOrigemAccountId(rs.getLong("origem_account_id"));
+        transfer.setDestinoAccountId(rs.getLong("destino_account_id"));
+        transfer.setValor(Money.of(rs.getBigDecimal("valor")));
+        transfer.setCodigo(rs.getObject("codigo_uuid", UUID.class));
+        transfer.setTimestamp(rs.getTimestamp("timestamp").toLocalDateTime());
+        transfer.setIdempotencyKey(rs.getString("idempotency_key"));
+        return transfer;
+    };
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @Autowired
+    private TransferIdAllocator transferIdAllocator;
+    
+    public void insert(Transfer transfer) {
+        jdbcTemplate.update(INSERT_TRANSFER_SQL, toArgs(transfer));
+    }
+    
+    // Insere as transferências em um único batch JDBC
+    public void batchInsert(List<Transfer> transfers) {
+        if (transfers.isEmpty()) {
+            return;
+        }
+        List<Object[]> args = new ArrayList<>(transfers.size());
+        for (Transfer transfer : transfers) {
+            args.add(toArgs(transfer));
+        }
+        jdbcTemplate.batchUpdate(INSERT_TRANSFER_SQL, args);
+    }
+    
+    // Reserva as chaves de idempotência das transferências na mesma transação; uma chave repetida
+    // viola a constraint única de idempotency_keys. As transferências já precisam ter id
+    public void reserveIdempotencyKeys(List<Transfer> transfers) {
+        List<Object[]> args = new ArrayList<>();
+        for (Transfer transfer : transfers) {
+            if (transfer.getIdempotencyKey() != null) {
+                args.add(new Object[] {transfer.getIdempotencyKey(), transfer.getId(), Timestamp.valueOf(transfer.getTimestamp())});
+            }
+        }
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate(INSERT_IDEMPOTENCY_KEY_SQL, args);
+        }
+    }
+    
+    // Insere as transferências e reserva as chaves sob um savepoint. Se outra transação reservou uma
+    // das chaves depois da consulta do lote, desfaz só o savepoint (a transação continua válida) e
+    // devolve as chaves já reservadas; nada do lote fica gravado e quem chamou reaplica sem elas
+    public Set<String> insertReservingIdempotencyKeys(List<Transfer> transfers) {
+        List<String> keys = new ArrayList<>();
+        for (Transfer transfer : transfers) {
+            if (transfer.getIdempotencyKey() != null) {
+                keys.add(transfer.getIdempotencyKey());
+            }
+        }
+        if (keys.isEmpty()) {
+            batchInsert(transfers);
+            return Set.of();
+        }
+        return jdbcTemplate.execute((ConnectionCallback<Set<String>>) connection -> {
+            Savepoint savepoint = connection.setSavepoint();
+            try {
+                batchInsert(transfers);
+                reserveIdempotencyKeys(transfers);
+            } catch (DuplicateKeyException e) {
+                connection.rollback(savepoint);
+                Set<String> reserved = findReservedKeys(keys);
+                if (reserved.isEmpty()) {
+                    throw e;
+                }
+                return reserved;
+            }
+            connection.releaseSavepoint(savepoint);
+            return Set.of();
+        });
+    }
+    
+    private Set<String> findReservedKeys(List<String> keys) {
+        String sql = "SELECT key_value FROM idempotency_keys WHERE key_value IN (" +
+            String.join(", ", Collections.nCopies(keys.size(), "?")) + ")";
+        return new HashSet<>(jdbcTemplate.queryForList(sql, String.class, keys.toArray()));
+    }
+    
+    // Página do extrato em ordem (timestamp, id) decrescente; sem cursor começa pela mais recente
+    public List<Transfer> findStatementPage(Long accountId, LocalDateTime beforeTimestamp, Long beforeId, int limit) {
+        if (beforeTimestamp == null) {
+            return jdbcTemplate.query(STATEMENT_FIRST_PAGE_SQL, TRANSFER_ROW_MAPPER,
+                accountId, limit, accountId, limit, limit);
+        }
+        Timestamp timestamp = Timestamp.valueOf(beforeTimestamp);
+        return jdbcTemplate.query(STATEMENT_NEXT_PAGE_SQL, TRANSFER_ROW_MAPPER,
+            accountId, timestamp, beforeId, limit, accountId, timestamp, beforeId, limit, limit);
+    }
+    
+    public List<Transfer> findLatestInPeriod(Long accountId, LocalDateTime from, LocalDateTime to, int limit) {
+        Timestamp start = Timestamp.valueOf(from);
+        Timestamp end = Timestamp.valueOf(to);
+        return jdbcTemplate.query(PERIOD_LATEST_SQL, TRANSFER_ROW_MAPPER,
+            accountId, start, end, limit, accountId, start, end, limit, limit);
+    }
+    
+    // Cursor somente para frente: as linhas chegam em blocos de fetchSize e são entregues
+    // uma a uma ao handler, sem montar lista nem entidades gerenciadas.
+    // No PostgreSQL o fetch size só vale dentro de uma transação (autocommit desligado)
+    public void streamHistory(Long accountId, LocalDateTime from, LocalDateTime to, int fetchSize, RowCallbackHandler handler) {
+        Timestamp start = Timestamp.valueOf(from);
+        Timestamp end = Timestamp.valueOf(to);
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(EXPORT_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            statement.setLong(1, accountId);
+            statement.setTimestamp(2, start);
+            statement.setTimestamp(3, end);
+            statement.setLong(4, accountId);
+            statement.setTimestamp(5, start);
+            statement.setTimestamp(6, end);
+            return statement;
+        }, handler);
+    }
+    
+    // Todas as transferências do intervalo, em (timestamp, id) crescente, com o mesmo cursor
+    // somente para frente da exportação
+    public void streamRange(LocalDateTime from, LocalDateTime to, int fetchSize, Consumer<Transfer> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(RANGE_SQL, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            statement.setTimestamp(1, Timestamp.valueOf(from));
+            statement.setTimestamp(2, Timestamp.valueOf(to));
+            return statement;
+        }, (RowCallbackHandler) rs -> consumer.accept(TRANSFER_ROW_MAPPER.mapRow(rs, 0)));
+    }
+    
+    Object[] toArgs(Transfer transfer) {
+        if (transfer.getId() == null) {
+            transfer.setId(transferIdAllocator.nextId());
+        }
+        return new Object[] {
+            transfer.getId(),
+            transfer.getOrigemAccountId(),
+            transfer.getDestinoAccountId(),
+            transfer.getValor().toBigDecimal(),
+            transfer.getCodigo(),
+            Timestamp.valueOf(transfer.getTimestamp()),
+            transfer.getIdempotencyKey()
+        };
+    }
+}
@@ -0,0 +1,36 @@
+package com.techmarket.repository;
+
+import com.techmarket.entity.TransferOutbox;
+import com.techmarket.entity.TransferStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface TransferOutboxRepository extends JpaRepository<TransferOutbox, Long> {
+    
+    Optional<TransferOutbox> findByCodigo(String codigo);
+    
+    Optional<TransferOutbox> findByIdempotencyKey(String idempotencyKey);
+    
+    // SKIP LOCKED: vários workers (e réplicas) drenam a fila sem disputar as mesmas linhas
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM TransferOutbox o WHERE o.status = :status ORDER BY o.id")
+    List<TransferOutbox> findForProcessing(@Param("status") TransferStatus status, Pageable pageable);
+    
+    // Uma linha do lote que falhou; já bloqueada por outro worker, fica com ele
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT o FROM TransferOutbox o WHERE o.id = :id AND o.status = :status")
+    Optional<TransferOutbox> findForProcessingById(@Param("id") Long id, @Param("status") TransferStatus status);
+}
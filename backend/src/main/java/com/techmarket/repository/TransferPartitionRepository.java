@@ -0,0 +1,104 @@
+package com.techmarket.repository;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.time.format.DateTimeFormatter;
+import java.util.Optional;
+
+// Partições mensais de transfers (PostgreSQL, depois de infra/sql/07_partition_transfers.sql) e
+// remoção dos meses já arquivados. Sem partições (H2 ou base ainda não migrada) os meses são
+// apagados em lotes pequenos, cada um na sua transação.
+@Repository
+public class TransferPartitionRepository {
+    
+    private static final DateTimeFormatter PARTITION_SUFFIX = DateTimeFormatter.ofPattern("yyyy_MM");
+    
+    private static final String IS_PARTITIONED_SQL =
+        "SELECT EXISTS (SELECT 1 FROM pg_partitioned_table p JOIN pg_class c ON c.oid = p.partrelid " +
+        "WHERE c.relname = 'transfers' AND c.relnamespace = current_schema()::regnamespace)";
+    
+    private static final String OLDEST_TIMESTAMP_SQL = "SELECT MIN(timestamp) FROM transfers";
+    
+    private static final String COUNT_RANGE_SQL = "SELECT COUNT(*) FROM transfers WHERE timestamp >= ? AND timestamp < ?";
+    
+    private static final String DELETE_RANGE_SQL =
+        "DELETE FROM transfers WHERE timestamp >= ? AND timestamp < ? AND id IN " +
+        "(SELECT id FROM transfers WHERE timestamp >= ? AND timestamp < ? LIMIT ?)";
+    
+    private static final String DELETE_IDEMPOTENCY_KEYS_SQL =
+        "DELETE FROM idempotency_keys WHERE id IN (SELECT id FROM idempotency_keys WHERE created_at < ? LIMIT ?)";
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private volatile Boolean partitioned;
+    
+    public boolean isPartitioned() {
+        if (partitioned == null) {
+            String product = jdbcTemplate.execute((ConnectionCallback<String>) connection -> connection.getMetaData().getDatabaseProductName());
+            partitioned = "PostgreSQL".equals(product) && Boolean.TRUE.equals(jdbcTemplate.queryForObject(IS_PARTITIONED_SQL, Boolean.class));
+        }
+        return partitioned;
+    }
+    
+    public static String partitionName(YearMonth month) {
+        return "transfers_" + month.format(PARTITION_SUFFIX);
+    }
+    
+    public void createPartition(YearMonth month) {
+        jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(month) + " PARTITION OF transfers " +
+            "FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+    }
+    
+    // Retira a partição do mês da tabela e a apaga; devolve false se ela não existir
+    public boolean dropPartition(YearMonth month) {
+        String name = partitionName(month);
+        if (!Boolean.TRUE.equals(jdbcTemplate.queryForObject("SELECT to_regclass(?) IS NOT NULL", Boolean.class, name))) {
+            return false;
+        }
+        jdbcTemplate.execute("ALTER TABLE transfers DETACH PARTITION " + name);
+        jdbcTemplate.execute("DROP TABLE " + name);
+        return true;
+    }
+    
+    public Optional<LocalDateTime> findOldestTimestamp() {
+        Timestamp oldest = jdbcTemplate.queryForObject(OLDEST_TIMESTAMP_SQL, Timestamp.class);
+        return Optional.ofNullable(oldest).map(Timestamp::toLocalDateTime);
+    }
+    
+    public long countRange(LocalDateTime from, LocalDateTime to) {
+        Long count = jdbcTemplate.queryForObject(COUNT_RANGE_SQL, Long.class, Timestamp.valueOf(from), Timestamp.valueOf(to));
+        return count == null ? 0 : count;
+    }
+    
+    // Retorna o número de linhas apagadas
+    public long deleteRange(LocalDateTime from, LocalDateTime to, int batchSize) {
+        Timestamp start = Timestamp.valueOf(from);
+        Timestamp end = Timestamp.valueOf(to);
+        long total = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(DELETE_RANGE_SQL, start, end, start, end, batchSize);
+            total += deleted;
+        } while (deleted == batchSize);
+        return total;
+    }
+    
+    // Chaves reservadas por transferências anteriores a before (já arquivadas)
+    public long deleteIdempotencyKeysBefore(LocalDateTime before, int batchSize) {
+        Timestamp limite = Timestamp.valueOf(before);
+        long total = 0;
+        int deleted;
+        do {
+            deleted = jdbcTemplate.update(DELETE_IDEMPOTENCY_KEYS_SQL, limite, batchSize);
+            total += deleted;
+        } while (deleted == batchSize);
+        return total;
+    }
+}
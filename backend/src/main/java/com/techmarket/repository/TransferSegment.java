@@ -0,0 +1,349 @@
+package com.techmarket.repository;
+
+import com.techmarket.entity.Transfer;
+import com.techmarket.util.Money;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+// Segmento imutável do arquivo de transferências, gravado por TransferSegmentWriter: um mês
+// inteiro em (timestamp, id) crescente, em blocos de até BLOCK_RECORDS registros comprimidos
+// com Deflate.
+//
+// Layout: cabeçalho | blocos | índice esparso (uma entrada por bloco: primeiro e último instante,
+// posição, tamanhos e um filtro de Bloom das contas do bloco) | índice de códigos | índice de
+// chaves de idempotência | rodapé de tamanho fixo. Os dois índices de busca são listas ordenadas
+// de (40 bits do hash, 24 bits do número do bloco) em um long.
+//
+// O arquivo inteiro é mapeado em memória e lido só com acessos absolutos, sem estado entre
+// threads; só os blocos que passam pelos índices são descomprimidos.
+public final class TransferSegment implements Closeable {
+    
+    static final int MAGIC = 0x544D5347;
+    static final int FORMAT_VERSION = 1;
+    static final int HEADER_BYTES = 8;
+    static final int BLOCK_RECORDS = 256;
+    static final int BLOOM_BYTES = 512;
+    static final int BLOOM_HASHES = 5;
+    static final int INDEX_ENTRY_BYTES = 36 + BLOOM_BYTES;
+    static final int FOOTER_BYTES = 68;
+    static final int MAX_BLOCKS = 1 << 24;
+    static final long HASH_MASK = 0xFFFFFFFFFF000000L;
+    
+    private static final int NULL_KEY = -1;
+    
+    private final Path path;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final long rangeStartMicros;
+    private final long rangeEndMicros;
+    private final long records;
+    private final int blockIndexOffset;
+    private final int blocks;
+    private final int codigoIndexOffset;
+    private final int codigoEntries;
+    private final int keyIndexOffset;
+    private final int keyEntries;
+    
+    private TransferSegment(Path path, FileChannel channel, MappedByteBuffer buffer) {
+        this.path = path;
+        this.channel = channel;
+        this.buffer = buffer;
+        
+        int footer = buffer.capacity() - FOOTER_BYTES;
+        if (buffer.capacity() < HEADER_BYTES + FOOTER_BYTES || buffer.getInt(0) != MAGIC
+                || buffer.getInt(footer + 64) != MAGIC || buffer.getInt(footer + 60) != FORMAT_VERSION) {
+            throw new IllegalStateException("Segmento de transferências inválido: " + path);
+        }
+        this.rangeStartMicros = buffer.getLong(footer);
+        this.rangeEndMicros = buffer.getLong(footer + 8);
+        this.records = buffer.getLong(footer + 16);
+        this.blockIndexOffset = Math.toIntExact(buffer.getLong(footer + 24));
+        this.blocks = buffer.getInt(footer + 32);
+        this.codigoIndexOffset = Math.toIntExact(buffer.getLong(footer + 36));
+        this.codigoEntries = buffer.getInt(footer + 44);
+        this.keyIndexOffset = Math.toIntExact(buffer.getLong(footer + 48));
+        this.keyEntries = buffer.getInt(footer + 56);
+    }
+    
+    public static TransferSegment open(Path path) throws IOException {
+        FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            if (channel.size() > Integer.MAX_VALUE) {
+                throw new IllegalStateException("Segmento maior que 2 GB: " + path);
+            }
+            return new TransferSegment(path, channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+    
+    public Path getPath() {
+        return path;
+    }
+    
+    public LocalDateTime getRangeStart() {
+        return fromMicros(rangeStartMicros);
+    }
+    
+    public LocalDateTime getRangeEnd() {
+        return fromMicros(rangeEndMicros);
+    }
+    
+    public long getRecords() {
+        return records;
+    }
+    
+    public Optional<Transfer> findByCodigo(UUID codigo) {
+        for (int block : candidateBlocks(codigoIndexOffset, codigoEntries, codigoHash(codigo))) {
+            for (Transfer transfer : readBlock(block)) {
+                if (transfer.getCodigo().equals(codigo)) {
+                    return Optional.of(transfer);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+    
+    public Optional<Transfer> findByIdempotencyKey(String key) {
+        for (int block : candidateBlocks(keyIndexOffset, keyEntries, keyHash(key))) {
+            for (Transfer transfer : readBlock(block)) {
+                if (key.equals(transfer.getIdempotencyKey())) {
+                    return Optional.of(transfer);
+                }
+            }
+        }
+        return Optional.empty();
+    }
+    
+    // Transferências da conta com timestamp >= from e (timestamp, id) < (before, beforeId), da mais
+    // recente para a mais antiga, até completar limit itens em out
+    public void findLatest(long accountId, long fromMicros, long beforeMicros, long beforeId, int limit, List<Transfer> out) {
+        for (int block = blocks - 1; block >= 0 && out.size() < limit; block--) {
+            int entry = blockIndexOffset + block * INDEX_ENTRY_BYTES;
+            if (buffer.getLong(entry + 8) < fromMicros) {
+                return;
+            }
+            if (buffer.getLong(entry) > beforeMicros || !bloomContains(entry + 36, accountId)) {
+                continue;
+            }
+            List<Transfer> transfers = readBlock(block);
+            for (int i = transfers.size() - 1; i >= 0 && out.size() < limit; i--) {
+                Transfer transfer = transfers.get(i);
+                long micros = toMicros(transfer.getTimestamp());
+                if (micros < fromMicros) {
+                    return;
+                }
+                if (involves(transfer, accountId) && (micros < beforeMicros || micros == beforeMicros && transfer.getId() < beforeId)) {
+                    out.add(transfer);
+                }
+            }
+        }
+    }
+    
+    // Transferências da conta com from <= timestamp < to, em ordem cronológica
+    public void scan(long accountId, long fromMicros, long toMicros, Consumer<Transfer> consumer) {
+        for (int block = 0; block < blocks; block++) {
+            int entry = blockIndexOffset + block * INDEX_ENTRY_BYTES;
+            if (buffer.getLong(entry) >= toMicros) {
+                return;
+            }
+            if (buffer.getLong(entry + 8) < fromMicros || !bloomContains(entry + 36, accountId)) {
+                continue;
+            }
+            for (Transfer transfer : readBlock(block)) {
+                long micros = toMicros(transfer.getTimestamp());
+                if (micros >= toMicros) {
+                    return;
+                }
+                if (micros >= fromMicros && involves(transfer, accountId)) {
+                    consumer.accept(transfer);
+                }
+            }
+        }
+    }
+    
+    @Override
+    public void close() throws IOException {
+        // O mapeamento é liberado pelo GC quando o buffer deixa de ser referenciado
+        channel.close();
+    }
+    
+    // Blocos distintos cujas entradas têm o mesmo hash (busca binária do primeiro, depois em sequência)
+    private List<Integer> candidateBlocks(int offset, int entries, long hash) {
+        long target = hash & HASH_MASK;
+        int low = 0;
+        int high = entries;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (buffer.getLong(offset + mid * 8) < target) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        List<Integer> candidates = new ArrayList<>(1);
+        for (int i = low; i < entries; i++) {
+            long entry = buffer.getLong(offset + i * 8);
+            if ((entry & HASH_MASK) != target) {
+                break;
+            }
+            int block = (int) (entry & ~HASH_MASK);
+            if (candidates.isEmpty() || candidates.get(candidates.size() - 1) != block) {
+                candidates.add(block);
+            }
+        }
+        return candidates;
+    }
+    
+    private List<Transfer> readBlock(int block) {
+        int entry = blockIndexOffset + block * INDEX_ENTRY_BYTES;
+        int offset = Math.toIntExact(buffer.getLong(entry + 16));
+        int compressed = buffer.getInt(entry + 24);
+        int raw = buffer.getInt(entry + 28);
+        int count = buffer.getInt(entry + 32);
+        
+        byte[] bytes = new byte[raw];
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(buffer.slice(offset, compressed));
+            int read = 0;
+            while (read < raw && !inflater.finished()) {
+                int n = inflater.inflate(bytes, read, raw - read);
+                if (n == 0 && inflater.needsInput()) {
+                    break;
+                }
+                read += n;
+            }
+            if (read != raw) {
+                throw new IllegalStateException("Bloco " + block + " truncado em " + path);
+            }
+        } catch (DataFormatException e) {
+            throw new IllegalStateException("Bloco " + block + " corrompido em " + path, e);
+        } finally {
+            inflater.end();
+        }
+        
+        ByteBuffer in = ByteBuffer.wrap(bytes);
+        List<Transfer> transfers = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            transfers.add(readRecord(in));
+        }
+        return transfers;
+    }
+    
+    private boolean bloomContains(int offset, long accountId) {
+        long hash = mix(accountId);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            int bit = Math.floorMod(h1 + i * h2, BLOOM_BYTES * 8);
+            if ((buffer.get(offset + (bit >>> 3)) & (1 << (bit & 7))) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+    
+    private static boolean involves(Transfer transfer, long accountId) {
+        return transfer.getOrigemAccountId() == accountId || transfer.getDestinoAccountId() == accountId;
+    }
+    
+    // Registro: id, origem, destino, centavos, código (2 longs), instante em µs, chave (tamanho + UTF-8)
+    static void writeRecord(ByteBuffer out, Transfer transfer) {
+        out.putLong(transfer.getId());
+        out.putLong(transfer.getOrigemAccountId());
+        out.putLong(transfer.getDestinoAccountId());
+        out.putLong(transfer.getValor().cents());
+        out.putLong(transfer.getCodigo().getMostSignificantBits());
+        out.putLong(transfer.getCodigo().getLeastSignificantBits());
+        out.putLong(toMicros(transfer.getTimestamp()));
+        if (transfer.getIdempotencyKey() == null) {
+            out.putInt(NULL_KEY);
+        } else {
+            byte[] key = transfer.getIdempotencyKey().getBytes(StandardCharsets.UTF_8);
+            out.putInt(key.length);
+            out.put(key);
+        }
+    }
+    
+    static int recordBytes(Transfer transfer) {
+        String key = transfer.getIdempotencyKey();
+        return 7 * Long.BYTES + Integer.BYTES + (key == null ? 0 : key.getBytes(StandardCharsets.UTF_8).length);
+    }
+    
+    private static Transfer readRecord(ByteBuffer in) {
+        Transfer transfer = new Transfer();
+        transfer.setId(in.getLong());
+        transfer.setOrigemAccountId(in.getLong());
+        transfer.setDestinoAccountId(in.getLong());
+        transfer.setValor(Money.ofCents(in.getLong()));
+        transfer.setCodigo(new UUID(in.getLong(), in.getLong()));
+        transfer.setTimestamp(fromMicros(in.getLong()));
+        int length = in.getInt();
+        if (length != NULL_KEY) {
+            transfer.setIdempotencyKey(new String(in.array(), in.position(), length, StandardCharsets.UTF_8));
+            in.position(in.position() + length);
+        }
+        return transfer;
+    }
+    
+    static void bloomAdd(byte[] bloom, long accountId) {
+        long hash = mix(accountId);
+        int h1 = (int) hash;
+        int h2 = (int) (hash >>> 32);
+        for (int i = 0; i < BLOOM_HASHES; i++) {
+            int bit = Math.floorMod(h1 + i * h2, BLOOM_BYTES * 8);
+            bloom[bit >>> 3] |= (byte) (1 << (bit & 7));
+        }
+    }
+    
+    static long codigoHash(UUID codigo) {
+        return mix(codigo.getMostSignificantBits() ^ mix(codigo.getLeastSignificantBits()));
+    }
+    
+    // FNV-1a de 64 bits sobre os bytes UTF-8, com a mistura final para espalhar os bits altos
+    static long keyHash(String key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b & 0xFF;
+            hash *= 0x100000001b3L;
+        }
+        return mix(hash);
+    }
+    
+    // Instantes sem fuso (como na coluna timestamp), em µs: a precisão do TIMESTAMP do banco
+    public static long toMicros(LocalDateTime timestamp) {
+        return timestamp.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + timestamp.getNano() / 1_000;
+    }
+    
+    public static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000), (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+    
+    // fmix64 do MurmurHash3
+    private static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,191 @@
+package com.techmarket.repository;
+
+import com.techmarket.entity.Transfer;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.zip.Deflater;
+
+// Grava um TransferSegment sequencialmente em um arquivo temporário. As transferências chegam em
+// (timestamp, id) crescente; finish() acrescenta os índices e o rodapé, força o conteúdo para o
+// disco e só então publica o arquivo com um rename atômico. Segmentos publicados nunca mudam.
+public final class TransferSegmentWriter implements Closeable {
+    
+    private final Path target;
+    private final Path temp;
+    private final FileChannel channel;
+    private final DataOutputStream out;
+    private final long rangeStartMicros;
+    private final long rangeEndMicros;
+    private final Deflater deflater = new Deflater(Deflater.DEFAULT_COMPRESSION);
+    private final byte[] chunk = new byte[64 * 1024];
+    private final ByteArrayOutputStream blockIndexBytes = new ByteArrayOutputStream();
+    private final DataOutputStream blockIndex = new DataOutputStream(blockIndexBytes);
+    private final byte[] bloom = new byte[TransferSegment.BLOOM_BYTES];
+    
+    private ByteBuffer block = ByteBuffer.allocate(64 * 1024);
+    private int blockRecords;
+    private long blockFirstMicros;
+    private long blockLastMicros;
+    private int blocks;
+    private long position;
+    private long records;
+    private long lastMicros = Long.MIN_VALUE;
+    private long lastId = Long.MIN_VALUE;
+    private long[] codigoEntries = new long[1024];
+    private int codigoCount;
+    private long[] keyEntries = new long[1024];
+    private int keyCount;
+    private boolean finished;
+    
+    public TransferSegmentWriter(Path target, LocalDateTime rangeStart, LocalDateTime rangeEnd) throws IOException {
+        this.target = target;
+        this.temp = target.resolveSibling(target.getFileName() + ".tmp");
+        this.rangeStartMicros = TransferSegment.toMicros(rangeStart);
+        this.rangeEndMicros = TransferSegment.toMicros(rangeEnd);
+        this.channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE);
+        this.out = new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), 64 * 1024));
+        out.writeInt(TransferSegment.MAGIC);
+        out.writeInt(TransferSegment.FORMAT_VERSION);
+        position = TransferSegment.HEADER_BYTES;
+    }
+    
+    public void append(Transfer transfer) throws IOException {
+        long micros = TransferSegment.toMicros(transfer.getTimestamp());
+        if (micros < rangeStartMicros || micros >= rangeEndMicros) {
+            throw new IllegalArgumentException("Transferência " + transfer.getId() + " fora do intervalo do segmento");
+        }
+        if (micros < lastMicros || micros == lastMicros && transfer.getId() <= lastId) {
+            throw new IllegalArgumentException("Transferências fora da ordem (timestamp, id): " + transfer.getId());
+        }
+        lastMicros = micros;
+        lastId = transfer.getId();
+        
+        int size = TransferSegment.recordBytes(transfer);
+        if (block.remaining() < size) {
+            block = ByteBuffer.allocate(Math.max(block.capacity() * 2, block.position() + size)).put(block.flip());
+        }
+        if (blockRecords == 0) {
+            blockFirstMicros = micros;
+        }
+        blockLastMicros = micros;
+        TransferSegment.writeRecord(block, transfer);
+        TransferSegment.bloomAdd(bloom, transfer.getOrigemAccountId());
+        TransferSegment.bloomAdd(bloom, transfer.getDestinoAccountId());
+        
+        codigoEntries = add(codigoEntries, codigoCount++, TransferSegment.codigoHash(transfer.getCodigo()));
+        if (transfer.getIdempotencyKey() != null) {
+            keyEntries = add(keyEntries, keyCount++, TransferSegment.keyHash(transfer.getIdempotencyKey()));
+        }
+        records++;
+        if (++blockRecords == TransferSegment.BLOCK_RECORDS) {
+            flushBlock();
+        }
+    }
+    
+    public long getRecords() {
+        return records;
+    }
+    
+    public void finish() throws IOException {
+        if (blockRecords > 0) {
+            flushBlock();
+        }
+        long blockIndexOffset = position;
+        blockIndexBytes.writeTo(out);
+        position += blockIndexBytes.size();
+        
+        long codigoIndexOffset = position;
+        writeSorted(codigoEntries, codigoCount);
+        long keyIndexOffset = position;
+        writeSorted(keyEntries, keyCount);
+        
+        out.writeLong(rangeStartMicros);
+        out.writeLong(rangeEndMicros);
+        out.writeLong(records);
+        out.writeLong(blockIndexOffset);
+        out.writeInt(blocks);
+        out.writeLong(codigoIndexOffset);
+        out.writeInt(codigoCount);
+        out.writeLong(keyIndexOffset);
+        out.writeInt(keyCount);
+        out.writeInt(TransferSegment.FORMAT_VERSION);
+        out.writeInt(TransferSegment.MAGIC);
+        out.flush();
+        channel.force(true);
+        out.close();
+        
+        Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+        finished = true;
+    }
+    
+    // Sem finish(), o arquivo temporário é descartado
+    @Override
+    public void close() throws IOException {
+        deflater.end();
+        if (!finished) {
+            out.close();
+            Files.deleteIfExists(temp);
+        }
+    }
+    
+    private void flushBlock() throws IOException {
+        if (blocks == TransferSegment.MAX_BLOCKS) {
+            throw new IllegalStateException("Segmento excede " + TransferSegment.MAX_BLOCKS + " blocos");
+        }
+        int raw = block.position();
+        deflater.reset();
+        deflater.setInput(block.array(), 0, raw);
+        deflater.finish();
+        long offset = position;
+        int compressed = 0;
+        while (!deflater.finished()) {
+            int n = deflater.deflate(chunk);
+            out.write(chunk, 0, n);
+            compressed += n;
+        }
+        position += compressed;
+        
+        blockIndex.writeLong(blockFirstMicros);
+        blockIndex.writeLong(blockLastMicros);
+        blockIndex.writeLong(offset);
+        blockIndex.writeInt(compressed);
+        blockIndex.writeInt(raw);
+        blockIndex.writeInt(blockRecords);
+        blockIndex.write(bloom);
+        
+        blocks++;
+        blockRecords = 0;
+        block.clear();
+        Arrays.fill(bloom, (byte) 0);
+    }
+    
+    // 40 bits altos do hash e o número do bloco (que só cresce) nos 24 bits baixos
+    private long[] add(long[] entries, int index, long hash) {
+        if (index == entries.length) {
+            entries = Arrays.copyOf(entries, entries.length * 2);
+        }
+        entries[index] = (hash & TransferSegment.HASH_MASK) | blocks;
+        return entries;
+    }
+    
+    private void writeSorted(long[] entries, int count) throws IOException {
+        Arrays.sort(entries, 0, count);
+        for (int i = 0; i < count; i++) {
+            out.writeLong(entries[i]);
+        }
+        position += (long) count * Long.BYTES;
+    }
+}
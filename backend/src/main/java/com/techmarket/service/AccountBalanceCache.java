@@ -0,0 +1,166 @@
+package com.techmarket.service;
+
+import com.techmarket.entity.Account;
+import com.techmarket.util.Money;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+// Cache limitado (LRU) de saldo e versão por conta, para GET /api/contas/{id}/saldo.
+// A coluna version só cresce (JPA @Version e os UPDATEs JDBC incrementam), então entre dois
+// valores da mesma conta vale sempre o de maior versão: uma leitura antiga do banco nunca
+// sobrescreve o saldo gravado por um commit local, mesmo que chegue depois.
+// Com várias réplicas, commits das outras instâncias só aparecem após max-staleness.
+@Component
+public class AccountBalanceCache {
+    
+    public static final String REQUESTS_COUNTER = "techmarket.balance.cache.requests";
+    public static final String HIT_RATIO_GAUGE = "techmarket.balance.cache.hit_ratio";
+    public static final String SIZE_GAUGE = "techmarket.balance.cache.size";
+    
+    private final boolean enabled;
+    private final int maxSize;
+    private final long maxStalenessNanos;
+    private final Counter hits;
+    private final Counter misses;
+    private final LinkedHashMap<Long, Entry> entries;
+    
+    public AccountBalanceCache(
+            MeterRegistry registry,
+            @Value("${techmarket.balance.cache.enabled:true}") boolean enabled,
+            @Value("${techmarket.balance.cache.max-size:100000}") int maxSize,
+            @Value("${techmarket.balance.cache.max-staleness:PT1S}") Duration maxStaleness) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Tamanho máximo do cache deve ser positivo");
+        }
+        this.enabled = enabled;
+        this.maxSize = maxSize;
+        // Zero desliga o limite (uma única réplica: todo commit passa por aqui)
+        this.maxStalenessNanos = maxStaleness.isZero() ? Long.MAX_VALUE : maxStaleness.toNanos();
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Long, Entry> eldest) {
+                return size() > AccountBalanceCache.this.maxSize;
+            }
+        };
+        this.hits = Counter.builder(REQUESTS_COUNTER)
+            .description("Leituras de saldo por resultado no cache")
+            .tag("result", "hit")
+            .register(registry);
+        this.misses = Counter.builder(REQUESTS_COUNTER)
+            .description("Leituras de saldo por resultado no cache")
+            .tag("result", "miss")
+            .register(registry);
+        Gauge.builder(HIT_RATIO_GAUGE, this, AccountBalanceCache::hitRatio)
+            .description("Fração das leituras de saldo atendidas pelo cache")
+            .register(registry);
+        Gauge.builder(SIZE_GAUGE, this, AccountBalanceCache::size)
+            .description("Contas no cache de saldo")
+            .register(registry);
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    // Saldo em cache ainda dentro de max-staleness; conta hit ou miss
+    public Optional<Account> get(Long accountId) {
+        if (!enabled) {
+            misses.increment();
+            return Optional.empty();
+        }
+        Entry entry;
+        synchronized (this) {
+            entry = entries.get(accountId);
+        }
+        if (entry == null || System.nanoTime() - entry.validatedAt >= maxStalenessNanos) {
+            misses.increment();
+            return Optional.empty();
+        }
+        hits.increment();
+        return Optional.of(entry.toAccount(accountId));
+    }
+    
+    // Saldo lido do banco (ou gravado por um commit já concluído)
+    public void put(Account account) {
+        if (enabled && account.getVersion() != null) {
+            merge(account.getId(), new Entry(account.getBalance(), account.getVersion(), System.nanoTime()));
+        }
+    }
+    
+    // Saldo e versão gravados pela transação corrente: valem só depois do commit. Os valores são
+    // copiados agora, antes que a entidade mude; sem transação ativa, são aplicados direto
+    public void putAfterCommit(Collection<Account> accounts) {
+        if (!enabled) {
+            return;
+        }
+        List<Account> snapshot = new ArrayList<>(accounts.size());
+        for (Account account : accounts) {
+            if (account.getVersion() != null) {
+                snapshot.add(copy(account));
+            }
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            snapshot.forEach(this::put);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                snapshot.forEach(AccountBalanceCache.this::put);
+            }
+        });
+    }
+    
+    public synchronized void clear() {
+        entries.clear();
+    }
+    
+    public synchronized int size() {
+        return entries.size();
+    }
+    
+    public double hitRatio() {
+        double total = hits.count() + misses.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+    
+    private synchronized void merge(Long accountId, Entry entry) {
+        Entry current = entries.get(accountId);
+        if (current == null || current.version < entry.version) {
+            entries.put(accountId, entry);
+        } else if (current.version == entry.version) {
+            // Mesma versão confirmada de novo: renova o prazo de max-staleness
+            entries.put(accountId, new Entry(current.balance, current.version, entry.validatedAt));
+        }
+    }
+    
+    private static Account copy(Account account) {
+        Account copy = new Account(account.getOwner(), account.getBalance());
+        copy.setId(account.getId());
+        copy.setVersion(account.getVersion());
+        return copy;
+    }
+    
+    private record Entry(Money balance, long version, long validatedAt) {
+        
+        Account toAccount(Long accountId) {
+            Account account = new Account(null, balance);
+            account.setId(accountId);
+            account.setVersion(version);
+            return account;
+        }
+    }
+}
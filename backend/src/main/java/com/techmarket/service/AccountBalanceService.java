@@ -0,0 +1,60 @@
+package com.techmarket.service;
+
+import com.techmarket.config.AccountShards;
+import com.techmarket.dto.AccountBalanceResponse;
+import com.techmarket.entity.Account;
+import com.techmarket.exception.AccountNotFoundException;
+import com.techmarket.repository.AccountJdbcRepository;
+import com.techmarket.repository.ShardedAccountRepository;
+import com.techmarket.util.Money;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.util.Optional;
+
+// Saldo atual da conta: do AccountBalanceCache quando possível, senão uma leitura por PK
+// (sem lock, numa transação readOnly que pode ir para uma réplica, ou no shard da conta) que já repõe o cache.
+// Contas quentes não passam pelo cache: o saldo é o da conta mais os créditos pendentes nos slots
+@Service
+public class AccountBalanceService {
+    
+    @Autowired
+    private AccountBalanceCache accountBalanceCache;
+    
+    @Autowired
+    private AccountJdbcRepository accountJdbcRepository;
+    
+    @Autowired
+    private ReadOnlyTransactions readOnlyTransactions;
+    
+    @Autowired
+    private AccountShards accountShards;
+    
+    @Autowired
+    private ShardedAccountRepository shardedAccountRepository;
+    
+    @Autowired
+    private HotAccountBalances hotAccountBalances;
+    
+    public AccountBalanceResponse getBalance(Long accountId) {
+        if (hotAccountBalances.isHot(accountId)) {
+            return readOnlyTransactions.execute(accountId, () -> {
+                Account account = accountJdbcRepository.findBalance(accountId)
+                    .orElseThrow(() -> new AccountNotFoundException("Conta não encontrada: " + accountId));
+                Money saldo = account.getBalance().plus(hotAccountBalances.getPending(accountId));
+                return new AccountBalanceResponse(accountId, saldo, account.getVersion());
+            });
+        }
+        Account account = accountBalanceCache.get(accountId).orElseGet(() -> load(accountId));
+        return new AccountBalanceResponse(accountId, account.getBalance(), account.getVersion());
+    }
+    
+    private Account load(Long accountId) {
+        Optional<Account> found = accountShards.isEnabled()
+            ? shardedAccountRepository.findBalance(accountId)
+            : readOnlyTransactions.execute(accountId, () -> accountJdbcRepository.findBalance(accountId));
+        Account account = found.orElseThrow(() -> new AccountNotFoundException("Conta não encontrada: " + accountId));
+        accountBalanceCache.put(account);
+        return account;
+    }
+}
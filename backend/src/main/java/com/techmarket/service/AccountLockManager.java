@@ -0,0 +1,84 @@
+package com.techmarket.service;
+
+import com.techmarket.exception.TransferLockTimeoutException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+// Locks listrados por id de conta, adquiridos antes de abrir a transação: requisições para
+// uma conta "quente" esperam na JVM em vez de segurar uma conexão do pool no lock de linha.
+@Component
+public class AccountLockManager {
+    
+    private final ReentrantLock[] stripes;
+    private final int mask;
+    private final long timeoutMillis;
+    private final boolean stripingEnabled;
+    
+    public AccountLockManager(
+            @Value("${techmarket.transfer.lock.stripes:1024}") int stripeCount,
+            @Value("${techmarket.transfer.lock.timeout-ms:5000}") long timeoutMillis,
+            @Value("${techmarket.transfer.lock.striping-enabled:true}") boolean stripingEnabled) {
+        if (stripeCount <= 0) {
+            throw new IllegalArgumentException("Quantidade de listras deve ser positiva");
+        }
+        int size = stripeCount == 1 ? 1 : Integer.highestOneBit(stripeCount - 1) << 1;
+        this.stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.mask = size - 1;
+        this.timeoutMillis = timeoutMillis;
+        this.stripingEnabled = stripingEnabled;
+    }
+    
+    // Executa a ação segurando os locks das contas informadas
+    public <T> T executeWithLocks(Supplier<T> action, Long... accountIds) {
+        if (!stripingEnabled) {
+            return action.get();
+        }
+        
+        int[] indexes = stripeIndexes(accountIds);
+        int acquired = 0;
+        try {
+            for (int index : indexes) {
+                if (!stripes[index].tryLock(timeoutMillis, TimeUnit.MILLISECONDS)) {
+                    throw new TransferLockTimeoutException("Tempo esgotado aguardando lock das contas " + Arrays.toString(accountIds));
+                }
+                acquired++;
+            }
+            return action.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransferLockTimeoutException("Interrompido aguardando lock das contas " + Arrays.toString(accountIds), e);
+        } finally {
+            for (int i = acquired - 1; i >= 0; i--) {
+                stripes[indexes[i]].unlock();
+            }
+        }
+    }
+    
+    // Ordem global de aquisição dos locks de linha no banco
+    public static Long[] lockOrder(Long first, Long second) {
+        return first.compareTo(second) <= 0 ? new Long[] { first, second } : new Long[] { second, first };
+    }
+    
+    int stripeFor(Long accountId) {
+        int h = accountId.hashCode();
+        h ^= (h >>> 16);
+        return h & mask;
+    }
+    
+    private int[] stripeIndexes(Long[] accountIds) {
+        int[] indexes = new int[accountIds.length];
+        for (int i = 0; i < accountIds.length; i++) {
+            indexes[i] = stripeFor(accountIds[i]);
+        }
+        // Listras distintas, em ordem crescente
+        return Arrays.stream(indexes).sorted().distinct().toArray();
+    }
+}
@@ -0,0 +1,107 @@
+package com.techmarket.service;
+
+import com.techmarket.entity.Account;
+import com.techmarket.entity.AccountDailyBalance;
+import com.techmarket.exception.AccountNotFoundException;
+import com.techmarket.repository.AccountDailyBalanceJdbcRepository;
+import com.techmarket.repository.AccountJdbcRepository;
+import com.techmarket.repository.AccountRepository;
+import com.techmarket.repository.TransferArchive;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+// Reconstrói os snapshots diários a partir das transferências, uma conta por transação.
+// Necessário uma vez para o histórico anterior aos snapshots incrementais
+@Component
+public class BalanceSnapshotBackfillJob {
+    
+    private static final Logger log = LoggerFactory.getLogger(BalanceSnapshotBackfillJob.class);
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private AccountJdbcRepository accountJdbcRepository;
+    
+    @Autowired
+    private AccountDailyBalanceJdbcRepository accountDailyBalanceJdbcRepository;
+    
+    @Autowired
+    private TransferArchive transferArchive;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private DatabaseBulkhead databaseBulkhead;
+    
+    @Autowired
+    private HotAccountBalances hotAccountBalances;
+    
+    @Value("${techmarket.snapshots.backfill-on-startup:false}")
+    private boolean backfillOnStartup;
+    
+    @Value("${techmarket.snapshots.backfill-page-size:500}")
+    private int pageSize = 500;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (backfillOnStartup) {
+            Thread thread = new Thread(this::backfill, "snapshot-backfill");
+            thread.setDaemon(true);
+            thread.start();
+        }
+    }
+    
+    // Retorna o número de contas processadas
+    public int backfill() {
+        long inicio = System.currentTimeMillis();
+        int contas = 0;
+        long lastId = 0;
+        List<Long> ids;
+        do {
+            ids = accountJdbcRepository.findIdsAfter(lastId, pageSize);
+            for (Long accountId : ids) {
+                backfillAccount(accountId);
+                lastId = accountId;
+                contas++;
+            }
+        } while (ids.size() == pageSize);
+        log.info("Backfill de snapshots diários concluído: {} contas em {} ms", contas, System.currentTimeMillis() - inicio);
+        return contas;
+    }
+    
+    public void backfillAccount(Long accountId) {
+        databaseBulkhead.execute(() -> transactionTemplate.execute(status -> {
+            // O lock da conta impede transferências concorrentes durante o recálculo
+            Account account = accountRepository.findByIdWithLock(accountId)
+                .orElseThrow(() -> new AccountNotFoundException("Conta não encontrada: " + accountId));
+            
+            // Do dia mais recente para o mais antigo, partindo do saldo atual
+            List<AccountDailyBalance> snapshots = accountDailyBalanceJdbcRepository.findDailyMovements(accountId);
+            BigDecimal saldo = account.getBalance().toBigDecimal();
+            // Conta quente: os créditos dos slots já estão em transfers e passam a estar no saldo
+            if (hotAccountBalances.isHot(accountId)) {
+                saldo = saldo.add(hotAccountBalances.consolidate(accountId, HotAccountBalances.TRIGGER_BACKFILL).toBigDecimal());
+            }
+            for (AccountDailyBalance snapshot : snapshots) {
+                snapshot.setSaldoFinal(saldo);
+                saldo = snapshot.getSaldoInicial();
+            }
+            LocalDateTime arquivadoAte = transferArchive.archivedUntil();
+            accountDailyBalanceJdbcRepository.replaceForAccount(accountId,
+                arquivadoAte == null ? null : arquivadoAte.toLocalDate(), snapshots);
+            return null;
+        }));
+    }
+}
@@ -0,0 +1,114 @@
+package com.techmarket.service;
+
+import com.techmarket.config.AccountShards;
+import com.techmarket.entity.CrossShardTransfer;
+import com.techmarket.entity.CrossShardTransferState;
+import com.techmarket.repository.ShardedTransferRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Retoma as transferências entre shards paradas em DEBITED há mais de in-doubt-after: a instância
+// que as iniciou caiu, ou o shard de destino estava fora do ar. A primeira varredura roda na subida,
+// então um restart conclui (ou estorna) o que ficou no meio do caminho
+@Component
+public class CrossShardRecoveryJob {
+    
+    private static final Logger log = LoggerFactory.getLogger(CrossShardRecoveryJob.class);
+    
+    @Autowired
+    private AccountShards accountShards;
+    
+    @Autowired
+    private ShardedTransferRepository shardedTransferRepository;
+    
+    @Autowired
+    private ShardedTransferService shardedTransferService;
+    
+    @Value("${techmarket.transfer.engine:JPA}")
+    private TransferEngine engine;
+    
+    @Value("${techmarket.sharding.recovery-interval:PT30S}")
+    private Duration interval;
+    
+    @Value("${techmarket.sharding.in-doubt-after:PT30S}")
+    private Duration inDoubtAfter;
+    
+    @Value("${techmarket.sharding.recovery-batch-size:100}")
+    private int batchSize;
+    
+    private ScheduledExecutorService scheduler;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (engine != TransferEngine.SHARDED) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cross-shard-recovery");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::recoverSafely, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+    
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+    
+    // Retoma as sagas em dúvida de todos os shards; devolve quantas foram concluídas ou estornadas
+    public int recover() {
+        LocalDateTime before = LocalDateTime.now().minus(inDoubtAfter);
+        int recovered = 0;
+        for (AccountShards.Shard shard : accountShards.getShards()) {
+            recovered += recover(shard, before);
+        }
+        if (recovered > 0) {
+            log.info("{} transferências entre shards retomadas", recovered);
+        }
+        return recovered;
+    }
+    
+    private int recover(AccountShards.Shard shard, LocalDateTime before) {
+        int recovered = 0;
+        try {
+            List<CrossShardTransfer> inDoubt;
+            do {
+                inDoubt = shardedTransferRepository.findByStateBefore(shard, CrossShardTransferState.DEBITED, before, batchSize);
+                for (CrossShardTransfer saga : inDoubt) {
+                    shardedTransferService.resume(saga);
+                    recovered++;
+                }
+            } while (inDoubt.size() == batchSize);
+        } catch (DataAccessException | TransactionException e) {
+            // Shard de origem ou de destino fora do ar: o resto deste shard fica para a próxima varredura
+            log.warn("Transferências entre shards de {} ainda pendentes: {}", shard.getName(), e.getMessage());
+        }
+        return recovered;
+    }
+    
+    private void recoverSafely() {
+        try {
+            recover();
+        } catch (RuntimeException e) {
+            log.warn("Falha na recuperação das transferências entre shards", e);
+        }
+    }
+}
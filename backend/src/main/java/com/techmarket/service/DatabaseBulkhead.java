@@ -0,0 +1,68 @@
+package com.techmarket.service;
+
+import com.techmarket.exception.DatabaseBulkheadFullException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Limita o trabalho concorrente no banco ao tamanho do pool do Hikari. Com virtual threads
+// o Tomcat aceita milhares de requisições; o excesso espera aqui, e não na fila do pool.
+@Component
+public class DatabaseBulkhead {
+    
+    private final Semaphore permits;
+    private final int maxConcurrent;
+    private final long acquireTimeoutNanos;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    
+    public DatabaseBulkhead(
+            @Value("${techmarket.bulkhead.max-concurrent:${spring.datasource.hikari.maximum-pool-size:10}}") int maxConcurrent,
+            @Value("${techmarket.bulkhead.acquire-timeout:PT2S}") Duration acquireTimeout) {
+        if (maxConcurrent <= 0) {
+            throw new IllegalArgumentException("Limite do bulkhead deve ser positivo");
+        }
+        this.maxConcurrent = maxConcurrent;
+        this.permits = new Semaphore(maxConcurrent, true);
+        this.acquireTimeoutNanos = acquireTimeout.toNanos();
+    }
+    
+    public <T> T execute(Supplier<T> action) {
+        inFlight.incrementAndGet();
+        try {
+            if (!permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new DatabaseBulkheadFullException("Limite de operações concorrentes no banco atingido, tente novamente");
+            }
+        } catch (InterruptedException e) {
+            inFlight.decrementAndGet();
+            Thread.currentThread().interrupt();
+            throw new DatabaseBulkheadFullException("Interrompido aguardando o bulkhead do banco", e);
+        } catch (RuntimeException e) {
+            inFlight.decrementAndGet();
+            throw e;
+        }
+        try {
+            return action.get();
+        } finally {
+            permits.release();
+            inFlight.decrementAndGet();
+        }
+    }
+    
+    public int getMaxConcurrent() {
+        return maxConcurrent;
+    }
+    
+    public int getActive() {
+        return maxConcurrent - permits.availablePermits();
+    }
+    
+    // Requisições executando ou aguardando permissão
+    public int getInFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,181 @@
+package com.techmarket.service;
+
+import com.techmarket.dto.BatchTransferItemResponse;
+import com.techmarket.dto.BatchTransferResponse;
+import com.techmarket.dto.TransferRequest;
+import com.techmarket.dto.TransferResponse;
+import com.techmarket.exception.AccountNotFoundException;
+import com.techmarket.exception.DuplicateIdempotencyKeyException;
+import com.techmarket.exception.InsufficientBalanceException;
+import com.techmarket.exception.TransferQueueFullException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+// Group commit: cada shard tem uma fila e uma única thread escritora, que drena micro-lotes
+// e grava cada lote em uma transação. O futuro de cada chamador só completa após o commit.
+public class GroupCommitTransferExecutor {
+    
+    private static final Logger log = LoggerFactory.getLogger(GroupCommitTransferExecutor.class);
+    
+    private final Function<List<TransferRequest>, BatchTransferResponse> batchHandler;
+    private final int batchSize;
+    private final long maxLingerNanos;
+    private final long enqueueTimeoutNanos;
+    private final List<BlockingQueue<PendingTransfer>> queues = new ArrayList<>();
+    private final List<Thread> writers = new ArrayList<>();
+    private volatile boolean running = true;
+    
+    public GroupCommitTransferExecutor(int shards, int batchSize, Duration maxLinger, int queueCapacity,
+                                       Duration enqueueTimeout, Function<List<TransferRequest>, BatchTransferResponse> batchHandler) {
+        if (shards <= 0 || batchSize <= 0 || queueCapacity <= 0) {
+            throw new IllegalArgumentException("Shards, tamanho do lote e capacidade da fila devem ser positivos");
+        }
+        this.batchHandler = batchHandler;
+        this.batchSize = batchSize;
+        this.maxLingerNanos = maxLinger.toNanos();
+        this.enqueueTimeoutNanos = enqueueTimeout.toNanos();
+        
+        for (int i = 0; i < shards; i++) {
+            BlockingQueue<PendingTransfer> queue = new ArrayBlockingQueue<>(queueCapacity);
+            queues.add(queue);
+            Thread writer = new Thread(() -> drain(queue), "group-commit-" + i);
+            writer.setDaemon(true);
+            writers.add(writer);
+            writer.start();
+        }
+    }
+    
+    public CompletableFuture<TransferResponse> submit(TransferRequest request) {
+        if (!running) {
+            throw new TransferQueueFullException("Executor de group commit encerrado");
+        }
+        PendingTransfer pending = new PendingTransfer(request, new CompletableFuture<>());
+        try {
+            // Back-pressure: espera no máximo enqueueTimeout por espaço na fila do shard
+            if (!queues.get(shardFor(request)).offer(pending, enqueueTimeoutNanos, TimeUnit.NANOSECONDS)) {
+                throw new TransferQueueFullException("Fila de transferências cheia, tente novamente");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new TransferQueueFullException("Interrompido aguardando espaço na fila", e);
+        }
+        return pending.future;
+    }
+    
+    public void shutdown(Duration timeout) {
+        running = false;
+        long deadline = System.nanoTime() + timeout.toNanos();
+        for (Thread writer : writers) {
+            try {
+                writer.join(Math.max(1, TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime())));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        for (BlockingQueue<PendingTransfer> queue : queues) {
+            PendingTransfer pending;
+            while ((pending = queue.poll()) != null) {
+                pending.future.completeExceptionally(new TransferQueueFullException("Executor de group commit encerrado"));
+            }
+        }
+    }
+    
+    // Pares na mesma conta de menor id caem no mesmo shard; os locks de linha cuidam dos pares entre shards
+    int shardFor(TransferRequest request) {
+        Long first = AccountLockManager.lockOrder(request.getOrigem(), request.getDestino())[0];
+        int h = first.hashCode();
+        h ^= (h >>> 16);
+        return Math.floorMod(h, queues.size());
+    }
+    
+    private void drain(BlockingQueue<PendingTransfer> queue) {
+        List<PendingTransfer> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingTransfer first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                
+                // Aguardar até maxLinger por mais transferências para o mesmo lote
+                long deadline = System.nanoTime() + maxLingerNanos;
+                while (batch.size() < batchSize) {
+                    queue.drainTo(batch, batchSize - batch.size());
+                    long remaining = deadline - System.nanoTime();
+                    if (batch.size() >= batchSize || remaining <= 0) {
+                        break;
+                    }
+                    PendingTransfer next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                
+                commit(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+    
+    private void commit(List<PendingTransfer> batch) {
+        List<TransferRequest> requests = new ArrayList<>(batch.size());
+        for (PendingTransfer pending : batch) {
+            requests.add(pending.request);
+        }
+        
+        BatchTransferResponse response;
+        try {
+            response = batchHandler.apply(requests);
+        } catch (RuntimeException e) {
+            log.warn("Falha ao gravar lote de {} transferências", batch.size(), e);
+            for (PendingTransfer pending : batch) {
+                pending.future.completeExceptionally(e);
+            }
+            return;
+        }
+        
+        List<BatchTransferItemResponse> itens = response.getItens();
+        for (int i = 0; i < batch.size(); i++) {
+            complete(batch.get(i).future, itens.get(i));
+        }
+    }
+    
+    private void complete(CompletableFuture<TransferResponse> future, BatchTransferItemResponse item) {
+        switch (item.getStatus()) {
+            case BatchTransferItemResponse.STATUS_SUCCESS -> future.complete(new TransferResponse(
+                item.getCodigo(),
+                "success",
+                item.getOrigemAccountId(),
+                item.getDestinoAccountId(),
+                item.getValor(),
+                item.getTimestamp()
+            ));
+            case BatchTransferItemResponse.STATUS_INSUFFICIENT_BALANCE ->
+                future.completeExceptionally(new InsufficientBalanceException(item.getMessage()));
+            case BatchTransferItemResponse.STATUS_ACCOUNT_NOT_FOUND ->
+                future.completeExceptionally(new AccountNotFoundException(item.getMessage()));
+            case BatchTransferItemResponse.STATUS_DUPLICATE_IDEMPOTENCY_KEY ->
+                future.completeExceptionally(new DuplicateIdempotencyKeyException(item.getMessage()));
+            default ->
+                future.completeExceptionally(new IllegalArgumentException(item.getMessage()));
+        }
+    }
+    
+    private record PendingTransfer(TransferRequest request, CompletableFuture<TransferResponse> future) {}
+}
@@ -0,0 +1,157 @@
+package com.techmarket.service;
+
+import com.techmarket.dto.TransferRequest;
+import com.techmarket.entity.AccountBalanceSlot;
+import com.techmarket.entity.AccountDailyBalance;
+import com.techmarket.exception.AccountNotFoundException;
+import com.techmarket.repository.AccountBalanceSlotJdbcRepository;
+import com.techmarket.repository.AccountDailyBalanceJdbcRepository;
+import com.techmarket.repository.AccountJdbcRepository;
+import com.techmarket.util.Money;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Contas quentes (techmarket.hot-accounts.ids): contas que recebem boa parte dos créditos, como as de
+// grandes lojistas. O crédito vai para um de slots sub-saldos do dia (account_balance_slots), sem o
+// lock da linha em accounts, então créditos simultâneos para a mesma conta só disputam quando caem no
+// mesmo slot. Débitos continuam saindo de accounts.balance; se ele não cobre o valor, os slots são
+// consolidados antes de recusar. O saldo lógico é accounts.balance mais os slots pendentes, e o
+// HotAccountConsolidationJob consolida periodicamente
+@Component
+public class HotAccountBalances {
+    
+    public static final String SLOT_CREDITS_COUNTER = "techmarket.hot_accounts.slot_credits";
+    public static final String CONSOLIDATIONS_COUNTER = "techmarket.hot_accounts.consolidations";
+    public static final String TRIGGER_JOB = "job";
+    public static final String TRIGGER_DEBIT = "debit";
+    public static final String TRIGGER_BATCH = "batch";
+    public static final String TRIGGER_BACKFILL = "backfill";
+    
+    private final AccountJdbcRepository accountJdbcRepository;
+    private final AccountBalanceSlotJdbcRepository accountBalanceSlotJdbcRepository;
+    private final AccountDailyBalanceJdbcRepository accountDailyBalanceJdbcRepository;
+    private final MeterRegistry meterRegistry;
+    private final Set<Long> hotIds;
+    private final int slots;
+    // Dias com todos os slots criados, por conta; só eles recebem créditos em slot
+    private final Map<Long, Set<LocalDate>> prepared = new ConcurrentHashMap<>();
+    
+    public HotAccountBalances(
+            AccountJdbcRepository accountJdbcRepository,
+            AccountBalanceSlotJdbcRepository accountBalanceSlotJdbcRepository,
+            AccountDailyBalanceJdbcRepository accountDailyBalanceJdbcRepository,
+            MeterRegistry meterRegistry,
+            @Value("${techmarket.hot-accounts.ids:}") List<Long> ids,
+            @Value("${techmarket.hot-accounts.slots:8}") int slots,
+            @Value("${techmarket.transfer.engine:JPA}") TransferEngine engine) {
+        if (slots <= 0) {
+            throw new IllegalArgumentException("Número de slots das contas quentes deve ser positivo");
+        }
+        // Os slots e a consolidação usam o banco primário; contas em shards não têm esse caminho
+        if (!ids.isEmpty() && engine == TransferEngine.SHARDED) {
+            throw new IllegalStateException("techmarket.hot-accounts.ids não é suportado com techmarket.transfer.engine=SHARDED");
+        }
+        this.accountJdbcRepository = accountJdbcRepository;
+        this.accountBalanceSlotJdbcRepository = accountBalanceSlotJdbcRepository;
+        this.accountDailyBalanceJdbcRepository = accountDailyBalanceJdbcRepository;
+        this.meterRegistry = meterRegistry;
+        this.hotIds = Set.copyOf(ids);
+        this.slots = slots;
+    }
+    
+    public boolean isEnabled() {
+        return !hotIds.isEmpty();
+    }
+    
+    public Set<Long> getHotIds() {
+        return hotIds;
+    }
+    
+    public boolean isHot(Long accountId) {
+        return hotIds.contains(accountId);
+    }
+    
+    public boolean involves(TransferRequest request) {
+        return isHot(request.getOrigem()) || isHot(request.getDestino());
+    }
+    
+    // true se o crédito para a conta no dia vai para um slot
+    public boolean isStriped(Long accountId, LocalDate dia) {
+        Set<LocalDate> dias = prepared.get(accountId);
+        return dias != null && dias.contains(dia);
+    }
+    
+    // Cria os slots de hoje e de amanhã de cada conta quente (contas inexistentes ficam de fora) e
+    // remove os slots já consolidados de dias passados. Ontem sai do caminho dos slots, mas suas
+    // linhas ficam mais um dia para o crédito de uma transferência iniciada antes da meia-noite
+    public void prepareSlots() {
+        LocalDate hoje = LocalDate.now();
+        for (Long accountId : hotIds) {
+            Set<LocalDate> dias = prepared.computeIfAbsent(accountId, id -> ConcurrentHashMap.newKeySet());
+            dias.removeIf(dia -> dia.isBefore(hoje));
+            for (LocalDate dia : List.of(hoje, hoje.plusDays(1))) {
+                if (accountBalanceSlotJdbcRepository.createSlots(accountId, dia, slots)) {
+                    dias.add(dia);
+                } else {
+                    dias.remove(dia);
+                }
+            }
+        }
+        accountBalanceSlotJdbcRepository.deleteEmptyBefore(hoje.minusDays(1));
+    }
+    
+    // Credita o valor em um slot aleatório do dia, na transação da transferência
+    public void credit(Long accountId, LocalDate dia, Money valor) {
+        int slot = ThreadLocalRandom.current().nextInt(slots);
+        if (!accountBalanceSlotJdbcRepository.credit(accountId, dia, slot, valor)) {
+            if (!accountJdbcRepository.exists(accountId)) {
+                throw new AccountNotFoundException("Conta de destino não encontrada: " + accountId);
+            }
+            throw new IllegalStateException("Slot " + slot + " da conta " + accountId + " em " + dia + " não encontrado");
+        }
+        meterRegistry.counter(SLOT_CREDITS_COUNTER).increment();
+    }
+    
+    // Move os créditos pendentes dos slots para accounts.balance e para os snapshots diários dos dias
+    // em que aconteceram. Exige a linha da conta já bloqueada na transação corrente: ela serializa as
+    // consolidações e os débitos da conta. Devolve o total consolidado
+    public Money consolidate(Long accountId, String trigger) {
+        List<AccountBalanceSlot> pendentes = accountBalanceSlotJdbcRepository.lockPending(accountId);
+        if (pendentes.isEmpty()) {
+            return Money.ZERO;
+        }
+        Map<LocalDate, AccountDailyBalance> porDia = new TreeMap<>();
+        Money total = Money.ZERO;
+        for (AccountBalanceSlot slot : pendentes) {
+            AccountDailyBalance dia = porDia.computeIfAbsent(slot.getDia(),
+                d -> new AccountDailyBalance(accountId, d, BigDecimal.ZERO, BigDecimal.ZERO, 0));
+            dia.setCreditos(dia.getCreditos().add(slot.getCreditos()));
+            dia.setMovimentos(dia.getMovimentos() + slot.getMovimentos());
+            total = total.plus(Money.of(slot.getCreditos()));
+        }
+        accountBalanceSlotJdbcRepository.clear(pendentes);
+        accountJdbcRepository.credit(accountId, total);
+        Money saldo = accountJdbcRepository.findBalance(accountId)
+            .orElseThrow(() -> new AccountNotFoundException("Conta não encontrada: " + accountId))
+            .getBalance();
+        accountDailyBalanceJdbcRepository.applyPendingCredits(accountId, new ArrayList<>(porDia.values()), saldo.toBigDecimal());
+        meterRegistry.counter(CONSOLIDATIONS_COUNTER, "trigger", trigger).increment();
+        return total;
+    }
+    
+    // Créditos ainda nos slots, fora de accounts.balance
+    public Money getPending(Long accountId) {
+        return accountBalanceSlotJdbcRepository.sumPending(accountId);
+    }
+}
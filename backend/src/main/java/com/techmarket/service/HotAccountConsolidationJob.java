@@ -0,0 +1,102 @@
+package com.techmarket.service;
+
+import com.techmarket.repository.AccountJdbcRepository;
+import com.techmarket.util.Money;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Prepara os slots das contas quentes e consolida os créditos pendentes a cada consolidation-interval.
+// Os slots são criados na subida, antes da primeira consolidação; até lá os créditos seguem para a
+// linha da conta, como em qualquer outra conta
+@Component
+public class HotAccountConsolidationJob {
+    
+    private static final Logger log = LoggerFactory.getLogger(HotAccountConsolidationJob.class);
+    
+    @Autowired
+    private HotAccountBalances hotAccountBalances;
+    
+    @Autowired
+    private AccountJdbcRepository accountJdbcRepository;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private DatabaseBulkhead databaseBulkhead;
+    
+    @Value("${techmarket.hot-accounts.consolidation-interval:PT5S}")
+    private Duration interval;
+    
+    private ScheduledExecutorService scheduler;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!hotAccountBalances.isEnabled()) {
+            return;
+        }
+        prepareSafely();
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hot-account-consolidation");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::runSafely, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+    
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+    
+    // Consolida cada conta quente em uma transação própria; devolve quantas tinham créditos pendentes
+    public int consolidateAll() {
+        int consolidadas = 0;
+        for (Long accountId : hotAccountBalances.getHotIds()) {
+            Money total = databaseBulkhead.execute(() -> transactionTemplate.execute(status ->
+                accountJdbcRepository.lockBalance(accountId)
+                    .map(account -> hotAccountBalances.consolidate(accountId, HotAccountBalances.TRIGGER_JOB))
+                    .orElse(Money.ZERO)));
+            if (total.isPositive()) {
+                consolidadas++;
+            }
+        }
+        return consolidadas;
+    }
+    
+    private void prepareSafely() {
+        try {
+            hotAccountBalances.prepareSlots();
+        } catch (DataAccessException e) {
+            log.warn("Falha ao preparar os slots das contas quentes: {}", e.getMessage());
+        }
+    }
+    
+    private void runSafely() {
+        prepareSafely();
+        try {
+            consolidateAll();
+        } catch (DataAccessException | TransactionException e) {
+            // Banco indisponível: os créditos continuam nos slots até a próxima rodada
+            log.warn("Consolidação das contas quentes adiada: {}", e.getMessage());
+        } catch (RuntimeException e) {
+            log.warn("Falha na consolidação das contas quentes", e);
+        }
+    }
+}
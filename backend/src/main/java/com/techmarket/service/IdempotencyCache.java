@@ -0,0 +1,65 @@
+package com.techmarket.service;
+
+import com.techmarket.dto.TransferResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+// Cache limitado das respostas já concluídas, por chave de idempotência.
+// Como o TTL é fixo, a ordem de inserção é também a ordem de expiração.
+@Component
+public class IdempotencyCache {
+    
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>();
+    
+    public IdempotencyCache(
+            @Value("${techmarket.idempotency.cache.max-size:100000}") int maxSize,
+            @Value("${techmarket.idempotency.cache.ttl:PT10M}") Duration ttl) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("Tamanho máximo do cache deve ser positivo");
+        }
+        this.maxSize = maxSize;
+        this.ttlNanos = ttl.toNanos();
+    }
+    
+    public synchronized Optional<TransferResponse> get(String key) {
+        Entry entry = entries.get(key);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        if (entry.expiresAt - System.nanoTime() <= 0) {
+            entries.remove(key);
+            return Optional.empty();
+        }
+        return Optional.of(entry.response);
+    }
+    
+    public synchronized void put(String key, TransferResponse response) {
+        long now = System.nanoTime();
+        entries.remove(key);
+        entries.put(key, new Entry(response, now + ttlNanos));
+        
+        // Remover expirados e, se ainda acima do limite, os mais antigos
+        Iterator<Map.Entry<String, Entry>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Entry eldest = it.next().getValue();
+            if (entries.size() <= maxSize && eldest.expiresAt - now > 0) {
+                break;
+            }
+            it.remove();
+        }
+    }
+    
+    public synchronized int size() {
+        return entries.size();
+    }
+    
+    private record Entry(TransferResponse response, long expiresAt) {}
+}
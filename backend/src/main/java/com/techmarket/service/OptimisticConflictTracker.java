@@ -0,0 +1,92 @@
+package com.techmarket.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Taxa recente de conflitos de versão por conta no modo OPTIMISTIC, em janelas fixas de tempo.
+// Uma conta vira "quente" quando, na janela corrente, tem pelo menos min-samples tentativas e
+// a fração de conflitos passa de threshold; enquanto isso suas transferências usam o caminho
+// pessimista. Como o caminho pessimista não gera amostras, a janela expira e a conta volta
+// a ser tentada de forma otimista.
+@Component
+public class OptimisticConflictTracker {
+    
+    private final double threshold;
+    private final int minSamples;
+    private final long windowNanos;
+    private final int maxTracked;
+    private final ConcurrentHashMap<Long, Window> windows = new ConcurrentHashMap<>();
+    
+    public OptimisticConflictTracker(
+            @Value("${techmarket.transfer.optimistic.conflict-threshold:0.2}") double threshold,
+            @Value("${techmarket.transfer.optimistic.conflict-min-samples:20}") int minSamples,
+            @Value("${techmarket.transfer.optimistic.conflict-window:PT10S}") Duration window,
+            @Value("${techmarket.transfer.optimistic.max-tracked-accounts:10000}") int maxTracked) {
+        if (threshold <= 0 || threshold > 1) {
+            throw new IllegalArgumentException("Limite de conflitos deve estar em (0, 1]");
+        }
+        if (minSamples <= 0 || maxTracked <= 0) {
+            throw new IllegalArgumentException("Amostras mínimas e contas monitoradas devem ser positivas");
+        }
+        this.threshold = threshold;
+        this.minSamples = minSamples;
+        this.windowNanos = window.toNanos();
+        this.maxTracked = maxTracked;
+    }
+    
+    // Registra uma tentativa otimista envolvendo as contas informadas
+    public void record(boolean conflict, Long... accountIds) {
+        long now = System.nanoTime();
+        if (windows.size() >= maxTracked) {
+            windows.values().removeIf(window -> window.expired(now, windowNanos));
+        }
+        for (Long accountId : accountIds) {
+            windows.computeIfAbsent(accountId, id -> new Window(now)).record(conflict, now, windowNanos);
+        }
+    }
+    
+    // true se alguma das contas passou do limite de conflitos na janela corrente
+    public boolean isHot(Long... accountIds) {
+        long now = System.nanoTime();
+        for (Long accountId : accountIds) {
+            Window window = windows.get(accountId);
+            if (window != null && window.isHot(now, windowNanos, minSamples, threshold)) {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    private static final class Window {
+        private long start;
+        private int attempts;
+        private int conflicts;
+        
+        Window(long start) {
+            this.start = start;
+        }
+        
+        synchronized void record(boolean conflict, long now, long windowNanos) {
+            if (now - start >= windowNanos) {
+                start = now;
+                attempts = 0;
+                conflicts = 0;
+            }
+            attempts++;
+            if (conflict) {
+                conflicts++;
+            }
+        }
+        
+        synchronized boolean isHot(long now, long windowNanos, int minSamples, double threshold) {
+            return now - start < windowNanos && attempts >= minSamples && conflicts >= threshold * attempts;
+        }
+        
+        synchronized boolean expired(long now, long windowNanos) {
+            return now - start >= windowNanos;
+        }
+    }
+}
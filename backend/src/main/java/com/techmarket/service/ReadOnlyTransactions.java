@@ -0,0 +1,37 @@
+package com.techmarket.service;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.function.Supplier;
+
+// Transações readOnly para leituras feitas fora de um método @Transactional(readOnly = true): o
+// ReadWriteRoutingDataSource as manda para uma réplica. Com accountId a leitura só usa réplicas
+// que já têm as escritas locais da conta; com null qualquer réplica saudável serve.
+@Component
+public class ReadOnlyTransactions {
+    
+    private final TransactionTemplate transactionTemplate;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    
+    public ReadOnlyTransactions(PlatformTransactionManager transactionManager, ReadYourWritesTracker readYourWritesTracker) {
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setReadOnly(true);
+        this.readYourWritesTracker = readYourWritesTracker;
+    }
+    
+    // false sem réplicas configuradas: toda leitura já é feita no primário
+    public boolean routesToReplicas() {
+        return readYourWritesTracker.isEnabled();
+    }
+    
+    public <T> T execute(Long accountId, Supplier<T> action) {
+        return transactionTemplate.execute(status -> {
+            if (accountId != null) {
+                readYourWritesTracker.bind(accountId);
+            }
+            return action.get();
+        });
+    }
+}
@@ -0,0 +1,90 @@
+package com.techmarket.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+// Última escrita local por conta, para que as leituras readOnly de uma conta vejam os próprios
+// commits. A réplica só atende a conta vinculada à transação se já recebeu um heartbeat gravado
+// depois dessa escrita; como a replicação aplica os commits em ordem, a escrita também chegou.
+// Escritas feitas por outras instâncias não são vistas aqui (mesma ressalva do cache de saldo).
+@Component
+public class ReadYourWritesTracker {
+    
+    private final boolean enabled;
+    private final ConcurrentHashMap<Long, Long> lastWrites = new ConcurrentHashMap<>();
+    private final ThreadLocal<Long> boundAccount = new ThreadLocal<>();
+    
+    public ReadYourWritesTracker(@Value("${techmarket.datasource.replicas.urls:}") List<String> replicaUrls) {
+        // Sem réplicas toda leitura já vai para o primário
+        this.enabled = replicaUrls.stream().anyMatch(url -> !url.isBlank());
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    // Contas alteradas pela transação corrente; o instante vale a partir do commit
+    public void recordAfterCommit(Collection<Long> accountIds) {
+        if (!enabled) {
+            return;
+        }
+        List<Long> ids = List.copyOf(accountIds);
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            record(ids);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                record(ids);
+            }
+        });
+    }
+    
+    // Vincula a conta às leituras da transação readOnly corrente; precisa vir antes do primeiro comando,
+    // que é quando a conexão é escolhida
+    public void bind(Long accountId) {
+        if (!enabled || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        boundAccount.set(accountId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                boundAccount.remove();
+            }
+        });
+    }
+    
+    // Heartbeat mínimo (epoch millis, exclusivo) que a réplica precisa ter para atender a leitura
+    public long requiredReplicatedUntil() {
+        Long accountId = boundAccount.get();
+        if (accountId == null) {
+            return 0;
+        }
+        Long lastWrite = lastWrites.get(accountId);
+        return lastWrite == null ? 0 : lastWrite;
+    }
+    
+    // Escritas anteriores a before já estão em toda réplica saudável (atraso abaixo de max-lag)
+    public void prune(long before) {
+        lastWrites.values().removeIf(lastWrite -> lastWrite < before);
+    }
+    
+    public int size() {
+        return lastWrites.size();
+    }
+    
+    private void record(List<Long> accountIds) {
+        long now = System.currentTimeMillis();
+        for (Long accountId : accountIds) {
+            lastWrites.merge(accountId, now, Math::max);
+        }
+    }
+}
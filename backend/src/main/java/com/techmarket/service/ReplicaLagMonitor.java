@@ -0,0 +1,160 @@
+package com.techmarket.service;
+
+import com.techmarket.config.ReadWriteRoutingDataSource;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Atraso das réplicas de leitura por heartbeat: a cada interval grava o instante atual na linha desta
+// instância em replica_heartbeat, no primário, e lê em cada réplica o último valor que chegou lá.
+// Réplica cuja leitura falha, ou cujo heartbeat está mais de max-lag atrás, sai da rotação até voltar.
+// Funciona com qualquer replicação que aplique os commits em ordem (streaming do PostgreSQL, etc.).
+@Component
+public class ReplicaLagMonitor {
+    
+    public static final String LAG_GAUGE = "techmarket.datasource.replica.lag";
+    public static final String HEALTHY_GAUGE = "techmarket.datasource.replica.healthy";
+    
+    private static final Logger log = LoggerFactory.getLogger(ReplicaLagMonitor.class);
+    
+    private static final String UPDATE_HEARTBEAT_SQL = "UPDATE replica_heartbeat SET heartbeat_millis = ? WHERE instance_id = ?";
+    private static final String INSERT_HEARTBEAT_SQL = "INSERT INTO replica_heartbeat (instance_id, heartbeat_millis) VALUES (?, ?)";
+    private static final String SELECT_HEARTBEAT_SQL = "SELECT heartbeat_millis FROM replica_heartbeat WHERE instance_id = ?";
+    private static final String DELETE_STALE_SQL = "DELETE FROM replica_heartbeat WHERE heartbeat_millis < ?";
+    
+    private final ReadWriteRoutingDataSource routingDataSource;
+    private final ReadYourWritesTracker readYourWritesTracker;
+    private final JdbcTemplate primaryJdbcTemplate;
+    private final List<JdbcTemplate> replicaJdbcTemplates;
+    private final long intervalMillis;
+    private final long maxLagMillis;
+    // Uma linha por instância: cada uma compara só heartbeats do próprio relógio
+    private final String instanceId = UUID.randomUUID().toString();
+    private ScheduledExecutorService scheduler;
+    
+    public ReplicaLagMonitor(
+            ReadWriteRoutingDataSource routingDataSource,
+            ReadYourWritesTracker readYourWritesTracker,
+            MeterRegistry registry,
+            @Value("${techmarket.datasource.replicas.heartbeat-interval:PT1S}") Duration interval,
+            @Value("${techmarket.datasource.replicas.max-lag:PT10S}") Duration maxLag) {
+        if (interval.isNegative() || interval.isZero() || maxLag.compareTo(interval) < 0) {
+            throw new IllegalArgumentException("Intervalo do heartbeat deve ser positivo e menor que o atraso máximo");
+        }
+        this.routingDataSource = routingDataSource;
+        this.readYourWritesTracker = readYourWritesTracker;
+        this.primaryJdbcTemplate = new JdbcTemplate(routingDataSource.getPrimary());
+        this.replicaJdbcTemplates = routingDataSource.getReplicas().stream()
+            .map(replica -> {
+                JdbcTemplate jdbcTemplate = new JdbcTemplate(replica.getDataSource());
+                jdbcTemplate.setQueryTimeout((int) Math.max(1, interval.toSeconds()));
+                return jdbcTemplate;
+            })
+            .toList();
+        this.intervalMillis = interval.toMillis();
+        this.maxLagMillis = maxLag.toMillis();
+        for (ReadWriteRoutingDataSource.Replica replica : routingDataSource.getReplicas()) {
+            Gauge.builder(LAG_GAUGE, replica, ReplicaLagMonitor::lagSeconds)
+                .description("Atraso da réplica de leitura medido pelo heartbeat")
+                .baseUnit("seconds")
+                .tag("replica", replica.getName())
+                .register(registry);
+            Gauge.builder(HEALTHY_GAUGE, replica, r -> r.isHealthy() ? 1 : 0)
+                .description("1 se a réplica está na rotação de leituras")
+                .tag("replica", replica.getName())
+                .register(registry);
+        }
+    }
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (routingDataSource.getReplicas().isEmpty()) {
+            return;
+        }
+        try {
+            // Linhas de instâncias que já não existem
+            primaryJdbcTemplate.update(DELETE_STALE_SQL, System.currentTimeMillis() - Duration.ofDays(1).toMillis());
+        } catch (DataAccessException e) {
+            log.warn("Falha ao limpar heartbeats antigos", e);
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replica-lag-monitor");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::checkSafely, 0, intervalMillis, TimeUnit.MILLISECONDS);
+    }
+    
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+    
+    private void checkSafely() {
+        try {
+            check();
+        } catch (RuntimeException e) {
+            log.warn("Falha na verificação das réplicas de leitura", e);
+        }
+    }
+    
+    public String getInstanceId() {
+        return instanceId;
+    }
+    
+    // Grava o heartbeat no primário e atualiza o estado de cada réplica
+    public synchronized void check() {
+        long now = System.currentTimeMillis();
+        try {
+            if (primaryJdbcTemplate.update(UPDATE_HEARTBEAT_SQL, now, instanceId) == 0) {
+                primaryJdbcTemplate.update(INSERT_HEARTBEAT_SQL, instanceId, now);
+            }
+        } catch (DataAccessException e) {
+            // Sem heartbeat novo o atraso das réplicas cresce até tirá-las da rotação
+            log.warn("Falha ao gravar o heartbeat de replicação no primário", e);
+        }
+        
+        List<ReadWriteRoutingDataSource.Replica> replicas = routingDataSource.getReplicas();
+        for (int i = 0; i < replicas.size(); i++) {
+            ReadWriteRoutingDataSource.Replica replica = replicas.get(i);
+            boolean wasHealthy = replica.isHealthy();
+            try {
+                List<Long> heartbeat = replicaJdbcTemplates.get(i).queryForList(SELECT_HEARTBEAT_SQL, Long.class, instanceId);
+                long replicatedUntil = heartbeat.isEmpty() ? 0 : heartbeat.get(0);
+                boolean healthy = replicatedUntil > 0 && now - replicatedUntil <= maxLagMillis;
+                replica.update(replicatedUntil, healthy);
+            } catch (DataAccessException e) {
+                replica.markDown();
+                log.debug("Falha ao ler o heartbeat da réplica {}", replica.getName(), e);
+            }
+            if (wasHealthy != replica.isHealthy()) {
+                log.info("Réplica {} {} (atraso {} s)", replica.getName(),
+                    replica.isHealthy() ? "voltou à rotação de leituras" : "saiu da rotação de leituras", lagSeconds(replica));
+            }
+        }
+        
+        readYourWritesTracker.prune(now - maxLagMillis);
+    }
+    
+    private static double lagSeconds(ReadWriteRoutingDataSource.Replica replica) {
+        long replicatedUntil = replica.getReplicatedUntil();
+        return replicatedUntil == 0 ? Double.NaN : (System.currentTimeMillis() - replicatedUntil) / 1000.0;
+    }
+}
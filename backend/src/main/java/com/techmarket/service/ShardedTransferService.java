@@ -0,0 +1,268 @@
+package com.techmarket.service;
+
+import com.techmarket.config.AccountShards;
+import com.techmarket.dto.BatchTransferItemResponse;
+import com.techmarket.dto.BatchTransferResponse;
+import com.techmarket.dto.TransferRequest;
+import com.techmarket.dto.TransferResponse;
+import com.techmarket.entity.Account;
+import com.techmarket.entity.CrossShardTransfer;
+import com.techmarket.entity.CrossShardTransferState;
+import com.techmarket.entity.Transfer;
+import com.techmarket.exception.AccountNotFoundException;
+import com.techmarket.exception.InsufficientBalanceException;
+import com.techmarket.repository.ShardedAccountRepository;
+import com.techmarket.repository.ShardedTransferRepository;
+import com.techmarket.repository.TransferIdAllocator;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+// Transferências com as contas distribuídas em AccountShards (engine SHARDED). No mesmo shard, uma
+// transação local com os UPDATEs condicionais do engine JDBC. Entre shards, uma saga registrada em
+// cross_shard_transfers: (1) débito + linha DEBITED na origem, (2) crédito + linha CREDITED no destino,
+// (3) COMPLETED + transferência na origem. Crédito impossível (conta de destino inexistente) estorna o
+// débito (COMPENSATED). Uma saga interrompida fica DEBITED até o CrossShardRecoveryJob retomá-la; os
+// passos 2 e 3 podem ser repetidos sem efeito duplicado
+@Service
+public class ShardedTransferService {
+    
+    public static final String SAGAS_COUNTER = "techmarket.sharding.sagas";
+    public static final String OUTCOME_COMPLETED = "completed";
+    public static final String OUTCOME_COMPENSATED = "compensated";
+    public static final String OUTCOME_PENDING = "pending";
+    
+    // Débito feito e crédito ainda não confirmado; a recuperação conclui a transferência
+    public static final String STATUS_PENDING = "pending";
+    
+    private static final Logger log = LoggerFactory.getLogger(ShardedTransferService.class);
+    
+    @Autowired
+    private AccountShards accountShards;
+    
+    @Autowired
+    private ShardedAccountRepository shardedAccountRepository;
+    
+    @Autowired
+    private ShardedTransferRepository shardedTransferRepository;
+    
+    @Autowired
+    private TransferIdAllocator transferIdAllocator;
+    
+    @Autowired
+    private AccountBalanceCache accountBalanceCache;
+    
+    @Autowired
+    private TransferEventBus transferEventBus;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    public TransferResponse transfer(TransferRequest request) {
+        AccountShards.Shard origem = accountShards.shardFor(request.getOrigem());
+        AccountShards.Shard destino = accountShards.shardFor(request.getDestino());
+        Transfer transfer = new Transfer(request.getOrigem(), request.getDestino(), request.getValor(), request.getIdempotencyKey());
+        // Id da sequência global do primário, o mesmo nos dois shards
+        transfer.setId(transferIdAllocator.nextId());
+        
+        if (origem == destino) {
+            return origem.getTransactionTemplate().execute(status -> executeLocal(origem, transfer));
+        }
+        return executeSaga(origem, destino, transfer);
+    }
+    
+    // Lote sem transação única: cada item é uma transferência (local ou saga) independente, que confirma
+    // sozinha. Sob uma transação externa, um rollback dela não desfaria os itens já aplicados e o shard 0
+    // tomaria uma segunda conexão do pool do primário; por isso é recusado
+    public BatchTransferResponse transferAll(List<TransferRequest> requests) {
+        if (TransactionSynchronizationManager.isActualTransactionActive()) {
+            throw new IllegalStateException("Lote no engine SHARDED não pode rodar dentro de uma transação");
+        }
+        List<BatchTransferItemResponse> itens = new ArrayList<>(requests.size());
+        for (int i = 0; i < requests.size(); i++) {
+            TransferRequest request = requests.get(i);
+            if (request.getOrigem().equals(request.getDestino())) {
+                itens.add(item(i, request, BatchTransferItemResponse.STATUS_INVALID, "Conta de origem e destino não podem ser iguais"));
+                continue;
+            }
+            try {
+                // Uma saga pendente já debitou a origem e será concluída pela recuperação
+                TransferResponse response = transfer(request);
+                itens.add(new BatchTransferItemResponse(i, BatchTransferItemResponse.STATUS_SUCCESS, response.getCodigo(),
+                    request.getOrigem(), request.getDestino(), request.getValor(), response.getTimestamp(), null));
+            } catch (AccountNotFoundException e) {
+                itens.add(item(i, request, BatchTransferItemResponse.STATUS_ACCOUNT_NOT_FOUND, e.getMessage()));
+            } catch (InsufficientBalanceException e) {
+                itens.add(item(i, request, BatchTransferItemResponse.STATUS_INSUFFICIENT_BALANCE, e.getMessage()));
+            } catch (DataIntegrityViolationException e) {
+                if (request.getIdempotencyKey() == null) {
+                    throw e;
+                }
+                Optional<TransferResponse> existing = findByIdempotencyKey(request.getOrigem(), request.getIdempotencyKey());
+                itens.add(new BatchTransferItemResponse(i, BatchTransferItemResponse.STATUS_DUPLICATE_IDEMPOTENCY_KEY,
+                    existing.map(TransferResponse::getCodigo).orElse(null), request.getOrigem(), request.getDestino(),
+                    request.getValor(), existing.map(TransferResponse::getTimestamp).orElse(null),
+                    "Chave de idempotência já utilizada: " + request.getIdempotencyKey()));
+            }
+        }
+        return new BatchTransferResponse(itens);
+    }
+    
+    // Resposta já dada para a chave, lida no shard da conta de origem, onde a chave fica reservada: a
+    // transferência gravada ou, com a saga ainda DEBITED, pendente. Uma saga estornada libera a chave
+    public Optional<TransferResponse> findByIdempotencyKey(Long origemAccountId, String key) {
+        AccountShards.Shard origem = accountShards.shardFor(origemAccountId);
+        return shardedTransferRepository.findByIdempotencyKey(origem, origemAccountId, key)
+            .map(TransferService::toResponse)
+            .or(() -> shardedTransferRepository.findSagaByIdempotencyKey(origem, origemAccountId, key, CrossShardTransferState.DEBITED)
+                .map(saga -> pending(saga.toTransfer())));
+    }
+    
+    // Retoma uma saga DEBITED: repete o crédito (sem efeito se já foi aplicado) e conclui, ou estorna
+    public void resume(CrossShardTransfer saga) {
+        AccountShards.Shard origem = accountShards.shardFor(saga.getOrigemAccountId());
+        AccountShards.Shard destino = accountShards.shardFor(saga.getDestinoAccountId());
+        try {
+            credit(destino, saga);
+        } catch (AccountNotFoundException e) {
+            compensate(origem, saga);
+            return;
+        }
+        complete(origem, saga);
+    }
+    
+    private TransferResponse executeLocal(AccountShards.Shard shard, Transfer transfer) {
+        // Os UPDATEs seguem a mesma ordem global de id dos demais engines
+        for (Long accountId : AccountLockManager.lockOrder(transfer.getOrigemAccountId(), transfer.getDestinoAccountId())) {
+            if (accountId.equals(transfer.getOrigemAccountId())) {
+                debit(transfer);
+            } else if (!shardedAccountRepository.credit(accountId, transfer.getValor())) {
+                throw new AccountNotFoundException("Conta de destino não encontrada: " + accountId);
+            }
+        }
+        refreshCache(List.of(transfer.getOrigemAccountId(), transfer.getDestinoAccountId()));
+        shardedTransferRepository.insert(shard, transfer);
+        shardedTransferRepository.reserveIdempotencyKey(shard, transfer);
+        transferEventBus.publishAfterCommit(List.of(transfer));
+        return TransferService.toResponse(transfer);
+    }
+    
+    private TransferResponse executeSaga(AccountShards.Shard origem, AccountShards.Shard destino, Transfer transfer) {
+        // Destino conferido antes do débito; a compensação cobre o que mudar no meio do caminho
+        if (!shardedAccountRepository.exists(transfer.getDestinoAccountId())) {
+            throw new AccountNotFoundException("Conta de destino não encontrada: " + transfer.getDestinoAccountId());
+        }
+        CrossShardTransfer saga = origem.getTransactionTemplate().execute(status -> {
+            debit(transfer);
+            shardedTransferRepository.reserveIdempotencyKey(origem, transfer);
+            CrossShardTransfer debited = new CrossShardTransfer(transfer, CrossShardTransferState.DEBITED);
+            shardedTransferRepository.insertSaga(origem, debited);
+            refreshCache(List.of(transfer.getOrigemAccountId()));
+            return debited;
+        });
+        
+        try {
+            credit(destino, saga);
+            complete(origem, saga);
+        } catch (AccountNotFoundException e) {
+            compensate(origem, saga);
+            throw e;
+        } catch (RuntimeException e) {
+            // Sem saber se o crédito foi aplicado, a saga fica DEBITED para a recuperação
+            log.warn("Transferência {} entre {} e {} pendente de recuperação: {}",
+                transfer.getCodigoUUID(), origem.getName(), destino.getName(), e.getMessage());
+            count(OUTCOME_PENDING);
+            return pending(transfer);
+        }
+        return TransferService.toResponse(transfer);
+    }
+    
+    private static TransferResponse pending(Transfer transfer) {
+        return new TransferResponse(transfer.getCodigoUUID(), STATUS_PENDING, transfer.getOrigemAccountId(),
+            transfer.getDestinoAccountId(), transfer.getValor(), transfer.getTimestamp());
+    }
+    
+    private void debit(Transfer transfer) {
+        Long accountId = transfer.getOrigemAccountId();
+        if (!shardedAccountRepository.debitIfSufficient(accountId, transfer.getValor())) {
+            if (!shardedAccountRepository.exists(accountId)) {
+                throw new AccountNotFoundException("Conta de origem não encontrada: " + accountId);
+            }
+            throw new InsufficientBalanceException("Saldo insuficiente na conta de origem");
+        }
+    }
+    
+    // Crédito e linha CREDITED na mesma transação do destino: a chave primária da linha barra o
+    // segundo crédito da mesma transferência, e a transação repetida é desfeita inteira
+    private void credit(AccountShards.Shard destino, CrossShardTransfer saga) {
+        Transfer transfer = saga.toTransfer();
+        try {
+            destino.getTransactionTemplate().executeWithoutResult(status -> {
+                if (!shardedAccountRepository.credit(transfer.getDestinoAccountId(), transfer.getValor())) {
+                    throw new AccountNotFoundException("Conta de destino não encontrada: " + transfer.getDestinoAccountId());
+                }
+                shardedTransferRepository.insertSaga(destino, new CrossShardTransfer(transfer, CrossShardTransferState.CREDITED));
+                shardedTransferRepository.insert(destino, transfer);
+                refreshCache(List.of(transfer.getDestinoAccountId()));
+            });
+        } catch (DuplicateKeyException e) {
+            log.debug("Crédito da transferência {} já aplicado em {}", transfer.getCodigoUUID(), destino.getName());
+        }
+    }
+    
+    private void complete(AccountShards.Shard origem, CrossShardTransfer saga) {
+        origem.getTransactionTemplate().executeWithoutResult(status -> {
+            if (shardedTransferRepository.updateState(origem, saga.getId(), CrossShardTransferState.DEBITED, CrossShardTransferState.COMPLETED)) {
+                Transfer transfer = saga.toTransfer();
+                shardedTransferRepository.insert(origem, transfer);
+                // Só a transição para COMPLETED publica: a saga retomada pela recuperação também
+                transferEventBus.publishAfterCommit(List.of(transfer));
+                count(OUTCOME_COMPLETED);
+            }
+        });
+    }
+    
+    // Estorna o débito e libera a chave de idempotência, como no rollback de uma transferência local
+    private void compensate(AccountShards.Shard origem, CrossShardTransfer saga) {
+        Transfer transfer = saga.toTransfer();
+        origem.getTransactionTemplate().executeWithoutResult(status -> {
+            if (shardedTransferRepository.updateState(origem, saga.getId(), CrossShardTransferState.DEBITED, CrossShardTransferState.COMPENSATED)) {
+                shardedAccountRepository.credit(transfer.getOrigemAccountId(), transfer.getValor());
+                shardedTransferRepository.releaseIdempotencyKey(origem, transfer);
+                refreshCache(List.of(transfer.getOrigemAccountId()));
+                count(OUTCOME_COMPENSATED);
+                log.info("Transferência {} estornada: conta de destino {} não encontrada", transfer.getCodigoUUID(), transfer.getDestinoAccountId());
+            }
+        });
+    }
+    
+    // Os UPDATEs não devolvem a versão; com as linhas ainda bloqueadas, a leitura é a do próprio commit
+    private void refreshCache(List<Long> accountIds) {
+        if (!accountBalanceCache.isEnabled()) {
+            return;
+        }
+        List<Account> updated = new ArrayList<>(accountIds.size());
+        for (Long accountId : accountIds) {
+            shardedAccountRepository.findBalance(accountId).ifPresent(updated::add);
+        }
+        accountBalanceCache.putAfterCommit(updated);
+    }
+    
+    private void count(String outcome) {
+        meterRegistry.counter(SAGAS_COUNTER, "outcome", outcome).increment();
+    }
+    
+    private BatchTransferItemResponse item(int indice, TransferRequest request, String status, String message) {
+        return new BatchTransferItemResponse(indice, status, null, request.getOrigem(), request.getDestino(),
+            request.getValor(), null, message);
+    }
+}
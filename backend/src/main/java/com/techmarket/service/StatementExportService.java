@@ -0,0 +1,142 @@
+package com.techmarket.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techmarket.dto.StatementEntryResponse;
+import com.techmarket.exception.AccountNotFoundException;
+import com.techmarket.repository.AccountRepository;
+import com.techmarket.repository.TransferArchive;
+import com.techmarket.repository.TransferJdbcRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+// Exportação do histórico de uma conta direto para o stream da resposta:
+// memória constante independentemente do número de linhas
+@Service
+public class StatementExportService {
+    
+    private static final String CSV_HEADER = "id,codigo,tipo,valor,contraparte_account_id,data";
+    private static final LocalDateTime MIN_TIMESTAMP = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime MAX_TIMESTAMP = LocalDateTime.of(9999, 12, 31, 0, 0);
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private TransferJdbcRepository transferJdbcRepository;
+    
+    @Autowired
+    private TransferArchive transferArchive;
+    
+    @Autowired
+    private DatabaseBulkhead databaseBulkhead;
+    
+    @Autowired
+    private ReadOnlyTransactions readOnlyTransactions;
+    
+    @Autowired
+    private ObjectMapper objectMapper;
+    
+    @Value("${techmarket.export.fetch-size:1000}")
+    private int fetchSize = 1000;
+    
+    // Validações feitas antes de a resposta começar a ser escrita
+    public void validate(Long accountId, LocalDate inicio, LocalDate fim) {
+        if (inicio != null && fim != null && inicio.isAfter(fim)) {
+            throw new IllegalArgumentException("Data inicial não pode ser maior que a data final");
+        }
+        if (!accountRepository.existsById(accountId)) {
+            throw new AccountNotFoundException("Conta não encontrada: " + accountId);
+        }
+    }
+    
+    public void export(Long accountId, LocalDate inicio, LocalDate fim, StatementExportFormat format, OutputStream out) throws IOException {
+        LocalDateTime from = inicio == null ? MIN_TIMESTAMP : inicio.atStartOfDay();
+        LocalDateTime to = fim == null ? MAX_TIMESTAMP : fim.plusDays(1).atStartOfDay();
+        
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        if (format == StatementExportFormat.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+        
+        StatementEntryResponse entry = new StatementEntryResponse();
+        try {
+            // Meses arquivados primeiro (são os mais antigos); o banco continua de onde o arquivo parou
+            LocalDateTime arquivadoAte = transferArchive.archivedUntil();
+            if (arquivadoAte != null && from.isBefore(arquivadoAte)) {
+                transferArchive.stream(accountId, from, to.isBefore(arquivadoAte) ? to : arquivadoAte, transfer -> {
+                    boolean debit = transfer.getOrigemAccountId().equals(accountId);
+                    entry.setId(transfer.getId());
+                    entry.setCodigo(transfer.getCodigoUUID());
+                    entry.setTipo(debit ? StatementEntryResponse.TIPO_DEBIT : StatementEntryResponse.TIPO_CREDIT);
+                    entry.setValor(transfer.getValor().toBigDecimal());
+                    entry.setContraparteAccountId(debit ? transfer.getDestinoAccountId() : transfer.getOrigemAccountId());
+                    entry.setData(transfer.getTimestamp());
+                    write(writer, format, entry);
+                });
+            }
+            LocalDateTime inicioBanco = arquivadoAte != null && from.isBefore(arquivadoAte) ? arquivadoAte : from;
+            if (inicioBanco.isBefore(to)) {
+                // Leitura longa e sem escrita: vai para uma réplica em dia com as escritas da conta
+                databaseBulkhead.execute(() -> readOnlyTransactions.execute(accountId, () -> {
+                    transferJdbcRepository.streamHistory(accountId, inicioBanco, to, fetchSize, rs -> {
+                        long origem = rs.getLong("origem_account_id");
+                        long destino = rs.getLong("destino_account_id");
+                        boolean debit = origem == accountId;
+                        
+                        entry.setId(rs.getLong("id"));
+                        entry.setCodigo(rs.getString("codigo_uuid"));
+                        entry.setTipo(debit ? StatementEntryResponse.TIPO_DEBIT : StatementEntryResponse.TIPO_CREDIT);
+                        entry.setValor(rs.getBigDecimal("valor"));
+                        entry.setContraparteAccountId(debit ? destino : origem);
+                        entry.setData(rs.getTimestamp("timestamp").toLocalDateTime());
+                        write(writer, format, entry);
+                    });
+                    return null;
+                }));
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+        writer.flush();
+    }
+    
+    private void write(Writer writer, StatementExportFormat format, StatementEntryResponse entry) {
+        try {
+            if (format == StatementExportFormat.CSV) {
+                writeCsv(writer, entry);
+            } else {
+                writer.write(objectMapper.writeValueAsString(entry));
+                writer.write('\n');
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+    
+    private void writeCsv(Writer writer, StatementEntryResponse entry) throws IOException {
+        writer.write(String.valueOf(entry.getId()));
+        writer.write(',');
+        writer.write(entry.getCodigo());
+        writer.write(',');
+        writer.write(entry.getTipo());
+        writer.write(',');
+        writer.write(entry.getValor().toPlainString());
+        writer.write(',');
+        writer.write(String.valueOf(entry.getContraparteAccountId()));
+        writer.write(',');
+        writer.write(entry.getData().toString());
+        writer.write('\n');
+    }
+}
@@ -0,0 +1,204 @@
+package com.techmarket.service;
+
+import com.techmarket.dto.StatementEntryResponse;
+import com.techmarket.dto.StatementPageResponse;
+import com.techmarket.dto.StatementSummaryResponse;
+import com.techmarket.entity.Account;
+import com.techmarket.entity.AccountDailyBalance;
+import com.techmarket.entity.Transfer;
+import com.techmarket.exception.AccountNotFoundException;
+import com.techmarket.repository.AccountDailyBalanceRepository;
+import com.techmarket.repository.AccountRepository;
+import com.techmarket.repository.TransferArchive;
+import com.techmarket.repository.TransferJdbcRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Optional;
+
+// Extrato paginado por cursor (keyset) em (timestamp, id): o custo de cada página
+// não depende de quantas páginas já foram lidas; meses arquivados são lidos do TransferArchive.
+// As leituras são readOnly (réplica em dia com as escritas locais da conta, se houver)
+@Service
+public class StatementService {
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private TransferJdbcRepository transferJdbcRepository;
+    
+    @Autowired
+    private AccountDailyBalanceRepository accountDailyBalanceRepository;
+    
+    @Autowired
+    private TransferArchive transferArchive;
+    
+    @Autowired
+    private ReadYourWritesTracker readYourWritesTracker;
+    
+    @Autowired
+    private HotAccountBalances hotAccountBalances;
+    
+    @Value("${techmarket.extrato.default-page-size:50}")
+    private int defaultPageSize = 50;
+    
+    @Value("${techmarket.extrato.max-page-size:200}")
+    private int maxPageSize = 200;
+    
+    @Value("${techmarket.extrato.max-movimentos:100}")
+    private int maxMovimentos = 100;
+    
+    @Transactional(readOnly = true)
+    public StatementPageResponse getStatement(Long accountId, String cursor, Integer size) {
+        readYourWritesTracker.bind(accountId);
+        if (!accountRepository.existsById(accountId)) {
+            throw new AccountNotFoundException("Conta não encontrada: " + accountId);
+        }
+        
+        int pageSize = size == null ? defaultPageSize : Math.min(size, maxPageSize);
+        if (pageSize <= 0) {
+            throw new IllegalArgumentException("Tamanho de página deve ser positivo");
+        }
+        
+        LocalDateTime beforeTimestamp = null;
+        Long beforeId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            String[] parts = decodeCursor(cursor);
+            beforeTimestamp = LocalDateTime.parse(parts[0]);
+            beforeId = Long.parseLong(parts[1]);
+        }
+        
+        // Busca um item a mais para saber se existe próxima página
+        List<Transfer> transfers = transferJdbcRepository.findStatementPage(accountId, beforeTimestamp, beforeId, pageSize + 1);
+        transfers = continueInArchive(accountId, transfers, null, beforeTimestamp, beforeId, pageSize + 1);
+        boolean hasMore = transfers.size() > pageSize;
+        if (hasMore) {
+            transfers = transfers.subList(0, pageSize);
+        }
+        
+        List<StatementEntryResponse> itens = new ArrayList<>(transfers.size());
+        for (Transfer transfer : transfers) {
+            itens.add(toEntry(accountId, transfer));
+        }
+        
+        String nextCursor = null;
+        if (hasMore) {
+            Transfer last = transfers.get(transfers.size() - 1);
+            nextCursor = encodeCursor(last.getTimestamp(), last.getId());
+        }
+        return new StatementPageResponse(accountId, itens, nextCursor);
+    }
+    
+    // Saldos do período a partir dos snapshots diários e últimos movimentos por uma leitura
+    // limitada do índice: o custo não cresce com o histórico da conta
+    @Transactional(readOnly = true)
+    public StatementSummaryResponse getSummary(Long accountId, LocalDate inicio, LocalDate fim, int limite) {
+        readYourWritesTracker.bind(accountId);
+        if (inicio.isAfter(fim)) {
+            throw new IllegalArgumentException("Data inicial não pode ser maior que a data final");
+        }
+        if (limite <= 0) {
+            throw new IllegalArgumentException("Limite de movimentos deve ser positivo");
+        }
+        Account account = accountRepository.findById(accountId)
+            .orElseThrow(() -> new AccountNotFoundException("Conta não encontrada: " + accountId));
+        
+        BigDecimal saldoInicial = balanceAtEndOf(account, inicio.minusDays(1));
+        BigDecimal saldoFinal = balanceAtEndOf(account, fim);
+        
+        AccountDailyBalanceRepository.PeriodTotals totais = accountDailyBalanceRepository.sumPeriod(accountId, inicio, fim);
+        
+        List<Transfer> transfers = transferJdbcRepository.findLatestInPeriod(
+            accountId, inicio.atStartOfDay(), fim.plusDays(1).atStartOfDay(), Math.min(limite, maxMovimentos));
+        transfers = continueInArchive(accountId, transfers, inicio.atStartOfDay(), fim.plusDays(1).atStartOfDay(), null,
+            Math.min(limite, maxMovimentos));
+        List<StatementEntryResponse> movimentos = new ArrayList<>(transfers.size());
+        for (Transfer transfer : transfers) {
+            movimentos.add(toEntry(accountId, transfer));
+        }
+        
+        return new StatementSummaryResponse(accountId, inicio, fim, saldoInicial, saldoFinal,
+            totais.getCreditos(), totais.getDebitos(), movimentos);
+    }
+    
+    // Meses arquivados são anteriores a todas as linhas da tabela: se o banco não completou a página,
+    // ela continua no arquivo abaixo da última linha lida (ou do limite original, se não veio nenhuma)
+    private List<Transfer> continueInArchive(Long accountId, List<Transfer> transfers, LocalDateTime from,
+                                             LocalDateTime beforeTimestamp, Long beforeId, int limit) {
+        if (transfers.size() >= limit || transferArchive.isEmpty()) {
+            return transfers;
+        }
+        if (!transfers.isEmpty()) {
+            Transfer last = transfers.get(transfers.size() - 1);
+            beforeTimestamp = last.getTimestamp();
+            beforeId = last.getId();
+        }
+        List<Transfer> page = new ArrayList<>(transfers);
+        page.addAll(transferArchive.findLatest(accountId, from, beforeTimestamp, beforeId, limit - transfers.size()));
+        return page;
+    }
+    
+    // Saldo ao fim do dia: snapshot mais próximo no passado; sem ele, o saldo de abertura
+    // do primeiro snapshot posterior; sem nenhum snapshot, a conta nunca foi movimentada e vale
+    // o saldo atual (em conta quente, com os créditos ainda nos slots, como em AccountBalanceService)
+    private BigDecimal balanceAtEndOf(Account account, LocalDate dia) {
+        Optional<AccountDailyBalance> anterior = accountDailyBalanceRepository
+            .findFirstByAccountIdAndDiaLessThanEqualOrderByDiaDesc(account.getId(), dia);
+        if (anterior.isPresent()) {
+            return anterior.get().getSaldoFinal();
+        }
+        return accountDailyBalanceRepository.findFirstByAccountIdAndDiaGreaterThanOrderByDiaAsc(account.getId(), dia)
+            .map(AccountDailyBalance::getSaldoInicial)
+            .orElseGet(() -> currentBalance(account));
+    }
+    
+    private BigDecimal currentBalance(Account account) {
+        if (hotAccountBalances.isHot(account.getId())) {
+            return account.getBalance().plus(hotAccountBalances.getPending(account.getId())).toBigDecimal();
+        }
+        return account.getBalance().toBigDecimal();
+    }
+    
+    private StatementEntryResponse toEntry(Long accountId, Transfer transfer) {
+        boolean debit = transfer.getOrigemAccountId().equals(accountId);
+        return new StatementEntryResponse(
+            transfer.getId(),
+            transfer.getCodigoUUID(),
+            debit ? StatementEntryResponse.TIPO_DEBIT : StatementEntryResponse.TIPO_CREDIT,
+            transfer.getValor().toBigDecimal(),
+            debit ? transfer.getDestinoAccountId() : transfer.getOrigemAccountId(),
+            transfer.getTimestamp()
+        );
+    }
+    
+    private String encodeCursor(LocalDateTime timestamp, Long id) {
+        String raw = timestamp + "|" + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+    
+    private String[] decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            String[] parts = raw.split("\\|");
+            if (parts.length != 2) {
+                throw new IllegalArgumentException("Cursor inválido");
+            }
+            LocalDateTime.parse(parts[0]);
+            Long.parseLong(parts[1]);
+            return parts;
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Cursor inválido");
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.techmarket.service;
+
+import com.techmarket.repository.TransferArchive;
+import com.techmarket.repository.TransferJdbcRepository;
+import com.techmarket.repository.TransferPartitionRepository;
+import com.techmarket.repository.TransferSegment;
+import com.techmarket.repository.TransferSegmentWriter;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.Optional;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// Move para o arquivo (segmentos comprimidos em disco) os meses de transfers que já passaram
+// inteiros da retenção, e mantém criadas as partições dos próximos meses quando a tabela é
+// particionada. A ordem garante que nenhuma consulta perde linhas: o segmento é gravado e
+// publicado antes de o mês sair do banco.
+@Component
+public class TransferArchivalJob {
+    
+    private static final Logger log = LoggerFactory.getLogger(TransferArchivalJob.class);
+    
+    @Autowired
+    private TransferJdbcRepository transferJdbcRepository;
+    
+    @Autowired
+    private TransferPartitionRepository transferPartitionRepository;
+    
+    @Autowired
+    private TransferArchive transferArchive;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private DatabaseBulkhead databaseBulkhead;
+    
+    @Value("${techmarket.archive.enabled:false}")
+    private boolean enabled;
+    
+    @Value("${techmarket.archive.retention:P90D}")
+    private Duration retention = Duration.ofDays(90);
+    
+    @Value("${techmarket.archive.interval:PT1H}")
+    private Duration interval = Duration.ofHours(1);
+    
+    @Value("${techmarket.archive.partitions-ahead:3}")
+    private int partitionsAhead = 3;
+    
+    @Value("${techmarket.archive.fetch-size:1000}")
+    private int fetchSize = 1000;
+    
+    @Value("${techmarket.archive.delete-batch-size:5000}")
+    private int deleteBatchSize = 5000;
+    
+    private ScheduledExecutorService scheduler;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "transfer-archival");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::runSafely, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+    }
+    
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                scheduler.awaitTermination(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    private void runSafely() {
+        try {
+            run();
+        } catch (IOException | RuntimeException e) {
+            log.warn("Falha no arquivamento de transferências", e);
+        }
+    }
+    
+    // Retorna o número de meses arquivados
+    public int run() throws IOException {
+        if (transferPartitionRepository.isPartitioned()) {
+            YearMonth atual = YearMonth.now();
+            for (int i = 0; i <= partitionsAhead; i++) {
+                YearMonth month = atual.plusMonths(i);
+                databaseBulkhead.execute(() -> {
+                    transferPartitionRepository.createPartition(month);
+                    return null;
+                });
+            }
+        }
+        
+        // Só meses que terminaram antes do corte; o mês do corte ainda tem linhas dentro da retenção.
+        // Cada volta parte da linha mais antiga restante, então meses sem transferências não geram segmento
+        YearMonth corte = YearMonth.from(LocalDateTime.now().minus(retention));
+        int meses = 0;
+        Optional<LocalDateTime> oldest = databaseBulkhead.execute(transferPartitionRepository::findOldestTimestamp);
+        while (oldest.isPresent() && YearMonth.from(oldest.get()).isBefore(corte)) {
+            archiveMonth(YearMonth.from(oldest.get()));
+            meses++;
+            oldest = databaseBulkhead.execute(transferPartitionRepository::findOldestTimestamp);
+        }
+        return meses;
+    }
+    
+    // Retorna o número de transferências do mês no arquivo
+    public long archiveMonth(YearMonth month) throws IOException {
+        long inicio = System.currentTimeMillis();
+        LocalDateTime from = month.atDay(1).atStartOfDay();
+        LocalDateTime to = month.plusMonths(1).atDay(1).atStartOfDay();
+        
+        // Um segmento já publicado (arquivamento interrompido depois do rename) não é regravado
+        if (!transferArchive.contains(month)) {
+            Path path = transferArchive.segmentPath(month);
+            try (TransferSegmentWriter writer = new TransferSegmentWriter(path, from, to)) {
+                databaseBulkhead.execute(() -> transactionTemplate.execute(status -> {
+                    transferJdbcRepository.streamRange(from, to, fetchSize, transfer -> {
+                        try {
+                            writer.append(transfer);
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                    return null;
+                }));
+                writer.finish();
+            } catch (UncheckedIOException e) {
+                throw e.getCause();
+            }
+            transferArchive.publish(path);
+        }
+        TransferSegment segment = transferArchive.findSegment(month).orElseThrow();
+        
+        // Linhas que chegaram ao mês depois da gravação ficariam fora do segmento imutável
+        long noBanco = databaseBulkhead.execute(() -> transferPartitionRepository.countRange(from, to));
+        if (noBanco > segment.getRecords()) {
+            throw new IllegalStateException("Mês " + month + " tem " + noBanco + " transferências no banco e "
+                + segment.getRecords() + " no arquivo; as linhas foram mantidas");
+        }
+        
+        boolean particao = transferPartitionRepository.isPartitioned()
+            && databaseBulkhead.execute(() -> transferPartitionRepository.dropPartition(month));
+        long apagadas = databaseBulkhead.execute(() -> transferPartitionRepository.deleteRange(from, to, deleteBatchSize));
+        long chaves = databaseBulkhead.execute(() -> transferPartitionRepository.deleteIdempotencyKeysBefore(to, deleteBatchSize));
+        
+        log.info("Mês {} arquivado em {} ms: {} transferências em {} ({}), {} chaves de idempotência removidas",
+            month, System.currentTimeMillis() - inicio, segment.getRecords(), segment.getPath(),
+            particao ? "partição removida" : apagadas + " linhas apagadas", chaves);
+        return segment.getRecords();
+    }
+}
@@ -0,0 +1,218 @@
+package com.techmarket.service;
+
+import com.techmarket.exception.TransferRateLimitedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Limite adaptativo de requisições de transferência em andamento, na frente do bulkhead do banco.
+// O limite segue o gradiente entre a latência de longo prazo (média móvel) e a da última amostra:
+// enquanto a latência se mantém ele cresce ~sqrt(limite) por amostra; quando as requisições passam
+// a esperar (locks de linha, fila do bulkhead) a razão cai e o limite encolhe até 50% por amostra.
+// O excesso recebe 429 na hora, em vez de esperar o timeout do bulkhead e virar 503.
+// Opcionalmente limita as requisições simultâneas por conta, para que uma conta quente (um lojista
+// grande) não ocupe todo o limite e atrase as transferências das demais.
+@Component
+public class TransferConcurrencyLimiter {
+    
+    public static final String LIMIT_GAUGE = "techmarket.limiter.limit";
+    public static final String IN_FLIGHT_GAUGE = "techmarket.limiter.in_flight";
+    public static final String REJECTIONS_COUNTER = "techmarket.limiter.rejections";
+    public static final String REASON_LIMIT = "limit";
+    public static final String REASON_ACCOUNT = "account";
+    
+    // Latência de longo prazo bem acima da recente (pico que já passou): a média converge mais rápido
+    private static final double LONG_RTT_DECAY = 0.95;
+    
+    private final boolean enabled;
+    private final int minLimit;
+    private final int maxLimit;
+    private final double smoothing;
+    private final double rttTolerance;
+    private final int longWindow;
+    private final int perAccountMaxInFlight;
+    private final Duration retryAfter;
+    private final Counter limitRejections;
+    private final Counter accountRejections;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final ConcurrentHashMap<Long, Integer> accountInFlight = new ConcurrentHashMap<>();
+    
+    // Estado do algoritmo, alterado só em onSample (synchronized)
+    private double estimatedLimit;
+    private double longRttNanos;
+    private long samples;
+    private volatile int limit;
+    
+    public TransferConcurrencyLimiter(
+            MeterRegistry registry,
+            @Value("${techmarket.limiter.enabled:true}") boolean enabled,
+            @Value("${techmarket.limiter.initial-limit:20}") int initialLimit,
+            @Value("${techmarket.limiter.min-limit:4}") int minLimit,
+            @Value("${techmarket.limiter.max-limit:200}") int maxLimit,
+            @Value("${techmarket.limiter.smoothing:0.2}") double smoothing,
+            @Value("${techmarket.limiter.rtt-tolerance:1.5}") double rttTolerance,
+            @Value("${techmarket.limiter.long-window:600}") int longWindow,
+            @Value("${techmarket.limiter.per-account-max-in-flight:0}") int perAccountMaxInFlight,
+            @Value("${techmarket.limiter.retry-after:PT1S}") Duration retryAfter) {
+        if (minLimit <= 0 || maxLimit < minLimit || initialLimit < minLimit || initialLimit > maxLimit) {
+            throw new IllegalArgumentException("Limites do limitador devem satisfazer 0 < min <= inicial <= max");
+        }
+        if (smoothing <= 0 || smoothing > 1 || rttTolerance < 1 || longWindow <= 0) {
+            throw new IllegalArgumentException("Parâmetros do gradiente inválidos: 0 < smoothing <= 1, rtt-tolerance >= 1, long-window > 0");
+        }
+        if (perAccountMaxInFlight < 0) {
+            throw new IllegalArgumentException("Limite por conta não pode ser negativo");
+        }
+        this.enabled = enabled;
+        this.minLimit = minLimit;
+        this.maxLimit = maxLimit;
+        this.smoothing = smoothing;
+        this.rttTolerance = rttTolerance;
+        this.longWindow = longWindow;
+        this.perAccountMaxInFlight = perAccountMaxInFlight;
+        this.retryAfter = retryAfter;
+        this.estimatedLimit = initialLimit;
+        this.limit = initialLimit;
+        this.limitRejections = Counter.builder(REJECTIONS_COUNTER)
+            .description("Transferências recusadas com 429 pelo limitador de concorrência")
+            .tag("reason", REASON_LIMIT)
+            .register(registry);
+        this.accountRejections = Counter.builder(REJECTIONS_COUNTER)
+            .description("Transferências recusadas com 429 pelo limitador de concorrência")
+            .tag("reason", REASON_ACCOUNT)
+            .register(registry);
+        Gauge.builder(LIMIT_GAUGE, this, TransferConcurrencyLimiter::getLimit)
+            .description("Limite atual de transferências simultâneas")
+            .register(registry);
+        Gauge.builder(IN_FLIGHT_GAUGE, this, TransferConcurrencyLimiter::getInFlight)
+            .description("Transferências em andamento dentro do limitador")
+            .register(registry);
+    }
+    
+    // Executa a ação se houver vaga no limite global e nas contas envolvidas; senão 429 imediato.
+    // Sem contas (lotes), só o limite global vale
+    public <T> T execute(Supplier<T> action, Long... accountIds) {
+        if (!enabled) {
+            return action.get();
+        }
+        int startInFlight = acquire();
+        if (startInFlight < 0) {
+            limitRejections.increment();
+            throw new TransferRateLimitedException("Limite de transferências simultâneas atingido, tente novamente", retryAfter);
+        }
+        int accounts = 0;
+        try {
+            if (perAccountMaxInFlight > 0) {
+                for (; accounts < accountIds.length; accounts++) {
+                    if (!acquireAccount(accountIds[accounts], accountIds, accounts)) {
+                        accountRejections.increment();
+                        throw new TransferRateLimitedException(
+                            "Muitas transferências simultâneas para a conta " + accountIds[accounts] + ", tente novamente", retryAfter);
+                    }
+                }
+            }
+        } catch (RuntimeException e) {
+            releaseAccounts(accountIds, accounts);
+            inFlight.decrementAndGet();
+            throw e;
+        }
+        long inicio = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            onSample(System.nanoTime() - inicio, startInFlight);
+            releaseAccounts(accountIds, accounts);
+            inFlight.decrementAndGet();
+        }
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public int getLimit() {
+        return limit;
+    }
+    
+    public int getInFlight() {
+        return inFlight.get();
+    }
+    
+    // Requisições em andamento envolvendo a conta
+    public int getInFlight(Long accountId) {
+        return accountInFlight.getOrDefault(accountId, 0);
+    }
+    
+    // Latência de uma requisição concluída e quantas estavam em andamento quando ela começou
+    public synchronized void onSample(long rttNanos, int startInFlight) {
+        double shortRtt = Math.max(rttNanos, 1);
+        // Média móvel simples até encher a janela, exponencial depois
+        samples++;
+        double peso = samples < longWindow ? 1.0 / samples : 2.0 / (longWindow + 1);
+        longRttNanos += (shortRtt - longRttNanos) * peso;
+        if (longRttNanos / shortRtt > 2) {
+            longRttNanos *= LONG_RTT_DECAY;
+        }
+        // Carga baixa: a latência não diz nada sobre o limite, e ele não deve crescer à toa
+        if (startInFlight < estimatedLimit / 2) {
+            return;
+        }
+        double gradient = Math.max(0.5, Math.min(1.0, rttTolerance * longRttNanos / shortRtt));
+        double novoLimite = estimatedLimit * gradient + Math.sqrt(estimatedLimit);
+        novoLimite = estimatedLimit * (1 - smoothing) + novoLimite * smoothing;
+        estimatedLimit = Math.max(minLimit, Math.min(maxLimit, novoLimite));
+        limit = (int) estimatedLimit;
+    }
+    
+    // Vaga no limite global sem bloquear; devolve as requisições em andamento antes desta, ou -1
+    private int acquire() {
+        while (true) {
+            int atual = inFlight.get();
+            if (atual >= limit) {
+                return -1;
+            }
+            if (inFlight.compareAndSet(atual, atual + 1)) {
+                return atual;
+            }
+        }
+    }
+    
+    // Origem e destino iguais contam uma vez só
+    private boolean acquireAccount(Long accountId, Long[] accountIds, int index) {
+        for (int i = 0; i < index; i++) {
+            if (accountIds[i].equals(accountId)) {
+                return true;
+            }
+        }
+        boolean[] acquired = new boolean[1];
+        accountInFlight.compute(accountId, (id, atual) -> {
+            int valor = atual == null ? 0 : atual;
+            if (valor >= perAccountMaxInFlight) {
+                return atual;
+            }
+            acquired[0] = true;
+            return valor + 1;
+        });
+        return acquired[0];
+    }
+    
+    // Remove a entrada ao chegar a zero: o mapa só guarda contas com requisições em andamento
+    private void releaseAccounts(Long[] accountIds, int count) {
+        outer:
+        for (int i = 0; i < count; i++) {
+            for (int j = 0; j < i; j++) {
+                if (accountIds[j].equals(accountIds[i])) {
+                    continue outer;
+                }
+            }
+            accountInFlight.computeIfPresent(accountIds[i], (id, atual) -> atual <= 1 ? null : atual - 1);
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.techmarket.service;
+
+// Estratégia usada por TransferService para aplicar uma transferência
+public enum TransferEngine {
+    // Carrega as contas com PESSIMISTIC_WRITE e grava via JPA
+    JPA,
+    // UPDATE condicional direto no banco, sem carregar as entidades
+    JDBC,
+    // Lê as contas sem lock e confere a @Version no flush, repetindo conflitos com backoff;
+    // contas com muitos conflitos recentes voltam ao caminho do JPA (pessimista)
+    OPTIMISTIC,
+    // Filas por shard com um único escritor, que grava micro-lotes em uma transação cada
+    GROUP_COMMIT,
+    // Contas distribuídas em shards (techmarket.sharding.*): transação local no mesmo shard e saga
+    // entre shards, em ShardedTransferService
+    SHARDED
+}
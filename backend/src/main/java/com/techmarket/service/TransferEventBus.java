@@ -0,0 +1,420 @@
+package com.techmarket.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techmarket.config.AccountShards;
+import com.techmarket.dto.TransferEvent;
+import com.techmarket.entity.Transfer;
+import com.techmarket.exception.AccountNotFoundException;
+import com.techmarket.exception.EventStreamUnavailableException;
+import com.techmarket.repository.AccountJdbcRepository;
+import com.techmarket.repository.ShardedAccountRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Barramento em memória das transferências confirmadas, para GET /api/contas/{id}/eventos (SSE).
+// Cada commit publica as suas transferências em um ring buffer de capacity eventos, com um id
+// sequencial por instância; a publicação entrega o evento na fila de cada assinante da origem e do
+// destino. Uma conexão ociosa é só o SseEmitter e a fila: o envio roda em uma virtual thread criada
+// quando há o que enviar, e termina quando a fila esvazia. Um assinante lento perde os eventos mais
+// antigos da fila (subscriber-queue) e recebe um evento lag; a retomada (Last-Event-ID) reenvia o que
+// ainda está no ring buffer, ou avisa com lag quando o id já saiu dele ou é de outra instância. Cada
+// evento é serializado uma vez, já no formato SSE, e o mesmo texto vai para todos os assinantes
+@Component
+public class TransferEventBus {
+    
+    public static final String PUBLISHED_COUNTER = "techmarket.events.published";
+    public static final String DROPPED_COUNTER = "techmarket.events.dropped";
+    public static final String EXPIRED_RESUMES_COUNTER = "techmarket.events.expired_resumes";
+    public static final String SUBSCRIBERS_GAUGE = "techmarket.events.subscribers";
+    public static final String MAX_LAG_GAUGE = "techmarket.events.max_lag";
+    public static final String EVENT_TRANSFER = "transferencia";
+    public static final String EVENT_LAG = "lag";
+    public static final String LAG_OVERFLOW = "overflow";
+    public static final String LAG_EXPIRED = "expired";
+    
+    private static final MediaType TEXT_UTF8 = new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8);
+    private static final String PING = ":ping\n\n";
+    
+    private final AccountJdbcRepository accountJdbcRepository;
+    private final AccountShards accountShards;
+    private final ShardedAccountRepository shardedAccountRepository;
+    private final ObjectMapper objectMapper;
+    private final boolean enabled;
+    private final int subscriberQueue;
+    private final int maxSubscribers;
+    private final long timeoutMillis;
+    private final Entry[] ring;
+    // Prefixo dos ids: distingue os ids desta instância dos de uma anterior (ou de outra réplica)
+    private final String epoch = Long.toString(System.currentTimeMillis(), 36);
+    private final Map<Long, Set<Subscription>> subscriptions = new ConcurrentHashMap<>();
+    private final AtomicInteger subscribers = new AtomicInteger();
+    private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+    private final ScheduledExecutorService heartbeats;
+    private final Counter published;
+    private final Counter dropped;
+    private final Counter expiredResumes;
+    // Último id publicado; protegido pelo lock do ring
+    private long head;
+    
+    public TransferEventBus(
+            AccountJdbcRepository accountJdbcRepository,
+            AccountShards accountShards,
+            ShardedAccountRepository shardedAccountRepository,
+            ObjectMapper objectMapper,
+            MeterRegistry registry,
+            @Value("${techmarket.events.enabled:true}") boolean enabled,
+            @Value("${techmarket.events.capacity:65536}") int capacity,
+            @Value("${techmarket.events.subscriber-queue:256}") int subscriberQueue,
+            @Value("${techmarket.events.max-subscribers:10000}") int maxSubscribers,
+            @Value("${techmarket.events.heartbeat-interval:PT15S}") Duration heartbeatInterval,
+            @Value("${techmarket.events.timeout:PT30M}") Duration timeout) {
+        if (capacity <= 0 || subscriberQueue <= 0 || maxSubscribers <= 0) {
+            throw new IllegalArgumentException("Capacidade, fila por assinante e assinantes do barramento de eventos devem ser positivos");
+        }
+        this.accountJdbcRepository = accountJdbcRepository;
+        this.accountShards = accountShards;
+        this.shardedAccountRepository = shardedAccountRepository;
+        this.objectMapper = objectMapper;
+        this.enabled = enabled;
+        this.subscriberQueue = subscriberQueue;
+        this.maxSubscribers = maxSubscribers;
+        this.timeoutMillis = timeout.toMillis();
+        this.ring = new Entry[capacity];
+        this.published = registry.counter(PUBLISHED_COUNTER);
+        this.dropped = registry.counter(DROPPED_COUNTER);
+        this.expiredResumes = registry.counter(EXPIRED_RESUMES_COUNTER);
+        registry.gauge(SUBSCRIBERS_GAUGE, subscribers);
+        registry.gauge(MAX_LAG_GAUGE, this, TransferEventBus::maxLag);
+        
+        // Comentário periódico: mantém proxies abertos e descobre conexões mortas
+        heartbeats = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "transfer-events-heartbeat");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long interval = heartbeatInterval.toMillis();
+        heartbeats.scheduleAtFixedRate(this::heartbeat, interval, interval, TimeUnit.MILLISECONDS);
+    }
+    
+    @PreDestroy
+    public void stop() {
+        heartbeats.shutdownNow();
+        subscriptions.values().forEach(set -> set.forEach(subscription -> subscription.emitter.complete()));
+        senders.shutdownNow();
+    }
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    // Publica as transferências depois do commit da transação corrente; sem transação, na hora
+    public void publishAfterCommit(Collection<Transfer> transfers) {
+        if (!enabled || transfers.isEmpty()) {
+            return;
+        }
+        List<TransferEvent> events = new ArrayList<>(transfers.size());
+        for (Transfer transfer : transfers) {
+            events.add(new TransferEvent(transfer.getCodigoUUID(), transfer.getOrigemAccountId(),
+                transfer.getDestinoAccountId(), transfer.getValor(), transfer.getTimestamp()));
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish(events);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish(events);
+            }
+        });
+    }
+    
+    // A entrega nas filas fica dentro do lock: cada assinante recebe os eventos na ordem dos ids. O
+    // JSON é gerado antes, fora do lock
+    void publish(List<TransferEvent> events) {
+        List<String> data = new ArrayList<>(events.size());
+        for (TransferEvent event : events) {
+            data.add(toJson(event));
+        }
+        synchronized (ring) {
+            for (int i = 0; i < events.size(); i++) {
+                TransferEvent event = events.get(i);
+                long sequence = ++head;
+                Entry entry = new Entry(sequence, event.getOrigemAccountId(), event.getDestinoAccountId(),
+                    "id:" + epoch + "-" + sequence + "\nevent:" + EVENT_TRANSFER + "\ndata:" + data.get(i) + "\n\n");
+                ring[(int) (sequence % ring.length)] = entry;
+                offer(entry, entry.origemAccountId());
+                offer(entry, entry.destinoAccountId());
+            }
+        }
+        published.increment(events.size());
+    }
+    
+    // Abre o stream da conta; com lastEventId, reenvia antes os eventos da conta publicados depois dele
+    public SseEmitter subscribe(Long accountId, String lastEventId) {
+        if (!enabled) {
+            throw new EventStreamUnavailableException("Stream de eventos desabilitado");
+        }
+        boolean exists = accountShards.isEnabled() ? shardedAccountRepository.exists(accountId) : accountJdbcRepository.exists(accountId);
+        if (!exists) {
+            throw new AccountNotFoundException("Conta não encontrada: " + accountId);
+        }
+        if (subscribers.incrementAndGet() > maxSubscribers) {
+            subscribers.decrementAndGet();
+            throw new EventStreamUnavailableException("Limite de conexões de eventos atingido, tente novamente");
+        }
+        SseEmitter emitter = new SseEmitter(timeoutMillis);
+        Subscription subscription = new Subscription(accountId, emitter);
+        emitter.onCompletion(() -> remove(subscription));
+        emitter.onError(error -> remove(subscription));
+        // O cliente reconecta com o Last-Event-ID e retoma de onde parou
+        emitter.onTimeout(emitter::complete);
+        
+        synchronized (ring) {
+            subscriptions.computeIfAbsent(accountId, id -> ConcurrentHashMap.newKeySet()).add(subscription);
+            if (lastEventId != null) {
+                replay(subscription, lastEventId);
+            }
+        }
+        subscription.start();
+        return emitter;
+    }
+    
+    public int getSubscribers() {
+        return subscribers.get();
+    }
+    
+    // Com o lock do ring
+    private void replay(Subscription subscription, String lastEventId) {
+        long oldest = Math.max(1, head - ring.length + 1);
+        long last = parseSequence(lastEventId);
+        if (last < oldest - 1 || last > head) {
+            expiredResumes.increment();
+            subscription.lag(LAG_EXPIRED, 0);
+            return;
+        }
+        for (long sequence = last + 1; sequence <= head; sequence++) {
+            Entry entry = ring[(int) (sequence % ring.length)];
+            if (entry.origemAccountId().equals(subscription.accountId) || entry.destinoAccountId().equals(subscription.accountId)) {
+                subscription.offer(entry);
+            }
+        }
+    }
+    
+    // Id de outra instância, ou inválido: -1, sempre expirado
+    private long parseSequence(String eventId) {
+        int separator = eventId.lastIndexOf('-');
+        if (separator < 0 || !eventId.substring(0, separator).equals(epoch)) {
+            return -1;
+        }
+        try {
+            return Long.parseLong(eventId.substring(separator + 1));
+        } catch (NumberFormatException e) {
+            return -1;
+        }
+    }
+    
+    private void offer(Entry entry, Long accountId) {
+        Set<Subscription> set = subscriptions.get(accountId);
+        if (set != null) {
+            set.forEach(subscription -> subscription.offer(entry));
+        }
+    }
+    
+    private void remove(Subscription subscription) {
+        if (subscription.close()) {
+            subscriptions.computeIfPresent(subscription.accountId, (id, set) -> {
+                set.remove(subscription);
+                return set.isEmpty() ? null : set;
+            });
+            subscribers.decrementAndGet();
+        }
+    }
+    
+    private void heartbeat() {
+        subscriptions.values().forEach(set -> set.forEach(Subscription::ping));
+    }
+    
+    private double maxLag() {
+        int max = 0;
+        for (Set<Subscription> set : subscriptions.values()) {
+            for (Subscription subscription : set) {
+                max = Math.max(max, subscription.pending());
+            }
+        }
+        return max;
+    }
+    
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Falha ao serializar evento de transferência", e);
+        }
+    }
+    
+    // frame: o evento inteiro no formato SSE (id, event, data e a linha em branco)
+    private record Entry(long sequence, Long origemAccountId, Long destinoAccountId, String frame) {}
+    
+    // Fila de um assinante. Quem enfileira não escreve no socket: o primeiro evento de uma fila vazia
+    // dispara uma virtual thread que envia até a fila esvaziar
+    private final class Subscription {
+        private final Long accountId;
+        private final SseEmitter emitter;
+        private final ArrayDeque<Entry> pending = new ArrayDeque<>();
+        private String lagReason;
+        private long lost;
+        // O primeiro envio (replay e ping) é feito por start(), na thread da requisição
+        private boolean ping = true;
+        private boolean sending = true;
+        private boolean closed;
+        
+        Subscription(Long accountId, SseEmitter emitter) {
+            this.accountId = accountId;
+            this.emitter = emitter;
+        }
+        
+        void offer(Entry entry) {
+            synchronized (this) {
+                if (closed) {
+                    return;
+                }
+                // Cliente lento: descarta o mais antigo e avisa quantos se perderam
+                if (pending.size() >= subscriberQueue) {
+                    pending.pollFirst();
+                    lagReason = LAG_OVERFLOW;
+                    lost++;
+                    dropped.increment();
+                }
+                pending.addLast(entry);
+                if (!startSending()) {
+                    return;
+                }
+            }
+            senders.execute(this::drain);
+        }
+        
+        void lag(String reason, long count) {
+            synchronized (this) {
+                lagReason = reason;
+                lost += count;
+                if (!startSending()) {
+                    return;
+                }
+            }
+            senders.execute(this::drain);
+        }
+        
+        void ping() {
+            synchronized (this) {
+                ping = true;
+                if (!startSending()) {
+                    return;
+                }
+            }
+            senders.execute(this::drain);
+        }
+        
+        // O Spring só envia os cabeçalhos na primeira escrita: o primeiro envio (replay, lag ou ping)
+        // sai daqui, na thread da requisição, e o Spring o escreve ao inicializar o emitter
+        void start() {
+            drain();
+        }
+        
+        synchronized int pending() {
+            return pending.size();
+        }
+        
+        // true só na primeira vez
+        synchronized boolean close() {
+            if (closed) {
+                return false;
+            }
+            closed = true;
+            pending.clear();
+            return true;
+        }
+        
+        private boolean startSending() {
+            if (sending || closed) {
+                return false;
+            }
+            sending = true;
+            return true;
+        }
+        
+        private void drain() {
+            while (true) {
+                List<Entry> batch;
+                String reason;
+                long count;
+                boolean heartbeat;
+                synchronized (this) {
+                    if (closed || (pending.isEmpty() && lagReason == null && !ping)) {
+                        sending = false;
+                        return;
+                    }
+                    batch = new ArrayList<>(pending);
+                    pending.clear();
+                    reason = lagReason;
+                    count = lost;
+                    heartbeat = ping;
+                    lagReason = null;
+                    lost = 0;
+                    ping = false;
+                }
+                try {
+                    send(batch, reason, count, heartbeat);
+                } catch (IOException | IllegalStateException e) {
+                    // Cliente desconectado (ou emitter já concluído)
+                    remove(this);
+                    emitter.completeWithError(e);
+                    return;
+                }
+            }
+        }
+        
+        // O lote inteiro em um único texto: uma escrita e um flush
+        private void send(List<Entry> batch, String reason, long count, boolean heartbeat) throws IOException {
+            StringBuilder text = new StringBuilder();
+            if (reason != null) {
+                Object lag = LAG_OVERFLOW.equals(reason) ? Map.of("motivo", reason, "perdidos", count) : Map.of("motivo", reason);
+                text.append("event:").append(EVENT_LAG).append("\ndata:").append(toJson(lag)).append("\n\n");
+            }
+            for (Entry entry : batch) {
+                text.append(entry.frame());
+            }
+            if (text.isEmpty() && heartbeat) {
+                text.append(PING);
+            }
+            if (!text.isEmpty()) {
+                emitter.send(Set.of(new ResponseBodyEmitter.DataWithMediaType(text.toString(), TEXT_UTF8)));
+            }
+        }
+    }
+}
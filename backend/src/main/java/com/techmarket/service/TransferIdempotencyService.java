@@ -0,0 +1,135 @@
+package com.techmarket.service;
+
+import com.techmarket.dto.TransferRequest;
+import com.techmarket.dto.TransferResponse;
+import com.techmarket.exception.DuplicateIdempotencyKeyException;
+import com.techmarket.repository.TransferArchive;
+import com.techmarket.repository.TransferRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+// Camada de idempotência na frente do TransferService:
+// cache das respostas concluídas -> execução em andamento com a mesma chave -> banco -> nova transferência
+@Service
+public class TransferIdempotencyService {
+    
+    @Autowired
+    private TransferService transferService;
+    
+    @Autowired
+    private TransferRepository transferRepository;
+    
+    @Autowired
+    private TransferArchive transferArchive;
+    
+    @Autowired
+    private IdempotencyCache idempotencyCache;
+    
+    @Autowired
+    private TransferMetrics transferMetrics;
+    
+    @Autowired
+    private ReadOnlyTransactions readOnlyTransactions;
+    
+    @Autowired
+    private ShardedTransferService shardedTransferService;
+    
+    @Value("${techmarket.transfer.engine:JPA}")
+    private TransferEngine engine = TransferEngine.JPA;
+    
+    @Value("${techmarket.idempotency.in-flight-timeout:PT30S}")
+    private Duration inFlightTimeout = Duration.ofSeconds(30);
+    
+    private final ConcurrentHashMap<String, CompletableFuture<TransferResponse>> inFlight = new ConcurrentHashMap<>();
+    
+    public TransferResponse processTransfer(TransferRequest request) {
+        String key = request.getIdempotencyKey();
+        if (key == null) {
+            return transferService.processTransfer(request);
+        }
+        
+        Optional<TransferResponse> cached = idempotencyCache.get(key);
+        if (cached.isPresent()) {
+            return cached.get();
+        }
+        
+        // Requisições concorrentes com a mesma chave aguardam a primeira execução
+        CompletableFuture<TransferResponse> own = new CompletableFuture<>();
+        CompletableFuture<TransferResponse> running = inFlight.putIfAbsent(key, own);
+        if (running != null) {
+            return await(key, running);
+        }
+        
+        try {
+            TransferResponse response = execute(request);
+            // Uma saga pendente ainda pode concluir ou ser estornada: a repetição relê o estado no shard
+            if (!ShardedTransferService.STATUS_PENDING.equals(response.getStatus())) {
+                idempotencyCache.put(key, response);
+            }
+            own.complete(response);
+            return response;
+        } catch (RuntimeException e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+    
+    private TransferResponse execute(TransferRequest request) {
+        // Entradas que já saíram do cache (ou gravadas por outra réplica). A consulta pode ir para uma
+        // réplica: se ela ainda não tem a chave, a constraint única no primário barra a repetição
+        long inicio = transferMetrics.start();
+        Optional<TransferResponse> existing = readOnlyTransactions.routesToReplicas() && engine != TransferEngine.SHARDED
+            ? readOnlyTransactions.execute(null, () -> findExisting(request))
+            : findExisting(request);
+        transferMetrics.record(TransferMetrics.MODE_SINGLE, TransferStage.IDEMPOTENCY_LOOKUP, inicio);
+        if (existing.isPresent()) {
+            return existing.get();
+        }
+        
+        try {
+            return transferService.processTransfer(request);
+        } catch (DuplicateIdempotencyKeyException e) {
+            // Outra réplica gravou a mesma chave entre a consulta e o commit; sem transação, lida no primário
+            return findExisting(request).orElseThrow(() -> e);
+        }
+    }
+    
+    // Meses já arquivados saíram da tabela, mas a chave continua valendo. Com as contas em shards, a
+    // chave está no shard da conta de origem
+    private Optional<TransferResponse> findExisting(TransferRequest request) {
+        String key = request.getIdempotencyKey();
+        if (engine == TransferEngine.SHARDED) {
+            return shardedTransferService.findByIdempotencyKey(request.getOrigem(), key);
+        }
+        return transferRepository.findByIdempotencyKey(key)
+            .or(() -> transferArchive.findByIdempotencyKey(key))
+            .map(TransferService::toResponse);
+    }
+    
+    private TransferResponse await(String key, CompletableFuture<TransferResponse> running) {
+        try {
+            return running.get(inFlightTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new DuplicateIdempotencyKeyException("Transferência com a chave " + key + " ainda em processamento", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DuplicateIdempotencyKeyException("Interrompido aguardando a transferência com a chave " + key, e);
+        }
+    }
+}
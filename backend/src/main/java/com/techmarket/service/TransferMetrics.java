@@ -0,0 +1,197 @@
+package com.techmarket.service;
+
+import com.techmarket.exception.AccountNotFoundException;
+import com.techmarket.exception.DatabaseBulkheadFullException;
+import com.techmarket.exception.DuplicateIdempotencyKeyException;
+import com.techmarket.exception.InsufficientBalanceException;
+import com.techmarket.exception.TransferLockTimeoutException;
+import com.techmarket.exception.TransferQueueFullException;
+import com.techmarket.exception.TransferRateLimitedException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+// Métricas do caminho quente das transferências (expostas em /actuator/prometheus):
+// - techmarket.transfer.stage: histograma por etapa (tags stage e mode = single|batch)
+// - techmarket.transfer.outcome: contagem por resultado (success, uma das falhas tratadas no GlobalExceptionHandler ou error)
+// - techmarket.transfer.in_flight: transferências em execução
+// - techmarket.transfer.optimistic: conflitos de versão e desvios para o caminho pessimista (engine OPTIMISTIC)
+// As tags têm conjuntos fechados de valores; ids de conta e chaves nunca viram tag.
+@Component
+public class TransferMetrics {
+    
+    public static final String STAGE_TIMER = "techmarket.transfer.stage";
+    public static final String OUTCOME_COUNTER = "techmarket.transfer.outcome";
+    public static final String IN_FLIGHT_GAUGE = "techmarket.transfer.in_flight";
+    public static final String OPTIMISTIC_COUNTER = "techmarket.transfer.optimistic";
+    
+    public static final String MODE_SINGLE = "single";
+    public static final String MODE_BATCH = "batch";
+    
+    public static final String OPTIMISTIC_CONFLICT = "conflict";
+    public static final String OPTIMISTIC_FALLBACK_RETRIES = "fallback_retries";
+    public static final String OPTIMISTIC_FALLBACK_HOT = "fallback_hot";
+    
+    public static final String OUTCOME_SUCCESS = "success";
+    public static final String OUTCOME_INSUFFICIENT_BALANCE = "insufficient_balance";
+    public static final String OUTCOME_ACCOUNT_NOT_FOUND = "account_not_found";
+    public static final String OUTCOME_DUPLICATE_KEY = "duplicate_key";
+    public static final String OUTCOME_INVALID = "invalid";
+    public static final String OUTCOME_LOCK_TIMEOUT = "lock_timeout";
+    public static final String OUTCOME_QUEUE_FULL = "queue_full";
+    public static final String OUTCOME_BULKHEAD_FULL = "bulkhead_full";
+    public static final String OUTCOME_RATE_LIMITED = "rate_limited";
+    public static final String OUTCOME_ERROR = "error";
+    
+    private final MeterRegistry registry;
+    private final boolean enabled;
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Timer[] singleTimers = new Timer[TransferStage.values().length];
+    private final Timer[] batchTimers = new Timer[TransferStage.values().length];
+    private final ConcurrentHashMap<String, Counter> outcomes = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Counter> optimistic = new ConcurrentHashMap<>();
+    
+    public TransferMetrics(
+            MeterRegistry registry,
+            @Value("${techmarket.metrics.transfer.enabled:true}") boolean enabled) {
+        this.registry = registry;
+        this.enabled = enabled;
+        Gauge.builder(IN_FLIGHT_GAUGE, inFlight, AtomicInteger::get)
+            .description("Transferências em execução")
+            .register(registry);
+    }
+    
+    // Marca o início de uma etapa; com as métricas desligadas não lê o relógio
+    public long start() {
+        return enabled ? System.nanoTime() : 0L;
+    }
+    
+    public void record(String mode, TransferStage stage, long startNanos) {
+        if (enabled) {
+            timer(mode, stage).record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        }
+    }
+    
+    // Mede o flush final e o commit da transação corrente (de beforeCommit até afterCompletion)
+    public void recordCommit(String mode) {
+        if (!enabled || !TransactionSynchronizationManager.isSynchronizationActive()) {
+            return;
+        }
+        Timer timer = timer(mode, TransferStage.COMMIT);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            private long inicio;
+            
+            @Override
+            public void beforeCommit(boolean readOnly) {
+                inicio = System.nanoTime();
+            }
+            
+            @Override
+            public void afterCompletion(int status) {
+                if (inicio != 0 && status == STATUS_COMMITTED) {
+                    timer.record(System.nanoTime() - inicio, TimeUnit.NANOSECONDS);
+                }
+            }
+        });
+    }
+    
+    // Executa uma transferência contando o resultado e mantendo o gauge de execuções em andamento
+    public <T> T track(Supplier<T> action) {
+        if (!enabled) {
+            return action.get();
+        }
+        inFlight.incrementAndGet();
+        try {
+            T result = action.get();
+            outcome(OUTCOME_SUCCESS).increment();
+            return result;
+        } catch (RuntimeException e) {
+            outcome(outcomeOf(e)).increment();
+            throw e;
+        } finally {
+            inFlight.decrementAndGet();
+        }
+    }
+    
+    // result: conflict (tentativa repetida), fallback_retries (tentativas esgotadas) ou fallback_hot (conta quente)
+    public void recordOptimistic(String result) {
+        if (enabled) {
+            optimistic.computeIfAbsent(result, value -> Counter.builder(OPTIMISTIC_COUNTER)
+                .description("Conflitos e desvios das transferências otimistas")
+                .tag("result", value)
+                .register(registry)).increment();
+        }
+    }
+    
+    public int getInFlight() {
+        return inFlight.get();
+    }
+    
+    // Registrado no primeiro uso, para não publicar séries vazias (ex.: row_lock_lote no modo single);
+    // registros concorrentes do mesmo timer devolvem a mesma instância
+    private Timer timer(String mode, TransferStage stage) {
+        boolean batch = MODE_BATCH.equals(mode);
+        Timer[] timers = batch ? batchTimers : singleTimers;
+        Timer timer = timers[stage.ordinal()];
+        if (timer == null) {
+            // Buckets de 100 µs a 10 s: cobrem de um hit de índice a um lock disputado
+            timer = Timer.builder(STAGE_TIMER)
+                .description("Duração de cada etapa da transferência")
+                .tag("stage", stage.getTag())
+                .tag("mode", batch ? MODE_BATCH : MODE_SINGLE)
+                .publishPercentileHistogram()
+                .minimumExpectedValue(Duration.ofNanos(100_000))
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(registry);
+            timers[stage.ordinal()] = timer;
+        }
+        return timer;
+    }
+    
+    // Exceções fora da lista caem em error: uma exceção inesperada não cria uma série nova
+    static String outcomeOf(RuntimeException e) {
+        if (e instanceof InsufficientBalanceException) {
+            return OUTCOME_INSUFFICIENT_BALANCE;
+        }
+        if (e instanceof AccountNotFoundException) {
+            return OUTCOME_ACCOUNT_NOT_FOUND;
+        }
+        if (e instanceof DuplicateIdempotencyKeyException) {
+            return OUTCOME_DUPLICATE_KEY;
+        }
+        if (e instanceof IllegalArgumentException) {
+            return OUTCOME_INVALID;
+        }
+        if (e instanceof TransferLockTimeoutException) {
+            return OUTCOME_LOCK_TIMEOUT;
+        }
+        if (e instanceof TransferQueueFullException) {
+            return OUTCOME_QUEUE_FULL;
+        }
+        if (e instanceof DatabaseBulkheadFullException) {
+            return OUTCOME_BULKHEAD_FULL;
+        }
+        if (e instanceof TransferRateLimitedException) {
+            return OUTCOME_RATE_LIMITED;
+        }
+        return OUTCOME_ERROR;
+    }
+    
+    private Counter outcome(String outcome) {
+        return outcomes.computeIfAbsent(outcome, value -> Counter.builder(OUTCOME_COUNTER)
+            .description("Transferências por resultado")
+            .tag("outcome", value)
+            .register(registry));
+    }
+}
@@ -0,0 +1,272 @@
+package com.techmarket.service;
+
+import com.techmarket.dto.BatchTransferItemResponse;
+import com.techmarket.dto.BatchTransferResponse;
+import com.techmarket.dto.TransferRequest;
+import com.techmarket.dto.TransferStatusResponse;
+import com.techmarket.entity.Transfer;
+import com.techmarket.entity.TransferOutbox;
+import com.techmarket.entity.TransferStatus;
+import com.techmarket.exception.TransferNotFoundException;
+import com.techmarket.repository.TransferOutboxRepository;
+import com.techmarket.repository.TransferArchive;
+import com.techmarket.repository.TransferRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+@Service
+public class TransferOutboxService {
+    
+    // Chave das linhas sem chave própria no engine SHARDED (ver processPendingSharded)
+    static final String SHARDED_KEY_PREFIX = "outbox:";
+    
+    private static final Logger log = LoggerFactory.getLogger(TransferOutboxService.class);
+    
+    @Autowired
+    private TransferOutboxRepository transferOutboxRepository;
+    
+    @Autowired
+    private TransferRepository transferRepository;
+    
+    @Autowired
+    private TransferArchive transferArchive;
+    
+    @Autowired
+    private TransferService transferService;
+    
+    @Autowired
+    private ReadOnlyTransactions readOnlyTransactions;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Value("${techmarket.outbox.batch-size:100}")
+    private int batchSize;
+    
+    @Value("${techmarket.outbox.max-attempts:5}")
+    private int maxAttempts;
+    
+    @Value("${techmarket.transfer.engine:JPA}")
+    private TransferEngine engine = TransferEngine.JPA;
+    
+    // Um único INSERT; saldo e contas só são verificados pelos workers
+    public TransferStatusResponse enqueue(TransferRequest request) {
+        if (request.getOrigem().equals(request.getDestino())) {
+            throw new IllegalArgumentException("Conta de origem e destino não podem ser iguais");
+        }
+        
+        String key = request.getIdempotencyKey();
+        if (key != null) {
+            Optional<TransferOutbox> existing = transferOutboxRepository.findByIdempotencyKey(key);
+            if (existing.isPresent()) {
+                return toStatus(existing.get());
+            }
+        }
+        
+        try {
+            return toStatus(transferOutboxRepository.save(new TransferOutbox(
+                request.getOrigem(),
+                request.getDestino(),
+                request.getValor().toBigDecimal(),
+                key
+            )));
+        } catch (DataIntegrityViolationException e) {
+            // Reenvio concorrente com a mesma chave
+            if (key == null) {
+                throw e;
+            }
+            return transferOutboxRepository.findByIdempotencyKey(key).map(this::toStatus).orElseThrow(() -> e);
+        }
+    }
+    
+    // Consulta numa réplica; um código que ela ainda não recebeu (enfileirado há pouco) é procurado no primário
+    public TransferStatusResponse getStatus(String codigo) {
+        Optional<TransferStatusResponse> status = readOnlyTransactions.execute(null, () -> findStatus(codigo));
+        if (status.isEmpty() && readOnlyTransactions.routesToReplicas()) {
+            status = findStatus(codigo);
+        }
+        return status.orElseThrow(() -> new TransferNotFoundException("Transferência não encontrada: " + codigo));
+    }
+    
+    private Optional<TransferStatusResponse> findStatus(String codigo) {
+        Optional<TransferOutbox> outbox = transferOutboxRepository.findByCodigo(codigo);
+        if (outbox.isPresent()) {
+            return Optional.of(toStatus(outbox.get()));
+        }
+        
+        // Transferências síncronas também podem ser consultadas pelo código, inclusive as arquivadas
+        return parseCodigo(codigo)
+            .flatMap(uuid -> transferRepository.findByCodigoUUID(uuid).or(() -> transferArchive.findByCodigo(uuid)))
+            .map(transfer -> new TransferStatusResponse(
+                transfer.getCodigoUUID(),
+                TransferStatus.COMPLETED,
+                transfer.getCodigoUUID(),
+                transfer.getOrigemAccountId(),
+                transfer.getDestinoAccountId(),
+                transfer.getValor().toBigDecimal(),
+                transfer.getTimestamp(),
+                null
+            ));
+    }
+    
+    // Processa um lote de pendentes na mesma transação que grava as transferências. Se o lote falhar
+    // (uma linha que o processBatch não aceita, por exemplo), a transação é desfeita e as linhas são
+    // reprocessadas uma a uma, cada uma na sua transação: só a linha com problema fica para trás
+    public int processPendingBatch() {
+        if (engine == TransferEngine.SHARDED) {
+            return processPendingSharded();
+        }
+        List<Long> ids = new ArrayList<>();
+        try {
+            return transactionTemplate.execute(status -> {
+                List<TransferOutbox> pending = transferOutboxRepository.findForProcessing(TransferStatus.PENDING, PageRequest.of(0, batchSize));
+                pending.forEach(outbox -> ids.add(outbox.getId()));
+                process(pending);
+                return pending.size();
+            });
+        } catch (RuntimeException e) {
+            if (ids.isEmpty()) {
+                throw e;
+            }
+            log.warn("Falha ao processar lote de {} transferências da outbox; reprocessando uma a uma", ids.size(), e);
+            for (Long id : ids) {
+                processSingle(id);
+            }
+            return ids.size();
+        }
+    }
+    
+    // Com as contas em shards cada transferência confirma sozinha nos shards e não seria desfeita junto
+    // com a transação da outbox (que ainda prenderia uma conexão do pool do primário, o shard 0). Cada
+    // linha segue fora de transação com a chave de idempotência derivada do código da linha: repetida
+    // depois de uma falha ou por outro worker, a transferência já aplicada volta como chave duplicada
+    // e a linha é concluída com ela, sem um segundo débito
+    private int processPendingSharded() {
+        List<Long> ids = transactionTemplate.execute(status -> transferOutboxRepository
+            .findForProcessing(TransferStatus.PENDING, PageRequest.of(0, batchSize))
+            .stream().map(TransferOutbox::getId).toList());
+        for (Long id : ids) {
+            transferOutboxRepository.findById(id)
+                .filter(outbox -> outbox.getStatus() == TransferStatus.PENDING)
+                .ifPresent(this::processSharded);
+        }
+        return ids.size();
+    }
+    
+    private void processSharded(TransferOutbox outbox) {
+        BatchTransferItemResponse item;
+        try {
+            TransferRequest request = toRequest(outbox);
+            if (request.getIdempotencyKey() == null) {
+                request.setIdempotencyKey(SHARDED_KEY_PREFIX + outbox.getCodigo());
+            }
+            item = transferService.processBatch(List.of(request)).getItens().get(0);
+        } catch (RuntimeException e) {
+            recordFailure(outbox.getId(), e);
+            return;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> transferOutboxRepository
+            .findForProcessingById(outbox.getId(), TransferStatus.PENDING)
+            .ifPresent(pending -> apply(pending, item, now)));
+    }
+    
+    private void processSingle(Long id) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> transferOutboxRepository
+                .findForProcessingById(id, TransferStatus.PENDING)
+                .ifPresent(outbox -> process(List.of(outbox))));
+        } catch (RuntimeException e) {
+            recordFailure(id, e);
+        }
+    }
+    
+    // A linha volta para a fila com mais uma tentativa; ao atingir max-attempts, vai para FAILED
+    private void recordFailure(Long id, RuntimeException e) {
+        transactionTemplate.executeWithoutResult(status -> transferOutboxRepository
+            .findForProcessingById(id, TransferStatus.PENDING)
+            .ifPresent(outbox -> {
+                outbox.setAttempts(outbox.getAttempts() + 1);
+                log.warn("Falha ao processar a transferência {} da outbox (tentativa {} de {})",
+                    outbox.getCodigo(), outbox.getAttempts(), maxAttempts, e);
+                if (outbox.getAttempts() >= maxAttempts) {
+                    String mensagem = "Falha ao processar a transferência: " + (e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName());
+                    outbox.setStatus(TransferStatus.FAILED);
+                    outbox.setMensagem(mensagem.length() > 500 ? mensagem.substring(0, 500) : mensagem);
+                    outbox.setProcessedAt(LocalDateTime.now());
+                }
+            }));
+    }
+    
+    private void process(List<TransferOutbox> pending) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        
+        List<TransferRequest> requests = new ArrayList<>(pending.size());
+        for (TransferOutbox outbox : pending) {
+            requests.add(toRequest(outbox));
+        }
+        
+        BatchTransferResponse response = transferService.processBatch(requests);
+        LocalDateTime now = LocalDateTime.now();
+        for (int i = 0; i < pending.size(); i++) {
+            apply(pending.get(i), response.getItens().get(i), now);
+        }
+    }
+    
+    private TransferRequest toRequest(TransferOutbox outbox) {
+        return new TransferRequest(
+            outbox.getOrigemAccountId(),
+            outbox.getDestinoAccountId(),
+            outbox.getValor(),
+            outbox.getIdempotencyKey()
+        );
+    }
+    
+    private void apply(TransferOutbox outbox, BatchTransferItemResponse item, LocalDateTime now) {
+        boolean replay = BatchTransferItemResponse.STATUS_DUPLICATE_IDEMPOTENCY_KEY.equals(item.getStatus()) && item.getCodigo() != null;
+        if (BatchTransferItemResponse.STATUS_SUCCESS.equals(item.getStatus()) || replay) {
+            outbox.setStatus(TransferStatus.COMPLETED);
+            outbox.setTransferCodigo(item.getCodigo());
+        } else {
+            outbox.setStatus(TransferStatus.FAILED);
+            outbox.setMensagem(item.getMessage());
+        }
+        outbox.setProcessedAt(now);
+    }
+    
+    // Código que não é um UUID não corresponde a nenhuma transferência
+    private Optional<UUID> parseCodigo(String codigo) {
+        try {
+            return Optional.of(UUID.fromString(codigo));
+        } catch (IllegalArgumentException e) {
+            return Optional.empty();
+        }
+    }
+    
+    private TransferStatusResponse toStatus(TransferOutbox outbox) {
+        return new TransferStatusResponse(
+            outbox.getCodigo(),
+            outbox.getStatus(),
+            outbox.getTransferCodigo(),
+            outbox.getOrigemAccountId(),
+            outbox.getDestinoAccountId(),
+            outbox.getValor(),
+            outbox.getCreatedAt(),
+            outbox.getMensagem()
+        );
+    }
+}
@@ -0,0 +1,87 @@
+package com.techmarket.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// Pool de workers que drena a tabela transfer_outbox em lotes
+@Component
+public class TransferOutboxWorker {
+    
+    private static final Logger log = LoggerFactory.getLogger(TransferOutboxWorker.class);
+    
+    @Autowired
+    private TransferOutboxService transferOutboxService;
+    
+    @Autowired
+    private DatabaseBulkhead databaseBulkhead;
+    
+    @Value("${techmarket.outbox.enabled:true}")
+    private boolean enabled;
+    
+    @Value("${techmarket.outbox.workers:2}")
+    private int workers;
+    
+    @Value("${techmarket.outbox.batch-size:100}")
+    private int batchSize;
+    
+    @Value("${techmarket.outbox.poll-interval:PT0.2S}")
+    private Duration pollInterval;
+    
+    private ScheduledExecutorService scheduler;
+    
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!enabled || workers <= 0) {
+            return;
+        }
+        AtomicInteger counter = new AtomicInteger();
+        scheduler = Executors.newScheduledThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "outbox-worker-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        for (int i = 0; i < workers; i++) {
+            scheduler.scheduleWithFixedDelay(this::drain, 0, pollInterval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+    
+    @PreDestroy
+    public void stop() {
+        if (scheduler != null) {
+            scheduler.shutdown();
+            try {
+                // Nenhum worker segue consultando o banco depois que o contexto fecha
+                if (!scheduler.awaitTermination(10, TimeUnit.SECONDS)) {
+                    scheduler.shutdownNow();
+                }
+            } catch (InterruptedException e) {
+                scheduler.shutdownNow();
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+    
+    // Enquanto os lotes vierem cheios, continua drenando sem esperar o próximo ciclo
+    void drain() {
+        try {
+            int processed;
+            do {
+                processed = databaseBulkhead.execute(transferOutboxService::processPendingBatch);
+            } while (processed >= batchSize && !Thread.currentThread().isInterrupted());
+        } catch (RuntimeException e) {
+            log.warn("Falha ao processar lote da outbox de transferências", e);
+        }
+    }
+}
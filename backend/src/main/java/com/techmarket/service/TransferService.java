@@ -1,22 +1,52 @@
 package com.techmarket.service;
 
+import com.techmarket.dto.BatchTransferItemResponse;
+import com.techmarket.dto.BatchTransferResponse;
 import com.techmarket.dto.TransferRequest;
 import com.techmarket.dto.TransferResponse;
 import com.techmarket.entity.Account;
+import com.techmarket.entity.AccountDailyBalance;
 import com.techmarket.entity.Transfer;
 import com.techmarket.exception.AccountNotFoundException;
+import com.techmarket.exception.DuplicateIdempotencyKeyException;
 import com.techmarket.exception.InsufficientBalanceException;
+import com.techmarket.repository.AccountDailyBalanceJdbcRepository;
+import com.techmarket.repository.AccountJdbcRepository;
 import com.techmarket.repository.AccountRepository;
+import com.techmarket.repository.LedgerJdbcRepository;
+import com.techmarket.repository.TransferArchive;
+import com.techmarket.repository.TransferJdbcRepository;
 import com.techmarket.repository.TransferRepository;
+import com.techmarket.util.Money;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.OptimisticLockingFailureException;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
-import java.util.Optional;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
 
 @Service
-@Transactional
 public class TransferService {
     
     @Autowired
@@ -25,49 +55,245 @@ public class TransferService {
     @Autowired
     private TransferRepository transferRepository;
     
+    @Autowired
+    private AccountJdbcRepository accountJdbcRepository;
+    
+    @Autowired
+    private TransferJdbcRepository transferJdbcRepository;
+    
+    @Autowired
+    private AccountDailyBalanceJdbcRepository accountDailyBalanceJdbcRepository;
+    
+    @Autowired
+    private LedgerJdbcRepository ledgerJdbcRepository;
+    
+    @Autowired
+    private TransferArchive transferArchive;
+    
+    @Autowired
+    private AccountLockManager accountLockManager;
+    
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+    
+    @Autowired
+    private DatabaseBulkhead databaseBulkhead;
+    
+    @Autowired
+    private TransferMetrics transferMetrics;
+    
+    @Autowired
+    private AccountBalanceCache accountBalanceCache;
+    
+    @Autowired
+    private OptimisticConflictTracker optimisticConflictTracker;
+    
+    @Autowired
+    private ReadYourWritesTracker readYourWritesTracker;
+    
+    @Autowired
+    private ShardedTransferService shardedTransferService;
+    
+    @Autowired
+    private HotAccountBalances hotAccountBalances;
+    
+    @Autowired
+    private TransferEventBus transferEventBus;
+    
+    @PersistenceContext
+    private EntityManager entityManager;
+    
+    @Value("${techmarket.transfer.engine:JPA}")
+    private TransferEngine engine;
+    
+    // Lançamentos em transacoes gravados pelo backend (substitui trigger_insert_transacoes)
+    @Value("${techmarket.ledger.enabled:true}")
+    private boolean ledgerEnabled = true;
+    
+    @Value("${techmarket.transfer.group-commit.shards:4}")
+    private int groupCommitShards;
+    
+    @Value("${techmarket.transfer.group-commit.batch-size:100}")
+    private int groupCommitBatchSize;
+    
+    @Value("${techmarket.transfer.group-commit.max-linger:PT0.002S}")
+    private Duration groupCommitMaxLinger;
+    
+    @Value("${techmarket.transfer.group-commit.queue-capacity:10000}")
+    private int groupCommitQueueCapacity;
+    
+    @Value("${techmarket.transfer.group-commit.enqueue-timeout:PT0.1S}")
+    private Duration groupCommitEnqueueTimeout;
+    
+    @Value("${techmarket.transfer.optimistic.max-attempts:4}")
+    private int optimisticMaxAttempts = 4;
+    
+    @Value("${techmarket.transfer.optimistic.base-backoff:PT0.002S}")
+    private Duration optimisticBaseBackoff = Duration.ofMillis(2);
+    
+    @Value("${techmarket.transfer.optimistic.max-backoff:PT0.05S}")
+    private Duration optimisticMaxBackoff = Duration.ofMillis(50);
+    
+    private GroupCommitTransferExecutor groupCommitExecutor;
+    
+    @PostConstruct
+    void startGroupCommit() {
+        if (engine == TransferEngine.GROUP_COMMIT) {
+            groupCommitExecutor = new GroupCommitTransferExecutor(
+                groupCommitShards,
+                groupCommitBatchSize,
+                groupCommitMaxLinger,
+                groupCommitQueueCapacity,
+                groupCommitEnqueueTimeout,
+                requests -> databaseBulkhead.execute(() -> transactionTemplate.execute(status -> processBatch(requests))));
+        }
+    }
+    
+    @PreDestroy
+    void stopGroupCommit() {
+        if (groupCommitExecutor != null) {
+            groupCommitExecutor.shutdown(Duration.ofSeconds(10));
+        }
+    }
+    
     public TransferResponse processTransfer(TransferRequest request) {
-        // Verificar idempotência
-        if (request.getIdempotencyKey() != null) {
-            Optional<Transfer> existingTransfer = transferRepository.findByIdempotencyKey(request.getIdempotencyKey());
-            if (existingTransfer.isPresent()) {
-                Transfer transfer = existingTransfer.get();
-                return new TransferResponse(
-                    transfer.getCodigoUUID(),
-                    "success",
-                    transfer.getOrigemAccountId(),
-                    transfer.getDestinoAccountId(),
-                    transfer.getValor(),
-                    transfer.getTimestamp()
-                );
-            }
+        return transferMetrics.track(() -> execute(request));
+    }
+    
+    private TransferResponse execute(TransferRequest request) {
+        // Validar que não é a mesma conta
+        if (request.getOrigem().equals(request.getDestino())) {
+            throw new IllegalArgumentException("Conta de origem e destino não podem ser iguais");
         }
         
-        // Validar contas existem
-        Account origemAccount = accountRepository.findByIdWithLock(request.getOrigem())
-            .orElseThrow(() -> new AccountNotFoundException("Conta de origem não encontrada: " + request.getOrigem()));
+        // No group commit a thread escritora do shard abre a transação do lote
+        if (engine == TransferEngine.GROUP_COMMIT) {
+            return awaitGroupCommit(request, groupCommitExecutor.submit(request));
+        }
         
-        Account destinoAccount = accountRepository.findByIdWithLock(request.getDestino())
-            .orElseThrow(() -> new AccountNotFoundException("Conta de destino não encontrada: " + request.getDestino()));
+        try {
+            // Cada shard tem o próprio pool e transação; o bulkhead e os locks da JVM são do primário
+            if (engine == TransferEngine.SHARDED) {
+                return shardedTransferService.transfer(request);
+            }
+            // Contas quentes seguem o caminho pessimista, com o crédito em slot
+            if (engine == TransferEngine.OPTIMISTIC && !hotAccountBalances.involves(request)) {
+                if (!optimisticConflictTracker.isHot(request.getOrigem(), request.getDestino())) {
+                    TransferResponse response = executeOptimistic(request);
+                    if (response != null) {
+                        return response;
+                    }
+                    transferMetrics.recordOptimistic(TransferMetrics.OPTIMISTIC_FALLBACK_RETRIES);
+                } else {
+                    transferMetrics.recordOptimistic(TransferMetrics.OPTIMISTIC_FALLBACK_HOT);
+                }
+            }
+            return executeWithLocks(request);
+        } catch (DataIntegrityViolationException e) {
+            // A idempotência é verificada antes, em TransferIdempotencyService; aqui resta a constraint única
+            if (request.getIdempotencyKey() != null) {
+                throw new DuplicateIdempotencyKeyException("Chave de idempotência já utilizada: " + request.getIdempotencyKey(), e);
+            }
+            throw e;
+        }
+    }
+    
+    // A transação (e a conexão) só é aberta depois de obter os locks da JVM e a permissão do bulkhead
+    private TransferResponse executeWithLocks(TransferRequest request) {
+        boolean hot = hotAccountBalances.involves(request);
+        // O crédito em slot não passa pela linha do destino, então não espera pelo lock dele
+        Long[] accountIds = hot && hotAccountBalances.isStriped(request.getDestino(), LocalDate.now())
+            ? new Long[] { request.getOrigem() }
+            : new Long[] { request.getOrigem(), request.getDestino() };
+        long inicioLock = transferMetrics.start();
+        return accountLockManager.executeWithLocks(() -> {
+            transferMetrics.record(TransferMetrics.MODE_SINGLE, TransferStage.JVM_LOCK, inicioLock);
+            long inicioBulkhead = transferMetrics.start();
+            return databaseBulkhead.execute(() -> {
+                transferMetrics.record(TransferMetrics.MODE_SINGLE, TransferStage.BULKHEAD, inicioBulkhead);
+                return transactionTemplate.execute(status -> {
+                    transferMetrics.recordCommit(TransferMetrics.MODE_SINGLE);
+                    if (hot) {
+                        return executeHotTransfer(request);
+                    }
+                    return engine == TransferEngine.JDBC
+                        ? executeDirectTransfer(request)
+                        : executeTransfer(request, true);
+                });
+            });
+        }, accountIds);
+    }
+    
+    // Sem locks da JVM nem de linha: o UPDATE do flush confere a versão lida. Conflitos são repetidos
+    // com backoff exponencial e jitter; esgotadas as tentativas, devolve null para o caminho pessimista
+    private TransferResponse executeOptimistic(TransferRequest request) {
+        for (int tentativa = 1; ; tentativa++) {
+            try {
+                TransferResponse response = databaseBulkhead.execute(() -> transactionTemplate.execute(status -> {
+                    transferMetrics.recordCommit(TransferMetrics.MODE_SINGLE);
+                    return executeTransfer(request, false);
+                }));
+                optimisticConflictTracker.record(false, request.getOrigem(), request.getDestino());
+                return response;
+            } catch (OptimisticLockingFailureException e) {
+                optimisticConflictTracker.record(true, request.getOrigem(), request.getDestino());
+                transferMetrics.recordOptimistic(TransferMetrics.OPTIMISTIC_CONFLICT);
+                if (tentativa >= optimisticMaxAttempts) {
+                    return null;
+                }
+                backoff(tentativa);
+            }
+        }
+    }
+    
+    // Full jitter: espera aleatória entre zero e base * 2^(tentativa - 1), limitada a max-backoff
+    private void backoff(int tentativa) {
+        long teto = Math.min(optimisticMaxBackoff.toNanos(), optimisticBaseBackoff.toNanos() << Math.min(tentativa - 1, 30));
+        try {
+            Thread.sleep(Duration.ofNanos(ThreadLocalRandom.current().nextLong(teto + 1)));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando nova tentativa da transferência", e);
+        }
+    }
+    
+    private TransferResponse executeTransfer(TransferRequest request, boolean lock) {
+        // Carregar (e, no modo pessimista, bloquear) as contas sempre em ordem crescente de id,
+        // evitando deadlock entre A→B e B→A; no otimista, hibernate.order_updates mantém a mesma
+        // ordem nos UPDATEs do flush
+        Map<Long, Account> locked = new HashMap<>();
+        for (Long accountId : AccountLockManager.lockOrder(request.getOrigem(), request.getDestino())) {
+            boolean origem = accountId.equals(request.getOrigem());
+            String papel = origem ? "origem" : "destino";
+            long inicio = transferMetrics.start();
+            locked.put(accountId, (lock ? accountRepository.findByIdWithLock(accountId) : accountRepository.findById(accountId))
+                .orElseThrow(() -> new AccountNotFoundException("Conta de " + papel + " não encontrada: " + accountId)));
+            if (lock) {
+                transferMetrics.record(TransferMetrics.MODE_SINGLE, origem ? TransferStage.ROW_LOCK_ORIGEM : TransferStage.ROW_LOCK_DESTINO, inicio);
+            }
+        }
+        Account origemAccount = locked.get(request.getOrigem());
+        Account destinoAccount = locked.get(request.getDestino());
         
         // Validar saldo suficiente
-        if (origemAccount.getBalance().compareTo(request.getValor()) < 0) {
+        Money valor = request.getValor();
+        if (origemAccount.getBalance().isLessThan(valor)) {
             throw new InsufficientBalanceException("Saldo insuficiente na conta de origem");
         }
         
-        // Validar que não é a mesma conta
-        if (request.getOrigem().equals(request.getDestino())) {
-            throw new IllegalArgumentException("Conta de origem e destino não podem ser iguais");
-        }
-        
-        // Executar transferência
-        BigDecimal novoSaldoOrigem = origemAccount.getBalance().subtract(request.getValor());
-        BigDecimal novoSaldoDestino = destinoAccount.getBalance().add(request.getValor());
-        
-        origemAccount.setBalance(novoSaldoOrigem);
-        destinoAccount.setBalance(novoSaldoDestino);
+        // Executar transferência (centavos em long, com overflow verificado)
+        origemAccount.setBalance(origemAccount.getBalance().minus(valor));
+        destinoAccount.setBalance(destinoAccount.getBalance().plus(valor));
         
+        long inicio = transferMetrics.start();
         accountRepository.save(origemAccount);
         accountRepository.save(destinoAccount);
+        // Os snapshots diários leem o saldo direto da tabela de contas
+        accountRepository.flush();
+        transferMetrics.record(TransferMetrics.MODE_SINGLE, TransferStage.BALANCE_UPDATE, inicio);
+        // Depois do flush as entidades já têm a versão incrementada
+        accountBalanceCache.putAfterCommit(locked.values());
+        readYourWritesTracker.recordAfterCommit(locked.keySet());
         
         // Criar registro da transferência
         Transfer transfer = new Transfer(
@@ -77,8 +303,184 @@ public class TransferService {
             request.getIdempotencyKey()
         );
         
+        // Com ids de sequência o INSERT ficaria para o commit; o flush o mantém nesta etapa
+        inicio = transferMetrics.start();
         transfer = transferRepository.save(transfer);
+        transferRepository.flush();
+        transferJdbcRepository.reserveIdempotencyKeys(List.of(transfer));
+        transferMetrics.record(TransferMetrics.MODE_SINGLE, TransferStage.TRANSFER_INSERT, inicio);
+        
+        writeLedger(List.of(transfer), TransferMetrics.MODE_SINGLE);
+        transferEventBus.publishAfterCommit(List.of(transfer));
+        applyDailyBalances(transfer, false);
+        
+        return toResponse(transfer);
+    }
+    
+    private TransferResponse awaitGroupCommit(TransferRequest request, CompletableFuture<TransferResponse> future) {
+        try {
+            return future.get();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof DataIntegrityViolationException && request.getIdempotencyKey() != null) {
+                throw new DuplicateIdempotencyKeyException("Chave de idempotência já utilizada: " + request.getIdempotencyKey(), e.getCause());
+            }
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrompido aguardando o commit do lote", e);
+        }
+    }
+    
+    // Débito condicional + crédito direto no banco, sem carregar nem bloquear as entidades
+    private TransferResponse executeDirectTransfer(TransferRequest request) {
+        // Os UPDATEs seguem a mesma ordem global de id dos locks de linha
+        long inicio = transferMetrics.start();
+        for (Long accountId : AccountLockManager.lockOrder(request.getOrigem(), request.getDestino())) {
+            if (accountId.equals(request.getOrigem())) {
+                if (!accountJdbcRepository.debitIfSufficient(accountId, request.getValor())) {
+                    if (!accountJdbcRepository.exists(accountId)) {
+                        throw new AccountNotFoundException("Conta de origem não encontrada: " + accountId);
+                    }
+                    throw new InsufficientBalanceException("Saldo insuficiente na conta de origem");
+                }
+            } else if (!accountJdbcRepository.credit(accountId, request.getValor())) {
+                throw new AccountNotFoundException("Conta de destino não encontrada: " + accountId);
+            }
+        }
+        // Os UPDATEs não devolvem a versão; com as linhas ainda bloqueadas, a leitura é a do próprio commit
+        if (accountBalanceCache.isEnabled()) {
+            List<Account> updated = new ArrayList<>(2);
+            accountJdbcRepository.findBalance(request.getOrigem()).ifPresent(updated::add);
+            accountJdbcRepository.findBalance(request.getDestino()).ifPresent(updated::add);
+            accountBalanceCache.putAfterCommit(updated);
+        }
+        readYourWritesTracker.recordAfterCommit(List.of(request.getOrigem(), request.getDestino()));
+        transferMetrics.record(TransferMetrics.MODE_SINGLE, TransferStage.BALANCE_UPDATE, inicio);
+        
+        Transfer transfer = new Transfer(
+            request.getOrigem(),
+            request.getDestino(),
+            request.getValor(),
+            request.getIdempotencyKey()
+        );
+        inicio = transferMetrics.start();
+        transferJdbcRepository.insert(transfer);
+        transferJdbcRepository.reserveIdempotencyKeys(List.of(transfer));
+        transferMetrics.record(TransferMetrics.MODE_SINGLE, TransferStage.TRANSFER_INSERT, inicio);
+        
+        writeLedger(List.of(transfer), TransferMetrics.MODE_SINGLE);
+        transferEventBus.publishAfterCommit(List.of(transfer));
+        applyDailyBalances(transfer, false);
         
+        return toResponse(transfer);
+    }
+    
+    // Transferência com conta quente (HotAccountBalances), via JDBC em qualquer engine. Primeiro as
+    // linhas de accounts, em ordem de id; o destino com slots preparados no dia fica de fora e recebe o
+    // crédito em um slot. Depois os slots, também em ordem de id de conta: o crédito do destino e, se o
+    // saldo da origem quente não cobre o valor, a consolidação dos seus slots antes de recusar
+    private TransferResponse executeHotTransfer(TransferRequest request) {
+        Transfer transfer = new Transfer(
+            request.getOrigem(),
+            request.getDestino(),
+            request.getValor(),
+            request.getIdempotencyKey()
+        );
+        Money valor = request.getValor();
+        // O slot é o do dia da transferência, o mesmo do snapshot diário
+        LocalDate dia = transfer.getTimestamp().toLocalDate();
+        boolean creditoEmSlot = hotAccountBalances.isStriped(request.getDestino(), dia);
+        
+        Map<Long, Account> locked = new HashMap<>();
+        for (Long accountId : AccountLockManager.lockOrder(request.getOrigem(), request.getDestino())) {
+            boolean origem = accountId.equals(request.getOrigem());
+            if (!origem && creditoEmSlot) {
+                continue;
+            }
+            String papel = origem ? "origem" : "destino";
+            long inicio = transferMetrics.start();
+            locked.put(accountId, accountJdbcRepository.lockBalance(accountId)
+                .orElseThrow(() -> new AccountNotFoundException("Conta de " + papel + " não encontrada: " + accountId)));
+            transferMetrics.record(TransferMetrics.MODE_SINGLE, origem ? TransferStage.ROW_LOCK_ORIGEM : TransferStage.ROW_LOCK_DESTINO, inicio);
+        }
+        
+        long inicio = transferMetrics.start();
+        for (Long accountId : AccountLockManager.lockOrder(request.getOrigem(), request.getDestino())) {
+            if (!accountId.equals(request.getOrigem())) {
+                if (creditoEmSlot) {
+                    hotAccountBalances.credit(accountId, dia, valor);
+                }
+            } else if (hotAccountBalances.isHot(accountId) && locked.get(accountId).getBalance().isLessThan(valor)) {
+                hotAccountBalances.consolidate(accountId, HotAccountBalances.TRIGGER_DEBIT);
+            }
+        }
+        // Com a origem bloqueada, o débito condicional só falha por saldo insuficiente
+        if (!accountJdbcRepository.debitIfSufficient(request.getOrigem(), valor)) {
+            throw new InsufficientBalanceException("Saldo insuficiente na conta de origem");
+        }
+        if (!creditoEmSlot) {
+            accountJdbcRepository.credit(request.getDestino(), valor);
+        }
+        // O saldo das contas quentes não vem do cache (AccountBalanceService)
+        if (accountBalanceCache.isEnabled()) {
+            List<Account> updated = new ArrayList<>(2);
+            for (Long accountId : locked.keySet()) {
+                if (!hotAccountBalances.isHot(accountId)) {
+                    accountJdbcRepository.findBalance(accountId).ifPresent(updated::add);
+                }
+            }
+            accountBalanceCache.putAfterCommit(updated);
+        }
+        readYourWritesTracker.recordAfterCommit(List.of(request.getOrigem(), request.getDestino()));
+        transferMetrics.record(TransferMetrics.MODE_SINGLE, TransferStage.BALANCE_UPDATE, inicio);
+        
+        inicio = transferMetrics.start();
+        transferJdbcRepository.insert(transfer);
+        transferJdbcRepository.reserveIdempotencyKeys(List.of(transfer));
+        transferMetrics.record(TransferMetrics.MODE_SINGLE, TransferStage.TRANSFER_INSERT, inicio);
+        
+        writeLedger(List.of(transfer), TransferMetrics.MODE_SINGLE);
+        transferEventBus.publishAfterCommit(List.of(transfer));
+        // O crédito em slot entra no snapshot do destino na consolidação
+        applyDailyBalances(transfer, creditoEmSlot);
+        
+        return toResponse(transfer);
+    }
+    
+    private void writeLedger(List<Transfer> transfers, String mode) {
+        if (ledgerEnabled) {
+            long inicio = transferMetrics.start();
+            ledgerJdbcRepository.batchInsert(transfers);
+            transferMetrics.record(mode, TransferStage.LEDGER_INSERT, inicio);
+        }
+    }
+    
+    // Atualiza os snapshots diários das duas contas (só da origem, com o crédito em slot), na mesma
+    // ordem global de id dos locks
+    private void applyDailyBalances(Transfer transfer, boolean creditoEmSlot) {
+        long inicio = transferMetrics.start();
+        LocalDate dia = transfer.getTimestamp().toLocalDate();
+        BigDecimal valor = transfer.getValor().toBigDecimal();
+        for (Long accountId : AccountLockManager.lockOrder(transfer.getOrigemAccountId(), transfer.getDestinoAccountId())) {
+            boolean debit = accountId.equals(transfer.getOrigemAccountId());
+            if (!debit && creditoEmSlot) {
+                continue;
+            }
+            accountDailyBalanceJdbcRepository.applyMovement(new AccountDailyBalance(
+                accountId,
+                dia,
+                debit ? BigDecimal.ZERO : valor,
+                debit ? valor : BigDecimal.ZERO,
+                1
+            ));
+        }
+        transferMetrics.record(TransferMetrics.MODE_SINGLE, TransferStage.DAILY_BALANCE, inicio);
+    }
+    
+    static TransferResponse toResponse(Transfer transfer) {
         return new TransferResponse(
             transfer.getCodigoUUID(),
             "success",
@@ -88,4 +490,240 @@ public class TransferService {
             transfer.getTimestamp()
         );
     }
+    
+    // Contas em shards diferentes não cabem em uma transação: cada item segue sozinho, sem uma
+    // transação do primário em volta (ver ShardedTransferService#transferAll)
+    public BatchTransferResponse processBatch(List<TransferRequest> requests) {
+        if (engine == TransferEngine.SHARDED) {
+            return shardedTransferService.transferAll(requests);
+        }
+        return transactionTemplate.execute(status -> processLocalBatch(requests));
+    }
+    
+    private BatchTransferResponse processLocalBatch(List<TransferRequest> requests) {
+        transferMetrics.recordCommit(TransferMetrics.MODE_BATCH);
+        
+        // Chaves de idempotência já utilizadas em transferências anteriores
+        Set<String> keys = new HashSet<>();
+        for (TransferRequest request : requests) {
+            if (request.getIdempotencyKey() != null) {
+                keys.add(request.getIdempotencyKey());
+            }
+        }
+        Map<String, Transfer> existingByKey = new HashMap<>();
+        if (!keys.isEmpty()) {
+            long inicio = transferMetrics.start();
+            for (Transfer transfer : transferRepository.findByIdempotencyKeyIn(keys)) {
+                existingByKey.put(transfer.getIdempotencyKey(), transfer);
+            }
+            // Chaves de meses já arquivados não estão mais na tabela
+            if (existingByKey.size() < keys.size() && !transferArchive.isEmpty()) {
+                for (String key : keys) {
+                    if (!existingByKey.containsKey(key)) {
+                        transferArchive.findByIdempotencyKey(key).ifPresent(transfer -> existingByKey.put(key, transfer));
+                    }
+                }
+            }
+            transferMetrics.record(TransferMetrics.MODE_BATCH, TransferStage.IDEMPOTENCY_LOOKUP, inicio);
+        }
+        
+        // Bloquear todas as contas envolvidas em uma única passada ordenada
+        Set<Long> accountIds = new TreeSet<>();
+        for (TransferRequest request : requests) {
+            accountIds.add(request.getOrigem());
+            accountIds.add(request.getDestino());
+        }
+        Map<Long, Money> balances = new HashMap<>();
+        Map<Long, Account> lockedAccounts = new HashMap<>();
+        long inicioLock = transferMetrics.start();
+        for (Account account : accountRepository.findAllByIdWithLock(accountIds)) {
+            balances.put(account.getId(), account.getBalance());
+            lockedAccounts.put(account.getId(), account);
+            // Os saldos passam a ser gravados via JDBC; a entidade não pode ser reutilizada
+            entityManager.detach(account);
+        }
+        // Contas quentes entram no lote com os créditos pendentes dos slots já consolidados
+        if (hotAccountBalances.isEnabled()) {
+            for (Long accountId : accountIds) {
+                if (hotAccountBalances.isHot(accountId) && balances.containsKey(accountId)) {
+                    balances.put(accountId, balances.get(accountId).plus(
+                        hotAccountBalances.consolidate(accountId, HotAccountBalances.TRIGGER_BATCH)));
+                }
+            }
+        }
+        transferMetrics.record(TransferMetrics.MODE_BATCH, TransferStage.ROW_LOCK_LOTE, inicioLock);
+        
+        // Aplicar as transferências em memória e gravá-las. Uma chave reservada por outra transação
+        // depois da consulta desfaz só a gravação do lote: os itens dela viram duplicados e o lote é
+        // reaplicado a partir dos saldos bloqueados
+        BatchApplication aplicado = applyBatch(requests, existingByKey, balances);
+        long inicio = transferMetrics.start();
+        Set<String> conflitos;
+        while (!(conflitos = transferJdbcRepository.insertReservingIdempotencyKeys(aplicado.transfers())).isEmpty()) {
+            Map<String, Transfer> concorrentes = new HashMap<>();
+            for (Transfer transfer : transferRepository.findByIdempotencyKeyIn(conflitos)) {
+                concorrentes.put(transfer.getIdempotencyKey(), transfer);
+            }
+            for (String key : conflitos) {
+                existingByKey.put(key, concorrentes.get(key));
+            }
+            aplicado = applyBatch(requests, existingByKey, balances);
+        }
+        transferMetrics.record(TransferMetrics.MODE_BATCH, TransferStage.TRANSFER_INSERT, inicio);
+        List<Transfer> transfers = aplicado.transfers();
+        Map<Long, Money> changedBalances = aplicado.changedBalances();
+        
+        // Gravar os saldos em batch JDBC
+        inicio = transferMetrics.start();
+        accountJdbcRepository.batchUpdateBalances(changedBalances);
+        transferMetrics.record(TransferMetrics.MODE_BATCH, TransferStage.BALANCE_UPDATE, inicio);
+        accountBalanceCache.putAfterCommit(updatedAccounts(lockedAccounts, changedBalances));
+        readYourWritesTracker.recordAfterCommit(changedBalances.keySet());
+        
+        writeLedger(transfers, TransferMetrics.MODE_BATCH);
+        transferEventBus.publishAfterCommit(transfers);
+        
+        inicio = transferMetrics.start();
+        accountDailyBalanceJdbcRepository.batchApplyMovements(aggregateDailyMovements(transfers));
+        transferMetrics.record(TransferMetrics.MODE_BATCH, TransferStage.DAILY_BALANCE, inicio);
+        
+        return new BatchTransferResponse(aplicado.itens());
+    }
+    
+    private record BatchApplication(Map<Long, Money> changedBalances, List<Transfer> transfers, List<BatchTransferItemResponse> itens) {}
+    
+    // Aplica o lote em memória, na ordem dos itens, sobre uma cópia dos saldos bloqueados. Só um item
+    // aceito consome a chave: um item recusado não impede que outro com a mesma chave seja aplicado
+    private BatchApplication applyBatch(List<TransferRequest> requests, Map<String, Transfer> existingByKey, Map<Long, Money> lockedBalances) {
+        Map<Long, Money> balances = new HashMap<>(lockedBalances);
+        Map<Long, Money> changedBalances = new LinkedHashMap<>();
+        List<Transfer> transfers = new ArrayList<>();
+        List<BatchTransferItemResponse> itens = new ArrayList<>(requests.size());
+        Map<String, Transfer> acceptedByKey = new HashMap<>();
+        
+        for (int i = 0; i < requests.size(); i++) {
+            TransferRequest request = requests.get(i);
+            String key = request.getIdempotencyKey();
+            
+            if (key != null && (existingByKey.containsKey(key) || acceptedByKey.containsKey(key))) {
+                Transfer existing = existingByKey.containsKey(key) ? existingByKey.get(key) : acceptedByKey.get(key);
+                itens.add(new BatchTransferItemResponse(
+                    i,
+                    BatchTransferItemResponse.STATUS_DUPLICATE_IDEMPOTENCY_KEY,
+                    existing != null ? existing.getCodigoUUID() : null,
+                    request.getOrigem(),
+                    request.getDestino(),
+                    request.getValor(),
+                    existing != null ? existing.getTimestamp() : null,
+                    "Chave de idempotência já utilizada: " + key
+                ));
+                continue;
+            }
+            
+            if (Objects.equals(request.getOrigem(), request.getDestino())) {
+                itens.add(failure(i, request, BatchTransferItemResponse.STATUS_INVALID,
+                    "Conta de origem e destino não podem ser iguais"));
+                continue;
+            }
+            
+            Money saldoOrigem = balances.get(request.getOrigem());
+            if (saldoOrigem == null) {
+                itens.add(failure(i, request, BatchTransferItemResponse.STATUS_ACCOUNT_NOT_FOUND,
+                    "Conta de origem não encontrada: " + request.getOrigem()));
+                continue;
+            }
+            Money saldoDestino = balances.get(request.getDestino());
+            if (saldoDestino == null) {
+                itens.add(failure(i, request, BatchTransferItemResponse.STATUS_ACCOUNT_NOT_FOUND,
+                    "Conta de destino não encontrada: " + request.getDestino()));
+                continue;
+            }
+            
+            if (saldoOrigem.isLessThan(request.getValor())) {
+                itens.add(failure(i, request, BatchTransferItemResponse.STATUS_INSUFFICIENT_BALANCE,
+                    "Saldo insuficiente na conta de origem"));
+                continue;
+            }
+            
+            Money novoSaldoOrigem = saldoOrigem.minus(request.getValor());
+            Money novoSaldoDestino = saldoDestino.plus(request.getValor());
+            balances.put(request.getOrigem(), novoSaldoOrigem);
+            balances.put(request.getDestino(), novoSaldoDestino);
+            changedBalances.put(request.getOrigem(), novoSaldoOrigem);
+            changedBalances.put(request.getDestino(), novoSaldoDestino);
+            
+            Transfer transfer = new Transfer(
+                request.getOrigem(),
+                request.getDestino(),
+                request.getValor(),
+                key
+            );
+            transfers.add(transfer);
+            if (key != null) {
+                acceptedByKey.put(key, transfer);
+            }
+            
+            itens.add(new BatchTransferItemResponse(
+                i,
+                BatchTransferItemResponse.STATUS_SUCCESS,
+                transfer.getCodigoUUID(),
+                transfer.getOrigemAccountId(),
+                transfer.getDestinoAccountId(),
+                transfer.getValor(),
+                transfer.getTimestamp(),
+                null
+            ));
+        }
+        
+        return new BatchApplication(changedBalances, transfers, itens);
+    }
+    
+    // O batch grava cada saldo alterado uma vez, com version + 1; as entidades já estão desanexadas.
+    // Contas quentes ficam fora do cache
+    private List<Account> updatedAccounts(Map<Long, Account> lockedAccounts, Map<Long, Money> changedBalances) {
+        List<Account> updated = new ArrayList<>(changedBalances.size());
+        changedBalances.forEach((accountId, balance) -> {
+            Account account = lockedAccounts.get(accountId);
+            if (account.getVersion() != null && !hotAccountBalances.isHot(accountId)) {
+                account.setBalance(balance);
+                account.setVersion(account.getVersion() + 1);
+                updated.add(account);
+            }
+        });
+        return updated;
+    }
+    
+    // Uma linha de movimentação por (conta, dia), em ordem de id da conta
+    private List<AccountDailyBalance> aggregateDailyMovements(List<Transfer> transfers) {
+        Map<Long, Map<LocalDate, AccountDailyBalance>> byAccount = new TreeMap<>();
+        for (Transfer transfer : transfers) {
+            LocalDate dia = transfer.getTimestamp().toLocalDate();
+            AccountDailyBalance origem = byAccount.computeIfAbsent(transfer.getOrigemAccountId(), id -> new TreeMap<>())
+                .computeIfAbsent(dia, d -> new AccountDailyBalance(transfer.getOrigemAccountId(), d, BigDecimal.ZERO, BigDecimal.ZERO, 0));
+            origem.setDebitos(origem.getDebitos().add(transfer.getValor().toBigDecimal()));
+            origem.setMovimentos(origem.getMovimentos() + 1);
+            
+            AccountDailyBalance destino = byAccount.computeIfAbsent(transfer.getDestinoAccountId(), id -> new TreeMap<>())
+                .computeIfAbsent(dia, d -> new AccountDailyBalance(transfer.getDestinoAccountId(), d, BigDecimal.ZERO, BigDecimal.ZERO, 0));
+            destino.setCreditos(destino.getCreditos().add(transfer.getValor().toBigDecimal()));
+            destino.setMovimentos(destino.getMovimentos() + 1);
+        }
+        
+        List<AccountDailyBalance> movements = new ArrayList<>();
+        byAccount.values().forEach(byDay -> movements.addAll(byDay.values()));
+        return movements;
+    }
+    
+    private BatchTransferItemResponse failure(int indice, TransferRequest request, String status, String message) {
+        return new BatchTransferItemResponse(
+            indice,
+            status,
+            null,
+            request.getOrigem(),
+            request.getDestino(),
+            request.getValor(),
+            null,
+            message
+        );
+    }
 }
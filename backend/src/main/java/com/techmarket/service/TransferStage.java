@@ -0,0 +1,33 @@
+package com.techmarket.service;
+
+// Etapas da transferência medidas em techmarket.transfer.stage (tag "stage")
+public enum TransferStage {
+    // Consulta da chave de idempotência no banco
+    IDEMPOTENCY_LOOKUP("idempotency_lookup"),
+    // Espera pelos locks listrados da JVM
+    JVM_LOCK("jvm_lock"),
+    // Espera por uma permissão do bulkhead do banco
+    BULKHEAD("bulkhead"),
+    // SELECT ... FOR UPDATE de cada conta (no lote, de todas as contas em uma passada)
+    ROW_LOCK_ORIGEM("row_lock_origem"),
+    ROW_LOCK_DESTINO("row_lock_destino"),
+    ROW_LOCK_LOTE("row_lock_lote"),
+    // Gravação dos saldos (no engine JDBC, o UPDATE condicional já inclui a espera pelo lock de linha)
+    BALANCE_UPDATE("balance_update"),
+    TRANSFER_INSERT("transfer_insert"),
+    // Lançamentos DEBIT/CREDIT em transacoes
+    LEDGER_INSERT("ledger_insert"),
+    DAILY_BALANCE("daily_balance"),
+    // Flush final e commit da transação
+    COMMIT("commit");
+    
+    private final String tag;
+    
+    TransferStage(String tag) {
+        this.tag = tag;
+    }
+    
+    public String getTag() {
+        return tag;
+    }
+}
@@ -0,0 +1,202 @@
+package com.techmarket.util;
+
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+
+// Valor monetário em ponto fixo: quantidade de centavos em um long (escala 2, como as colunas do banco).
+// Aritmética com overflow verificado (ArithmeticException); conversões de BigDecimal e de texto são exatas,
+// ou seja, mais de 2 casas decimais significativas são rejeitadas em vez de arredondadas.
+// Estende Number para que @Positive/@NotNull continuem valendo nos DTOs
+@JsonSerialize(using = MoneyJson.Serializer.class)
+@JsonDeserialize(using = MoneyJson.Deserializer.class)
+public final class Money extends Number implements Comparable<Money> {
+    
+    private static final long serialVersionUID = 1L;
+    
+    public static final int SCALE = 2;
+    
+    public static final Money ZERO = new Money(0);
+    
+    // "-92233720368547758.08"
+    public static final int MAX_CHARS = 21;
+    
+    private final long cents;
+    
+    private Money(long cents) {
+        this.cents = cents;
+    }
+    
+    public static Money ofCents(long cents) {
+        return cents == 0 ? ZERO : new Money(cents);
+    }
+    
+    public static Money of(BigDecimal value) {
+        return ofCents(value.setScale(SCALE, RoundingMode.UNNECESSARY).unscaledValue().longValueExact());
+    }
+    
+    public static Money of(String value) {
+        return parse(value.toCharArray(), 0, value.length());
+    }
+    
+    // Lê "123", "-0.5", "10.25" ou "10.2500" direto para centavos, sem criar BigDecimal.
+    // Notação científica (raro em JSON de valores) passa pelo BigDecimal
+    public static Money parse(char[] buffer, int offset, int length) {
+        int fim = offset + length;
+        int i = offset;
+        if (length == 0) {
+            throw new NumberFormatException("Valor monetário vazio");
+        }
+        for (int j = offset; j < fim; j++) {
+            if (buffer[j] == 'e' || buffer[j] == 'E') {
+                return of(new BigDecimal(buffer, offset, length));
+            }
+        }
+        boolean negativo = buffer[i] == '-';
+        if (negativo || buffer[i] == '+') {
+            i++;
+        }
+        
+        long centavos = 0;
+        int digitos = 0;
+        for (; i < fim && buffer[i] != '.'; i++) {
+            centavos = Math.addExact(Math.multiplyExact(centavos, 10), digit(buffer, i, offset, length));
+            digitos++;
+        }
+        int casas = 0;
+        if (i < fim) {
+            for (i++; i < fim; i++) {
+                int digito = digit(buffer, i, offset, length);
+                digitos++;
+                if (casas < SCALE) {
+                    centavos = Math.addExact(Math.multiplyExact(centavos, 10), digito);
+                    casas++;
+                } else if (digito != 0) {
+                    throw new ArithmeticException("Valor com mais de " + SCALE + " casas decimais: " + new String(buffer, offset, length));
+                }
+            }
+        }
+        if (digitos == 0) {
+            throw new NumberFormatException("Valor monetário inválido: " + new String(buffer, offset, length));
+        }
+        for (; casas < SCALE; casas++) {
+            centavos = Math.multiplyExact(centavos, 10);
+        }
+        return ofCents(negativo ? -centavos : centavos);
+    }
+    
+    private static int digit(char[] buffer, int i, int offset, int length) {
+        char c = buffer[i];
+        if (c >= '0' && c <= '9') {
+            return c - '0';
+        }
+        throw new NumberFormatException("Valor monetário inválido: " + new String(buffer, offset, length));
+    }
+    
+    public long cents() {
+        return cents;
+    }
+    
+    public Money plus(Money other) {
+        return ofCents(Math.addExact(cents, other.cents));
+    }
+    
+    public Money minus(Money other) {
+        return ofCents(Math.subtractExact(cents, other.cents));
+    }
+    
+    public boolean isPositive() {
+        return cents > 0;
+    }
+    
+    public boolean isNegative() {
+        return cents < 0;
+    }
+    
+    public boolean isLessThan(Money other) {
+        return cents < other.cents;
+    }
+    
+    public BigDecimal toBigDecimal() {
+        return BigDecimal.valueOf(cents, SCALE);
+    }
+    
+    @Override
+    public int compareTo(Money other) {
+        return Long.compare(cents, other.cents);
+    }
+    
+    @Override
+    public boolean equals(Object o) {
+        return o instanceof Money other && cents == other.cents;
+    }
+    
+    @Override
+    public int hashCode() {
+        return Long.hashCode(cents);
+    }
+    
+    // Sempre com 2 casas: "1234.50", "-0.05"
+    @Override
+    public String toString() {
+        char[] buffer = new char[MAX_CHARS];
+        int fim = writeTo(buffer);
+        return new String(buffer, 0, fim);
+    }
+    
+    // Escreve a forma de toString() em buffer (pelo menos MAX_CHARS posições) e devolve o tamanho
+    public int writeTo(char[] buffer) {
+        if (cents == Long.MIN_VALUE) {
+            String texto = toBigDecimal().toPlainString();
+            texto.getChars(0, texto.length(), buffer, 0);
+            return texto.length();
+        }
+        long abs = Math.abs(cents);
+        int tamanho = (cents < 0 ? 1 : 0) + Math.max(digits(abs / 100), 1) + 1 + SCALE;
+        int i = tamanho;
+        for (int casa = 0; casa < SCALE; casa++) {
+            buffer[--i] = (char) ('0' + abs % 10);
+            abs /= 10;
+        }
+        buffer[--i] = '.';
+        do {
+            buffer[--i] = (char) ('0' + abs % 10);
+            abs /= 10;
+        } while (abs > 0);
+        if (cents < 0) {
+            buffer[--i] = '-';
+        }
+        return tamanho;
+    }
+    
+    private static int digits(long value) {
+        int digitos = 0;
+        for (; value > 0; value /= 10) {
+            digitos++;
+        }
+        return digitos;
+    }
+    
+    // Number: parte inteira (como BigDecimal.longValue) e aproximações em ponto flutuante
+    @Override
+    public long longValue() {
+        return cents / 100;
+    }
+    
+    @Override
+    public int intValue() {
+        return (int) longValue();
+    }
+    
+    @Override
+    public double doubleValue() {
+        return cents / 100.0;
+    }
+    
+    @Override
+    public float floatValue() {
+        return (float) doubleValue();
+    }
+}
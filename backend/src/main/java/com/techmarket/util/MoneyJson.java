@@ -0,0 +1,44 @@
+package com.techmarket.util;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+
+import java.io.IOException;
+
+// Money no JSON: número com 2 casas (1234.50). Aceita número ou string, sempre de forma exata
+public final class MoneyJson {
+    
+    private MoneyJson() {}
+    
+    public static class Serializer extends JsonSerializer<Money> {
+        
+        @Override
+        public void serialize(Money value, JsonGenerator gen, SerializerProvider serializers) throws IOException {
+            char[] buffer = new char[Money.MAX_CHARS];
+            gen.writeNumber(buffer, 0, value.writeTo(buffer));
+        }
+    }
+    
+    public static class Deserializer extends JsonDeserializer<Money> {
+        
+        @Override
+        public Money deserialize(JsonParser p, DeserializationContext ctxt) throws IOException {
+            JsonToken token = p.currentToken();
+            if (token != JsonToken.VALUE_NUMBER_INT && token != JsonToken.VALUE_NUMBER_FLOAT && token != JsonToken.VALUE_STRING) {
+                return (Money) ctxt.handleUnexpectedToken(Money.class, p);
+            }
+            // Lê direto do buffer do parser, sem materializar String ou BigDecimal
+            try {
+                return Money.parse(p.getTextCharacters(), p.getTextOffset(), p.getTextLength());
+            } catch (NumberFormatException | ArithmeticException e) {
+                throw InvalidFormatException.from(p, e.getMessage(), p.getText(), Money.class);
+            }
+        }
+    }
+}
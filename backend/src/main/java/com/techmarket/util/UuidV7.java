@@ -0,0 +1,43 @@
+package com.techmarket.util;
+
+import java.security.SecureRandom;
+import java.util.UUID;
+
+// UUID versão 7 (RFC 9562): 48 bits de timestamp em ms seguidos de bits aleatórios.
+// Códigos gerados em sequência caem no fim do índice único em vez de espalhados pela árvore;
+// os 74 bits aleatórios mantêm o código impossível de adivinhar.
+public final class UuidV7 {
+    
+    private static final SecureRandom RANDOM = new SecureRandom();
+    
+    private UuidV7() {
+    }
+    
+    public static UUID randomUUID() {
+        return fromTimestamp(System.currentTimeMillis());
+    }
+    
+    public static UUID fromTimestamp(long epochMillis) {
+        byte[] random = new byte[10];
+        RANDOM.nextBytes(random);
+        
+        long msb = (epochMillis & 0xFFFFFFFFFFFFL) << 16;
+        msb |= 0x7000L;
+        msb |= ((random[0] & 0x0FL) << 8) | (random[1] & 0xFFL);
+        
+        long lsb = 0;
+        for (int i = 2; i < 10; i++) {
+            lsb = (lsb << 8) | (random[i] & 0xFFL);
+        }
+        lsb = (lsb & 0x3FFFFFFFFFFFFFFFL) | 0x8000000000000000L;
+        return new UUID(msb, lsb);
+    }
+    
+    // Instante embutido no código (ms desde a época)
+    public static long timestamp(UUID uuid) {
+        if (uuid.version() != 7) {
+            throw new IllegalArgumentException("UUID não é da versão 7: " + uuid);
+        }
+        return uuid.getMostSignificantBits() >>> 16;
+    }
+}
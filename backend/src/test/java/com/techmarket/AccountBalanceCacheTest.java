@@ -0,0 +1,176 @@
+package com.techmarket;
+
+import com.techmarket.dto.TransferRequest;
+import com.techmarket.entity.Account;
+import com.techmarket.exception.InsufficientBalanceException;
+import com.techmarket.repository.AccountRepository;
+import com.techmarket.repository.TransferRepository;
+import com.techmarket.service.AccountBalanceCache;
+import com.techmarket.service.TransferService;
+import com.techmarket.util.Money;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest(properties = "techmarket.balance.cache.max-staleness=PT0S")
+@AutoConfigureWebMvc
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+class AccountBalanceCacheTest {
+    
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+    
+    @Autowired
+    private AccountBalanceCache accountBalanceCache;
+    
+    @Autowired
+    private TransferService transferService;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private TransferRepository transferRepository;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private MockMvc mockMvc;
+    private Long origemId;
+    private Long destinoId;
+    
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        transferRepository.deleteAll();
+        accountRepository.deleteAll();
+        accountBalanceCache.clear();
+        
+        origemId = accountRepository.save(new Account("João Silva", new BigDecimal("1000.00"))).getId();
+        destinoId = accountRepository.save(new Account("Maria Santos", new BigDecimal("500.00"))).getId();
+    }
+    
+    @Test
+    void testBalanceEndpointReadsThroughCache() throws Exception {
+        double hits = requests("hit");
+        double misses = requests("miss");
+        
+        for (int i = 0; i < 3; i++) {
+            mockMvc.perform(get("/api/contas/" + origemId + "/saldo"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.accountId").value(origemId))
+                .andExpect(jsonPath("$.saldo").value(1000.00))
+                .andExpect(jsonPath("$.version").value(0));
+        }
+        
+        // Só a primeira leitura vai ao banco
+        assertEquals(misses + 1, requests("miss"));
+        assertEquals(hits + 2, requests("hit"));
+        assertTrue(meterRegistry.get(AccountBalanceCache.HIT_RATIO_GAUGE).gauge().value() > 0);
+        
+        mockMvc.perform(get("/api/contas/999999/saldo"))
+            .andExpect(status().isNotFound())
+            .andExpect(jsonPath("$.error").value("Account not found"));
+    }
+    
+    @Test
+    void testCommittedTransfersUpdateCache() throws Exception {
+        mockMvc.perform(get("/api/contas/" + origemId + "/saldo")).andExpect(status().isOk());
+        
+        transferService.processTransfer(new TransferRequest(origemId, destinoId, new BigDecimal("100.00")));
+        
+        // O commit já deixou saldo e versão novos no cache, inclusive da conta que nunca foi lida
+        assertCached(origemId, "900.00", 1);
+        assertCached(destinoId, "600.00", 1);
+        
+        transferService.processBatch(List.of(
+            new TransferRequest(destinoId, origemId, new BigDecimal("50.00")),
+            new TransferRequest(destinoId, origemId, new BigDecimal("25.00"))));
+        assertCached(origemId, "975.00", 2);
+        assertCached(destinoId, "525.00", 2);
+        assertEquals(2L, accountRepository.findById(origemId).get().getVersion());
+        
+        mockMvc.perform(get("/api/contas/" + origemId + "/saldo"))
+            .andExpect(jsonPath("$.saldo").value(975.00))
+            .andExpect(jsonPath("$.version").value(2));
+    }
+    
+    @Test
+    void testRolledBackTransferLeavesCacheUntouched() {
+        transferService.processTransfer(new TransferRequest(origemId, destinoId, new BigDecimal("100.00")));
+        
+        assertThrows(InsufficientBalanceException.class, () ->
+            transferService.processTransfer(new TransferRequest(destinoId, origemId, new BigDecimal("10000.00"))));
+        
+        assertCached(destinoId, "600.00", 1);
+    }
+    
+    @Test
+    void testOlderVersionNeverReplacesNewer() {
+        AccountBalanceCache cache = new AccountBalanceCache(new SimpleMeterRegistry(), true, 2, Duration.ZERO);
+        
+        cache.put(account(1L, "900.00", 3));
+        // Leitura do banco que começou antes do commit da versão 3
+        cache.put(account(1L, "1000.00", 2));
+        assertEquals(Money.of("900.00"), cache.get(1L).get().getBalance());
+        
+        cache.put(account(1L, "800.00", 4));
+        assertEquals(4L, cache.get(1L).get().getVersion());
+        
+        // LRU limitado a 2 contas
+        cache.put(account(2L, "1.00", 0));
+        cache.put(account(3L, "1.00", 0));
+        assertEquals(2, cache.size());
+        assertTrue(cache.get(1L).isEmpty());
+    }
+    
+    @Test
+    void testStaleEntriesExpire() throws Exception {
+        AccountBalanceCache cache = new AccountBalanceCache(new SimpleMeterRegistry(), true, 10, Duration.ofMillis(20));
+        
+        cache.put(account(1L, "900.00", 3));
+        assertTrue(cache.get(1L).isPresent());
+        
+        Thread.sleep(40);
+        assertTrue(cache.get(1L).isEmpty());
+        
+        // Confirmar a mesma versão renova o prazo
+        cache.put(account(1L, "900.00", 3));
+        assertTrue(cache.get(1L).isPresent());
+    }
+    
+    private void assertCached(Long accountId, String saldo, long version) {
+        Account cached = accountBalanceCache.get(accountId).orElseThrow();
+        assertEquals(Money.of(saldo), cached.getBalance());
+        assertEquals(version, cached.getVersion());
+    }
+    
+    private double requests(String result) {
+        return meterRegistry.get(AccountBalanceCache.REQUESTS_COUNTER).tag("result", result).counter().count();
+    }
+    
+    private static Account account(Long id, String saldo, long version) {
+        Account account = new Account("Teste", Money.of(saldo));
+        account.setId(id);
+        account.setVersion(version);
+        return account;
+    }
+}
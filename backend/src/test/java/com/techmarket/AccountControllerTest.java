@@ -0,0 +1,139 @@
+package com.techmarket;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techmarket.entity.Account;
+import com.techmarket.entity.Transfer;
+import com.techmarket.repository.AccountRepository;
+import com.techmarket.repository.TransferRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureWebMvc
+@ActiveProfiles("test")
+@Transactional
+@Import(TestSecurityConfig.class)
+class AccountControllerTest {
+    
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private TransferRepository transferRepository;
+    
+    private MockMvc mockMvc;
+    private ObjectMapper objectMapper;
+    
+    private Long contaId;
+    private Long outraId;
+    
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        objectMapper = new ObjectMapper();
+        
+        transferRepository.deleteAll();
+        accountRepository.deleteAll();
+        
+        contaId = accountRepository.save(new Account("João Silva", new BigDecimal("1000.00"))).getId();
+        outraId = accountRepository.save(new Account("Maria Santos", new BigDecimal("500.00"))).getId();
+    }
+    
+    @Test
+    void testStatementPagination() throws Exception {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 10, 0);
+        List<Transfer> transfers = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            // Débitos e créditos alternados; dois pares com o mesmo timestamp para exercitar o desempate por id
+            Transfer transfer = i % 2 == 0
+                ? new Transfer(contaId, outraId, new BigDecimal(i + 1))
+                : new Transfer(outraId, contaId, new BigDecimal(i + 1));
+            transfer.setTimestamp(base.plusMinutes(i / 2));
+            transfers.add(transfer);
+        }
+        transferRepository.saveAllAndFlush(transfers);
+        
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        int pages = 0;
+        do {
+            String url = "/api/contas/" + contaId + "/extrato?size=3" + (cursor == null ? "" : "&cursor=" + cursor);
+            JsonNode page = objectMapper.readTree(mockMvc.perform(get(url))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString());
+            for (JsonNode item : page.get("itens")) {
+                ids.add(item.get("id").asLong());
+            }
+            cursor = page.get("nextCursor").isNull() ? null : page.get("nextCursor").asText();
+            pages++;
+        } while (cursor != null);
+        
+        assertEquals(3, pages);
+        List<Long> expected = new ArrayList<>();
+        for (int i = transfers.size() - 1; i >= 0; i--) {
+            expected.add(transfers.get(i).getId());
+        }
+        assertEquals(expected, ids);
+    }
+    
+    @Test
+    void testStatementEntryDirection() throws Exception {
+        transferRepository.saveAndFlush(new Transfer(contaId, outraId, new BigDecimal("10.00")));
+        
+        mockMvc.perform(get("/api/contas/" + contaId + "/extrato"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itens[0].tipo").value("DEBIT"))
+                .andExpect(jsonPath("$.itens[0].contraparteAccountId").value(outraId))
+                .andExpect(jsonPath("$.hasMore").value(false));
+        
+        mockMvc.perform(get("/api/contas/" + outraId + "/extrato"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itens[0].tipo").value("CREDIT"))
+                .andExpect(jsonPath("$.itens[0].contraparteAccountId").value(contaId));
+    }
+    
+    @Test
+    void testStatementPageSizeIsCapped() throws Exception {
+        List<Transfer> transfers = new ArrayList<>();
+        for (int i = 0; i < 210; i++) {
+            transfers.add(new Transfer(contaId, outraId, BigDecimal.ONE));
+        }
+        transferRepository.saveAllAndFlush(transfers);
+        
+        mockMvc.perform(get("/api/contas/" + contaId + "/extrato?size=100000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itens.length()").value(200))
+                .andExpect(jsonPath("$.hasMore").value(true));
+    }
+    
+    @Test
+    void testStatementErrors() throws Exception {
+        mockMvc.perform(get("/api/contas/999999/extrato"))
+                .andExpect(status().isNotFound());
+        
+        mockMvc.perform(get("/api/contas/" + contaId + "/extrato?cursor=invalido"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,150 @@
+package com.techmarket;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techmarket.dto.TransferRequest;
+import com.techmarket.entity.Account;
+import com.techmarket.repository.AccountRepository;
+import com.techmarket.repository.TransferOutboxRepository;
+import com.techmarket.repository.TransferRepository;
+import com.techmarket.util.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+// Banco próprio: o contexto fica em cache com os workers ativos, e no testdb compartilhado eles
+// continuariam consultando transfer_outbox depois que outro contexto derruba o schema
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:async-outbox;DB_CLOSE_DELAY=-1",
+    "techmarket.outbox.enabled=true",
+    "techmarket.outbox.poll-interval=PT0.05S",
+    "techmarket.outbox.max-attempts=2"
+})
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+class AsyncTransferTest {
+    
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private TransferRepository transferRepository;
+    
+    @Autowired
+    private TransferOutboxRepository transferOutboxRepository;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private MockMvc mockMvc;
+    private ObjectMapper objectMapper;
+    
+    private Long origemId;
+    private Long destinoId;
+    
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        objectMapper = new ObjectMapper();
+        
+        transferOutboxRepository.deleteAll();
+        transferRepository.deleteAll();
+        accountRepository.deleteAll();
+        
+        origemId = accountRepository.save(new Account("João Silva", new BigDecimal("1000.00"))).getId();
+        destinoId = accountRepository.save(new Account("Maria Santos", new BigDecimal("500.00"))).getId();
+    }
+    
+    @Test
+    void testAsyncTransferCompletes() throws Exception {
+        String codigo = submit(new TransferRequest(origemId, destinoId, new BigDecimal("100.00"), "async-1"));
+        
+        JsonNode status = awaitFinalStatus(codigo);
+        assertEquals("COMPLETED", status.get("status").asText());
+        assertFalse(status.get("transferencia").isNull());
+        assertEquals(0, Money.of("900.00").compareTo(accountRepository.findById(origemId).get().getBalance()));
+        
+        // Reenvio com a mesma chave devolve o mesmo código
+        assertEquals(codigo, submit(new TransferRequest(origemId, destinoId, new BigDecimal("100.00"), "async-1")));
+        
+        // A transferência gravada também é consultável pelo seu próprio código
+        mockMvc.perform(get("/api/transferencias/" + status.get("transferencia").asText()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.status").value("COMPLETED"));
+    }
+    
+    @Test
+    void testAsyncTransferFails() throws Exception {
+        String codigo = submit(new TransferRequest(origemId, destinoId, new BigDecimal("5000.00")));
+        
+        JsonNode status = awaitFinalStatus(codigo);
+        assertEquals("FAILED", status.get("status").asText());
+        assertEquals("Saldo insuficiente na conta de origem", status.get("message").asText());
+        assertEquals(0, transferRepository.count());
+    }
+    
+    @Test
+    void testPoisonRowFailsWithoutBlockingTheBatch() throws Exception {
+        // Valor acima do que Money representa: o lote inteiro falha e a linha é isolada
+        jdbcTemplate.update("INSERT INTO transfer_outbox (codigo, origem_account_id, destino_account_id, valor, status, attempts, created_at) "
+            + "VALUES ('outbox-invalida', ?, ?, 99999999999999999.99, 'PENDING', 0, CURRENT_TIMESTAMP)", origemId, destinoId);
+        String codigo = submit(new TransferRequest(origemId, destinoId, new BigDecimal("100.00")));
+        
+        assertEquals("COMPLETED", awaitFinalStatus(codigo).get("status").asText());
+        JsonNode invalida = awaitFinalStatus("outbox-invalida");
+        assertEquals("FAILED", invalida.get("status").asText());
+        assertTrue(invalida.get("message").asText().endsWith("out of long range"), invalida.toString());
+        assertEquals(2, transferOutboxRepository.findByCodigo("outbox-invalida").get().getAttempts());
+        assertEquals(0, Money.of("900.00").compareTo(accountRepository.findById(origemId).get().getBalance()));
+    }
+    
+    @Test
+    void testUnknownTransferCode() throws Exception {
+        mockMvc.perform(get("/api/transferencias/nao-existe"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error").value("Transfer not found"));
+    }
+    
+    private String submit(TransferRequest request) throws Exception {
+        String body = mockMvc.perform(post("/api/transferencias/async")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.codigo").exists())
+                .andReturn().getResponse().getContentAsString();
+        return objectMapper.readTree(body).get("codigo").asText();
+    }
+    
+    private JsonNode awaitFinalStatus(String codigo) throws Exception {
+        long limite = System.currentTimeMillis() + 10_000;
+        while (System.currentTimeMillis() < limite) {
+            String body = mockMvc.perform(get("/api/transferencias/" + codigo))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            JsonNode status = objectMapper.readTree(body);
+            if (!"PENDING".equals(status.get("status").asText())) {
+                return status;
+            }
+            Thread.sleep(50);
+        }
+        return fail("Transferência " + codigo + " continuou PENDING");
+    }
+}
@@ -0,0 +1,180 @@
+package com.techmarket;
+
+import com.techmarket.dto.BatchTransferRequest;
+import com.techmarket.dto.TransferRequest;
+import com.techmarket.entity.Account;
+import com.techmarket.entity.AccountDailyBalance;
+import com.techmarket.entity.Transfer;
+import com.techmarket.repository.AccountDailyBalanceJdbcRepository;
+import com.techmarket.repository.AccountDailyBalanceRepository;
+import com.techmarket.repository.AccountRepository;
+import com.techmarket.repository.TransferJdbcRepository;
+import com.techmarket.repository.TransferRepository;
+import com.techmarket.service.BalanceSnapshotBackfillJob;
+import com.techmarket.service.TransferEngine;
+import com.techmarket.service.TransferService;
+import com.techmarket.util.Money;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@AutoConfigureWebMvc
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+class BalanceSnapshotTest {
+    
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+    
+    @Autowired
+    private TransferService transferService;
+    
+    @Autowired
+    private BalanceSnapshotBackfillJob balanceSnapshotBackfillJob;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private TransferRepository transferRepository;
+    
+    @Autowired
+    private TransferJdbcRepository transferJdbcRepository;
+    
+    @Autowired
+    private AccountDailyBalanceRepository accountDailyBalanceRepository;
+    
+    @Autowired
+    private AccountDailyBalanceJdbcRepository accountDailyBalanceJdbcRepository;
+    
+    private MockMvc mockMvc;
+    
+    private Long origemId;
+    private Long destinoId;
+    
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        
+        accountDailyBalanceRepository.deleteAll();
+        transferRepository.deleteAll();
+        accountRepository.deleteAll();
+        
+        origemId = accountRepository.save(new Account("João Silva", new BigDecimal("1000.00"))).getId();
+        destinoId = accountRepository.save(new Account("Maria Santos", new BigDecimal("500.00"))).getId();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(transferService, "engine", TransferEngine.JPA);
+    }
+    
+    @Test
+    void testSnapshotsUpdatedByEveryEngine() {
+        transferService.processTransfer(new TransferRequest(origemId, destinoId, new BigDecimal("100.00")));
+        ReflectionTestUtils.setField(transferService, "engine", TransferEngine.JDBC);
+        transferService.processTransfer(new TransferRequest(destinoId, origemId, new BigDecimal("30.00")));
+        transferService.processBatch(List.of(
+            new TransferRequest(origemId, destinoId, new BigDecimal("10.00")),
+            new TransferRequest(origemId, destinoId, new BigDecimal("5.00"))
+        ));
+        
+        LocalDate hoje = LocalDate.now();
+        AccountDailyBalance origem = accountDailyBalanceRepository
+            .findFirstByAccountIdAndDiaLessThanEqualOrderByDiaDesc(origemId, hoje).orElseThrow();
+        assertEquals(hoje, origem.getDia());
+        assertEquals(0, new BigDecimal("915.00").compareTo(origem.getSaldoFinal()));
+        assertEquals(0, new BigDecimal("30.00").compareTo(origem.getCreditos()));
+        assertEquals(0, new BigDecimal("115.00").compareTo(origem.getDebitos()));
+        assertEquals(4, origem.getMovimentos());
+        assertEquals(0, new BigDecimal("1000.00").compareTo(origem.getSaldoInicial()));
+        
+        AccountDailyBalance destino = accountDailyBalanceRepository
+            .findFirstByAccountIdAndDiaLessThanEqualOrderByDiaDesc(destinoId, hoje).orElseThrow();
+        assertEquals(0, new BigDecimal("585.00").compareTo(destino.getSaldoFinal()));
+    }
+    
+    @Test
+    void testBatchCrossingMidnightClosesEachDayWithItsOwnBalance() {
+        // Lote que atravessa a meia-noite: 100 debitados ontem, 50 debitados e 20 creditados hoje
+        LocalDate hoje = LocalDate.now();
+        Account origem = accountRepository.findById(origemId).orElseThrow();
+        origem.setBalance(Money.of("870.00"));
+        accountRepository.saveAndFlush(origem);
+        accountDailyBalanceJdbcRepository.batchApplyMovements(List.of(
+            new AccountDailyBalance(origemId, hoje.minusDays(1), BigDecimal.ZERO, new BigDecimal("100.00"), 1),
+            new AccountDailyBalance(origemId, hoje, new BigDecimal("20.00"), new BigDecimal("50.00"), 2)
+        ));
+        
+        List<AccountDailyBalance> snapshots = accountDailyBalanceRepository.findByAccountIdOrderByDiaAsc(origemId);
+        assertEquals(2, snapshots.size());
+        assertEquals(0, new BigDecimal("900.00").compareTo(snapshots.get(0).getSaldoFinal()));
+        assertEquals(0, new BigDecimal("1000.00").compareTo(snapshots.get(0).getSaldoInicial()));
+        assertEquals(0, new BigDecimal("870.00").compareTo(snapshots.get(1).getSaldoFinal()));
+        assertEquals(0, new BigDecimal("900.00").compareTo(snapshots.get(1).getSaldoInicial()));
+    }
+    
+    @Test
+    void testBackfillAndPeriodSummary() throws Exception {
+        // Histórico gravado sem snapshots: 100 (dia 1), 50 (dia 2), 20 de volta (dia 3), 40 (dia 5)
+        LocalDateTime base = LocalDateTime.of(2025, 3, 1, 9, 0);
+        transferJdbcRepository.batchInsert(List.of(
+            transferAt(origemId, destinoId, "100.00", base),
+            transferAt(origemId, destinoId, "50.00", base.plusDays(1)),
+            transferAt(destinoId, origemId, "20.00", base.plusDays(2)),
+            transferAt(origemId, destinoId, "40.00", base.plusDays(4))
+        ));
+        Account origem = accountRepository.findById(origemId).orElseThrow();
+        origem.setBalance(Money.of("830.00"));
+        accountRepository.saveAndFlush(origem);
+        
+        balanceSnapshotBackfillJob.backfill();
+        assertEquals(4, accountDailyBalanceRepository.findByAccountIdOrderByDiaAsc(origemId).size());
+        
+        mockMvc.perform(get("/api/contas/" + origemId + "/resumo?inicio=2025-03-02&fim=2025-03-04&limite=1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.saldoInicial").value(900.00))
+                .andExpect(jsonPath("$.saldoFinal").value(870.00))
+                .andExpect(jsonPath("$.creditos").value(20.00))
+                .andExpect(jsonPath("$.debitos").value(50.00))
+                .andExpect(jsonPath("$.movimentos.length()").value(1))
+                .andExpect(jsonPath("$.movimentos[0].tipo").value("CREDIT"));
+        
+        // Antes do primeiro snapshot vale o saldo de abertura; depois do último, o saldo atual
+        mockMvc.perform(get("/api/contas/" + origemId + "/resumo?inicio=2025-01-01&fim=2025-01-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.saldoInicial").value(1000.00))
+                .andExpect(jsonPath("$.saldoFinal").value(1000.00))
+                .andExpect(jsonPath("$.movimentos.length()").value(0));
+        mockMvc.perform(get("/api/contas/" + origemId + "/resumo?inicio=2025-03-01&fim=2025-12-31"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.saldoInicial").value(1000.00))
+                .andExpect(jsonPath("$.saldoFinal").value(830.00))
+                .andExpect(jsonPath("$.movimentos.length()").value(4));
+    }
+    
+    private Transfer transferAt(Long origem, Long destino, String valor, LocalDateTime timestamp) {
+        Transfer transfer = new Transfer(origem, destino, new BigDecimal(valor));
+        transfer.setTimestamp(timestamp);
+        return transfer;
+    }
+}
@@ -0,0 +1,108 @@
+package com.techmarket;
+
+import com.techmarket.dto.TransferRequest;
+import com.techmarket.entity.Account;
+import com.techmarket.exception.AccountNotFoundException;
+import com.techmarket.exception.DuplicateIdempotencyKeyException;
+import com.techmarket.exception.InsufficientBalanceException;
+import com.techmarket.repository.AccountRepository;
+import com.techmarket.repository.TransferRepository;
+import com.techmarket.service.AccountBalanceCache;
+import com.techmarket.service.TransferIdempotencyService;
+import com.techmarket.service.TransferService;
+import com.techmarket.util.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "techmarket.transfer.engine=JDBC")
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+class DirectTransferEngineTest {
+    
+    @Autowired
+    private TransferService transferService;
+    
+    @Autowired
+    private TransferIdempotencyService transferIdempotencyService;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private TransferRepository transferRepository;
+    
+    @Autowired
+    private AccountBalanceCache accountBalanceCache;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private Long origemId;
+    private Long destinoId;
+    
+    @BeforeEach
+    void setUp() {
+        transferRepository.deleteAll();
+        accountRepository.deleteAll();
+        
+        origemId = accountRepository.save(new Account("João Silva", new BigDecimal("1000.00"))).getId();
+        destinoId = accountRepository.save(new Account("Maria Santos", new BigDecimal("500.00"))).getId();
+    }
+    
+    @Test
+    void testTransferSuccess() {
+        var response = transferIdempotencyService.processTransfer(new TransferRequest(destinoId, origemId, new BigDecimal("100.00"), "direta-1"));
+        
+        assertEquals("success", response.getStatus());
+        Account origem = accountRepository.findById(origemId).get();
+        Account destino = accountRepository.findById(destinoId).get();
+        assertEquals(0, Money.of("1100.00").compareTo(origem.getBalance()));
+        assertEquals(0, Money.of("400.00").compareTo(destino.getBalance()));
+        assertEquals(1L, destino.getVersion());
+        // Saldo e versão relidos na própria transação chegam ao cache no commit
+        assertEquals(Money.of("400.00"), accountBalanceCache.get(destinoId).get().getBalance());
+        assertEquals(1L, accountBalanceCache.get(destinoId).get().getVersion());
+        // Lançamentos DEBIT/CREDIT gravados em batch na mesma transação
+        assertEquals(2, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transacoes WHERE transfer_id = " +
+            "(SELECT id FROM transfers WHERE idempotency_key = 'direta-1')", Integer.class));
+        
+        // Reenvio com a mesma chave devolve a transferência original
+        var replay = transferIdempotencyService.processTransfer(new TransferRequest(destinoId, origemId, new BigDecimal("100.00"), "direta-1"));
+        assertEquals(response.getCodigo(), replay.getCodigo());
+        assertEquals(1, transferRepository.count());
+        
+        // Sem a camada de idempotência, a constraint única vira DuplicateIdempotencyKeyException
+        assertThrows(DuplicateIdempotencyKeyException.class, () ->
+            transferService.processTransfer(new TransferRequest(destinoId, origemId, new BigDecimal("100.00"), "direta-1")));
+        assertEquals(0, Money.of("400.00").compareTo(accountRepository.findById(destinoId).get().getBalance()));
+    }
+    
+    @Test
+    void testTransferInsufficientBalance() {
+        assertThrows(InsufficientBalanceException.class, () ->
+            transferService.processTransfer(new TransferRequest(destinoId, origemId, new BigDecimal("500.01"))));
+        
+        assertEquals(0, Money.of("500.00").compareTo(accountRepository.findById(destinoId).get().getBalance()));
+        assertEquals(0, transferRepository.count());
+    }
+    
+    @Test
+    void testTransferAccountNotFoundRollsBackDebit() {
+        assertThrows(AccountNotFoundException.class, () ->
+            transferService.processTransfer(new TransferRequest(origemId, 999_999L, new BigDecimal("100.00"))));
+        assertThrows(AccountNotFoundException.class, () ->
+            transferService.processTransfer(new TransferRequest(999_999L, origemId, new BigDecimal("100.00"))));
+        
+        assertEquals(0, Money.of("1000.00").compareTo(accountRepository.findById(origemId).get().getBalance()));
+        assertEquals(0, transferRepository.count());
+    }
+}
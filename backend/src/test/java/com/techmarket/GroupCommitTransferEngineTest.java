@@ -0,0 +1,79 @@
+package com.techmarket;
+
+import com.techmarket.dto.TransferRequest;
+import com.techmarket.entity.Account;
+import com.techmarket.exception.InsufficientBalanceException;
+import com.techmarket.repository.AccountRepository;
+import com.techmarket.repository.TransferRepository;
+import com.techmarket.service.TransferService;
+import com.techmarket.util.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "techmarket.transfer.engine=GROUP_COMMIT")
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+class GroupCommitTransferEngineTest {
+    
+    @Autowired
+    private TransferService transferService;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private TransferRepository transferRepository;
+    
+    private Long contaA;
+    private Long contaB;
+    
+    @BeforeEach
+    void setUp() {
+        transferRepository.deleteAll();
+        accountRepository.deleteAll();
+        
+        contaA = accountRepository.save(new Account("Conta A", new BigDecimal("1000.00"))).getId();
+        contaB = accountRepository.save(new Account("Conta B", new BigDecimal("1000.00"))).getId();
+    }
+    
+    @Test
+    void testConcurrentTransfersAreCommitted() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < 400; i++) {
+            boolean aParaB = i % 2 == 0;
+            futures.add(executor.submit(() -> transferService.processTransfer(aParaB
+                ? new TransferRequest(contaA, contaB, new BigDecimal("1.00"))
+                : new TransferRequest(contaB, contaA, new BigDecimal("1.00")))));
+        }
+        for (Future<?> future : futures) {
+            future.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        
+        assertEquals(400, transferRepository.count());
+        assertEquals(0, Money.of("1000.00").compareTo(accountRepository.findById(contaA).get().getBalance()));
+        assertEquals(0, Money.of("1000.00").compareTo(accountRepository.findById(contaB).get().getBalance()));
+    }
+    
+    @Test
+    void testInsufficientBalanceIsReportedToCaller() {
+        assertThrows(InsufficientBalanceException.class, () ->
+            transferService.processTransfer(new TransferRequest(contaA, contaB, new BigDecimal("1000.01"))));
+        assertEquals(0, transferRepository.count());
+    }
+}
@@ -0,0 +1,114 @@
+package com.techmarket;
+
+import com.techmarket.dto.BatchTransferItemResponse;
+import com.techmarket.dto.BatchTransferResponse;
+import com.techmarket.dto.TransferRequest;
+import com.techmarket.dto.TransferResponse;
+import com.techmarket.exception.InsufficientBalanceException;
+import com.techmarket.exception.TransferQueueFullException;
+import com.techmarket.service.GroupCommitTransferExecutor;
+import com.techmarket.util.Money;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GroupCommitTransferExecutorTest {
+    
+    private GroupCommitTransferExecutor executor;
+    
+    @AfterEach
+    void tearDown() {
+        if (executor != null) {
+            executor.shutdown(Duration.ofSeconds(5));
+        }
+    }
+    
+    @Test
+    void testRequestsAreCommittedInMicroBatches() throws Exception {
+        List<Integer> lotes = new CopyOnWriteArrayList<>();
+        executor = new GroupCommitTransferExecutor(1, 50, Duration.ofMillis(50), 1000, Duration.ofSeconds(1), requests -> {
+            lotes.add(requests.size());
+            return successFor(requests);
+        });
+        
+        List<CompletableFuture<TransferResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            futures.add(executor.submit(new TransferRequest(1L, 2L, new BigDecimal("1.00"))));
+        }
+        for (CompletableFuture<TransferResponse> future : futures) {
+            assertEquals("success", future.get(5, TimeUnit.SECONDS).getStatus());
+        }
+        
+        assertEquals(200, lotes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(lotes.size() < 200, () -> "Transferências não foram agrupadas: " + lotes);
+        assertTrue(lotes.stream().allMatch(tamanho -> tamanho <= 50));
+    }
+    
+    @Test
+    void testItemFailureCompletesOnlyThatFuture() throws Exception {
+        executor = new GroupCommitTransferExecutor(1, 10, Duration.ofMillis(20), 100, Duration.ofSeconds(1), requests -> {
+            List<BatchTransferItemResponse> itens = new ArrayList<>();
+            for (int i = 0; i < requests.size(); i++) {
+                TransferRequest request = requests.get(i);
+                String status = request.getValor().compareTo(Money.of("100.00")) > 0
+                    ? BatchTransferItemResponse.STATUS_INSUFFICIENT_BALANCE
+                    : BatchTransferItemResponse.STATUS_SUCCESS;
+                itens.add(new BatchTransferItemResponse(i, status, "codigo-" + i, request.getOrigem(), request.getDestino(), request.getValor(), null, "Saldo insuficiente na conta de origem"));
+            }
+            return new BatchTransferResponse(itens);
+        });
+        
+        CompletableFuture<TransferResponse> ok = executor.submit(new TransferRequest(1L, 2L, new BigDecimal("10.00")));
+        CompletableFuture<TransferResponse> falha = executor.submit(new TransferRequest(1L, 2L, new BigDecimal("500.00")));
+        
+        assertEquals("success", ok.get(5, TimeUnit.SECONDS).getStatus());
+        ExecutionException e = assertThrows(ExecutionException.class, () -> falha.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(InsufficientBalanceException.class, e.getCause());
+    }
+    
+    @Test
+    void testFullQueueRejectsWithBackPressure() throws Exception {
+        CountDownLatch liberar = new CountDownLatch(1);
+        Function<List<TransferRequest>, BatchTransferResponse> lento = requests -> {
+            try {
+                liberar.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return successFor(requests);
+        };
+        executor = new GroupCommitTransferExecutor(1, 1, Duration.ZERO, 2, Duration.ofMillis(10), lento);
+        
+        // Um item fica preso no escritor e dois ocupam a fila
+        executor.submit(new TransferRequest(1L, 2L, new BigDecimal("1.00")));
+        Thread.sleep(100);
+        executor.submit(new TransferRequest(1L, 2L, new BigDecimal("1.00")));
+        executor.submit(new TransferRequest(1L, 2L, new BigDecimal("1.00")));
+        
+        assertThrows(TransferQueueFullException.class, () ->
+            executor.submit(new TransferRequest(1L, 2L, new BigDecimal("1.00"))));
+        liberar.countDown();
+    }
+    
+    private static BatchTransferResponse successFor(List<TransferRequest> requests) {
+        List<BatchTransferItemResponse> itens = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            TransferRequest request = requests.get(i);
+            itens.add(new BatchTransferItemResponse(i, BatchTransferItemResponse.STATUS_SUCCESS, "codigo-" + i,
+                request.getOrigem(), request.getDestino(), request.getValor(), null, null));
+        }
+        return new BatchTransferResponse(itens);
+    }
+}
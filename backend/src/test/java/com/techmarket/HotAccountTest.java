@@ -0,0 +1,236 @@
+package com.techmarket;
+
+import com.techmarket.dto.BatchTransferItemResponse;
+import com.techmarket.dto.StatementSummaryResponse;
+import com.techmarket.dto.TransferRequest;
+import com.techmarket.dto.TransferResponse;
+import com.techmarket.exception.InsufficientBalanceException;
+import com.techmarket.service.AccountBalanceCache;
+import com.techmarket.service.AccountBalanceService;
+import com.techmarket.service.BalanceSnapshotBackfillJob;
+import com.techmarket.service.HotAccountBalances;
+import com.techmarket.service.HotAccountConsolidationJob;
+import com.techmarket.service.StatementService;
+import com.techmarket.service.TransferEngine;
+import com.techmarket.service.TransferService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Contas 901 e 902 quentes, com 4 slots; 903 é uma conta comum. O job só prepara os slots na subida
+// (sem contas ainda): cada teste cria as contas e prepara os slots, e a consolidação é chamada à mão
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:hot-accounts;DB_CLOSE_DELAY=-1",
+    "techmarket.hot-accounts.ids=901,902",
+    "techmarket.hot-accounts.slots=4",
+    "techmarket.hot-accounts.consolidation-interval=PT1H"
+})
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+class HotAccountTest {
+    
+    private static final List<String> TABELAS = List.of(
+        "account_balance_slots", "account_daily_balances", "transacoes", "idempotency_keys", "transfers", "accounts");
+    
+    @Autowired
+    private TransferService transferService;
+    
+    @Autowired
+    private AccountBalanceService accountBalanceService;
+    
+    @Autowired
+    private AccountBalanceCache accountBalanceCache;
+    
+    @Autowired
+    private HotAccountBalances hotAccountBalances;
+    
+    @Autowired
+    private HotAccountConsolidationJob hotAccountConsolidationJob;
+    
+    @Autowired
+    private BalanceSnapshotBackfillJob balanceSnapshotBackfillJob;
+    
+    @Autowired
+    private StatementService statementService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    @BeforeEach
+    void setUp() {
+        TABELAS.forEach(tabela -> jdbcTemplate.update("DELETE FROM " + tabela));
+        accountBalanceCache.clear();
+        
+        insertAccount(901L, "1000.00");
+        insertAccount(902L, "0.00");
+        insertAccount(903L, "1000.00");
+        hotAccountBalances.prepareSlots();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(transferService, "engine", TransferEngine.JPA);
+    }
+    
+    @Test
+    void testCreditsToHotAccountGoToSlotsInEveryEngine() {
+        assertTrue(hotAccountBalances.isStriped(901L, LocalDate.now()));
+        assertFalse(hotAccountBalances.isStriped(903L, LocalDate.now()));
+        
+        for (TransferEngine engine : List.of(TransferEngine.JPA, TransferEngine.JDBC, TransferEngine.OPTIMISTIC)) {
+            ReflectionTestUtils.setField(transferService, "engine", engine);
+            TransferResponse response = transferService.processTransfer(new TransferRequest(903L, 901L, new BigDecimal("100.00")));
+            assertEquals("success", response.getStatus());
+            assertEquals(901L, response.getDestinoAccountId());
+        }
+        
+        // A linha da conta quente não foi tocada; o saldo lógico já inclui os créditos
+        assertBalance(901L, "1000.00");
+        assertBalance(903L, "700.00");
+        assertEquals(0, new BigDecimal("300.00").compareTo(pending(901L)));
+        assertLogicalBalance(901L, "1300.00");
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transfers WHERE destino_account_id = 901", Integer.class));
+        assertEquals(3, jdbcTemplate.queryForObject("SELECT COUNT(*) FROM transacoes WHERE account_id = 901", Integer.class));
+        
+        assertEquals(1, hotAccountConsolidationJob.consolidateAll());
+        assertBalance(901L, "1300.00");
+        assertEquals(0, BigDecimal.ZERO.compareTo(pending(901L)));
+        assertLogicalBalance(901L, "1300.00");
+        Map<String, Object> hoje = snapshot(901L, LocalDate.now());
+        assertDecimal("1300.00", hoje.get("saldo_final"));
+        assertDecimal("300.00", hoje.get("creditos"));
+        assertEquals(3, ((Number) hoje.get("movimentos")).intValue());
+        assertEquals(0, hotAccountConsolidationJob.consolidateAll());
+    }
+    
+    @Test
+    void testDebitConsolidatesSlotsBeforeRejecting() {
+        double consolidacoes = consolidations(HotAccountBalances.TRIGGER_DEBIT);
+        transferService.processTransfer(new TransferRequest(903L, 902L, new BigDecimal("50.00")));
+        transferService.processTransfer(new TransferRequest(903L, 902L, new BigDecimal("30.00")));
+        assertBalance(902L, "0.00");
+        assertLogicalBalance(902L, "80.00");
+        
+        // O saldo da conta (zero) não cobre o débito, o saldo lógico cobre
+        TransferResponse response = transferService.processTransfer(new TransferRequest(902L, 903L, new BigDecimal("70.00")));
+        assertEquals("success", response.getStatus());
+        assertBalance(902L, "10.00");
+        assertEquals(0, BigDecimal.ZERO.compareTo(pending(902L)));
+        assertEquals(consolidacoes + 1, consolidations(HotAccountBalances.TRIGGER_DEBIT));
+        
+        // Mesma mensagem e nenhuma alteração quando nem o saldo lógico cobre
+        transferService.processTransfer(new TransferRequest(903L, 902L, new BigDecimal("5.00")));
+        InsufficientBalanceException exception = assertThrows(InsufficientBalanceException.class,
+            () -> transferService.processTransfer(new TransferRequest(902L, 903L, new BigDecimal("20.00"))));
+        assertEquals("Saldo insuficiente na conta de origem", exception.getMessage());
+        assertLogicalBalance(902L, "15.00");
+        assertEquals(0, new BigDecimal("5.00").compareTo(pending(902L)));
+        assertBalance(903L, "985.00");
+    }
+    
+    @Test
+    void testConsolidationAppliesPendingCreditsToDailySnapshots() {
+        LocalDate hoje = LocalDate.now();
+        transferService.processTransfer(new TransferRequest(903L, 901L, new BigDecimal("100.00")));
+        transferService.processTransfer(new TransferRequest(901L, 903L, new BigDecimal("50.00")));
+        // Crédito de ontem ainda no slot, sem snapshot do dia
+        jdbcTemplate.update("INSERT INTO account_balance_slots (account_id, dia, slot, creditos, movimentos) VALUES (901, ?, 0, 40, 1)",
+            Date.valueOf(hoje.minusDays(1)));
+        
+        // Até a consolidação, o snapshot de hoje só tem o débito
+        assertDecimal("950.00", snapshot(901L, hoje).get("saldo_final"));
+        
+        hotAccountConsolidationJob.consolidateAll();
+        assertBalance(901L, "1090.00");
+        Map<String, Object> ontem = snapshot(901L, hoje.minusDays(1));
+        assertDecimal("1040.00", ontem.get("saldo_final"));
+        assertDecimal("40.00", ontem.get("creditos"));
+        Map<String, Object> doDia = snapshot(901L, hoje);
+        assertDecimal("1090.00", doDia.get("saldo_final"));
+        assertDecimal("100.00", doDia.get("creditos"));
+        assertDecimal("50.00", doDia.get("debitos"));
+        assertEquals(2, ((Number) doDia.get("movimentos")).intValue());
+    }
+    
+    @Test
+    void testBackfillAndBatchConsolidatePendingCredits() {
+        transferService.processTransfer(new TransferRequest(903L, 901L, new BigDecimal("100.00")));
+        balanceSnapshotBackfillJob.backfillAccount(901L);
+        assertBalance(901L, "1100.00");
+        assertEquals(0, BigDecimal.ZERO.compareTo(pending(901L)));
+        assertDecimal("1100.00", snapshot(901L, LocalDate.now()).get("saldo_final"));
+        
+        // No lote, a conta quente entra com os créditos pendentes
+        transferService.processTransfer(new TransferRequest(903L, 902L, new BigDecimal("60.00")));
+        List<BatchTransferItemResponse> itens = transferService.processBatch(List.of(
+            new TransferRequest(902L, 903L, new BigDecimal("50.00")),
+            new TransferRequest(902L, 903L, new BigDecimal("50.00")))).getItens();
+        assertEquals(BatchTransferItemResponse.STATUS_SUCCESS, itens.get(0).getStatus());
+        assertEquals(BatchTransferItemResponse.STATUS_INSUFFICIENT_BALANCE, itens.get(1).getStatus());
+        assertBalance(902L, "10.00");
+        assertEquals(0, BigDecimal.ZERO.compareTo(pending(902L)));
+        assertDecimal("10.00", snapshot(902L, LocalDate.now()).get("saldo_final"));
+    }
+    
+    @Test
+    void testSummaryWithoutSnapshotIncludesPendingCredits() {
+        transferService.processTransfer(new TransferRequest(903L, 902L, new BigDecimal("100.00")));
+        assertEquals(0, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM account_daily_balances WHERE account_id = 902", Integer.class));
+        
+        // Sem snapshot da conta quente, /resumo e /saldo chegam ao mesmo valor
+        StatementSummaryResponse resumo = statementService.getSummary(902L, LocalDate.now(), LocalDate.now(), 10);
+        assertDecimal("100.00", resumo.getSaldoFinal());
+        assertLogicalBalance(902L, "100.00");
+    }
+    
+    private void insertAccount(Long id, String saldo) {
+        jdbcTemplate.update("INSERT INTO accounts (id, owner, balance, version) VALUES (?, ?, ?, 0)",
+            id, "Conta " + id, new BigDecimal(saldo));
+    }
+    
+    private void assertBalance(Long accountId, String esperado) {
+        BigDecimal saldo = jdbcTemplate.queryForObject("SELECT balance FROM accounts WHERE id = ?", BigDecimal.class, accountId);
+        assertEquals(0, new BigDecimal(esperado).compareTo(saldo), "saldo da conta " + accountId + ": " + saldo);
+    }
+    
+    private void assertLogicalBalance(Long accountId, String esperado) {
+        BigDecimal saldo = accountBalanceService.getBalance(accountId).getSaldo().toBigDecimal();
+        assertEquals(0, new BigDecimal(esperado).compareTo(saldo), "saldo lógico da conta " + accountId + ": " + saldo);
+    }
+    
+    private static void assertDecimal(String esperado, Object valor) {
+        assertEquals(0, new BigDecimal(esperado).compareTo((BigDecimal) valor), "valor: " + valor);
+    }
+    
+    private BigDecimal pending(Long accountId) {
+        return hotAccountBalances.getPending(accountId).toBigDecimal();
+    }
+    
+    private Map<String, Object> snapshot(Long accountId, LocalDate dia) {
+        return jdbcTemplate.queryForMap("SELECT saldo_final, creditos, debitos, movimentos FROM account_daily_balances " +
+            "WHERE account_id = ? AND dia = ?", accountId, Date.valueOf(dia));
+    }
+    
+    private double consolidations(String trigger) {
+        return meterRegistry.counter(HotAccountBalances.CONSOLIDATIONS_COUNTER, "trigger", trigger).count();
+    }
+}
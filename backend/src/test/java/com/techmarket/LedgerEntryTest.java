@@ -0,0 +1,108 @@
+package com.techmarket;
+
+import com.techmarket.dto.TransferRequest;
+import com.techmarket.entity.Account;
+import com.techmarket.entity.LedgerEntry;
+import com.techmarket.entity.LedgerEntryType;
+import com.techmarket.entity.Transfer;
+import com.techmarket.exception.InsufficientBalanceException;
+import com.techmarket.repository.AccountRepository;
+import com.techmarket.repository.LedgerEntryRepository;
+import com.techmarket.repository.TransferRepository;
+import com.techmarket.service.TransferService;
+import com.techmarket.util.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+class LedgerEntryTest {
+    
+    @Autowired
+    private TransferService transferService;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private TransferRepository transferRepository;
+    
+    @Autowired
+    private LedgerEntryRepository ledgerEntryRepository;
+    
+    private Long origemId;
+    private Long destinoId;
+    
+    @BeforeEach
+    void setUp() {
+        ledgerEntryRepository.deleteAll();
+        transferRepository.deleteAll();
+        accountRepository.deleteAll();
+        
+        origemId = accountRepository.save(new Account("João Silva", new BigDecimal("1000.00"))).getId();
+        destinoId = accountRepository.save(new Account("Maria Santos", new BigDecimal("500.00"))).getId();
+    }
+    
+    @Test
+    void testTransferWritesDebitAndCredit() {
+        var response = transferService.processTransfer(new TransferRequest(origemId, destinoId, new BigDecimal("100.00")));
+        
+        Transfer transfer = transferRepository.findByCodigoUUID(UUID.fromString(response.getCodigo())).orElseThrow();
+        List<LedgerEntry> entries = ledgerEntryRepository.findByTransferIdOrderById(transfer.getId());
+        assertEquals(2, entries.size());
+        
+        LedgerEntry debit = entries.get(0);
+        assertEquals(LedgerEntryType.DEBIT, debit.getTipo());
+        assertEquals(origemId, debit.getAccountId());
+        assertEquals(Money.of("100.00"), debit.getValor());
+        assertEquals(transfer.getTimestamp(), debit.getData());
+        assertEquals("Transferência para conta " + destinoId, debit.getDescricao());
+        
+        LedgerEntry credit = entries.get(1);
+        assertEquals(LedgerEntryType.CREDIT, credit.getTipo());
+        assertEquals(destinoId, credit.getAccountId());
+        assertEquals("Transferência da conta " + origemId, credit.getDescricao());
+    }
+    
+    @Test
+    void testBatchWritesEntriesOnlyForSuccessfulItems() {
+        transferService.processBatch(List.of(
+            new TransferRequest(origemId, destinoId, new BigDecimal("100.00")),
+            new TransferRequest(origemId, destinoId, new BigDecimal("5000.00")),
+            new TransferRequest(destinoId, origemId, new BigDecimal("50.00"))));
+        
+        assertEquals(2, transferRepository.count());
+        assertEquals(4, ledgerEntryRepository.count());
+        // Partida dobrada: débitos e créditos somam o mesmo valor
+        Money debitos = Money.ZERO;
+        Money creditos = Money.ZERO;
+        for (LedgerEntry entry : ledgerEntryRepository.findAll()) {
+            if (entry.getTipo() == LedgerEntryType.DEBIT) {
+                debitos = debitos.plus(entry.getValor());
+            } else {
+                creditos = creditos.plus(entry.getValor());
+            }
+        }
+        assertEquals(Money.of("150.00"), debitos);
+        assertEquals(debitos, creditos);
+    }
+    
+    @Test
+    void testFailedTransferWritesNoEntries() {
+        assertThrows(InsufficientBalanceException.class, () ->
+            transferService.processTransfer(new TransferRequest(origemId, destinoId, new BigDecimal("1000.01"))));
+        
+        assertEquals(0, ledgerEntryRepository.count());
+    }
+}
@@ -0,0 +1,77 @@
+package com.techmarket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.exc.InvalidFormatException;
+import com.techmarket.dto.TransferRequest;
+import com.techmarket.dto.TransferResponse;
+import com.techmarket.util.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MoneyTest {
+    
+    private final ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json().build();
+    
+    @Test
+    void parsesExactlyToCents() {
+        assertEquals(123_450, Money.of("1234.5").cents());
+        assertEquals(100, Money.of("1").cents());
+        assertEquals(-5, Money.of("-0.05").cents());
+        assertEquals(1_000, Money.of("10.0000").cents());
+        assertEquals(150_000, Money.of("1.5e3").cents());
+        assertEquals(Money.of("99.99"), Money.of(new BigDecimal("99.990")));
+        
+        assertThrows(ArithmeticException.class, () -> Money.of("10.001"));
+        assertThrows(ArithmeticException.class, () -> Money.of(new BigDecimal("0.125")));
+        assertThrows(NumberFormatException.class, () -> Money.of("12a"));
+        assertThrows(NumberFormatException.class, () -> Money.of("."));
+    }
+    
+    @Test
+    void arithmeticIsOverflowChecked() {
+        Money saldo = Money.of("1000.00");
+        assertEquals(Money.of("900.00"), saldo.minus(Money.of("100.00")));
+        assertEquals(Money.of("1100.01"), saldo.plus(Money.of("100.01")));
+        assertTrue(saldo.isLessThan(Money.of("1000.01")));
+        
+        Money maximo = Money.ofCents(Long.MAX_VALUE);
+        assertThrows(ArithmeticException.class, () -> maximo.plus(Money.ofCents(1)));
+        assertThrows(ArithmeticException.class, () -> Money.ofCents(Long.MIN_VALUE).minus(Money.ofCents(1)));
+        assertThrows(ArithmeticException.class, () -> Money.of("92233720368547758.08"));
+    }
+    
+    @Test
+    void formatsWithTwoDecimals() {
+        assertEquals("1234.50", Money.of("1234.5").toString());
+        assertEquals("-0.05", Money.ofCents(-5).toString());
+        assertEquals("0.00", Money.ZERO.toString());
+        assertEquals(new BigDecimal("-92233720368547758.08"), Money.ofCents(Long.MIN_VALUE).toBigDecimal());
+        assertEquals(Money.ofCents(Long.MIN_VALUE).toBigDecimal().toPlainString(), Money.ofCents(Long.MIN_VALUE).toString());
+    }
+    
+    @Test
+    void jsonRoundTripIsExact() throws Exception {
+        TransferRequest request = objectMapper.readValue(
+            "{\"origem\":1,\"destino\":2,\"valor\":100.10,\"idempotencyKey\":\"k\"}", TransferRequest.class);
+        assertEquals(10_010, request.getValor().cents());
+        assertEquals(Money.of("0.10"), objectMapper.readValue("{\"valor\":\"0.1\"}", TransferRequest.class).getValor());
+        
+        TransferResponse response = new TransferResponse("c", "success", 1L, 2L, Money.of("100.1"),
+            LocalDateTime.of(2025, 1, 2, 3, 4, 5));
+        String json = objectMapper.writeValueAsString(response);
+        assertTrue(json.contains("\"valor\":100.10"), json);
+        assertEquals(response.getValor(), objectMapper.readValue(json, TransferResponse.class).getValor());
+        
+        assertThrows(InvalidFormatException.class,
+            () -> objectMapper.readValue("{\"valor\":100.001}", TransferRequest.class));
+        assertThrows(InvalidFormatException.class,
+            () -> objectMapper.readValue("{\"valor\":99999999999999999999}", TransferRequest.class));
+    }
+}
@@ -0,0 +1,130 @@
+package com.techmarket;
+
+import com.techmarket.dto.TransferRequest;
+import com.techmarket.entity.Account;
+import com.techmarket.exception.InsufficientBalanceException;
+import com.techmarket.repository.AccountRepository;
+import com.techmarket.repository.TransferRepository;
+import com.techmarket.service.TransferService;
+import com.techmarket.util.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest(properties = "techmarket.transfer.engine=OPTIMISTIC")
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+class OptimisticTransferEngineTest {
+
+    @Autowired
+    private TransferService transferService;
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Autowired
+    private TransferRepository transferRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private Long origemId;
+    private Long destinoId;
+
+    @BeforeEach
+    void setUp() {
+        transferRepository.deleteAll();
+        accountRepository.deleteAll();
+
+        origemId = accountRepository.save(new Account("João Silva", new BigDecimal("1000.00"))).getId();
+        destinoId = accountRepository.save(new Account("Maria Santos", new BigDecimal("500.00"))).getId();
+    }
+
+    @Test
+    void testTransferSuccess() {
+        var response = transferService.processTransfer(new TransferRequest(destinoId, origemId, new BigDecimal("100.00")));
+
+        assertEquals("success", response.getStatus());
+        Account origem = accountRepository.findById(origemId).get();
+        Account destino = accountRepository.findById(destinoId).get();
+        assertEquals(Money.of("1100.00"), origem.getBalance());
+        assertEquals(Money.of("400.00"), destino.getBalance());
+        assertEquals(1L, destino.getVersion());
+
+        assertThrows(InsufficientBalanceException.class, () ->
+            transferService.processTransfer(new TransferRequest(destinoId, origemId, new BigDecimal("400.01"))));
+        assertEquals(1, transferRepository.count());
+    }
+
+    @Test
+    void testStaleVersionIsDetectedAtFlush() {
+        // Outra transação grava a conta entre a leitura e o flush
+        assertThrows(OptimisticLockingFailureException.class, () -> transactionTemplate.execute(status -> {
+            Account account = accountRepository.findById(origemId).get();
+            jdbcTemplate.update("UPDATE accounts SET version = version + 1 WHERE id = ?", origemId);
+            account.setBalance(Money.of("1.00"));
+            accountRepository.flush();
+            return null;
+        }));
+
+        assertEquals(Money.of("1000.00"), accountRepository.findById(origemId).get().getBalance());
+    }
+
+    @Test
+    void testConcurrentTransfersOnHotAccountKeepTotals() throws Exception {
+        List<Long> outras = new ArrayList<>();
+        for (int i = 0; i < 4; i++) {
+            outras.add(accountRepository.save(new Account("Conta " + i, new BigDecimal("1000.00"))).getId());
+        }
+
+        // Todas as transferências passam pela conta de origem, em sentidos alternados
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                Long outra = outras.get(t % outras.size());
+                boolean envia = t % 2 == 0;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < 20; i++) {
+                        transferService.processTransfer(envia
+                            ? new TransferRequest(origemId, outra, new BigDecimal("1.00"))
+                            : new TransferRequest(outra, origemId, new BigDecimal("1.00")));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(160, transferRepository.count());
+        // 4 threads enviam e 4 recebem o mesmo total
+        assertEquals(Money.of("1000.00"), accountRepository.findById(origemId).get().getBalance());
+        assertEquals(160L, accountRepository.findById(origemId).get().getVersion());
+        Money total = Money.ZERO;
+        for (Account account : accountRepository.findAll()) {
+            total = total.plus(account.getBalance());
+        }
+        assertEquals(Money.of("5500.00"), total);
+    }
+}
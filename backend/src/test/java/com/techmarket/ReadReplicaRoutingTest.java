@@ -0,0 +1,190 @@
+package com.techmarket;
+
+import com.techmarket.config.ReadWriteRoutingDataSource;
+import com.techmarket.dto.StatementEntryResponse;
+import com.techmarket.dto.TransferRequest;
+import com.techmarket.entity.Account;
+import com.techmarket.entity.Transfer;
+import com.techmarket.repository.AccountRepository;
+import com.techmarket.repository.TransferJdbcRepository;
+import com.techmarket.repository.TransferRepository;
+import com.techmarket.service.AccountBalanceService;
+import com.techmarket.service.ReplicaLagMonitor;
+import com.techmarket.service.StatementService;
+import com.techmarket.service.TransferService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Primário e duas réplicas em H2 separados; a "replicação" é uma cópia do primário feita pelo teste,
+// e cada réplica recebe depois uma transferência marcadora que só existe nela
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:routing-primary;DB_CLOSE_DELAY=-1",
+    "techmarket.datasource.replicas.urls=" + ReadReplicaRoutingTest.REPLICA_1 + "," + ReadReplicaRoutingTest.REPLICA_2,
+    "techmarket.datasource.replicas.heartbeat-interval=PT1H",
+    "techmarket.datasource.replicas.max-lag=PT2H",
+    "techmarket.balance.cache.enabled=false"
+})
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+class ReadReplicaRoutingTest {
+    
+    static final String REPLICA_1 = "jdbc:h2:mem:routing-replica-1;DB_CLOSE_DELAY=-1";
+    static final String REPLICA_2 = "jdbc:h2:mem:routing-replica-2;DB_CLOSE_DELAY=-1";
+    
+    private static final long MARCADOR_1 = 900_001L;
+    private static final long MARCADOR_2 = 900_002L;
+    private static final BigDecimal SALDO_REPLICA = new BigDecimal("12345.00");
+    
+    @Autowired
+    private ReadWriteRoutingDataSource routingDataSource;
+    
+    @Autowired
+    private ReplicaLagMonitor replicaLagMonitor;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private TransferRepository transferRepository;
+    
+    @Autowired
+    private TransferJdbcRepository transferJdbcRepository;
+    
+    @Autowired
+    private StatementService statementService;
+    
+    @Autowired
+    private AccountBalanceService accountBalanceService;
+    
+    @Autowired
+    private TransferService transferService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    private Long contaId;
+    private Long outraId;
+    private Long terceiraId;
+    
+    @BeforeEach
+    void setUp() {
+        transferRepository.deleteAllInBatch();
+        accountRepository.deleteAllInBatch();
+        
+        contaId = accountRepository.save(new Account("João Silva", new BigDecimal("1000.00"))).getId();
+        outraId = accountRepository.save(new Account("Maria Santos", new BigDecimal("500.00"))).getId();
+        terceiraId = accountRepository.save(new Account("Pedro Costa", new BigDecimal("100.00"))).getId();
+        Transfer antiga = new Transfer(contaId, outraId, new BigDecimal("10.00"));
+        antiga.setTimestamp(LocalDateTime.of(2024, 1, 10, 12, 0));
+        transferJdbcRepository.batchInsert(List.of(antiga));
+        
+        // O primeiro heartbeat só chega às réplicas na próxima cópia
+        replicaLagMonitor.check();
+        replicateAll();
+        replicaLagMonitor.check();
+        assertTrue(routingDataSource.getReplicas().stream().allMatch(ReadWriteRoutingDataSource.Replica::isHealthy));
+    }
+    
+    @Test
+    void testReadOnlyStatementsAlternateBetweenReplicas() {
+        Set<String> origens = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            origens.add(servedBy(terceiraId));
+        }
+        assertEquals(Set.of("replica-1", "replica-2"), origens);
+    }
+    
+    @Test
+    void testAccountThatJustTransferredReadsItsOwnWrites() throws Exception {
+        transferService.processTransfer(new TransferRequest(contaId, outraId, new BigDecimal("1.00")));
+        
+        // As réplicas ainda não têm a transferência: a conta lê do primário, outras contas seguem nas réplicas
+        assertEquals("primary", servedBy(contaId));
+        assertEquals("primary", servedBy(outraId));
+        assertEquals(0, new BigDecimal("999.00").compareTo(accountBalanceService.getBalance(contaId).getSaldo().toBigDecimal()));
+        assertTrue(servedBy(terceiraId).startsWith("replica-"));
+        assertEquals(0, SALDO_REPLICA.compareTo(accountBalanceService.getBalance(terceiraId).getSaldo().toBigDecimal()));
+        
+        // Um heartbeat gravado depois da escrita chega às réplicas junto com ela
+        Thread.sleep(5);
+        replicaLagMonitor.check();
+        replicateAll();
+        replicaLagMonitor.check();
+        
+        assertTrue(servedBy(contaId).startsWith("replica-"));
+        assertEquals(2, statementService.getStatement(contaId, null, 10).getItens().stream()
+            .filter(entry -> entry.getId() < MARCADOR_1).count());
+    }
+    
+    @Test
+    void testUnhealthyReplicasLeaveTheRotation() {
+        // Sem heartbeat legível a réplica sai da rotação
+        replicaJdbcTemplate(REPLICA_2).execute("DROP TABLE replica_heartbeat");
+        replicaLagMonitor.check();
+        assertFalse(routingDataSource.getReplicas().get(1).isHealthy());
+        assertEquals(0.0, meterRegistry.get(ReplicaLagMonitor.HEALTHY_GAUGE).tag("replica", "replica-2").gauge().value());
+        for (int i = 0; i < 3; i++) {
+            assertEquals("replica-1", servedBy(terceiraId));
+        }
+        
+        replicaJdbcTemplate(REPLICA_1).execute("DROP TABLE replica_heartbeat");
+        replicaLagMonitor.check();
+        assertEquals("primary", servedBy(terceiraId));
+        
+        // De volta quando o heartbeat reaparece
+        replicateAll();
+        replicaLagMonitor.check();
+        assertTrue(servedBy(terceiraId).startsWith("replica-"));
+    }
+    
+    // replica-N pela transferência marcadora no extrato, primary sem nenhuma
+    private String servedBy(Long accountId) {
+        List<Long> ids = statementService.getStatement(accountId, null, 10).getItens().stream()
+            .map(StatementEntryResponse::getId)
+            .toList();
+        if (ids.contains(MARCADOR_1)) {
+            return "replica-1";
+        }
+        if (ids.contains(MARCADOR_2)) {
+            return "replica-2";
+        }
+        return "primary";
+    }
+    
+    // Cópia completa do primário, seguida do marcador e do saldo que só existem na réplica
+    private void replicateAll() {
+        List<String> script = new JdbcTemplate(routingDataSource.getPrimary()).queryForList("SCRIPT", String.class);
+        replicate(REPLICA_1, script, MARCADOR_1);
+        replicate(REPLICA_2, script, MARCADOR_2);
+    }
+    
+    private void replicate(String url, List<String> script, long marcador) {
+        JdbcTemplate replica = replicaJdbcTemplate(url);
+        replica.execute("DROP ALL OBJECTS");
+        script.forEach(replica::execute);
+        replica.update("INSERT INTO transfers (id, origem_account_id, destino_account_id, valor, codigo_uuid, timestamp) VALUES (?, ?, ?, ?, ?, ?)",
+            marcador, contaId, terceiraId, new BigDecimal("0.01"), UUID.randomUUID(), Timestamp.valueOf(LocalDateTime.of(2024, 1, 1, 0, 0)));
+        replica.update("UPDATE accounts SET balance = ? WHERE id = ?", SALDO_REPLICA, terceiraId);
+    }
+    
+    private static JdbcTemplate replicaJdbcTemplate(String url) {
+        return new JdbcTemplate(new DriverManagerDataSource(url, "sa", ""));
+    }
+}
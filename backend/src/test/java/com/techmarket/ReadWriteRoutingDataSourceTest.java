@@ -0,0 +1,101 @@
+package com.techmarket;
+
+import com.techmarket.config.ReadWriteRoutingDataSource;
+import com.techmarket.service.ReadYourWritesTracker;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class ReadWriteRoutingDataSourceTest {
+    
+    private final ReadYourWritesTracker tracker = new ReadYourWritesTracker(List.of("jdbc:h2:mem:replica"));
+    private final DataSource primary = mock(DataSource.class);
+    private final Connection primaryConnection = mock(Connection.class);
+    
+    @BeforeEach
+    void setUp() throws SQLException {
+        when(primary.getConnection()).thenReturn(primaryConnection);
+        TransactionSynchronizationManager.initSynchronization();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.clear();
+    }
+    
+    @Test
+    void testOnlyReadOnlyTransactionsUseReplicas() throws Exception {
+        Connection replicaConnection = mock(Connection.class);
+        ReadWriteRoutingDataSource.Replica replica = healthyReplica("replica-1", replicaConnection);
+        ReadWriteRoutingDataSource routing = routing(List.of(replica));
+        
+        assertSame(primaryConnection, routing.getConnection());
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertSame(replicaConnection, routing.getConnection());
+    }
+    
+    @Test
+    void testReplicaBehindTheAccountWriteIsSkipped() throws Exception {
+        Connection atrasada = mock(Connection.class);
+        Connection emDia = mock(Connection.class);
+        ReadWriteRoutingDataSource.Replica replicaAtrasada = healthyReplica("replica-1", atrasada);
+        ReadWriteRoutingDataSource.Replica replicaEmDia = healthyReplica("replica-2", emDia);
+        ReadWriteRoutingDataSource routing = routing(List.of(replicaAtrasada, replicaEmDia));
+        
+        // Commit da transferência que alterou a conta 7
+        tracker.recordAfterCommit(List.of(7L));
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        replicaAtrasada.update(1, true);
+        replicaEmDia.update(System.currentTimeMillis() + 1_000, true);
+        
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        tracker.bind(7L);
+        for (int i = 0; i < 4; i++) {
+            assertSame(emDia, routing.getConnection());
+        }
+        
+        // Nenhuma réplica com a escrita: primário
+        replicaEmDia.markDown();
+        assertSame(primaryConnection, routing.getConnection());
+    }
+    
+    @Test
+    void testConnectionFailureFallsBackAndMarksReplicaDown() throws Exception {
+        DataSource quebrada = mock(DataSource.class);
+        when(quebrada.getConnection()).thenThrow(new SQLException("fora do ar"));
+        ReadWriteRoutingDataSource.Replica replica = new ReadWriteRoutingDataSource.Replica("replica-1", quebrada);
+        replica.update(System.currentTimeMillis(), true);
+        ReadWriteRoutingDataSource routing = routing(List.of(replica));
+        
+        TransactionSynchronizationManager.setCurrentTransactionReadOnly(true);
+        assertSame(primaryConnection, routing.getConnection());
+        assertFalse(replica.isHealthy());
+        
+        // Fora da rotação, a réplica nem é tentada até o monitor reativá-la
+        assertSame(primaryConnection, routing.getConnection());
+        verify(quebrada, times(1)).getConnection();
+    }
+    
+    private ReadWriteRoutingDataSource routing(List<ReadWriteRoutingDataSource.Replica> replicas) {
+        return new ReadWriteRoutingDataSource(primary, replicas, tracker, new SimpleMeterRegistry());
+    }
+    
+    private static ReadWriteRoutingDataSource.Replica healthyReplica(String name, Connection connection) throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(connection);
+        ReadWriteRoutingDataSource.Replica replica = new ReadWriteRoutingDataSource.Replica(name, dataSource);
+        replica.update(System.currentTimeMillis(), true);
+        return replica;
+    }
+}
@@ -0,0 +1,310 @@
+package com.techmarket;
+
+import com.techmarket.config.AccountShards;
+import com.techmarket.config.ShardingStrategy;
+import com.techmarket.dto.TransferRequest;
+import com.techmarket.dto.TransferResponse;
+import com.techmarket.entity.Account;
+import com.techmarket.entity.CrossShardTransfer;
+import com.techmarket.entity.CrossShardTransferState;
+import com.techmarket.entity.Transfer;
+import com.techmarket.entity.TransferOutbox;
+import com.techmarket.entity.TransferStatus;
+import com.techmarket.exception.AccountNotFoundException;
+import com.techmarket.repository.ShardedAccountRepository;
+import com.techmarket.repository.ShardedTransferRepository;
+import com.techmarket.repository.TransferOutboxRepository;
+import com.techmarket.service.AccountBalanceCache;
+import com.techmarket.service.AccountBalanceService;
+import com.techmarket.service.CrossShardRecoveryJob;
+import com.techmarket.service.ShardedTransferService;
+import com.techmarket.service.TransferIdempotencyService;
+import com.techmarket.service.TransferOutboxService;
+import com.techmarket.service.TransferService;
+import com.techmarket.util.Money;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+// Três shards em H2 separados (primário + dois), com as contas por HASH do id: 3 e 6 no shard-0,
+// 4 e 7 no shard-1, 5 no shard-2. Os shards extras recebem o schema do primário criado pelo Hibernate
+@SpringBootTest(properties = {
+    "spring.datasource.url=jdbc:h2:mem:shard-0;DB_CLOSE_DELAY=-1",
+    "techmarket.sharding.urls=jdbc:h2:mem:shard-1;DB_CLOSE_DELAY=-1,jdbc:h2:mem:shard-2;DB_CLOSE_DELAY=-1",
+    "techmarket.transfer.engine=SHARDED",
+    "techmarket.sharding.recovery-interval=PT1H",
+    "techmarket.sharding.in-doubt-after=PT0S",
+    "techmarket.outbox.max-attempts=2"
+})
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+class ShardedTransferTest {
+    
+    private static final List<String> TABELAS = List.of("transfer_outbox", "cross_shard_transfers", "idempotency_keys", "transfers", "accounts");
+    
+    @Autowired
+    private AccountShards accountShards;
+    
+    @Autowired
+    private ShardedAccountRepository shardedAccountRepository;
+    
+    @Autowired
+    private ShardedTransferRepository shardedTransferRepository;
+    
+    @Autowired
+    private TransferService transferService;
+    
+    @Autowired
+    private TransferIdempotencyService transferIdempotencyService;
+    
+    @Autowired
+    private TransferOutboxService transferOutboxService;
+    
+    @Autowired
+    private TransferOutboxRepository transferOutboxRepository;
+    
+    @Autowired
+    private AccountBalanceService accountBalanceService;
+    
+    @Autowired
+    private AccountBalanceCache accountBalanceCache;
+    
+    @Autowired
+    private CrossShardRecoveryJob crossShardRecoveryJob;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @BeforeEach
+    void setUp() {
+        List<String> schema = jdbc(0).queryForList("SCRIPT NODATA", String.class);
+        for (int i = 1; i < accountShards.size(); i++) {
+            jdbc(i).execute("DROP ALL OBJECTS");
+            schema.forEach(jdbc(i)::execute);
+        }
+        TABELAS.forEach(tabela -> jdbc(0).update("DELETE FROM " + tabela));
+        accountBalanceCache.clear();
+        
+        for (long id = 3; id <= 7; id++) {
+            shardedAccountRepository.insert(account(id, "1000.00"));
+        }
+    }
+    
+    @Test
+    void testSameShardTransferIsASingleLocalTransaction() {
+        TransferResponse response = transferService.processTransfer(new TransferRequest(4L, 7L, new BigDecimal("100.00")));
+        
+        assertEquals("success", response.getStatus());
+        assertBalance(4L, "900.00");
+        assertBalance(7L, "1100.00");
+        assertEquals(1, count(1, "transfers"));
+        for (int i = 0; i < accountShards.size(); i++) {
+            assertEquals(0, count(i, "cross_shard_transfers"));
+        }
+    }
+    
+    @Test
+    void testCrossShardTransferRunsTheSaga() {
+        double concluidas = sagas(ShardedTransferService.OUTCOME_COMPLETED);
+        
+        TransferResponse response = transferService.processTransfer(new TransferRequest(4L, 5L, new BigDecimal("250.00"), "chave-saga"));
+        
+        assertEquals("success", response.getStatus());
+        assertBalance(4L, "750.00");
+        assertBalance(5L, "1250.00");
+        assertEquals(0, new BigDecimal("1250.00").compareTo(accountBalanceService.getBalance(5L).getSaldo().toBigDecimal()));
+        assertEquals("COMPLETED", state(1));
+        assertEquals("CREDITED", state(2));
+        // Uma linha em transfers em cada lado, com o mesmo código, para o extrato de cada conta
+        assertEquals(response.getCodigo(), jdbc(1).queryForObject("SELECT CAST(codigo_uuid AS VARCHAR) FROM transfers", String.class));
+        assertEquals(response.getCodigo(), jdbc(2).queryForObject("SELECT CAST(codigo_uuid AS VARCHAR) FROM transfers", String.class));
+        assertEquals(1, count(1, "idempotency_keys"));
+        assertEquals(concluidas + 1, sagas(ShardedTransferService.OUTCOME_COMPLETED));
+        
+        // Destino inexistente em outro shard: nada é debitado
+        assertThrows(AccountNotFoundException.class,
+            () -> transferService.processTransfer(new TransferRequest(4L, 8L, new BigDecimal("1.00"))));
+        assertBalance(4L, "750.00");
+    }
+    
+    @Test
+    void testSagaInterruptedBeforeTheCreditIsCompletedByRecovery() {
+        // Shard de destino sem a tabela da saga: o crédito falha depois do débito
+        jdbc(2).execute("ALTER TABLE cross_shard_transfers RENAME TO cross_shard_transfers_off");
+        TransferResponse response = transferService.processTransfer(new TransferRequest(4L, 5L, new BigDecimal("100.00")));
+        
+        assertEquals(ShardedTransferService.STATUS_PENDING, response.getStatus());
+        assertBalance(4L, "900.00");
+        assertBalance(5L, "1000.00");
+        assertEquals("DEBITED", state(1));
+        
+        // Ainda fora do ar: continua pendente
+        assertEquals(0, crossShardRecoveryJob.recover());
+        assertEquals("DEBITED", state(1));
+        
+        jdbc(2).execute("ALTER TABLE cross_shard_transfers_off RENAME TO cross_shard_transfers");
+        assertEquals(1, crossShardRecoveryJob.recover());
+        assertEquals("COMPLETED", state(1));
+        assertBalance(5L, "1100.00");
+        assertEquals(0, crossShardRecoveryJob.recover());
+    }
+    
+    @Test
+    void testRetryFindsTheKeyOnTheOriginShard() {
+        // Gravada sem passar pelo cache: a repetição só encontra a chave no shard-1, o da conta de origem
+        TransferRequest request = new TransferRequest(4L, 5L, new BigDecimal("250.00"), "chave-shard");
+        TransferResponse original = transferService.processTransfer(request);
+        
+        TransferResponse repetida = transferIdempotencyService.processTransfer(request);
+        assertEquals("success", repetida.getStatus());
+        assertEquals(original.getCodigo(), repetida.getCodigo());
+        assertBalance(4L, "750.00");
+        assertBalance(5L, "1250.00");
+    }
+    
+    @Test
+    void testPendingSagaIsResolvedAgainOnRetry() {
+        jdbc(2).execute("ALTER TABLE cross_shard_transfers RENAME TO cross_shard_transfers_off");
+        TransferRequest request = new TransferRequest(4L, 5L, new BigDecimal("100.00"), "chave-pendente");
+        TransferResponse pendente = transferIdempotencyService.processTransfer(request);
+        assertEquals(ShardedTransferService.STATUS_PENDING, pendente.getStatus());
+        assertEquals(ShardedTransferService.STATUS_PENDING, transferIdempotencyService.processTransfer(request).getStatus());
+        assertBalance(4L, "900.00");
+        
+        // Depois da recuperação a repetição devolve a transferência concluída, não a resposta pendente
+        jdbc(2).execute("ALTER TABLE cross_shard_transfers_off RENAME TO cross_shard_transfers");
+        assertEquals(1, crossShardRecoveryJob.recover());
+        TransferResponse concluida = transferIdempotencyService.processTransfer(request);
+        assertEquals("success", concluida.getStatus());
+        assertEquals(pendente.getCodigo(), concluida.getCodigo());
+        assertBalance(4L, "900.00");
+        assertBalance(5L, "1100.00");
+    }
+    
+    @Test
+    void testOutboxRowsAfterAnAppliedOneFailWithoutDebitingTwice() {
+        TransferOutbox aplicada = transferOutboxRepository.save(new TransferOutbox(4L, 7L, new BigDecimal("100.00"), null));
+        TransferOutbox falha = transferOutboxRepository.save(new TransferOutbox(3L, 6L, new BigDecimal("50.00"), null));
+        // Sem transfers no shard-0: a segunda linha falha depois que a primeira já confirmou no shard-1
+        jdbc(0).execute("ALTER TABLE transfers RENAME TO transfers_off");
+        try {
+            transferOutboxService.processPendingBatch();
+            transferOutboxService.processPendingBatch();
+        } finally {
+            jdbc(0).execute("ALTER TABLE transfers_off RENAME TO transfers");
+        }
+        
+        assertBalance(4L, "900.00");
+        assertBalance(7L, "1100.00");
+        assertBalance(3L, "1000.00");
+        TransferOutbox concluida = transferOutboxRepository.findById(aplicada.getId()).orElseThrow();
+        assertEquals(TransferStatus.COMPLETED, concluida.getStatus());
+        assertEquals(TransferStatus.FAILED, transferOutboxRepository.findById(falha.getId()).orElseThrow().getStatus());
+        
+        // Linha aplicada que ficou PENDING (queda antes de marcá-la): a repetição não debita de novo
+        concluida.setStatus(TransferStatus.PENDING);
+        transferOutboxRepository.save(concluida);
+        transferOutboxService.processPendingBatch();
+        assertBalance(4L, "900.00");
+        TransferOutbox repetida = transferOutboxRepository.findById(aplicada.getId()).orElseThrow();
+        assertEquals(TransferStatus.COMPLETED, repetida.getStatus());
+        assertEquals(concluida.getTransferCodigo(), repetida.getTransferCodigo());
+        assertEquals(1, count(1, "transfers"));
+    }
+    
+    @Test
+    void testRecoveryDoesNotCreditTwice() {
+        // Queda entre o crédito e a conclusão: o destino já tem o crédito e a linha CREDITED
+        Transfer transfer = debited(4L, 5L, "100.00");
+        shardedAccountRepository.credit(5L, Money.of(new BigDecimal("100.00")));
+        shardedTransferRepository.insertSaga(accountShards.getShards().get(2), new CrossShardTransfer(transfer, CrossShardTransferState.CREDITED));
+        
+        assertEquals(1, crossShardRecoveryJob.recover());
+        assertEquals("COMPLETED", state(1));
+        assertBalance(4L, "900.00");
+        assertBalance(5L, "1100.00");
+        assertEquals(1, count(1, "transfers"));
+    }
+    
+    @Test
+    void testRecoveryCompensatesWhenTheCreditIsImpossible() {
+        double estornadas = sagas(ShardedTransferService.OUTCOME_COMPENSATED);
+        // Conta 8 (shard-2) não existe: o crédito nunca vai acontecer
+        debited(4L, 8L, "100.00");
+        assertBalance(4L, "900.00");
+        
+        assertEquals(1, crossShardRecoveryJob.recover());
+        assertEquals("COMPENSATED", state(1));
+        assertBalance(4L, "1000.00");
+        assertEquals(0, count(1, "idempotency_keys"));
+        assertEquals(0, count(2, "cross_shard_transfers"));
+        assertEquals(estornadas + 1, sagas(ShardedTransferService.OUTCOME_COMPENSATED));
+    }
+    
+    @Test
+    void testShardSelectionByHashAndRange() {
+        List<AccountShards.Shard> shards = List.of(
+            new AccountShards.Shard(0, "shard-0", mock(DataSource.class)),
+            new AccountShards.Shard(1, "shard-1", mock(DataSource.class)),
+            new AccountShards.Shard(2, "shard-2", mock(DataSource.class)));
+        
+        AccountShards hash = new AccountShards(shards, ShardingStrategy.HASH, 0);
+        assertEquals(List.of(1, 2, 0, 1), List.of(hash.indexOf(1L), hash.indexOf(2L), hash.indexOf(3L), hash.indexOf(4L)));
+        
+        AccountShards range = new AccountShards(shards, ShardingStrategy.RANGE, 1000);
+        assertEquals(List.of(0, 0, 1, 2, 2), List.of(range.indexOf(1L), range.indexOf(999L), range.indexOf(1000L),
+            range.indexOf(2000L), range.indexOf(50_000L)));
+    }
+    
+    // Passo 1 da saga feito à mão, como se a instância tivesse caído logo depois
+    private Transfer debited(Long origem, Long destino, String valor) {
+        Transfer transfer = new Transfer(origem, destino, new BigDecimal(valor), "chave-" + destino);
+        transfer.setId(990_000L + destino);
+        AccountShards.Shard shard = accountShards.shardFor(origem);
+        shard.getTransactionTemplate().executeWithoutResult(status -> {
+            assertTrue(shardedAccountRepository.debitIfSufficient(origem, transfer.getValor()));
+            shardedTransferRepository.reserveIdempotencyKey(shard, transfer);
+            shardedTransferRepository.insertSaga(shard, new CrossShardTransfer(transfer, CrossShardTransferState.DEBITED));
+        });
+        return transfer;
+    }
+    
+    private void assertBalance(Long accountId, String esperado) {
+        BigDecimal saldo = shardedAccountRepository.findBalance(accountId).orElseThrow().getBalance().toBigDecimal();
+        assertEquals(0, new BigDecimal(esperado).compareTo(saldo), "saldo da conta " + accountId + ": " + saldo);
+    }
+    
+    private String state(int shard) {
+        return jdbc(shard).queryForObject("SELECT state FROM cross_shard_transfers", String.class);
+    }
+    
+    private int count(int shard, String tabela) {
+        return jdbc(shard).queryForObject("SELECT COUNT(*) FROM " + tabela, Integer.class);
+    }
+    
+    private double sagas(String outcome) {
+        return meterRegistry.counter(ShardedTransferService.SAGAS_COUNTER, "outcome", outcome).count();
+    }
+    
+    private JdbcTemplate jdbc(int shard) {
+        return accountShards.getShards().get(shard).getJdbcTemplate();
+    }
+    
+    private static Account account(long id, String saldo) {
+        Account account = new Account("Conta " + id, new BigDecimal(saldo));
+        account.setId(id);
+        return account;
+    }
+}
@@ -0,0 +1,133 @@
+package com.techmarket;
+
+import com.techmarket.repository.TransferArchive;
+import com.techmarket.repository.TransferJdbcRepository;
+import com.techmarket.service.DatabaseBulkhead;
+import com.techmarket.service.ReadOnlyTransactions;
+import com.techmarket.service.ReadYourWritesTracker;
+import com.techmarket.service.StatementExportFormat;
+import com.techmarket.service.StatementExportService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StatementExportServiceTest {
+    
+    private static final long CONTA_ID = 1L;
+    private static final int LINHAS = 2_000_000;
+    
+    @Mock
+    private TransferJdbcRepository transferJdbcRepository;
+    
+    @Mock
+    private TransferArchive transferArchive;
+    
+    @Spy
+    private DatabaseBulkhead databaseBulkhead = new DatabaseBulkhead(10, Duration.ofSeconds(1));
+    
+    @Spy
+    private ReadOnlyTransactions readOnlyTransactions = new ReadOnlyTransactions(mock(PlatformTransactionManager.class), new ReadYourWritesTracker(List.of()));
+    
+    @InjectMocks
+    private StatementExportService statementExportService;
+    
+    @Test
+    void testLargeExportKeepsHeapFlat() throws Exception {
+        // As linhas são geradas sob demanda, como um cursor do banco entregando blocos de fetch size
+        long[] linha = new long[1];
+        Timestamp base = Timestamp.valueOf(LocalDateTime.of(2024, 1, 1, 0, 0));
+        ResultSet rs = (ResultSet) Proxy.newProxyInstance(getClass().getClassLoader(), new Class<?>[] {ResultSet.class},
+            (proxy, method, args) -> switch (method.getName() + ":" + args[0]) {
+                case "getLong:id" -> linha[0];
+                case "getLong:origem_account_id" -> linha[0] % 2 == 0 ? CONTA_ID : 2L;
+                case "getLong:destino_account_id" -> linha[0] % 2 == 0 ? 2L : CONTA_ID;
+                case "getString:codigo_uuid" -> "tx-" + linha[0];
+                case "getBigDecimal:valor" -> BigDecimal.ONE;
+                case "getTimestamp:timestamp" -> new Timestamp(base.getTime() + linha[0] * 1000);
+                default -> throw new UnsupportedOperationException(method.getName());
+            });
+        doAnswer(invocation -> {
+            RowCallbackHandler handler = invocation.getArgument(4);
+            for (linha[0] = 1; linha[0] <= LINHAS; linha[0]++) {
+                handler.processRow(rs);
+            }
+            return null;
+        }).when(transferJdbcRepository).streamHistory(eq(CONTA_ID), any(), any(), anyInt(), any());
+        
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        long baseline = usedHeapAfterGc(memory);
+        HeapSamplingOutputStream out = new HeapSamplingOutputStream(memory, 16 * 1024 * 1024);
+        
+        statementExportService.export(CONTA_ID, null, null, StatementExportFormat.CSV, out);
+        
+        assertEquals(LINHAS + 1, out.lines);
+        assertTrue(out.samples >= 5, "Poucas amostras de heap: " + out.samples);
+        long growth = out.maxUsed - baseline;
+        assertTrue(growth < 16L * 1024 * 1024,
+            "Heap cresceu " + growth / (1024 * 1024) + " MB durante a exportação de " + LINHAS + " linhas");
+    }
+    
+    private static long usedHeapAfterGc(MemoryMXBean memory) {
+        System.gc();
+        return memory.getHeapMemoryUsage().getUsed();
+    }
+    
+    // Descarta os bytes e mede o heap vivo a cada intervalo escrito
+    private static class HeapSamplingOutputStream extends OutputStream {
+        
+        private final MemoryMXBean memory;
+        private final long interval;
+        private long written;
+        private long nextSample;
+        long lines;
+        long samples;
+        long maxUsed;
+        
+        HeapSamplingOutputStream(MemoryMXBean memory, long interval) {
+            this.memory = memory;
+            this.interval = interval;
+            this.nextSample = interval;
+        }
+        
+        @Override
+        public void write(int b) {
+            write(new byte[] {(byte) b}, 0, 1);
+        }
+        
+        @Override
+        public void write(byte[] b, int off, int len) {
+            for (int i = off; i < off + len; i++) {
+                if (b[i] == '\n') {
+                    lines++;
+                }
+            }
+            written += len;
+            if (written >= nextSample) {
+                nextSample += interval;
+                samples++;
+                maxUsed = Math.max(maxUsed, usedHeapAfterGc(memory));
+            }
+        }
+    }
+}
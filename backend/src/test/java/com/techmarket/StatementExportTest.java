@@ -0,0 +1,130 @@
+package com.techmarket;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techmarket.entity.Account;
+import com.techmarket.entity.Transfer;
+import com.techmarket.repository.AccountRepository;
+import com.techmarket.repository.TransferJdbcRepository;
+import com.techmarket.repository.TransferRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+
+import java.io.ByteArrayInputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+class StatementExportTest {
+    
+    @Autowired
+    private WebApplicationContext webApplicationContext;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private TransferRepository transferRepository;
+    
+    @Autowired
+    private TransferJdbcRepository transferJdbcRepository;
+    
+    private MockMvc mockMvc;
+    
+    private Long contaId;
+    private Long outraId;
+    
+    @BeforeEach
+    void setUp() {
+        mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
+        
+        transferRepository.deleteAllInBatch();
+        accountRepository.deleteAllInBatch();
+        
+        contaId = accountRepository.save(new Account("João Silva", new BigDecimal("1000.00"))).getId();
+        outraId = accountRepository.save(new Account("Maria Santos", new BigDecimal("500.00"))).getId();
+    }
+    
+    @Test
+    void testCsvExportWithDateRange() throws Exception {
+        LocalDateTime base = LocalDateTime.of(2025, 1, 1, 12, 0);
+        List<Transfer> transfers = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Transfer transfer = i % 2 == 0
+                ? new Transfer(contaId, outraId, new BigDecimal("10.00"))
+                : new Transfer(outraId, contaId, new BigDecimal("20.00"));
+            transfer.setTimestamp(base.plusDays(i));
+            transfers.add(transfer);
+        }
+        transferJdbcRepository.batchInsert(transfers);
+        
+        String csv = export("/api/contas/" + contaId + "/extrato/export?inicio=2025-01-02&fim=2025-01-04", "text/csv");
+        String[] lines = csv.split("\n");
+        
+        assertEquals(4, lines.length);
+        assertEquals("id,codigo,tipo,valor,contraparte_account_id,data", lines[0]);
+        assertTrue(lines[1].contains(",CREDIT,20.00," + outraId + ",2025-01-02T12:00"));
+        assertTrue(lines[2].contains(",DEBIT,10.00," + outraId + ",2025-01-03T12:00"));
+        assertTrue(lines[3].contains(",CREDIT,20.00," + outraId + ",2025-01-04T12:00"));
+    }
+    
+    @Test
+    void testGzipNdjsonExport() throws Exception {
+        transferJdbcRepository.batchInsert(List.of(
+            new Transfer(contaId, outraId, new BigDecimal("10.00")),
+            new Transfer(outraId, contaId, new BigDecimal("20.00"))
+        ));
+        
+        MvcResult result = mockMvc.perform(get("/api/contas/" + contaId + "/extrato/export?formato=ndjson&gzip=true"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult();
+        assertEquals("gzip", result.getResponse().getHeader("Content-Encoding"));
+        
+        byte[] ndjson = new GZIPInputStream(new ByteArrayInputStream(result.getResponse().getContentAsByteArray())).readAllBytes();
+        String[] lines = new String(ndjson, StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        
+        ObjectMapper objectMapper = new ObjectMapper();
+        JsonNode first = objectMapper.readTree(lines[0]);
+        assertEquals("DEBIT", first.get("tipo").asText());
+        assertEquals(outraId.longValue(), first.get("contraparteAccountId").asLong());
+    }
+    
+    @Test
+    void testExportValidation() throws Exception {
+        mockMvc.perform(get("/api/contas/999999/extrato/export"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get("/api/contas/" + contaId + "/extrato/export?formato=xml"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/api/contas/" + contaId + "/extrato/export?inicio=2025-02-01&fim=2025-01-01"))
+                .andExpect(status().isBadRequest());
+    }
+    
+    private String export(String url, String contentType) throws Exception {
+        MvcResult result = mockMvc.perform(get(url))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        result.getAsyncResult();
+        assertTrue(result.getResponse().getContentType().startsWith(contentType));
+        return result.getResponse().getContentAsString(StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,177 @@
+package com.techmarket;
+
+import com.techmarket.dto.StatementEntryResponse;
+import com.techmarket.dto.StatementPageResponse;
+import com.techmarket.dto.TransferRequest;
+import com.techmarket.dto.TransferResponse;
+import com.techmarket.entity.Account;
+import com.techmarket.entity.Transfer;
+import com.techmarket.entity.TransferStatus;
+import com.techmarket.repository.AccountRepository;
+import com.techmarket.repository.TransferArchive;
+import com.techmarket.repository.TransferJdbcRepository;
+import com.techmarket.repository.TransferRepository;
+import com.techmarket.service.StatementExportFormat;
+import com.techmarket.service.StatementExportService;
+import com.techmarket.service.StatementService;
+import com.techmarket.service.TransferArchivalJob;
+import com.techmarket.service.TransferIdempotencyService;
+import com.techmarket.service.TransferOutboxService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+class TransferArchiveTest {
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private TransferRepository transferRepository;
+    
+    @Autowired
+    private TransferJdbcRepository transferJdbcRepository;
+    
+    @Autowired
+    private TransferArchive transferArchive;
+    
+    @Autowired
+    private TransferArchivalJob transferArchivalJob;
+    
+    @Autowired
+    private StatementService statementService;
+    
+    @Autowired
+    private StatementExportService statementExportService;
+    
+    @Autowired
+    private TransferOutboxService transferOutboxService;
+    
+    @Autowired
+    private TransferIdempotencyService transferIdempotencyService;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private Long contaId;
+    private Long outraId;
+    
+    @BeforeEach
+    void setUp() {
+        transferRepository.deleteAllInBatch();
+        accountRepository.deleteAllInBatch();
+        
+        contaId = accountRepository.save(new Account("João Silva", new BigDecimal("1000.00"))).getId();
+        outraId = accountRepository.save(new Account("Maria Santos", new BigDecimal("500.00"))).getId();
+    }
+    
+    @Test
+    void testArchivedMonthStaysVisibleToReads() throws Exception {
+        YearMonth month = YearMonth.of(2024, 3);
+        String prefixo = "arquivo-" + UUID.randomUUID() + "-";
+        
+        List<Transfer> antigas = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            Transfer transfer = i % 2 == 0
+                ? new Transfer(contaId, outraId, new BigDecimal("1.00"), i % 10 == 0 ? prefixo + i : null)
+                : new Transfer(outraId, contaId, new BigDecimal("2.00"));
+            transfer.setTimestamp(month.atDay(1).atStartOfDay().plusMinutes(i * 100L));
+            antigas.add(transfer);
+        }
+        transferJdbcRepository.batchInsert(antigas);
+        transferJdbcRepository.reserveIdempotencyKeys(antigas);
+        
+        List<Transfer> recentes = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            Transfer transfer = new Transfer(contaId, outraId, new BigDecimal("3.00"));
+            transfer.setTimestamp(LocalDateTime.now().minusMinutes(10 - i));
+            recentes.add(transfer);
+        }
+        transferJdbcRepository.batchInsert(recentes);
+        
+        assertEquals(300, transferArchivalJob.archiveMonth(month));
+        
+        assertTrue(transferArchive.contains(month));
+        assertEquals(5, transferRepository.count());
+        assertEquals(0, jdbcTemplate.queryForObject(
+            "SELECT COUNT(*) FROM idempotency_keys WHERE key_value LIKE ?", Integer.class, prefixo + "%"));
+        
+        // Status pelo código
+        Transfer arquivada = antigas.get(123);
+        assertEquals(TransferStatus.COMPLETED, transferOutboxService.getStatus(arquivada.getCodigo().toString()).getStatus());
+        
+        // Repetição com a chave de uma transferência arquivada devolve a original sem nova transferência
+        Transfer comChave = antigas.get(40);
+        TransferResponse repetida = transferIdempotencyService.processTransfer(
+            new TransferRequest(contaId, outraId, new BigDecimal("1.00"), comChave.getIdempotencyKey()));
+        assertEquals(comChave.getCodigo().toString(), repetida.getCodigo());
+        assertEquals(5, transferRepository.count());
+        
+        // Extrato paginado atravessa banco e arquivo sem lacunas nem repetições
+        List<Long> ids = new ArrayList<>();
+        String cursor = null;
+        do {
+            StatementPageResponse page = statementService.getStatement(contaId, cursor, 40);
+            for (StatementEntryResponse entry : page.getItens()) {
+                ids.add(entry.getId());
+            }
+            cursor = page.getNextCursor();
+        } while (cursor != null);
+        assertEquals(305, ids.size());
+        assertEquals(305, new HashSet<>(ids).size());
+        assertEquals(recentes.get(4).getId(), ids.get(0));
+        assertEquals(antigas.get(0).getId(), ids.get(304));
+        
+        // Exportação completa em ordem cronológica: arquivo primeiro, depois o banco
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        statementExportService.export(contaId, null, null, StatementExportFormat.CSV, out);
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(306, lines.length);
+        assertTrue(lines[1].startsWith(antigas.get(0).getId() + ","));
+        assertTrue(lines[300].startsWith(antigas.get(299).getId() + ","));
+        assertTrue(lines[301].startsWith(recentes.get(0).getId() + ","));
+        
+        // Resumo de um período que só existe no arquivo
+        LocalDate dia = LocalDate.of(2024, 3, 2);
+        assertFalse(statementService.getSummary(contaId, dia, dia, 10).getMovimentos().isEmpty());
+    }
+    
+    @Test
+    void testRunArchivesOnlyMonthsPastRetention() throws Exception {
+        Transfer antiga = new Transfer(contaId, outraId, new BigDecimal("1.00"));
+        antiga.setTimestamp(LocalDateTime.of(2023, 6, 15, 10, 0));
+        Transfer recente = new Transfer(contaId, outraId, new BigDecimal("1.00"));
+        recente.setTimestamp(LocalDateTime.now().minusDays(1));
+        transferJdbcRepository.batchInsert(List.of(antiga, recente));
+        
+        assertTrue(transferArchivalJob.run() > 0);
+        
+        assertTrue(transferArchive.contains(YearMonth.of(2023, 6)));
+        assertFalse(transferArchive.contains(YearMonth.from(recente.getTimestamp())));
+        Set<Long> restantes = new HashSet<>();
+        transferRepository.findAll().forEach(t -> restantes.add(t.getId()));
+        assertEquals(Set.of(recente.getId()), restantes);
+        assertEquals(antiga.getId(), transferArchive.findByCodigo(antiga.getCodigo()).orElseThrow().getId());
+    }
+}
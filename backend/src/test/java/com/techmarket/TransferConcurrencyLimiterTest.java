@@ -0,0 +1,111 @@
+package com.techmarket;
+
+import com.techmarket.exception.GlobalExceptionHandler;
+import com.techmarket.exception.TransferRateLimitedException;
+import com.techmarket.service.TransferConcurrencyLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransferConcurrencyLimiterTest {
+    
+    private final MeterRegistry registry = new SimpleMeterRegistry();
+    
+    @Test
+    void testRequestsOverTheLimitAreRejectedImmediately() {
+        TransferConcurrencyLimiter limiter = limiter(2, 2, 2, 0);
+        
+        // Chamadas aninhadas mantêm as anteriores em andamento
+        String resultado = limiter.execute(() -> limiter.execute(() -> {
+            assertEquals(2, limiter.getInFlight());
+            TransferRateLimitedException ex = assertThrows(TransferRateLimitedException.class,
+                () -> limiter.execute(() -> "terceira"));
+            assertEquals(Duration.ofMillis(1500), ex.getRetryAfter());
+            return "segunda";
+        }));
+        
+        assertEquals("segunda", resultado);
+        assertEquals(0, limiter.getInFlight());
+        assertEquals(1.0, rejections(TransferConcurrencyLimiter.REASON_LIMIT));
+        assertEquals(2.0, registry.get(TransferConcurrencyLimiter.LIMIT_GAUGE).gauge().value());
+    }
+    
+    @Test
+    void testPerAccountCapKeepsOtherAccountsFlowing() {
+        TransferConcurrencyLimiter limiter = limiter(10, 4, 20, 1);
+        
+        limiter.execute(() -> {
+            assertEquals(1, limiter.getInFlight(7L));
+            // Conta 7 já ocupada: a segunda transferência envolvendo ela é recusada, sem reter a conta 9
+            assertThrows(TransferRateLimitedException.class, () -> limiter.execute(() -> "recusada", 9L, 7L));
+            assertEquals(0, limiter.getInFlight(9L));
+            // Outras contas seguem normalmente
+            assertEquals("livre", limiter.execute(() -> "livre", 8L, 9L));
+            return null;
+        }, 7L, 7L);
+        
+        assertEquals(0, limiter.getInFlight(7L));
+        assertEquals(1.0, rejections(TransferConcurrencyLimiter.REASON_ACCOUNT));
+        assertEquals(0.0, rejections(TransferConcurrencyLimiter.REASON_LIMIT));
+    }
+    
+    @Test
+    void testLimitGrowsWhileLatencyHoldsAndShrinksWhenItRises() {
+        TransferConcurrencyLimiter limiter = limiter(20, 4, 200, 0);
+        long rapida = Duration.ofMillis(1).toNanos();
+        long lenta = Duration.ofMillis(20).toNanos();
+        
+        // Pouca concorrência: o limite não cresce
+        for (int i = 0; i < 100; i++) {
+            limiter.onSample(rapida, 1);
+        }
+        assertEquals(20, limiter.getLimit());
+        
+        // Usando o limite com latência estável: cresce até o máximo
+        for (int i = 0; i < 300; i++) {
+            limiter.onSample(rapida, limiter.getLimit());
+        }
+        assertEquals(200, limiter.getLimit());
+        
+        // Requisições passam a esperar: o limite encolhe rápido
+        for (int i = 0; i < 50; i++) {
+            limiter.onSample(lenta, limiter.getLimit());
+        }
+        assertTrue(limiter.getLimit() < 20, "limite depois da latência subir: " + limiter.getLimit());
+        assertTrue(limiter.getLimit() >= 4);
+    }
+    
+    @Test
+    void testDisabledLimiterOnlyRunsTheAction() {
+        TransferConcurrencyLimiter limiter = new TransferConcurrencyLimiter(registry, false, 1, 1, 1, 0.2, 1.5, 600, 1, Duration.ofSeconds(1));
+        
+        assertEquals("ok", limiter.execute(() -> limiter.execute(() -> "ok", 7L), 7L));
+        assertEquals(0.0, rejections(TransferConcurrencyLimiter.REASON_LIMIT));
+    }
+    
+    @Test
+    void testRejectionBecomes429WithRetryAfter() {
+        ResponseEntity<Map<String, String>> response = new GlobalExceptionHandler()
+            .handleTransferRateLimitedException(new TransferRateLimitedException("cheio", Duration.ofMillis(1500)));
+        
+        assertEquals(HttpStatus.TOO_MANY_REQUESTS, response.getStatusCode());
+        assertEquals("2", response.getHeaders().getFirst(HttpHeaders.RETRY_AFTER));
+        assertEquals("Too many requests", response.getBody().get("error"));
+    }
+    
+    private TransferConcurrencyLimiter limiter(int initial, int min, int max, int perAccount) {
+        return new TransferConcurrencyLimiter(registry, true, initial, min, max, 0.2, 1.5, 600, perAccount, Duration.ofMillis(1500));
+    }
+    
+    private double rejections(String reason) {
+        return registry.counter(TransferConcurrencyLimiter.REJECTIONS_COUNTER, "reason", reason).count();
+    }
+}
@@ -0,0 +1,115 @@
+package com.techmarket;
+
+import com.techmarket.dto.TransferRequest;
+import com.techmarket.entity.Account;
+import com.techmarket.repository.AccountRepository;
+import com.techmarket.repository.TransferRepository;
+import com.techmarket.service.AccountLockManager;
+import com.techmarket.service.TransferService;
+import com.techmarket.util.Money;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@SpringBootTest
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+class TransferConcurrencyTest {
+    
+    private static final int THREADS = 16;
+    private static final int TRANSFERENCIAS_POR_THREAD = 50;
+    
+    @Autowired
+    private TransferService transferService;
+    
+    @Autowired
+    private AccountLockManager accountLockManager;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private TransferRepository transferRepository;
+    
+    private Long contaA;
+    private Long contaB;
+    
+    @BeforeEach
+    void setUp() {
+        transferRepository.deleteAll();
+        accountRepository.deleteAll();
+        
+        contaA = accountRepository.save(new Account("Conta A", new BigDecimal("10000.00"))).getId();
+        contaB = accountRepository.save(new Account("Conta B", new BigDecimal("10000.00"))).getId();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(accountLockManager, "stripingEnabled", true);
+    }
+    
+    @Test
+    void testOpposingTransfersDoNotDeadlock() throws Exception {
+        runOpposingTransfers();
+    }
+    
+    @Test
+    void testOpposingTransfersDoNotDeadlockWithoutJvmLocks() throws Exception {
+        // Sem os locks da JVM, apenas a ordem dos locks de linha no banco evita o deadlock
+        ReflectionTestUtils.setField(accountLockManager, "stripingEnabled", false);
+        runOpposingTransfers();
+    }
+    
+    private void runOpposingTransfers() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch largada = new CountDownLatch(1);
+        ConcurrentLinkedQueue<Throwable> erros = new ConcurrentLinkedQueue<>();
+        List<Future<?>> futures = new ArrayList<>();
+        
+        for (int t = 0; t < THREADS; t++) {
+            // Metade das threads transfere A→B, a outra metade B→A
+            boolean aParaB = t % 2 == 0;
+            futures.add(executor.submit(() -> {
+                largada.await();
+                for (int i = 0; i < TRANSFERENCIAS_POR_THREAD; i++) {
+                    try {
+                        transferService.processTransfer(aParaB
+                            ? new TransferRequest(contaA, contaB, new BigDecimal("1.00"))
+                            : new TransferRequest(contaB, contaA, new BigDecimal("1.00")));
+                    } catch (Throwable e) {
+                        erros.add(e);
+                    }
+                }
+                return null;
+            }));
+        }
+        
+        largada.countDown();
+        for (Future<?> future : futures) {
+            future.get(60, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+        
+        assertTrue(erros.isEmpty(), () -> "Falhas nas transferências: " + erros);
+        assertEquals(THREADS * TRANSFERENCIAS_POR_THREAD, transferRepository.count());
+        assertEquals(0, Money.of("10000.00").compareTo(accountRepository.findById(contaA).get().getBalance()));
+        assertEquals(0, Money.of("10000.00").compareTo(accountRepository.findById(contaB).get().getBalance()));
+    }
+}
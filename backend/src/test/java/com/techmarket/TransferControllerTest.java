@@ -1,16 +1,19 @@
 package com.techmarket;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.techmarket.dto.BatchTransferRequest;
 import com.techmarket.dto.TransferRequest;
 import com.techmarket.entity.Account;
 import com.techmarket.repository.AccountRepository;
 import com.techmarket.repository.TransferRepository;
+import com.techmarket.util.Money;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureWebMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
@@ -19,7 +22,10 @@ import org.springframework.web.context.WebApplicationContext;
 import org.springframework.context.annotation.Import;
 
 import java.math.BigDecimal;
+import java.util.List;
 
+import static org.hamcrest.Matchers.notNullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
@@ -39,6 +45,9 @@ class TransferControllerTest {
     @Autowired
     private TransferRepository transferRepository;
     
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
     private MockMvc mockMvc;
     private ObjectMapper objectMapper;
     
@@ -113,4 +122,113 @@ class TransferControllerTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.error").value("Validation failed"));
     }
+    
+    @Test
+    void testTransferRejectsInexactAmount() throws Exception {
+        mockMvc.perform(post("/api/transferencias")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content("{\"origem\":" + origemId + ",\"destino\":" + destinoId + ",\"valor\":10.005}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Malformed request"));
+        
+        assertEquals(0, transferRepository.count());
+        assertEquals(Money.of("1000.00"), accountRepository.findById(origemId).get().getBalance());
+    }
+    
+    @Test
+    void testBatchTransferMixedResults() throws Exception {
+        BatchTransferRequest request = new BatchTransferRequest(List.of(
+            new TransferRequest(origemId, destinoId, new BigDecimal("100.00"), "lote-1"),
+            new TransferRequest(origemId, destinoId, new BigDecimal("5000.00")),
+            new TransferRequest(999L, destinoId, new BigDecimal("10.00")),
+            new TransferRequest(destinoId, origemId, new BigDecimal("50.00"), "lote-1"),
+            new TransferRequest(destinoId, origemId, new BigDecimal("600.00"))
+        ));
+        
+        mockMvc.perform(post("/api/transferencias/lote")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.total").value(5))
+                .andExpect(jsonPath("$.sucesso").value(2))
+                .andExpect(jsonPath("$.falhas").value(3))
+                .andExpect(jsonPath("$.itens[0].status").value("success"))
+                .andExpect(jsonPath("$.itens[0].codigo").exists())
+                .andExpect(jsonPath("$.itens[1].status").value("insufficient_balance"))
+                .andExpect(jsonPath("$.itens[2].status").value("account_not_found"))
+                .andExpect(jsonPath("$.itens[3].status").value("duplicate_idempotency_key"))
+                .andExpect(jsonPath("$.itens[4].status").value("success"));
+        
+        // 1000 - 100 + 600 = 1500 / 500 + 100 - 600 = 0
+        assertEquals(0, Money.of("1500.00").compareTo(accountRepository.findById(origemId).get().getBalance()));
+        assertEquals(0, Money.ZERO.compareTo(accountRepository.findById(destinoId).get().getBalance()));
+        assertEquals(2, transferRepository.count());
+    }
+    
+    @Test
+    void testBatchTransferReplaysExistingIdempotencyKey() throws Exception {
+        TransferRequest single = new TransferRequest(origemId, destinoId, new BigDecimal("100.00"), "chave-existente");
+        mockMvc.perform(post("/api/transferencias")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(single)))
+                .andExpect(status().isOk());
+        
+        BatchTransferRequest request = new BatchTransferRequest(List.of(single));
+        
+        mockMvc.perform(post("/api/transferencias/lote")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itens[0].status").value("duplicate_idempotency_key"))
+                .andExpect(jsonPath("$.itens[0].codigo").exists());
+    }
+    
+    @Test
+    void testBatchRejectedItemDoesNotConsumeIdempotencyKey() throws Exception {
+        BatchTransferRequest request = new BatchTransferRequest(List.of(
+            new TransferRequest(origemId, destinoId, new BigDecimal("5000.00"), "lote-2"),
+            new TransferRequest(origemId, destinoId, new BigDecimal("100.00"), "lote-2"),
+            new TransferRequest(origemId, destinoId, new BigDecimal("100.00"), "lote-2")
+        ));
+        
+        mockMvc.perform(post("/api/transferencias/lote")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itens[0].status").value("insufficient_balance"))
+                .andExpect(jsonPath("$.itens[1].status").value("success"))
+                .andExpect(jsonPath("$.itens[2].status").value("duplicate_idempotency_key"))
+                .andExpect(jsonPath("$.itens[2].codigo").value(notNullValue()));
+        
+        assertEquals(1, transferRepository.count());
+    }
+    
+    @Test
+    void testBatchKeyReservedConcurrentlyBecomesDuplicateItem() throws Exception {
+        // Chave reservada por outra transação depois da consulta do lote
+        jdbcTemplate.update("INSERT INTO idempotency_keys (key_value, transfer_id, created_at) VALUES ('lote-3', NULL, CURRENT_TIMESTAMP)");
+        BatchTransferRequest request = new BatchTransferRequest(List.of(
+            new TransferRequest(origemId, destinoId, new BigDecimal("100.00"), "lote-3"),
+            new TransferRequest(origemId, destinoId, new BigDecimal("50.00"), "lote-4")
+        ));
+        
+        mockMvc.perform(post("/api/transferencias/lote")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(request)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.itens[0].status").value("duplicate_idempotency_key"))
+                .andExpect(jsonPath("$.itens[1].status").value("success"));
+        
+        assertEquals(0, Money.of("950.00").compareTo(accountRepository.findById(origemId).get().getBalance()));
+        assertEquals(1, transferRepository.count());
+    }
+    
+    @Test
+    void testBatchTransferEmpty() throws Exception {
+        mockMvc.perform(post("/api/transferencias/lote")
+                .contentType(MediaType.APPLICATION_JSON)
+                .content(objectMapper.writeValueAsString(new BatchTransferRequest(List.of()))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error").value("Validation failed"));
+    }
 }
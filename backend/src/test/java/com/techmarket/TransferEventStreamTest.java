@@ -0,0 +1,219 @@
+package com.techmarket;
+
+import com.techmarket.dto.TransferRequest;
+import com.techmarket.dto.TransferResponse;
+import com.techmarket.service.TransferEventBus;
+import com.techmarket.service.TransferService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Streams SSE reais contra o servidor: ring buffer de 4 eventos para exercitar a retomada expirada
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+    "spring.datasource.url=jdbc:h2:mem:transfer-events;DB_CLOSE_DELAY=-1",
+    "techmarket.events.capacity=4",
+    "techmarket.events.heartbeat-interval=PT1H"
+})
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+class TransferEventStreamTest {
+    
+    private static final List<String> TABELAS = List.of(
+        "account_daily_balances", "transacoes", "idempotency_keys", "transfers", "accounts");
+    
+    @LocalServerPort
+    private int port;
+    
+    @Autowired
+    private TransferService transferService;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+    
+    private final HttpClient client = HttpClient.newHttpClient();
+    private final List<EventStream> streams = new ArrayList<>();
+    
+    @BeforeEach
+    void setUp() {
+        TABELAS.forEach(tabela -> jdbcTemplate.update("DELETE FROM " + tabela));
+        for (long id = 801; id <= 803; id++) {
+            jdbcTemplate.update("INSERT INTO accounts (id, owner, balance, version) VALUES (?, ?, 1000, 0)", id, "Conta " + id);
+        }
+    }
+    
+    @AfterEach
+    void tearDown() {
+        streams.forEach(EventStream::close);
+    }
+    
+    @Test
+    void testEventsAreDeliveredOnlyToSubscribersOfTheAccounts() throws Exception {
+        EventStream origem = open(801L, null);
+        EventStream destino = open(802L, null);
+        EventStream outra = open(803L, null);
+        
+        TransferResponse transfer = transfer(801L, 802L);
+        
+        Event recebido = origem.next();
+        assertEquals(TransferEventBus.EVENT_TRANSFER, recebido.name());
+        assertTrue(recebido.data().contains("\"codigo\":\"" + transfer.getCodigo() + "\""), recebido.data());
+        assertTrue(recebido.data().contains("\"origemAccountId\":801"), recebido.data());
+        assertEquals(recebido.id(), destino.next().id());
+        assertNull(outra.poll(300));
+        
+        transfer(803L, 802L);
+        assertTrue(outra.next().data().contains("\"destinoAccountId\":802"));
+        assertNull(origem.poll(300));
+    }
+    
+    @Test
+    void testResumeFromLastEventIdReplaysMissedEvents() throws Exception {
+        EventStream stream = open(801L, null);
+        transfer(801L, 802L);
+        String lastEventId = stream.next().id();
+        stream.close();
+        
+        // Desconectado: um evento da conta e um de outra conta
+        TransferResponse perdido = transfer(802L, 801L);
+        transfer(802L, 803L);
+        
+        EventStream retomado = open(801L, lastEventId);
+        Event reenviado = retomado.next();
+        assertTrue(reenviado.data().contains(perdido.getCodigo()), reenviado.data());
+        assertNull(retomado.poll(300));
+        
+        // E segue ao vivo depois da retomada
+        TransferResponse novo = transfer(801L, 803L);
+        assertTrue(retomado.next().data().contains(novo.getCodigo()));
+    }
+    
+    @Test
+    void testResumeOutsideTheRingBufferSendsLag() throws Exception {
+        double expirados = meterRegistry.counter(TransferEventBus.EXPIRED_RESUMES_COUNTER).count();
+        EventStream stream = open(801L, null);
+        transfer(801L, 802L);
+        String lastEventId = stream.next().id();
+        stream.close();
+        
+        // Mais eventos que a capacidade do ring buffer
+        for (int i = 0; i < 5; i++) {
+            transfer(802L, 803L);
+        }
+        Event lag = open(801L, lastEventId).next();
+        assertEquals(TransferEventBus.EVENT_LAG, lag.name());
+        assertTrue(lag.data().contains("\"motivo\":\"expired\""), lag.data());
+        
+        // Id de outra instância
+        Event outraInstancia = open(801L, "abc-1").next();
+        assertEquals(TransferEventBus.EVENT_LAG, outraInstancia.name());
+        assertEquals(expirados + 2, meterRegistry.counter(TransferEventBus.EXPIRED_RESUMES_COUNTER).count());
+    }
+    
+    @Test
+    void testUnknownAccountIsRejected() throws Exception {
+        HttpResponse<String> response = client.send(request(999L, null), HttpResponse.BodyHandlers.ofString());
+        assertEquals(404, response.statusCode());
+    }
+    
+    private TransferResponse transfer(Long origem, Long destino) {
+        return transferService.processTransfer(new TransferRequest(origem, destino, new BigDecimal("1.00")));
+    }
+    
+    // O assinante já está registrado quando os cabeçalhos chegam
+    private EventStream open(Long accountId, String lastEventId) throws Exception {
+        HttpResponse<Stream<String>> response = client.send(request(accountId, lastEventId), HttpResponse.BodyHandlers.ofLines());
+        assertEquals(200, response.statusCode());
+        EventStream stream = new EventStream(response.body());
+        streams.add(stream);
+        return stream;
+    }
+    
+    private HttpRequest request(Long accountId, String lastEventId) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/api/contas/" + accountId + "/eventos"))
+            .header("Accept", "text/event-stream")
+            .timeout(Duration.ofSeconds(10));
+        if (lastEventId != null) {
+            builder.header("Last-Event-ID", lastEventId);
+        }
+        return builder.GET().build();
+    }
+    
+    private record Event(String id, String name, String data) {}
+    
+    // Lê as linhas do stream em uma virtual thread e monta os eventos (comentários são ignorados)
+    private static class EventStream {
+        
+        private final Stream<String> lines;
+        private final BlockingQueue<Event> events = new LinkedBlockingQueue<>();
+        
+        EventStream(Stream<String> lines) {
+            this.lines = lines;
+            Thread.ofVirtual().start(this::read);
+        }
+        
+        Event next() throws InterruptedException {
+            Event event = poll(5000);
+            assertNotNull(event, "nenhum evento recebido");
+            return event;
+        }
+        
+        Event poll(long millis) throws InterruptedException {
+            return events.poll(millis, TimeUnit.MILLISECONDS);
+        }
+        
+        void close() {
+            lines.close();
+        }
+        
+        private void read() {
+            String id = null;
+            String name = null;
+            StringBuilder data = new StringBuilder();
+            try {
+                for (String line : (Iterable<String>) lines::iterator) {
+                    if (line.isEmpty()) {
+                        if (name != null) {
+                            events.add(new Event(id, name, data.toString()));
+                        }
+                        id = null;
+                        name = null;
+                        data.setLength(0);
+                    } else if (line.startsWith("id:")) {
+                        id = line.substring(3);
+                    } else if (line.startsWith("event:")) {
+                        name = line.substring(6);
+                    } else if (line.startsWith("data:")) {
+                        data.append(line.substring(5));
+                    }
+                }
+            } catch (RuntimeException e) {
+                // Stream fechado pelo teste
+            }
+        }
+    }
+}
@@ -0,0 +1,112 @@
+package com.techmarket;
+
+import com.techmarket.dto.TransferRequest;
+import com.techmarket.dto.TransferResponse;
+import com.techmarket.entity.Account;
+import com.techmarket.entity.Transfer;
+import com.techmarket.repository.AccountRepository;
+import com.techmarket.repository.TransferRepository;
+import com.techmarket.service.TransferEngine;
+import com.techmarket.service.TransferService;
+import com.techmarket.util.UuidV7;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+class TransferIdGenerationTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private TransferService transferService;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private TransferRepository transferRepository;
+    
+    private Long origemId;
+    private Long destinoId;
+    
+    @BeforeEach
+    void setUp() {
+        transferRepository.deleteAll();
+        accountRepository.deleteAll();
+        
+        origemId = accountRepository.save(new Account("João Silva", new BigDecimal("1000.00"))).getId();
+        destinoId = accountRepository.save(new Account("Maria Santos", new BigDecimal("500.00"))).getId();
+    }
+    
+    @AfterEach
+    void tearDown() {
+        ReflectionTestUtils.setField(transferService, "engine", TransferEngine.JPA);
+    }
+    
+    @Test
+    void testJpaAndJdbcShareTheSequenceWithoutCollisions() {
+        List<TransferResponse> responses = new ArrayList<>();
+        for (int i = 0; i < 120; i++) {
+            ReflectionTestUtils.setField(transferService, "engine", i % 2 == 0 ? TransferEngine.JPA : TransferEngine.JDBC);
+            responses.add(transferService.processTransfer(new TransferRequest(origemId, destinoId, new BigDecimal("1.00"))));
+        }
+        List<TransferRequest> lote = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            lote.add(new TransferRequest(destinoId, origemId, new BigDecimal("1.00")));
+        }
+        transferService.processBatch(lote);
+        
+        List<Transfer> transfers = transferRepository.findAll();
+        assertEquals(180, transfers.size());
+        Set<Long> ids = new HashSet<>();
+        transfers.forEach(transfer -> ids.add(transfer.getId()));
+        assertEquals(180, ids.size());
+        
+        // Códigos na versão 7, com o instante da criação
+        long agora = System.currentTimeMillis();
+        for (TransferResponse response : responses) {
+            UUID codigo = UUID.fromString(response.getCodigo());
+            assertEquals(7, codigo.version());
+            assertEquals(2, codigo.variant());
+            assertTrue(agora - UuidV7.timestamp(codigo) < 60_000);
+        }
+    }
+    
+    @Test
+    void testStatusLookupByCodigo() throws Exception {
+        TransferResponse response = transferService.processTransfer(new TransferRequest(origemId, destinoId, new BigDecimal("10.00")));
+        
+        mockMvc.perform(get("/api/transferencias/" + response.getCodigo()))
+            .andExpect(status().isOk())
+            .andExpect(jsonPath("$.codigo").value(response.getCodigo()))
+            .andExpect(jsonPath("$.status").value("COMPLETED"));
+        
+        // Código que nem é UUID continua sendo 404, não 400
+        mockMvc.perform(get("/api/transferencias/nao-existe"))
+            .andExpect(status().isNotFound());
+    }
+}
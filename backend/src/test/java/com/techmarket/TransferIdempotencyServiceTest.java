@@ -0,0 +1,174 @@
+package com.techmarket;
+
+import com.techmarket.dto.TransferRequest;
+import com.techmarket.dto.TransferResponse;
+import com.techmarket.entity.Transfer;
+import com.techmarket.exception.DuplicateIdempotencyKeyException;
+import com.techmarket.exception.InsufficientBalanceException;
+import com.techmarket.repository.TransferArchive;
+import com.techmarket.repository.TransferRepository;
+import com.techmarket.service.IdempotencyCache;
+import com.techmarket.service.ReadOnlyTransactions;
+import com.techmarket.service.ReadYourWritesTracker;
+import com.techmarket.service.TransferIdempotencyService;
+import com.techmarket.service.TransferMetrics;
+import com.techmarket.service.TransferService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TransferIdempotencyServiceTest {
+    
+    @Mock
+    private TransferService transferService;
+    
+    @Mock
+    private TransferRepository transferRepository;
+    
+    @Mock
+    private TransferArchive transferArchive;
+    
+    @Spy
+    private IdempotencyCache idempotencyCache = new IdempotencyCache(100, Duration.ofMinutes(10));
+    
+    @Spy
+    private TransferMetrics transferMetrics = new TransferMetrics(new SimpleMeterRegistry(), true);
+    
+    @Spy
+    private ReadOnlyTransactions readOnlyTransactions = new ReadOnlyTransactions(mock(PlatformTransactionManager.class), new ReadYourWritesTracker(List.of()));
+    
+    @InjectMocks
+    private TransferIdempotencyService transferIdempotencyService;
+    
+    private TransferRequest transferRequest;
+    private TransferResponse transferResponse;
+    
+    @BeforeEach
+    void setUp() {
+        transferRequest = new TransferRequest(1L, 2L, new BigDecimal("100.00"), "chave-1");
+        transferResponse = new TransferResponse("codigo-1", "success", 1L, 2L, new BigDecimal("100.00"), LocalDateTime.now());
+    }
+    
+    @Test
+    void testRetryServedFromCache() {
+        // Given
+        when(transferService.processTransfer(transferRequest)).thenReturn(transferResponse);
+        
+        // When
+        var primeira = transferIdempotencyService.processTransfer(transferRequest);
+        var segunda = transferIdempotencyService.processTransfer(transferRequest);
+        
+        // Then
+        assertSame(primeira, segunda);
+        verify(transferService, times(1)).processTransfer(any());
+        verify(transferRepository, times(1)).findByIdempotencyKey("chave-1");
+    }
+    
+    @Test
+    void testEvictedEntryServedFromDatabase() {
+        // Given
+        Transfer transfer = new Transfer(1L, 2L, new BigDecimal("100.00"), "chave-1");
+        when(transferRepository.findByIdempotencyKey("chave-1")).thenReturn(Optional.of(transfer));
+        
+        // When
+        var response = transferIdempotencyService.processTransfer(transferRequest);
+        
+        // Then
+        assertEquals(transfer.getCodigoUUID(), response.getCodigo());
+        verifyNoInteractions(transferService);
+    }
+    
+    @Test
+    void testUniqueConstraintRaceReplaysExistingTransfer() {
+        // Given
+        Transfer transfer = new Transfer(1L, 2L, new BigDecimal("100.00"), "chave-1");
+        when(transferRepository.findByIdempotencyKey("chave-1")).thenReturn(Optional.empty(), Optional.of(transfer));
+        when(transferService.processTransfer(transferRequest)).thenThrow(new DuplicateIdempotencyKeyException("duplicada"));
+        
+        // When
+        var response = transferIdempotencyService.processTransfer(transferRequest);
+        
+        // Then
+        assertEquals(transfer.getCodigoUUID(), response.getCodigo());
+    }
+    
+    @Test
+    void testConcurrentDuplicatesShareFirstExecution() throws Exception {
+        // Given
+        CountDownLatch emExecucao = new CountDownLatch(1);
+        CountDownLatch liberar = new CountDownLatch(1);
+        when(transferService.processTransfer(transferRequest)).thenAnswer(invocation -> {
+            emExecucao.countDown();
+            liberar.await(5, TimeUnit.SECONDS);
+            return transferResponse;
+        });
+        
+        // When
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<TransferResponse>> futures = new ArrayList<>();
+        futures.add(executor.submit(() -> transferIdempotencyService.processTransfer(transferRequest)));
+        assertTrue(emExecucao.await(5, TimeUnit.SECONDS));
+        for (int i = 0; i < 7; i++) {
+            futures.add(executor.submit(() -> transferIdempotencyService.processTransfer(transferRequest)));
+        }
+        Thread.sleep(100);
+        liberar.countDown();
+        
+        // Then
+        for (Future<TransferResponse> future : futures) {
+            assertEquals("codigo-1", future.get(5, TimeUnit.SECONDS).getCodigo());
+        }
+        executor.shutdown();
+        verify(transferService, times(1)).processTransfer(any());
+    }
+    
+    @Test
+    void testFailureIsNotCached() {
+        // Given
+        when(transferService.processTransfer(transferRequest))
+            .thenThrow(new InsufficientBalanceException("Saldo insuficiente na conta de origem"))
+            .thenReturn(transferResponse);
+        
+        // When & Then
+        assertThrows(InsufficientBalanceException.class, () -> transferIdempotencyService.processTransfer(transferRequest));
+        assertEquals("codigo-1", transferIdempotencyService.processTransfer(transferRequest).getCodigo());
+    }
+    
+    @Test
+    void testCacheIsBoundedAndExpires() throws Exception {
+        IdempotencyCache cache = new IdempotencyCache(2, Duration.ofMillis(50));
+        cache.put("a", transferResponse);
+        cache.put("b", transferResponse);
+        cache.put("c", transferResponse);
+        
+        assertEquals(2, cache.size());
+        assertTrue(cache.get("a").isEmpty());
+        assertTrue(cache.get("c").isPresent());
+        
+        Thread.sleep(80);
+        assertTrue(cache.get("c").isEmpty());
+    }
+}
@@ -0,0 +1,129 @@
+package com.techmarket;
+
+import com.techmarket.dto.TransferRequest;
+import com.techmarket.entity.Account;
+import com.techmarket.exception.InsufficientBalanceException;
+import com.techmarket.repository.AccountRepository;
+import com.techmarket.repository.TransferRepository;
+import com.techmarket.service.TransferIdempotencyService;
+import com.techmarket.service.TransferMetrics;
+import com.techmarket.service.TransferService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.actuate.observability.AutoConfigureObservability;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest(properties = "management.endpoints.web.exposure.include=health,info,metrics,prometheus")
+@AutoConfigureMockMvc
+@AutoConfigureObservability(tracing = false)
+@ActiveProfiles("test")
+@Import(TestSecurityConfig.class)
+class TransferMetricsTest {
+    
+    @Autowired
+    private MockMvc mockMvc;
+    
+    @Autowired
+    private MeterRegistry meterRegistry;
+    
+    @Autowired
+    private TransferService transferService;
+    
+    @Autowired
+    private TransferIdempotencyService transferIdempotencyService;
+    
+    @Autowired
+    private TransferMetrics transferMetrics;
+    
+    @Autowired
+    private AccountRepository accountRepository;
+    
+    @Autowired
+    private TransferRepository transferRepository;
+    
+    private Long origemId;
+    private Long destinoId;
+    
+    @BeforeEach
+    void setUp() {
+        transferRepository.deleteAll();
+        accountRepository.deleteAll();
+        
+        origemId = accountRepository.save(new Account("João Silva", new BigDecimal("1000.00"))).getId();
+        destinoId = accountRepository.save(new Account("Maria Santos", new BigDecimal("500.00"))).getId();
+    }
+    
+    @Test
+    void testStagesAndOutcomesAreRecorded() {
+        long sucessos = outcomeCount(TransferMetrics.OUTCOME_SUCCESS);
+        long insuficientes = outcomeCount(TransferMetrics.OUTCOME_INSUFFICIENT_BALANCE);
+        long commits = stageCount("commit", TransferMetrics.MODE_SINGLE);
+        
+        transferIdempotencyService.processTransfer(new TransferRequest(origemId, destinoId, new BigDecimal("100.00"), "metricas-1"));
+        assertThrows(InsufficientBalanceException.class, () ->
+            transferService.processTransfer(new TransferRequest(destinoId, origemId, new BigDecimal("9999.00"))));
+        transferService.processBatch(List.of(new TransferRequest(origemId, destinoId, new BigDecimal("1.00"))));
+        
+        assertEquals(sucessos + 1, outcomeCount(TransferMetrics.OUTCOME_SUCCESS));
+        assertEquals(insuficientes + 1, outcomeCount(TransferMetrics.OUTCOME_INSUFFICIENT_BALANCE));
+        // Só a transferência que chegou ao commit conta na etapa de commit
+        assertEquals(commits + 1, stageCount("commit", TransferMetrics.MODE_SINGLE));
+        for (String stage : List.of("idempotency_lookup", "jvm_lock", "bulkhead", "row_lock_origem", "row_lock_destino",
+                "balance_update", "transfer_insert", "daily_balance")) {
+            assertTrue(stageCount(stage, TransferMetrics.MODE_SINGLE) > 0, stage);
+        }
+        for (String stage : List.of("row_lock_lote", "balance_update", "transfer_insert", "daily_balance", "commit")) {
+            assertTrue(stageCount(stage, TransferMetrics.MODE_BATCH) > 0, stage);
+        }
+        assertEquals(0, meterRegistry.get(TransferMetrics.IN_FLIGHT_GAUGE).gauge().value());
+    }
+    
+    @Test
+    void testUnexpectedExceptionsShareTheErrorOutcome() {
+        long erros = outcomeCount(TransferMetrics.OUTCOME_ERROR);
+        
+        assertThrows(IllegalStateException.class, () -> transferMetrics.track(() -> {
+            throw new IllegalStateException("falha inesperada");
+        }));
+        
+        assertEquals(erros + 1, outcomeCount(TransferMetrics.OUTCOME_ERROR));
+        assertEquals(0, outcomeCount("IllegalStateException"));
+    }
+    
+    @Test
+    void testPrometheusEndpoint() throws Exception {
+        transferService.processTransfer(new TransferRequest(origemId, destinoId, new BigDecimal("10.00")));
+        
+        mockMvc.perform(get("/actuator/prometheus"))
+            .andExpect(status().isOk())
+            .andExpect(content().string(containsString("techmarket_transfer_stage_seconds_bucket{")))
+            .andExpect(content().string(containsString("stage=\"row_lock_origem\"")))
+            .andExpect(content().string(containsString("techmarket_transfer_outcome_total{")))
+            .andExpect(content().string(containsString("techmarket_transfer_in_flight")));
+    }
+    
+    private long outcomeCount(String outcome) {
+        var counter = meterRegistry.find(TransferMetrics.OUTCOME_COUNTER).tag("outcome", outcome).counter();
+        return counter == null ? 0 : (long) counter.count();
+    }
+    
+    private long stageCount(String stage, String mode) {
+        var timer = meterRegistry.find(TransferMetrics.STAGE_TIMER).tag("stage", stage).tag("mode", mode).timer();
+        return timer == null ? 0 : timer.count();
+    }
+}
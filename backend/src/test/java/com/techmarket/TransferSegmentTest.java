@@ -0,0 +1,133 @@
+package com.techmarket;
+
+import com.techmarket.entity.Transfer;
+import com.techmarket.repository.TransferSegment;
+import com.techmarket.repository.TransferSegmentWriter;
+import com.techmarket.util.Money;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TransferSegmentTest {
+    
+    private static final LocalDateTime INICIO = LocalDateTime.of(2024, 1, 1, 0, 0);
+    private static final LocalDateTime FIM = LocalDateTime.of(2024, 2, 1, 0, 0);
+    
+    @TempDir
+    Path directory;
+    
+    @Test
+    void testLookupsAndScansAcrossBlocks() throws Exception {
+        // Várias transferências no mesmo instante: a ordem dentro dele é pelo id
+        List<Transfer> transfers = new ArrayList<>();
+        for (int i = 0; i < 2_000; i++) {
+            Transfer transfer = new Transfer(1L + i % 40, 41L + i % 7, Money.ofCents(100 + i), i % 3 == 0 ? "chave-" + i : null);
+            transfer.setId(1_000L + i);
+            transfer.setTimestamp(INICIO.plusSeconds(i / 4 * 600L).plusNanos(123_456_000));
+            transfers.add(transfer);
+        }
+        Path path = write(transfers);
+        
+        try (TransferSegment segment = TransferSegment.open(path)) {
+            assertEquals(2_000, segment.getRecords());
+            assertEquals(INICIO, segment.getRangeStart());
+            assertEquals(FIM, segment.getRangeEnd());
+            
+            Transfer esperada = transfers.get(777);
+            Transfer lida = segment.findByCodigo(esperada.getCodigo()).orElseThrow();
+            assertEquals(esperada.getId(), lida.getId());
+            assertEquals(esperada.getValor(), lida.getValor());
+            assertEquals(esperada.getTimestamp(), lida.getTimestamp());
+            assertEquals(esperada.getOrigemAccountId(), lida.getOrigemAccountId());
+            assertEquals(esperada.getDestinoAccountId(), lida.getDestinoAccountId());
+            assertTrue(segment.findByCodigo(UUID.randomUUID()).isEmpty());
+            
+            assertEquals(1_999L, segment.findByIdempotencyKey("chave-999").orElseThrow().getId());
+            assertTrue(segment.findByIdempotencyKey("chave-1000").isEmpty());
+            
+            // Conta 5: páginas de 30 com o cursor da última linha cobrem o histórico inteiro, sem repetir
+            List<Transfer> esperadas = transfers.stream()
+                .filter(t -> t.getOrigemAccountId() == 5L || t.getDestinoAccountId() == 5L)
+                .sorted(Comparator.comparing(Transfer::getTimestamp).thenComparing(Transfer::getId).reversed())
+                .toList();
+            List<Long> paginadas = new ArrayList<>();
+            long beforeMicros = Long.MAX_VALUE;
+            long beforeId = Long.MAX_VALUE;
+            List<Transfer> pagina;
+            do {
+                pagina = new ArrayList<>();
+                segment.findLatest(5L, Long.MIN_VALUE, beforeMicros, beforeId, 30, pagina);
+                for (Transfer transfer : pagina) {
+                    paginadas.add(transfer.getId());
+                }
+                if (!pagina.isEmpty()) {
+                    Transfer ultima = pagina.get(pagina.size() - 1);
+                    beforeMicros = TransferSegment.toMicros(ultima.getTimestamp());
+                    beforeId = ultima.getId();
+                }
+            } while (pagina.size() == 30);
+            assertEquals(esperadas.stream().map(Transfer::getId).toList(), paginadas);
+            
+            // Intervalo [from, to) em ordem cronológica para a conta de destino 42
+            LocalDateTime from = INICIO.plusDays(1);
+            LocalDateTime to = INICIO.plusDays(2);
+            List<Long> lidas = new ArrayList<>();
+            segment.scan(42L, TransferSegment.toMicros(from), TransferSegment.toMicros(to), t -> lidas.add(t.getId()));
+            List<Long> noIntervalo = transfers.stream()
+                .filter(t -> t.getDestinoAccountId() == 42L && !t.getTimestamp().isBefore(from) && t.getTimestamp().isBefore(to))
+                .map(Transfer::getId)
+                .toList();
+            assertFalse(noIntervalo.isEmpty());
+            assertEquals(noIntervalo, lidas);
+        }
+        
+        // Comprimido: bem menor que os 64+ bytes por registro sem compressão
+        assertTrue(Files.size(path) < 2_000 * 64, "segmento com " + Files.size(path) + " bytes");
+    }
+    
+    @Test
+    void testWriterRejectsOutOfOrderAndDiscardsUnfinishedFile() throws Exception {
+        Path path = directory.resolve("transfers-2024-01.seg");
+        Transfer primeira = transfer(2L, INICIO.plusHours(2));
+        Transfer anterior = transfer(1L, INICIO.plusHours(1));
+        Transfer foraDoMes = transfer(3L, FIM);
+        
+        try (TransferSegmentWriter writer = new TransferSegmentWriter(path, INICIO, FIM)) {
+            writer.append(primeira);
+            assertThrows(IllegalArgumentException.class, () -> writer.append(anterior));
+            assertThrows(IllegalArgumentException.class, () -> writer.append(foraDoMes));
+        }
+        
+        // Sem finish() nada é publicado
+        try (var files = Files.list(directory)) {
+            assertEquals(0, files.count());
+        }
+    }
+    
+    private Path write(List<Transfer> transfers) throws Exception {
+        Path path = directory.resolve("transfers-2024-01.seg");
+        try (TransferSegmentWriter writer = new TransferSegmentWriter(path, INICIO, FIM)) {
+            for (Transfer transfer : transfers) {
+                writer.append(transfer);
+            }
+            writer.finish();
+        }
+        return path;
+    }
+    
+    private static Transfer transfer(Long id, LocalDateTime timestamp) {
+        Transfer transfer = new Transfer(1L, 2L, Money.ofCents(100));
+        transfer.setId(id);
+        transfer.setTimestamp(timestamp);
+        return transfer;
+    }
+}
@@ -4,17 +4,41 @@ import com.techmarket.dto.TransferRequest;
 import com.techmarket.entity.Account;
 import com.techmarket.exception.AccountNotFoundException;
 import com.techmarket.exception.InsufficientBalanceException;
+import com.techmarket.repository.AccountBalanceSlotJdbcRepository;
+import com.techmarket.repository.AccountDailyBalanceJdbcRepository;
+import com.techmarket.repository.AccountJdbcRepository;
 import com.techmarket.repository.AccountRepository;
+import com.techmarket.repository.LedgerJdbcRepository;
+import com.techmarket.repository.TransferArchive;
+import com.techmarket.repository.TransferJdbcRepository;
 import com.techmarket.repository.TransferRepository;
+import com.techmarket.service.AccountBalanceCache;
+import com.techmarket.service.AccountLockManager;
+import com.techmarket.service.DatabaseBulkhead;
+import com.techmarket.service.HotAccountBalances;
+import com.techmarket.service.OptimisticConflictTracker;
+import com.techmarket.service.ReadYourWritesTracker;
+import com.techmarket.service.TransferEngine;
+import com.techmarket.service.TransferEventBus;
+import com.techmarket.service.TransferMetrics;
 import com.techmarket.service.TransferService;
+import com.techmarket.util.Money;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -30,6 +54,51 @@ class TransferServiceTest {
     @Mock
     private TransferRepository transferRepository;
     
+    @Mock
+    private AccountJdbcRepository accountJdbcRepository;
+    
+    @Mock
+    private TransferJdbcRepository transferJdbcRepository;
+    
+    @Mock
+    private AccountDailyBalanceJdbcRepository accountDailyBalanceJdbcRepository;
+    
+    @Mock
+    private LedgerJdbcRepository ledgerJdbcRepository;
+    
+    @Mock
+    private TransferArchive transferArchive;
+    
+    @Spy
+    private AccountLockManager accountLockManager = new AccountLockManager(64, 1000, true);
+    
+    @Spy
+    private DatabaseBulkhead databaseBulkhead = new DatabaseBulkhead(10, Duration.ofSeconds(1));
+    
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+    
+    @Spy
+    private TransferMetrics transferMetrics = new TransferMetrics(new SimpleMeterRegistry(), true);
+    
+    @Spy
+    private AccountBalanceCache accountBalanceCache = new AccountBalanceCache(new SimpleMeterRegistry(), true, 100, Duration.ZERO);
+    
+    @Spy
+    private OptimisticConflictTracker optimisticConflictTracker = new OptimisticConflictTracker(0.5, 100, Duration.ofSeconds(10), 100);
+    
+    @Spy
+    private ReadYourWritesTracker readYourWritesTracker = new ReadYourWritesTracker(List.of());
+    
+    // Sem contas quentes configuradas
+    @Spy
+    private HotAccountBalances hotAccountBalances = new HotAccountBalances(mock(AccountJdbcRepository.class),
+        mock(AccountBalanceSlotJdbcRepository.class), mock(AccountDailyBalanceJdbcRepository.class),
+        new SimpleMeterRegistry(), List.of(), 8, TransferEngine.JPA);
+    
+    @Mock
+    private TransferEventBus transferEventBus;
+    
     @InjectMocks
     private TransferService transferService;
     
@@ -61,7 +130,7 @@ class TransferServiceTest {
         // Then
         assertNotNull(response);
         assertEquals("success", response.getStatus());
-        assertEquals(new BigDecimal("100.00"), response.getValor());
+        assertEquals(Money.of("100.00"), response.getValor());
         assertEquals(1L, response.getOrigemAccountId());
         assertEquals(2L, response.getDestinoAccountId());
         
@@ -83,13 +152,162 @@ class TransferServiceTest {
     @Test
     void testTransferInsufficientBalance() {
         // Given
-        transferRequest.setValor(new BigDecimal("1500.00")); // Mais que o saldo disponível
+        transferRequest.setValor(Money.of("1500.00")); // Mais que o saldo disponível
+        when(accountRepository.findByIdWithLock(1L)).thenReturn(Optional.of(origemAccount));
+        when(accountRepository.findByIdWithLock(2L)).thenReturn(Optional.of(destinoAccount));
+        
+        // When & Then
+        assertThrows(InsufficientBalanceException.class, () -> {
+            transferService.processTransfer(transferRequest);
+        });
+    }
+    
+    @Test
+    void testTransferLocksAccountsInIdOrder() {
+        // Given
+        transferRequest = new TransferRequest(2L, 1L, new BigDecimal("100.00"));
+        destinoAccount.setBalance(Money.of("500.00"));
+        when(accountRepository.findByIdWithLock(1L)).thenReturn(Optional.of(origemAccount));
+        when(accountRepository.findByIdWithLock(2L)).thenReturn(Optional.of(destinoAccount));
+        when(transferRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        // When
+        transferService.processTransfer(transferRequest);
+        
+        // Then
+        var ordem = inOrder(accountRepository);
+        ordem.verify(accountRepository).findByIdWithLock(1L);
+        ordem.verify(accountRepository).findByIdWithLock(2L);
+        assertEquals(Money.of("400.00"), destinoAccount.getBalance());
+        assertEquals(Money.of("1100.00"), origemAccount.getBalance());
+    }
+    
+    @Test
+    void testOptimisticTransferRetriesVersionConflicts() {
+        // Given: cada tentativa lê as contas de novo, como em uma transação nova
+        ReflectionTestUtils.setField(transferService, "engine", TransferEngine.OPTIMISTIC);
+        when(accountRepository.findById(1L)).thenAnswer(invocation -> Optional.of(copy(origemAccount)));
+        when(accountRepository.findById(2L)).thenAnswer(invocation -> Optional.of(copy(destinoAccount)));
+        doThrow(new ObjectOptimisticLockingFailureException(Account.class, 1L))
+            .doThrow(new ObjectOptimisticLockingFailureException(Account.class, 2L))
+            .doNothing()
+            .when(accountRepository).flush();
+        when(transferRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        // When
+        var response = transferService.processTransfer(transferRequest);
+        
+        // Then: terceira tentativa grava, sem nenhum lock de linha
+        assertEquals("success", response.getStatus());
+        verify(accountRepository, times(3)).findById(1L);
+        verify(accountRepository, never()).findByIdWithLock(any());
+        verify(transferRepository, times(1)).save(any());
+    }
+    
+    @Test
+    void testOptimisticTransferFallsBackToLocksAfterMaxAttempts() {
+        // Given
+        ReflectionTestUtils.setField(transferService, "engine", TransferEngine.OPTIMISTIC);
+        ReflectionTestUtils.setField(transferService, "optimisticMaxAttempts", 2);
+        when(accountRepository.findById(1L)).thenAnswer(invocation -> Optional.of(copy(origemAccount)));
+        when(accountRepository.findById(2L)).thenAnswer(invocation -> Optional.of(copy(destinoAccount)));
         when(accountRepository.findByIdWithLock(1L)).thenReturn(Optional.of(origemAccount));
         when(accountRepository.findByIdWithLock(2L)).thenReturn(Optional.of(destinoAccount));
+        doThrow(new ObjectOptimisticLockingFailureException(Account.class, 1L))
+            .doThrow(new ObjectOptimisticLockingFailureException(Account.class, 1L))
+            .doNothing()
+            .when(accountRepository).flush();
+        when(transferRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        // When
+        transferService.processTransfer(transferRequest);
+        
+        // Then
+        verify(accountRepository, times(2)).findById(1L);
+        verify(accountRepository).findByIdWithLock(1L);
+        assertEquals(Money.of("900.00"), origemAccount.getBalance());
+        assertEquals(Money.of("600.00"), destinoAccount.getBalance());
+    }
+    
+    @Test
+    void testOptimisticTransferUsesLocksForHotAccounts() {
+        // Given: conta 1 com conflitos acima do limite na janela corrente
+        ReflectionTestUtils.setField(transferService, "engine", TransferEngine.OPTIMISTIC);
+        for (int i = 0; i < 100; i++) {
+            optimisticConflictTracker.record(i % 2 == 0, 1L);
+        }
+        when(accountRepository.findByIdWithLock(1L)).thenReturn(Optional.of(origemAccount));
+        when(accountRepository.findByIdWithLock(2L)).thenReturn(Optional.of(destinoAccount));
+        when(transferRepository.save(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        
+        // When
+        transferService.processTransfer(transferRequest);
+        
+        // Then
+        verify(accountRepository, never()).findById(any());
+        assertTrue(optimisticConflictTracker.isHot(2L, 1L));
+        assertFalse(optimisticConflictTracker.isHot(2L));
+    }
+    
+    @Test
+    void testTransferSameAccount() {
+        transferRequest.setDestino(1L);
+        
+        assertThrows(IllegalArgumentException.class, () -> {
+            transferService.processTransfer(transferRequest);
+        });
+        verifyNoInteractions(accountRepository);
+    }
+    
+    @Test
+    void testDirectTransferSuccess() {
+        // Given
+        ReflectionTestUtils.setField(transferService, "engine", TransferEngine.JDBC);
+        when(accountJdbcRepository.debitIfSufficient(1L, Money.of("100.00"))).thenReturn(true);
+        when(accountJdbcRepository.credit(2L, Money.of("100.00"))).thenReturn(true);
+        
+        // When
+        var response = transferService.processTransfer(transferRequest);
+        
+        // Then
+        assertEquals("success", response.getStatus());
+        assertNotNull(response.getCodigo());
+        verify(transferJdbcRepository, times(1)).insert(any());
+        verifyNoInteractions(accountRepository);
+    }
+    
+    @Test
+    void testDirectTransferInsufficientBalance() {
+        // Given
+        ReflectionTestUtils.setField(transferService, "engine", TransferEngine.JDBC);
+        when(accountJdbcRepository.debitIfSufficient(1L, Money.of("100.00"))).thenReturn(false);
+        when(accountJdbcRepository.exists(1L)).thenReturn(true);
         
         // When & Then
         assertThrows(InsufficientBalanceException.class, () -> {
             transferService.processTransfer(transferRequest);
         });
+        verify(transferJdbcRepository, never()).insert(any());
+    }
+    
+    @Test
+    void testDirectTransferAccountNotFound() {
+        // Given
+        ReflectionTestUtils.setField(transferService, "engine", TransferEngine.JDBC);
+        when(accountJdbcRepository.debitIfSufficient(1L, Money.of("100.00"))).thenReturn(true);
+        when(accountJdbcRepository.credit(2L, Money.of("100.00"))).thenReturn(false);
+        
+        // When & Then
+        assertThrows(AccountNotFoundException.class, () -> {
+            transferService.processTransfer(transferRequest);
+        });
+        verify(transferJdbcRepository, never()).insert(any());
+    }
+    
+    private static Account copy(Account account) {
+        Account copy = new Account(account.getOwner(), account.getBalance());
+        copy.setId(account.getId());
+        copy.setVersion(account.getVersion());
+        return copy;
     }
 }
@@ -285,9 +285,14 @@ function formatDateTime(dateString) {
 }
 
 // Função para fazer chamadas reais para a API (quando disponível)
-async function fetchAccountData(accountId, startDate, endDate) {
+// O extrato é paginado por cursor: passe o nextCursor da resposta anterior para obter a próxima página
+async function fetchAccountData(accountId, cursor = null, size = 50) {
     try {
-        const response = await fetch(`${API_BASE_URL}/accounts/${accountId}/transacoes?start=${startDate}&end=${endDate}`);
+        const params = new URLSearchParams({ size: size });
+        if (cursor) {
+            params.append('cursor', cursor);
+        }
+        const response = await fetch(`${API_BASE_URL}/contas/${accountId}/extrato?${params}`);
         
         if (!response.ok) {
             throw new Error(`HTTP error! status: ${response.status}`);
@@ -314,5 +319,70 @@ async function testApiConnection() {
     return false;
 }
 
-// Verificar conexão com a API na inicialização
-testApiConnection();
+// Transferências da conta em tempo real (SSE), em vez de buscar o extrato de novo a cada intervalo.
+// O EventSource reconecta sozinho e envia o Last-Event-ID; o servidor reenvia o que foi perdido ou,
+// se não conseguir (evento lag), o extrato é recarregado
+const receivedTransfers = new Set();
+let accountEvents = null;
+
+function subscribeToAccountEvents(accountId) {
+    if (accountEvents) {
+        accountEvents.close();
+    }
+    receivedTransfers.clear();
+    accountEvents = new EventSource(`${API_BASE_URL}/contas/${accountId}/eventos`);
+    
+    accountEvents.addEventListener('transferencia', function(e) {
+        const evento = JSON.parse(e.data);
+        // A retomada pode repetir um evento já exibido
+        if (receivedTransfers.has(evento.codigo)) {
+            return;
+        }
+        receivedTransfers.add(evento.codigo);
+        prependTransaction({
+            tipo: evento.destinoAccountId === accountId ? 'CREDIT' : 'DEBIT',
+            valor: Number(evento.valor),
+            data: evento.timestamp,
+            descricao: evento.destinoAccountId === accountId
+                ? `Transferência recebida da conta ${evento.origemAccountId}`
+                : `Transferência enviada para a conta ${evento.destinoAccountId}`
+        });
+    });
+    
+    // Eventos perdidos (cliente lento ou reconexão tardia): o extrato completo é a fonte da verdade
+    accountEvents.addEventListener('lag', function() {
+        loadAccountData();
+    });
+}
+
+function prependTransaction(transaction) {
+    const emptyState = transactionsList.querySelector('.empty-state');
+    if (emptyState) {
+        transactionsList.innerHTML = '';
+    }
+    const wrapper = document.createElement('div');
+    wrapper.innerHTML = `
+        <div class="transaction-item">
+            <div class="transaction-header">
+                <span class="transaction-type ${transaction.tipo.toLowerCase()}">
+                    ${transaction.tipo === 'CREDIT' ? 'Crédito' : 'Débito'}
+                </span>
+                <span class="transaction-amount ${transaction.tipo.toLowerCase()}">
+                    ${transaction.tipo === 'CREDIT' ? '+' : '-'}${formatCurrency(transaction.valor)}
+                </span>
+            </div>
+            <div class="transaction-details">
+                <span class="transaction-date">${formatDateTime(transaction.data)}</span>
+                <span class="transaction-description">${transaction.descricao}</span>
+            </div>
+        </div>
+    `;
+    transactionsList.prepend(wrapper.firstElementChild);
+}
+
+// Verificar conexão com a API na inicialização; com ela disponível, assina os eventos da conta
+testApiConnection().then(function(available) {
+    if (available) {
+        subscribeToAccountEvents(currentAccountId);
+    }
+});
@@ -48,8 +48,12 @@ build_backend() {
     
     cd backend
     
-    # Limpar e compilar
-    mvn clean package -DskipTests
+    # Limpar e compilar (FAST_STARTUP=true: AOT do Spring + AppCDS, imagem Dockerfile.fast-startup)
+    if [ "${FAST_STARTUP:-false}" = "true" ]; then
+        mvn clean package -Pfast-startup -DskipTests
+    else
+        mvn clean package -DskipTests
+    fi
     
     if [ $? -eq 0 ]; then
         success "Backend compilado com sucesso!"
@@ -58,7 +62,11 @@ build_backend() {
     fi
     
     # Build da imagem Docker
-    docker build -t techmarket-api:1.0.0 .
+    if [ "${FAST_STARTUP:-false}" = "true" ]; then
+        docker build -f Dockerfile.fast-startup -t techmarket-api:1.0.0 .
+    else
+        docker build -t techmarket-api:1.0.0 .
+    fi
     
     if [ $? -eq 0 ]; then
         success "Imagem Docker do backend criada com sucesso!"
@@ -215,5 +223,7 @@ case "${1:-help}" in
         echo "  status  - Mostrar status dos serviços"
         echo "  cleanup - Limpar recursos"
         echo "  help    - Mostrar esta ajuda"
+        echo ""
+        echo "FAST_STARTUP=true $0 k8s - imagem com AOT + AppCDS (subida mais rápida dos pods do HPA)"
         ;;
 esac
@@ -10,13 +10,31 @@
 -- 3. Criar tabelas
 \i 02_create_tables.sql
 
--- 4. Criar funções e triggers
+-- 4. Criar funções
 \i 03_create_function.sql
 
--- 5. Inserir dados de exemplo
+-- 5. Remover o trigger de transacoes (lançamentos gravados pelo backend)
+\i 06_drop_transacoes_trigger.sql
+
+-- 6. Particionar transfers por mês (arquivamento dos meses antigos pelo backend)
+\i 07_partition_transfers.sql
+
+-- 7. Heartbeat de replicação (réplicas de leitura)
+\i 08_replica_heartbeat.sql
+
+-- 8. Transferências entre shards de contas (rodar também em cada shard)
+\i 09_cross_shard_transfers.sql
+
+-- 9. Sub-saldos das contas quentes
+\i 10_account_balance_slots.sql
+
+-- 10. Tentativas de processamento da outbox
+\i 11_transfer_outbox_attempts.sql
+
+-- 11. Inserir dados de exemplo
 \i 04_insert_sample_data.sql
 
--- 6. Testar função
+-- 12. Testar função
 \i 05_test_function.sql
 
 -- Mensagem de sucesso
@@ -1,6 +1,14 @@
 -- Script para criar as tabelas do sistema TechMarket
 -- Execute este script conectado ao banco techmarket
 
+-- O backend grava os snapshots diários com MERGE, disponível a partir do PostgreSQL 15
+DO $$
+BEGIN
+    IF current_setting('server_version_num')::INT < 150000 THEN
+        RAISE EXCEPTION 'TechMarket requer PostgreSQL 15 ou superior (servidor: %)', current_setting('server_version');
+    END IF;
+END $$;
+
 -- Tabela de contas
 CREATE TABLE IF NOT EXISTS accounts (
     id BIGSERIAL PRIMARY KEY,
@@ -11,18 +19,27 @@ CREATE TABLE IF NOT EXISTS accounts (
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
+-- Sequência das transferências: cada nextval reserva um bloco de 50 ids (pooled-lo do Hibernate),
+-- o que permite inserir em batch sem um round-trip por linha para descobrir o id
+CREATE SEQUENCE IF NOT EXISTS transfers_id_seq INCREMENT BY 50;
+
 -- Tabela de transferências
 CREATE TABLE IF NOT EXISTS transfers (
-    id BIGSERIAL PRIMARY KEY,
+    id BIGINT PRIMARY KEY DEFAULT nextval('transfers_id_seq'),
     origem_account_id BIGINT NOT NULL,
     destino_account_id BIGINT NOT NULL,
     valor DECIMAL(19,2) NOT NULL,
-    codigo_uuid VARCHAR(255) NOT NULL UNIQUE,
+    codigo_uuid UUID NOT NULL UNIQUE,
     timestamp TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     idempotency_key VARCHAR(255) UNIQUE,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
+-- Bases criadas com BIGSERIAL e código VARCHAR: a sequência passa a reservar blocos e o código
+-- vai para a coluna uuid nativa (16 bytes em vez de 36 caracteres + cabeçalho no índice único)
+ALTER SEQUENCE transfers_id_seq INCREMENT BY 50;
+ALTER TABLE transfers ALTER COLUMN codigo_uuid TYPE UUID USING codigo_uuid::uuid;
+
 -- Tabela de transações (para o extrato)
 CREATE TABLE IF NOT EXISTS transacoes (
     id BIGSERIAL PRIMARY KEY,
@@ -43,23 +60,58 @@ CREATE TABLE IF NOT EXISTS idempotency_keys (
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP
 );
 
+-- Snapshots diários de saldo por conta (atualizados a cada transferência)
+CREATE TABLE IF NOT EXISTS account_daily_balances (
+    id BIGSERIAL PRIMARY KEY,
+    account_id BIGINT NOT NULL,
+    dia DATE NOT NULL,
+    saldo_final DECIMAL(19,2) NOT NULL,
+    creditos DECIMAL(19,2) NOT NULL DEFAULT 0.00,
+    debitos DECIMAL(19,2) NOT NULL DEFAULT 0.00,
+    movimentos INTEGER NOT NULL DEFAULT 0,
+    CONSTRAINT uk_account_daily_balances_account_dia UNIQUE (account_id, dia)
+);
+
+-- Outbox de transferências assíncronas (POST /api/transferencias/async)
+CREATE TABLE IF NOT EXISTS transfer_outbox (
+    id BIGSERIAL PRIMARY KEY,
+    codigo VARCHAR(255) NOT NULL UNIQUE,
+    origem_account_id BIGINT NOT NULL,
+    destino_account_id BIGINT NOT NULL,
+    valor DECIMAL(19,2) NOT NULL,
+    idempotency_key VARCHAR(255) UNIQUE,
+    status VARCHAR(20) NOT NULL CHECK (status IN ('PENDING', 'COMPLETED', 'FAILED')),
+    transfer_codigo VARCHAR(255),
+    mensagem VARCHAR(500),
+    attempts INTEGER NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    processed_at TIMESTAMP
+);
+
 -- Índices para performance
 CREATE INDEX IF NOT EXISTS idx_accounts_owner ON accounts(owner);
-CREATE INDEX IF NOT EXISTS idx_transfers_origem ON transfers(origem_account_id);
-CREATE INDEX IF NOT EXISTS idx_transfers_destino ON transfers(destino_account_id);
+-- (conta, timestamp, id): cada lado do extrato é uma varredura de intervalo com paginação por cursor
+DROP INDEX IF EXISTS idx_transfers_origem;
+DROP INDEX IF EXISTS idx_transfers_destino;
+CREATE INDEX IF NOT EXISTS idx_transfers_origem ON transfers(origem_account_id, timestamp, id);
+CREATE INDEX IF NOT EXISTS idx_transfers_destino ON transfers(destino_account_id, timestamp, id);
 CREATE INDEX IF NOT EXISTS idx_transfers_timestamp ON transfers(timestamp);
 CREATE INDEX IF NOT EXISTS idx_transacoes_account_id ON transacoes(account_id);
+CREATE INDEX IF NOT EXISTS idx_transacoes_account_data ON transacoes(account_id, data);
 CREATE INDEX IF NOT EXISTS idx_transacoes_data ON transacoes(data);
 CREATE INDEX IF NOT EXISTS idx_transacoes_tipo ON transacoes(tipo);
+CREATE INDEX IF NOT EXISTS idx_transfer_outbox_status ON transfer_outbox(status, id);
 
 -- Comentários nas tabelas
 COMMENT ON TABLE accounts IS 'Tabela de contas bancárias';
 COMMENT ON TABLE transfers IS 'Tabela de transferências entre contas';
 COMMENT ON TABLE transacoes IS 'Tabela de transações para extrato';
 COMMENT ON TABLE idempotency_keys IS 'Tabela para controle de idempotência';
+COMMENT ON TABLE account_daily_balances IS 'Saldo ao fim do dia e movimentação diária por conta';
+COMMENT ON TABLE transfer_outbox IS 'Fila de transferências assíncronas processadas em lotes';
 
 -- Comentários nas colunas principais
 COMMENT ON COLUMN accounts.balance IS 'Saldo atual da conta';
-COMMENT ON COLUMN transfers.codigo_uuid IS 'Código único da transferência';
+COMMENT ON COLUMN transfers.codigo_uuid IS 'Código único da transferência (UUID v7, ordenado pelo tempo)';
 COMMENT ON COLUMN transfers.idempotency_key IS 'Chave para controle de idempotência';
 COMMENT ON COLUMN transacoes.tipo IS 'Tipo da transação: CREDIT ou DEBIT';
@@ -2,6 +2,9 @@
 -- Execute este script conectado ao banco techmarket
 
 -- Função para calcular saldo e retornar últimas 10 transações
+-- O saldo do período é a soma dos lançamentos em transacoes (a fonte de verdade, que também
+-- cobre os dados de exemplo e os depósitos); saldo e transações usam idx_transacoes_account_data
+-- com o intervalo aberto no fim, para que a coluna data não precise de cast
 CREATE OR REPLACE FUNCTION public.get_saldo_e_transacoes(
     p_account_id bigint, 
     p_start date, 
@@ -17,17 +20,19 @@ RETURNS TABLE(
 BEGIN
   RETURN QUERY
   SELECT
-    (SELECT COALESCE(SUM(CASE WHEN tipo='CREDIT' THEN valor ELSE -valor END),0) 
-     FROM transacoes 
-     WHERE account_id = p_account_id 
-     AND data::date BETWEEN p_start AND p_end) as saldo,
+    (SELECT COALESCE(SUM(CASE WHEN s.tipo='CREDIT' THEN s.valor ELSE -s.valor END),0) 
+     FROM transacoes s 
+     WHERE s.account_id = p_account_id 
+     AND s.data >= p_start
+     AND s.data < p_end + 1) as saldo,
     t.id, 
     t.data, 
-    t.tipo, 
+    t.tipo::text, 
     t.valor
   FROM transacoes t
   WHERE t.account_id = p_account_id 
-  AND t.data::date BETWEEN p_start AND p_end
+  AND t.data >= p_start
+  AND t.data < p_end + 1
   ORDER BY t.data DESC
   LIMIT 10;
 END;
@@ -37,42 +42,5 @@ $$ LANGUAGE plpgsql;
 COMMENT ON FUNCTION public.get_saldo_e_transacoes(bigint, date, date) IS 
 'Função para calcular saldo e retornar últimas 10 transações de uma conta em um período específico';
 
--- Função auxiliar para inserir transações automaticamente
-CREATE OR REPLACE FUNCTION public.insert_transacao_from_transfer()
-RETURNS TRIGGER AS $$
-BEGIN
-    -- Inserir débito na conta de origem
-    INSERT INTO transacoes (account_id, tipo, valor, data, descricao, transfer_id)
-    VALUES (
-        NEW.origem_account_id, 
-        'DEBIT', 
-        NEW.valor, 
-        NEW.timestamp,
-        'Transferência para conta ' || NEW.destino_account_id,
-        NEW.id
-    );
-    
-    -- Inserir crédito na conta de destino
-    INSERT INTO transacoes (account_id, tipo, valor, data, descricao, transfer_id)
-    VALUES (
-        NEW.destino_account_id, 
-        'CREDIT', 
-        NEW.valor, 
-        NEW.timestamp,
-        'Transferência da conta ' || NEW.origem_account_id,
-        NEW.id
-    );
-    
-    RETURN NEW;
-END;
-$$ LANGUAGE plpgsql;
-
--- Trigger para inserir transações automaticamente quando uma transferência é criada
-CREATE OR REPLACE TRIGGER trigger_insert_transacoes
-    AFTER INSERT ON transfers
-    FOR EACH ROW
-    EXECUTE FUNCTION public.insert_transacao_from_transfer();
-
--- Comentário no trigger
-COMMENT ON TRIGGER trigger_insert_transacoes ON transfers IS 
-'Trigger para inserir transações automaticamente quando uma transferência é criada';
+-- Os lançamentos DEBIT/CREDIT em transacoes são gravados pelo backend, em batch, na transação
+-- da transferência (LedgerJdbcRepository); o trigger antigo fica removido em 06_drop_transacoes_trigger.sql
@@ -0,0 +1,10 @@
+-- Migração: o backend passa a gravar os lançamentos de transacoes (DEBIT na origem e CREDIT no
+-- destino) em batch JDBC, na mesma transação da transferência, no lugar do trigger por linha.
+-- Implantação: parar as instâncias antigas, rodar este script e subir a nova versão. Com o trigger
+-- ainda ativo a nova versão duplicaria os lançamentos; sem ele, as antigas não gravariam nenhum.
+
+DROP TRIGGER IF EXISTS trigger_insert_transacoes ON transfers;
+DROP FUNCTION IF EXISTS public.insert_transacao_from_transfer();
+
+-- Busca dos lançamentos de uma transferência (estorno, conciliação)
+CREATE INDEX IF NOT EXISTS idx_transacoes_transfer_id ON transacoes(transfer_id);
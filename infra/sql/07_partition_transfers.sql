@@ -0,0 +1,79 @@
+-- Migração: transfers particionada por mês em timestamp. Cada partição tem índices próprios, então
+-- inserções e buscas pelo código ou pela chave trabalham em árvores do tamanho de um mês, e os meses
+-- que passam da retenção saem inteiros (DETACH + DROP) para o arquivo do backend
+-- (techmarket.archive.*), sem DELETE nem VACUUM de milhões de linhas.
+--
+-- Em tabela particionada toda constraint única precisa incluir a coluna de partição: o código passa
+-- a ser único em (codigo_uuid, timestamp) e a unicidade global da chave de idempotência fica em
+-- idempotency_keys (sem partições), gravada pelo backend na transação da transferência e podada
+-- junto com os meses arquivados.
+--
+-- Implantação: parar as instâncias, rodar este script e subir a versão que grava idempotency_keys.
+-- O job de arquivamento cria as partições dos próximos meses; a partição default só recebe linhas
+-- se ele ficar parado por meses.
+--
+-- O script roda a cada execução de 00_run_all.sql: com transfers já particionada (está em
+-- pg_partitioned_table) não faz nada. O bloco DO é uma única transação; uma falha no meio desfaz
+-- a renomeação e deixa a tabela original como estava.
+
+DO $$
+DECLARE
+    mes DATE;
+    fim DATE := date_trunc('month', CURRENT_TIMESTAMP) + INTERVAL '4 months';
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_partitioned_table WHERE partrelid = 'transfers'::regclass) THEN
+        RAISE NOTICE 'transfers já é particionada; nada a migrar';
+        RETURN;
+    END IF;
+    
+    ALTER TABLE transfers RENAME TO transfers_legacy;
+    ALTER INDEX IF EXISTS idx_transfers_origem RENAME TO idx_transfers_legacy_origem;
+    ALTER INDEX IF EXISTS idx_transfers_destino RENAME TO idx_transfers_legacy_destino;
+    ALTER INDEX IF EXISTS idx_transfers_timestamp RENAME TO idx_transfers_legacy_timestamp;
+    ALTER INDEX IF EXISTS idx_transfers_idempotency_key RENAME TO idx_transfers_legacy_idempotency_key;
+    
+    CREATE TABLE transfers (
+        id BIGINT NOT NULL DEFAULT nextval('transfers_id_seq'),
+        origem_account_id BIGINT NOT NULL,
+        destino_account_id BIGINT NOT NULL,
+        valor DECIMAL(19,2) NOT NULL,
+        codigo_uuid UUID NOT NULL,
+        timestamp TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+        idempotency_key VARCHAR(255),
+        created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+        CONSTRAINT transfers_pkey_partitioned PRIMARY KEY (id, timestamp),
+        CONSTRAINT uk_transfers_codigo_uuid UNIQUE (codigo_uuid, timestamp)
+    ) PARTITION BY RANGE (timestamp);
+    
+    ALTER SEQUENCE transfers_id_seq OWNED BY transfers.id;
+    
+    CREATE INDEX idx_transfers_origem ON transfers(origem_account_id, timestamp, id);
+    CREATE INDEX idx_transfers_destino ON transfers(destino_account_id, timestamp, id);
+    CREATE INDEX idx_transfers_timestamp ON transfers(timestamp);
+    CREATE INDEX idx_transfers_idempotency_key ON transfers(idempotency_key);
+    
+    -- Uma partição por mês, do mês mais antigo existente até três meses à frente
+    SELECT date_trunc('month', COALESCE(MIN(timestamp), CURRENT_TIMESTAMP)) INTO mes FROM transfers_legacy;
+    WHILE mes < fim LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF transfers FOR VALUES FROM (%L) TO (%L)',
+            'transfers_' || to_char(mes, 'YYYY_MM'), mes, mes + INTERVAL '1 month');
+        mes := mes + INTERVAL '1 month';
+    END LOOP;
+    
+    CREATE TABLE IF NOT EXISTS transfers_default PARTITION OF transfers DEFAULT;
+    
+    INSERT INTO transfers (id, origem_account_id, destino_account_id, valor, codigo_uuid, timestamp, idempotency_key, created_at)
+    SELECT id, origem_account_id, destino_account_id, valor, codigo_uuid, COALESCE(timestamp, created_at, CURRENT_TIMESTAMP),
+           idempotency_key, created_at
+    FROM transfers_legacy;
+    
+    -- Reserva global das chaves já usadas
+    CREATE INDEX IF NOT EXISTS idx_idempotency_keys_created_at ON idempotency_keys(created_at);
+    INSERT INTO idempotency_keys (key_value, transfer_id, created_at)
+    SELECT idempotency_key, id, timestamp FROM transfers WHERE idempotency_key IS NOT NULL
+    ON CONFLICT (key_value) DO NOTHING;
+    
+    DROP TABLE transfers_legacy;
+END $$;
+
+ANALYZE transfers;
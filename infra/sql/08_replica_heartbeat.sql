@@ -0,0 +1,10 @@
+-- Heartbeat de replicação: cada instância do backend grava o instante atual na sua linha, no primário,
+-- e lê nas réplicas de leitura (techmarket.datasource.replicas.*) o último valor que chegou a elas.
+-- O atraso medido tira da rotação as réplicas atrasadas e garante que a conta que acabou de
+-- transferir só é lida de uma réplica que já recebeu a escrita. Linhas de instâncias encerradas
+-- são removidas pelo próprio backend depois de um dia.
+
+CREATE TABLE IF NOT EXISTS replica_heartbeat (
+    instance_id VARCHAR(64) PRIMARY KEY,
+    heartbeat_millis BIGINT NOT NULL
+);
@@ -0,0 +1,22 @@
+-- Transferências entre shards de contas (techmarket.sharding.*, engine SHARDED). Rodar em todos os
+-- shards: o primário (shard 0) e cada banco de techmarket.sharding.urls, que também precisam das
+-- tabelas de 02_create_tables.sql (e, se usado, de 07_partition_transfers.sql).
+--
+-- No shard da conta de origem a linha nasce DEBITED, na transação do débito, e termina COMPLETED ou
+-- COMPENSATED (débito estornado); no shard de destino a linha CREDITED é gravada na transação do
+-- crédito e, pela chave primária, impede um segundo crédito da mesma transferência. O backend
+-- retoma as linhas paradas em DEBITED (índice por state, updated_at) na subida e periodicamente.
+
+CREATE TABLE IF NOT EXISTS cross_shard_transfers (
+    id BIGINT PRIMARY KEY,
+    codigo_uuid UUID NOT NULL,
+    origem_account_id BIGINT NOT NULL,
+    destino_account_id BIGINT NOT NULL,
+    valor DECIMAL(19,2) NOT NULL,
+    idempotency_key VARCHAR(255),
+    timestamp TIMESTAMP NOT NULL,
+    state VARCHAR(16) NOT NULL,
+    updated_at TIMESTAMP NOT NULL
+);
+
+CREATE INDEX IF NOT EXISTS idx_cross_shard_transfers_state ON cross_shard_transfers (state, updated_at);
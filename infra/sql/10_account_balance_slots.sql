@@ -0,0 +1,15 @@
+-- Sub-saldos das contas quentes (techmarket.hot-accounts.*). O backend cria, para cada conta quente,
+-- techmarket.hot-accounts.slots linhas por dia (hoje e amanhã) e credita cada transferência recebida em
+-- uma delas, sem bloquear a linha da conta em accounts. O saldo da conta é accounts.balance mais a soma
+-- de creditos; a consolidação periódica move os créditos para accounts e account_daily_balances e zera
+-- as linhas, que são removidas dois dias depois.
+
+CREATE TABLE IF NOT EXISTS account_balance_slots (
+    id BIGSERIAL PRIMARY KEY,
+    account_id BIGINT NOT NULL,
+    dia DATE NOT NULL,
+    slot INTEGER NOT NULL,
+    creditos DECIMAL(19,2) NOT NULL DEFAULT 0.00,
+    movimentos INTEGER NOT NULL DEFAULT 0,
+    CONSTRAINT uk_account_balance_slots_account_dia_slot UNIQUE (account_id, dia, slot)
+);
@@ -0,0 +1,5 @@
+-- Tentativas de processamento de cada linha da outbox. Um lote que falha é reprocessado item a item;
+-- a linha que falha sozinha soma uma tentativa e, ao atingir techmarket.outbox.max-attempts, vai para
+-- FAILED em vez de voltar à fila a cada ciclo dos workers.
+
+ALTER TABLE transfer_outbox ADD COLUMN IF NOT EXISTS attempts INTEGER NOT NULL DEFAULT 0;